@@ -0,0 +1,96 @@
+package com.github.chathamabate.peru.maven;
+
+import com.github.chathamabate.peru.parser.lrone.ParserGenerator;
+import io.vavr.control.Try;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates parsers whose tables are built at build time (see {@link ParserGenerator}).
+ * <br>
+ * Grammar definition classes are loaded from the project's compile classpath. Since this goal runs before the
+ * project is compiled, definition classes must come from a dependency, usually a module holding only grammars.
+ * Generated sources are added to the project's compile source roots.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES,
+        requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true)
+public class GenerateParsersMojo extends AbstractMojo {
+
+    /**
+     * The parsers to generate.
+     */
+    @Parameter(required = true)
+    private List<ParserDefinition> parsers;
+
+    /**
+     * The root directory generated sources are written under.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/peru", required = true)
+    private File outputDirectory;
+
+    /**
+     * The project being built.
+     */
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        try (URLClassLoader loader = new URLClassLoader(classpath(), getClass().getClassLoader())) {
+            for (ParserDefinition parser : parsers) {
+                if (parser.getGrammar() == null || parser.getClassName() == null) {
+                    throw new MojoExecutionException("Every parser needs a grammar and a className.");
+                }
+
+                Try<Path> generated = ParserGenerator.generate(parser.getGrammar(), parser.getConstruction(),
+                        parser.getClassName(), outputDirectory.toPath(), loader);
+
+                if (generated.isFailure()) {
+                    throw new MojoExecutionException("Could not generate " + parser.getClassName() + " from "
+                            + parser.getGrammar() + ".", generated.getCause());
+                }
+
+                getLog().info("Generated " + generated.get() + ".");
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not close the grammar class loader.", e);
+        }
+
+        project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+    }
+
+    /**
+     * Find the project's compile classpath.
+     *
+     * @return The classpath.
+     * @throws MojoExecutionException If the classpath cannot be resolved.
+     */
+    private URL[] classpath() throws MojoExecutionException {
+        try {
+            List<URL> urls = new ArrayList<>();
+
+            for (String element : project.getCompileClasspathElements()) {
+                urls.add(new File(element).toURI().toURL());
+            }
+
+            return urls.toArray(new URL[0]);
+        } catch (DependencyResolutionRequiredException | MalformedURLException e) {
+            throw new MojoExecutionException("Could not resolve the compile classpath.", e);
+        }
+    }
+}
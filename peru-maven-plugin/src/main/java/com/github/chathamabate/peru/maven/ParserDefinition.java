@@ -0,0 +1,43 @@
+package com.github.chathamabate.peru.maven;
+
+import com.github.chathamabate.peru.parser.lrone.TableConstruction;
+
+/**
+ * The configuration of a single parser to generate.
+ * <pre>
+ * &lt;parser&gt;
+ *     &lt;grammar&gt;com.example.Grammars#EXPRESSIONS&lt;/grammar&gt;
+ *     &lt;className&gt;com.example.ExpressionParser&lt;/className&gt;
+ *     &lt;construction&gt;LALR&lt;/construction&gt;
+ * &lt;/parser&gt;
+ * </pre>
+ */
+public class ParserDefinition {
+
+    /**
+     * The static field holding the grammar, named like <b>com.example.Grammars#EXPRESSIONS</b>.
+     */
+    private String grammar;
+
+    /**
+     * The fully qualified name of the parser class to generate.
+     */
+    private String className;
+
+    /**
+     * The construction of the parser's table.
+     */
+    private TableConstruction construction = TableConstruction.CANONICAL;
+
+    public String getGrammar() {
+        return grammar;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public TableConstruction getConstruction() {
+        return construction;
+    }
+}
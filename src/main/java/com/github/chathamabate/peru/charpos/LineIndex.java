@@ -0,0 +1,140 @@
+package com.github.chathamabate.peru.charpos;
+
+import com.github.chathamabate.peru.misc.GrowableIntArray;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A <b>LineIndex</b> holds the offset at which each line of some source starts.
+ * <br>
+ * Using the index, the line and line position of any offset in the source can be found with a binary search.
+ * This allows a lexer to track only absolute offsets while lexing, leaving line and line position to be
+ * computed when they are actually needed.
+ * <br>
+ * As with the character lexers, only <b>'\n'</b> begins a new line, and line positions start at 0.
+ */
+public final class LineIndex {
+
+    /**
+     * Build the line index of a source with a single scan for new lines.
+     *
+     * @param source The source.
+     * @return The <b>LineIndex</b> of the source.
+     */
+    public static LineIndex of(CharSequence source) {
+        Objects.requireNonNull(source);
+
+        GrowableIntArray lineStarts = new GrowableIntArray();
+        lineStarts.add(0);
+
+        if (source instanceof String) {
+            // String.indexOf is far faster than scanning characters one at a time.
+            String str = (String) source;
+
+            for (int i = str.indexOf('\n'); i != -1; i = str.indexOf('\n', i + 1)) {
+                lineStarts.add(i + 1);
+            }
+        } else {
+            for (int i = 0; i < source.length(); i++) {
+                if (source.charAt(i) == '\n') {
+                    lineStarts.add(i + 1);
+                }
+            }
+        }
+
+        return new LineIndex(lineStarts.toArray(), source.length());
+    }
+
+    /**
+     * The starting offset of each line. (Ascending)
+     */
+    private final int[] lineStarts;
+
+    /**
+     * The length of the indexed source.
+     */
+    private final int length;
+
+    /**
+     * Construct a <b>LineIndex</b>. (No checks)
+     *
+     * @param ls The line starts.
+     * @param len The source length.
+     */
+    private LineIndex(int[] ls, int len) {
+        lineStarts = ls;
+        length = len;
+    }
+
+    /**
+     * Get the length of the indexed source.
+     *
+     * @return The length.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Get the number of lines in the indexed source.
+     *
+     * @return The number of lines.
+     */
+    public int getLineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * Get the offset at which some line starts.
+     *
+     * @param line The line number.
+     * @return The starting offset of the line.
+     */
+    public int getLineStart(int line) {
+        if (line < 0 || line >= lineStarts.length) {
+            throw new IndexOutOfBoundsException("Bad line given " + line + ".");
+        }
+
+        return lineStarts[line];
+    }
+
+    /**
+     * Get the line number of some offset.
+     * The offset directly after the source is valid, it is on the last line.
+     *
+     * @param offset The offset.
+     * @return The line number.
+     */
+    public int getLine(int offset) {
+        if (offset < 0 || offset > length) {
+            throw new IndexOutOfBoundsException("Bad offset given " + offset + ".");
+        }
+
+        int index = Arrays.binarySearch(lineStarts, offset);
+
+        // When not found, binarySearch gives -(insertion point) - 1.
+        return index < 0 ? -index - 2 : index;
+    }
+
+    /**
+     * Get the position of some offset within its line.
+     *
+     * @param offset The offset.
+     * @return The line position.
+     */
+    public int getLinePosition(int offset) {
+        return offset - lineStarts[getLine(offset)];
+    }
+
+    /**
+     * Get the line and line position of some offset.
+     *
+     * @param offset The offset.
+     * @return The position as a {@link SimpleCharPos}.
+     */
+    public SimpleCharPos getCharPos(int offset) {
+        int line = getLine(offset);
+        return SimpleCharPos.simpleCharPos(line, offset - lineStarts[line]);
+    }
+}
@@ -0,0 +1,523 @@
+package com.github.chathamabate.peru.fa;
+
+import io.vavr.Function1;
+import io.vavr.collection.Map;
+import io.vavr.collection.Set;
+import io.vavr.control.Option;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * A <b>ByteDFAutomaton</b> is a deterministic finite automaton over the bytes of UTF-8 encoded text.
+ * <br>
+ * It is compiled from a <b>DFAutomaton</b> over <b>Characters</b>. Every transition on a character is expanded
+ * into a path of transitions on the bytes of that character's UTF-8 encoding. The states along these paths are
+ * intermediate states which never accept. Intermediate states with identical transitions are shared, which
+ * keeps the automaton small even when a state has transitions on large ranges of characters.
+ * <br>
+ * The states of the original automaton keep their numbers. So, state 0 is still the start state, and any
+ * state accepting in the original automaton is accepting here with the same output.
+ * <br>
+ * Transitions are held in a single dense <b>int</b> array with 256 entries per state.
+ * Characters outside of the Basic Multilingual Plane (UTF-8 sequences of 4 bytes) are seen by the original
+ * automaton as surrogate pairs. So, such a character leads to the state reached on its high surrogate and then
+ * its low surrogate, just as it does when lexing characters.
+ *
+ * @param <O> The output type of the automaton.
+ */
+public final class ByteDFAutomaton<O> {
+
+    /**
+     * The transition given when a state has no transition for a byte.
+     */
+    public static final int DEAD = -1;
+
+    /**
+     * Compile a <b>ByteDFAutomaton</b> from a <b>DFAutomaton</b> over <b>Characters</b>.
+     * Characters which the given automaton cannot translate (the translation function throws an error or
+     * gives an input class outside of the input alphabet) have no transitions.
+     *
+     * @param dfa The character automaton.
+     * @param <O> The output type.
+     * @return The compiled <b>ByteDFAutomaton</b>.
+     */
+    public static <O> ByteDFAutomaton<O> compile(DFAutomaton<Character, ?, ? extends O> dfa) {
+        Objects.requireNonNull(dfa);
+        return new Compiler<O>(dfa).compile();
+    }
+
+    /**
+     * The number of states.
+     */
+    private final int numberOfStates;
+
+    /**
+     * The number of states in the character automaton this was compiled from.
+     */
+    private final int numberOfCharStates;
+
+    /**
+     * Dense transition table. The transition from state <i>s</i> on byte <i>b</i> is at
+     * index <i>s * 256 + b</i>.
+     */
+    private final int[] transitions;
+
+    /**
+     * The output of each state. (Null for non-accepting states)
+     */
+    private final Object[] outputs;
+
+    /**
+     * Construct a <b>ByteDFAutomaton</b>. (No checks)
+     *
+     * @param ns The number of states.
+     * @param ncs The number of character states.
+     * @param t The transition table.
+     * @param o The outputs.
+     */
+    private ByteDFAutomaton(int ns, int ncs, int[] t, Object[] o) {
+        numberOfStates = ns;
+        numberOfCharStates = ncs;
+        transitions = t;
+        outputs = o;
+    }
+
+    /**
+     * Get the number of states.
+     *
+     * @return The number of states.
+     */
+    public int getNumberOfStates() {
+        return numberOfStates;
+    }
+
+    /**
+     * Get the number of states of the character automaton this automaton was compiled from.
+     * States at or after this number are intermediate states.
+     *
+     * @return The number of character states.
+     */
+    public int getNumberOfCharStates() {
+        return numberOfCharStates;
+    }
+
+    /**
+     * Throw an error if the given state does not exist.
+     *
+     * @param state The state.
+     */
+    private void validateState(int state) {
+        if (state < 0 || state >= numberOfStates) {
+            throw new IndexOutOfBoundsException("Bad state given " + state + ".");
+        }
+    }
+
+    /**
+     * Get the transition from some state on some byte.
+     *
+     * @param state The state.
+     * @param b The byte.
+     * @return The next state, or {@link #DEAD}.
+     */
+    public int getTransition(int state, byte b) {
+        validateState(state);
+        return transitions[(state << 8) | (b & 0xFF)];
+    }
+
+    /**
+     * Get the dense transition table of this automaton.
+     * The array is shared, it must not be modified.
+     *
+     * @return The transition table.
+     */
+    public int[] getTransitionTable() {
+        return transitions;
+    }
+
+    /**
+     * Determine whether a state is accepting.
+     *
+     * @param state The state.
+     * @return Whether or not the state is accepting.
+     */
+    public boolean isAccepting(int state) {
+        validateState(state);
+        return outputs[state] != null;
+    }
+
+    /**
+     * Get the output of an accepting state.
+     *
+     * @param state The state.
+     * @return The output, or null if the state is not accepting.
+     */
+    @SuppressWarnings("unchecked")
+    public O getOutput(int state) {
+        validateState(state);
+        return (O) outputs[state];
+    }
+
+    /**
+     * Map the outputs of this automaton.
+     *
+     * @param m The mapping function.
+     * @param <P> The new output type.
+     * @return The new <b>ByteDFAutomaton</b>.
+     */
+    @SuppressWarnings("unchecked")
+    public <P> ByteDFAutomaton<P> mapOutputs(Function1<? super O, ? extends P> m) {
+        Objects.requireNonNull(m);
+
+        Object[] newOutputs = new Object[numberOfStates];
+        for (int i = 0; i < numberOfStates; i++) {
+            if (outputs[i] != null) {
+                newOutputs[i] = Objects.requireNonNull(m.apply((O) outputs[i]));
+            }
+        }
+
+        return new ByteDFAutomaton<>(numberOfStates, numberOfCharStates, transitions, newOutputs);
+    }
+
+    /**
+     * Helper class holding the state of a single compilation.
+     *
+     * @param <O> The output type.
+     */
+    private static final class Compiler<O> {
+
+        /**
+         * The number of code points in the Basic Multilingual Plane.
+         */
+        private static final int BMP_SIZE = 0x10000;
+
+        /**
+         * The character automaton.
+         */
+        private final DFAutomaton<Character, ?, ? extends O> dfa;
+
+        /**
+         * The index of each character's input class in {@link #classes}. (-1 for no class)
+         */
+        private final int[] charClasses;
+
+        /**
+         * The distinct input classes.
+         */
+        private final ArrayList<Object> classes;
+
+        /**
+         * Transition rows of every state, in order.
+         */
+        private final ArrayList<int[]> rows;
+
+        /**
+         * Interned intermediate rows.
+         */
+        private final HashMap<RowKey, Integer> interned;
+
+        /**
+         * The target of each input class from each character state.
+         */
+        private int[][] classTargets;
+
+        /**
+         * The intermediate state before the last byte of a 4 byte sequence, by the state reached on the high
+         * surrogate and the low 4 bits of the third byte. (Each entry is built when first needed)
+         */
+        private int[][] lowSurrogateStates;
+
+        /**
+         * Constructor.
+         *
+         * @param d The character automaton.
+         */
+        private Compiler(DFAutomaton<Character, ?, ? extends O> d) {
+            dfa = d;
+            charClasses = new int[BMP_SIZE];
+            classes = new ArrayList<>();
+            rows = new ArrayList<>();
+            interned = new HashMap<>();
+        }
+
+        /**
+         * Find the input class of every character of the Basic Multilingual Plane.
+         */
+        @SuppressWarnings("unchecked")
+        private void classifyCharacters() {
+            Function1<Character, Object> getInputClass = (Function1<Character, Object>) dfa.getGetInputClassUnchecked();
+            Set<Object> alphabet = (Set<Object>) dfa.getInputAlphabet();
+
+            HashMap<Object, Integer> classIndices = new HashMap<>();
+
+            for (int c = 0; c < BMP_SIZE; c++) {
+                Object inputClass;
+
+                try {
+                    inputClass = getInputClass.apply((char) c);
+                } catch (RuntimeException e) {
+                    inputClass = null;
+                }
+
+                if (inputClass == null || !alphabet.contains(inputClass)) {
+                    charClasses[c] = -1;
+                    continue;
+                }
+
+                Integer index = classIndices.get(inputClass);
+
+                if (index == null) {
+                    index = classes.size();
+                    classes.add(inputClass);
+                    classIndices.put(inputClass, index);
+                }
+
+                charClasses[c] = index;
+            }
+        }
+
+        /**
+         * Intern an intermediate row.
+         *
+         * @param row The row.
+         * @return The state of the row, or {@link #DEAD} if the row has no transitions.
+         */
+        private int intern(int[] row) {
+            boolean empty = true;
+            for (int target : row) {
+                if (target != DEAD) {
+                    empty = false;
+                    break;
+                }
+            }
+
+            if (empty) {
+                return DEAD;
+            }
+
+            RowKey key = new RowKey(row);
+            Integer state = interned.get(key);
+
+            if (state == null) {
+                state = rows.size();
+                rows.add(row);
+                interned.put(key, state);
+            }
+
+            return state;
+        }
+
+        /**
+         * Create an empty row.
+         *
+         * @return A row with no transitions.
+         */
+        private static int[] emptyRow() {
+            int[] row = new int[256];
+            Arrays.fill(row, DEAD);
+            return row;
+        }
+
+        /**
+         * Compile the automaton.
+         *
+         * @return The <b>ByteDFAutomaton</b>.
+         */
+        @SuppressWarnings("unchecked")
+        private ByteDFAutomaton<O> compile() {
+            classifyCharacters();
+
+            int charStates = dfa.getNumberOfStates();
+
+            // Reserve the rows of the character states so they keep their numbers.
+            for (int s = 0; s < charStates; s++) {
+                rows.add(null);
+            }
+
+            classTargets = new int[charStates][];
+            lowSurrogateStates = new int[charStates][];
+
+            for (int s = 0; s < charStates; s++) {
+                Map<Object, Integer> transitionMap = (Map<Object, Integer>) dfa.getTransitionTable().get(s);
+
+                classTargets[s] = new int[classes.size()];
+                for (int i = 0; i < classes.size(); i++) {
+                    Option<Integer> target = transitionMap.get(classes.get(i));
+                    classTargets[s][i] = target.isEmpty() ? DEAD : target.get();
+                }
+            }
+
+            for (int s = 0; s < charStates; s++) {
+                rows.set(s, buildCharRow(s));
+            }
+
+            int states = rows.size();
+            int[] transitions = new int[states << 8];
+
+            for (int s = 0; s < states; s++) {
+                System.arraycopy(rows.get(s), 0, transitions, s << 8, 256);
+            }
+
+            Object[] outputs = new Object[states];
+            for (int s = 0; s < charStates; s++) {
+                if (dfa.isAccepting(s)) {
+                    outputs[s] = dfa.getOutput(s);
+                }
+            }
+
+            return new ByteDFAutomaton<>(states, charStates, transitions, outputs);
+        }
+
+        /**
+         * Get the target of a character from some character state.
+         *
+         * @param state The character state.
+         * @param c The character.
+         * @return The target state.
+         */
+        private int target(int state, int c) {
+            int index = charClasses[c];
+            return index == -1 ? DEAD : classTargets[state][index];
+        }
+
+        /**
+         * Get the intermediate state before the last byte of a 4 byte sequence.
+         *
+         * @param high The character state reached on the sequence's high surrogate.
+         * @param bits The low 4 bits of the sequence's third byte.
+         * @return The intermediate state, or {@link #DEAD} if no low surrogate leads anywhere.
+         */
+        private int lowSurrogateState(int high, int bits) {
+            if (lowSurrogateStates[high] == null) {
+                lowSurrogateStates[high] = new int[16];
+                Arrays.fill(lowSurrogateStates[high], DEAD - 1);
+            }
+
+            if (lowSurrogateStates[high][bits] == DEAD - 1) {
+                int[] last = emptyRow();
+
+                // The third byte's low 4 bits and the last byte's 6 bits are the low surrogate's 10 bits.
+                for (int cont = 0x80; cont <= 0xBF; cont++) {
+                    last[cont] = target(high, Character.lowSurrogate(BMP_SIZE | (bits << 6) | (cont & 0x3F)));
+                }
+
+                lowSurrogateStates[high][bits] = intern(last);
+            }
+
+            return lowSurrogateStates[high][bits];
+        }
+
+        /**
+         * Build the row of a character state, creating intermediate states for multi byte sequences.
+         *
+         * @param state The character state.
+         * @return The row.
+         */
+        private int[] buildCharRow(int state) {
+            int[] row = emptyRow();
+
+            // 1 byte sequences. (0xxxxxxx)
+            for (int b = 0; b < 0x80; b++) {
+                row[b] = target(state, b);
+            }
+
+            // 2 byte sequences. (110xxxxx 10xxxxxx)
+            for (int lead = 0xC2; lead <= 0xDF; lead++) {
+                int[] last = emptyRow();
+
+                for (int cont = 0x80; cont <= 0xBF; cont++) {
+                    last[cont] = target(state, ((lead & 0x1F) << 6) | (cont & 0x3F));
+                }
+
+                row[lead] = intern(last);
+            }
+
+            // 3 byte sequences. (1110xxxx 10xxxxxx 10xxxxxx)
+            for (int lead = 0xE0; lead <= 0xEF; lead++) {
+                // Overlong encodings and surrogates are not valid UTF-8.
+                int min = lead == 0xE0 ? 0xA0 : 0x80;
+                int max = lead == 0xED ? 0x9F : 0xBF;
+
+                int[] middle = emptyRow();
+
+                for (int second = min; second <= max; second++) {
+                    int[] last = emptyRow();
+
+                    for (int cont = 0x80; cont <= 0xBF; cont++) {
+                        last[cont] = target(state,
+                                ((lead & 0x0F) << 12) | ((second & 0x3F) << 6) | (cont & 0x3F));
+                    }
+
+                    middle[second] = intern(last);
+                }
+
+                row[lead] = intern(middle);
+            }
+
+            // 4 byte sequences. (11110xxx 10xxxxxx 10xxxxxx 10xxxxxx)
+            // The first 3 bytes decide the high surrogate, the state reached on it is followed by the low surrogate.
+            for (int lead = 0xF0; lead <= 0xF4; lead++) {
+                // Overlong encodings and code points past U+10FFFF are not valid UTF-8.
+                int min = lead == 0xF0 ? 0x90 : 0x80;
+                int max = lead == 0xF4 ? 0x8F : 0xBF;
+
+                int[] middle = emptyRow();
+
+                for (int second = min; second <= max; second++) {
+                    int[] inner = emptyRow();
+
+                    for (int third = 0x80; third <= 0xBF; third++) {
+                        int codePoint = ((lead & 0x07) << 18) | ((second & 0x3F) << 12) | ((third & 0x3F) << 6);
+                        int high = target(state, Character.highSurrogate(codePoint));
+
+                        inner[third] = high == DEAD ? DEAD : lowSurrogateState(high, third & 0x0F);
+                    }
+
+                    middle[second] = intern(inner);
+                }
+
+                row[lead] = intern(middle);
+            }
+
+            return row;
+        }
+    }
+
+    /**
+     * Key wrapper giving an <b>int</b> array value equality.
+     */
+    private static final class RowKey {
+
+        /**
+         * The row.
+         */
+        private final int[] row;
+
+        /**
+         * Cached hash.
+         */
+        private final int hash;
+
+        /**
+         * Constructor.
+         *
+         * @param r The row.
+         */
+        private RowKey(int[] r) {
+            row = r;
+            hash = Arrays.hashCode(r);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RowKey && Arrays.equals(row, ((RowKey) o).row);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.github.chathamabate.peru.lexer;
+
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import io.vavr.Function1;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.Tuple3;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Vector;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+import java.util.Objects;
+
+/**
+ * A <b>ChunkedDLexer</b> lexes input which arrives in pieces, for example from a network channel.
+ * <br>
+ * A {@link DLexer} requires its entire input sequence up front. This class instead accepts input one chunk
+ * at a time. Every token whose extent is fully decided by the input fed so far is emitted right away.
+ * The inputs of the token currently being scanned are held until maximal munch is decided for them.
+ * <br>
+ * Pending inputs are run through the lexer's automaton once, remembering the last accepting state reached.
+ * When more input arrives, the run carries on from where it stopped. A token is decided once the automaton has
+ * no transition for some pending input, or reaches a position and state which the lexer has cached as an error
+ * (see {@link DLexer#isPreError(Object, int, int)}). The token is then built from exactly its own inputs, and the
+ * states read past it are handed back to the lexer (see {@link DLexer#withPreErrors(Object, Seq)}). So the error
+ * cache of a {@link LinearDLexer} is kept across tokens and chunks, and each input is read about as many times
+ * as the wrapped lexer would read it given the full input.
+ * <br>
+ * Tokens beginning with an input which has a {@link Scanner} (see {@link DLexer#scannerFor(Object)}) are decided
+ * by the scanner instead. Their inputs are held while the scanner finds no token, or finds a token reaching the
+ * end of the input fed so far, since more input could change its answer. The scan is resumed with
+ * {@link Scanner#resume(Seq, int)} as more input arrives.
+ * <br>
+ * Like the lexers it wraps, this class is immutable. Feeding a chunk returns the tokens found along with the
+ * new <b>ChunkedDLexer</b> to feed the next chunk into.
+ *
+ * @param <I> The input type.
+ * @param <L> The lexeme type.
+ * @param <D> The data type.
+ * @param <C> The context type.
+ */
+public final class ChunkedDLexer<I, L, D, C> {
+
+    /**
+     * The lexer used to build tokens.
+     */
+    private final DLexer<I, L, D, C> lexer;
+
+    /**
+     * The context to build the next token with.
+     */
+    private final C context;
+
+    /**
+     * The inputs fed which are not yet part of an emitted token.
+     */
+    private final Vector<I> pending;
+
+    /**
+     * The number of pending inputs which have been run through the automaton.
+     * If the pending token begins with an input which has a scanner, this is instead the number of inputs
+     * the scanner has examined.
+     */
+    private final int scanned;
+
+    /**
+     * The state of the automaton after reading the scanned pending inputs.
+     */
+    private final int scanState;
+
+    /**
+     * The number of scanned pending inputs up to the last accepting (or skip) state reached, -1 if there is none.
+     */
+    private final int accepted;
+
+    /**
+     * The states reached after the last accepting state (or the start of the token if there is none).
+     */
+    private final Vector<Integer> rejected;
+
+    /**
+     * Create a <b>ChunkedDLexer</b> with no input fed yet.
+     *
+     * @param lex The lexer used to build tokens.
+     * @param ctx The initial context.
+     */
+    public ChunkedDLexer(DLexer<I, L, D, C> lex, C ctx) {
+        this(lex, ctx, Vector.empty(), 0, 0, -1, Vector.empty());
+
+        Objects.requireNonNull(lex);
+        Objects.requireNonNull(ctx);
+    }
+
+    /**
+     * Direct constructor with no checks.
+     *
+     * @param lex The lexer.
+     * @param ctx The context.
+     * @param p The pending inputs.
+     * @param s The number of scanned pending inputs.
+     * @param ss The scan state.
+     * @param a The number of scanned pending inputs up to the last accepting state.
+     * @param r The states reached after the last accepting state.
+     */
+    private ChunkedDLexer(DLexer<I, L, D, C> lex, C ctx, Vector<I> p, int s, int ss, int a, Vector<Integer> r) {
+        lexer = lex;
+        context = ctx;
+        pending = p;
+        scanned = s;
+        scanState = ss;
+        accepted = a;
+        rejected = r;
+    }
+
+    /**
+     * Get the context which will be used to build the next token.
+     *
+     * @return The context.
+     */
+    public C getContext() {
+        return context;
+    }
+
+    /**
+     * Get the inputs which have been fed but are not yet part of an emitted token.
+     *
+     * @return The pending inputs.
+     */
+    public Seq<I> getPending() {
+        return pending;
+    }
+
+    /**
+     * Feed a chunk of input into the lexer.
+     *
+     * @param chunk The chunk.
+     * @return A <b>Tuple2</b> containing every token decided by the chunk, and the <b>ChunkedDLexer</b>
+     * to feed the following chunk into.
+     */
+    public Tuple2<Seq<Tuple2<L, Try<D>>>, ChunkedDLexer<I, L, D, C>> feed(Seq<? extends I> chunk) {
+        Objects.requireNonNull(chunk);
+        chunk.forEach(Objects::requireNonNull);
+
+        DFAutomaton<I, ?, Function1<C, D>> dfa = lexer.getDFA();
+
+        Vector<I> buffer = pending.appendAll(chunk);
+        Vector<Tuple2<L, Try<D>>> tokens = Vector.empty();
+        C algoContext = context;
+
+        int position = scanned;
+        int state = scanState;
+        int lastAccepted = accepted;
+        Vector<Integer> lastRejected = rejected;
+
+        while (!buffer.isEmpty()) {
+            Scanner<I, C, D> scanner = lexer.scannerFor(buffer.head());
+            Seq<I> input;
+
+            if (scanner != null) {
+                Either<Integer, Tuple2<Integer, Function1<? super C, ? extends D>>> match =
+                        scanner.resume(buffer, position);
+
+                if (match.isLeft()) {
+                    position = match.getLeft();
+                    break;  // The scanner needs more input.
+                }
+
+                if (match.get()._1 >= buffer.length()) {
+                    break;  // More input could still change the scanner's answer.
+                }
+
+                input = buffer;
+            } else {
+                boolean decided = position == 0 && lexer.isPreError(algoContext, 0, 0);
+
+                while (!decided && position < buffer.length()) {
+                    Option<Integer> nextState = dfa.getTransitionAsOption(state, buffer.get(position));
+
+                    // Reading stops wherever the lexer itself would stop reading.
+                    decided = nextState.isEmpty() || lexer.isPreError(algoContext, position + 1, nextState.get());
+
+                    if (!decided) {
+                        state = nextState.get();
+                        position++;
+
+                        if (lexer.isSkipState(state) || dfa.isAccepting(state)) {
+                            lastAccepted = position;
+                            lastRejected = Vector.empty();
+                        } else {
+                            lastRejected = lastRejected.append(state);
+                        }
+                    }
+                }
+
+                if (!decided) {
+                    break;  // More input could still extend the token.
+                }
+
+                // Unsuccessful tokens are lexed just as they would be from the full input.
+                input = lastAccepted < 0 ? buffer : buffer.take(lastAccepted);
+            }
+
+            Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> result = lexer.lexOrSkip(input, algoContext);
+
+            // Skip tokens are never emitted.
+            if (!lexer.isSkipToken(result._1)) {
+                tokens = tokens.append(result._1);
+            }
+
+            algoContext = scanner == null && lastAccepted >= 0
+                    ? lexer.withPreErrors(result._2, lastRejected)
+                    : result._2;
+            buffer = buffer.drop(input.length() - result._3.length());
+
+            // The next token starts a new run.
+            position = 0;
+            state = 0;
+            lastAccepted = -1;
+            lastRejected = Vector.empty();
+        }
+
+        return Tuple.of(tokens, new ChunkedDLexer<>(lexer, algoContext, buffer, position, state,
+                lastAccepted, lastRejected));
+    }
+
+    /**
+     * Signal that no more input will be fed, and lex all remaining pending inputs.
+     *
+     * @return The remaining tokens.
+     */
+    public Seq<Tuple2<L, Try<D>>> end() {
+        return List.ofAll(lexer.buildStream(pending, context));
+    }
+}
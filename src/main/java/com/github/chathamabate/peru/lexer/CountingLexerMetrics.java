@@ -0,0 +1,365 @@
+package com.github.chathamabate.peru.lexer;
+
+import io.vavr.Function1;
+import io.vavr.Tuple;
+import io.vavr.collection.Array;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <b>LexerMetrics</b> which count every event using lock free counters.
+ * <br>
+ * Counters are {@link LongAdder}s, so many threads may lex with the same metrics without contention.
+ * A consistent view of the counts can be taken at any time using {@link #snapshot()}.
+ * <br>
+ * Successful tokens are counted per category, where a token's category is given by some
+ * function of its data (for example its <b>Enum</b> token type).
+ *
+ * @param <D> The data type of the lexer.
+ */
+public class CountingLexerMetrics<D> implements LexerMetrics<D> {
+
+    /**
+     * The function used to find the category of a successful token.
+     */
+    private final Function1<? super D, ?> categorize;
+
+    /**
+     * Token counts by category.
+     */
+    private final ConcurrentHashMap<Object, LongAdder> tokens;
+
+    /**
+     * Visit counts by state.
+     */
+    private final LongAdder[] stateVisits;
+
+    /**
+     * Inputs read.
+     */
+    private final LongAdder inputs;
+
+    /**
+     * Skip tokens.
+     */
+    private final LongAdder skips;
+
+    /**
+     * Unlexable lexemes.
+     */
+    private final LongAdder errors;
+
+    /**
+     * Successful tokens which required backtracking.
+     */
+    private final LongAdder backtracks;
+
+    /**
+     * Total number of inputs backtracked over.
+     */
+    private final LongAdder backtrackDistance;
+
+    /**
+     * Largest single backtrack.
+     */
+    private final LongAccumulator maxBacktrackDistance;
+
+    /**
+     * Pre error hits.
+     */
+    private final LongAdder preErrorHits;
+
+    /**
+     * Create metrics for a lexer.
+     *
+     * @param numberOfStates The number of states in the lexer's automaton.
+     *                       Visits to states outside of this range are not counted.
+     * @param c The function used to find the category of a successful token.
+     */
+    public CountingLexerMetrics(int numberOfStates, Function1<? super D, ?> c) {
+        Objects.requireNonNull(c);
+
+        if (numberOfStates < 0) {
+            throw new IllegalArgumentException("Number of states cannot be negative.");
+        }
+
+        categorize = c;
+        tokens = new ConcurrentHashMap<>();
+
+        stateVisits = new LongAdder[numberOfStates];
+        for (int i = 0; i < numberOfStates; i++) {
+            stateVisits[i] = new LongAdder();
+        }
+
+        inputs = new LongAdder();
+        skips = new LongAdder();
+        errors = new LongAdder();
+        backtracks = new LongAdder();
+        backtrackDistance = new LongAdder();
+        maxBacktrackDistance = new LongAccumulator(Math::max, 0);
+        preErrorHits = new LongAdder();
+    }
+
+    @Override
+    public void onInput() {
+        inputs.increment();
+    }
+
+    @Override
+    public void onStateVisit(int state) {
+        if (0 <= state && state < stateVisits.length) {
+            stateVisits[state].increment();
+        }
+    }
+
+    @Override
+    public void onToken(D data) {
+        tokens.computeIfAbsent(categorize.apply(data), k -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void onSkip() {
+        skips.increment();
+    }
+
+    @Override
+    public void onError() {
+        errors.increment();
+    }
+
+    @Override
+    public void onBacktrack(int distance) {
+        if (distance > 0) {
+            backtracks.increment();
+            backtrackDistance.add(distance);
+            maxBacktrackDistance.accumulate(distance);
+        }
+    }
+
+    @Override
+    public void onPreErrorHit() {
+        preErrorHits.increment();
+    }
+
+    /**
+     * Take a snapshot of the current counts.
+     * Counts are read one at a time, so events reported during the snapshot may be only partially included.
+     *
+     * @return The snapshot.
+     */
+    public Snapshot snapshot() {
+        Map<Object, Long> tokenCounts = HashMap.ofAll(tokens).map((k, v) -> Tuple.of(k, v.sum()));
+        Array<Long> visitCounts = Array.of(stateVisits).map(LongAdder::sum);
+
+        return new Snapshot(tokenCounts, visitCounts, inputs.sum(), skips.sum(), errors.sum(), backtracks.sum(),
+                backtrackDistance.sum(), maxBacktrackDistance.get(), preErrorHits.sum());
+    }
+
+    /**
+     * Reset all counts to zero.
+     */
+    public void reset() {
+        tokens.clear();
+
+        for (LongAdder visits : stateVisits) {
+            visits.reset();
+        }
+
+        inputs.reset();
+        skips.reset();
+        errors.reset();
+        backtracks.reset();
+        backtrackDistance.reset();
+        maxBacktrackDistance.reset();
+        preErrorHits.reset();
+    }
+
+    /**
+     * An immutable view of the counts of some <b>CountingLexerMetrics</b>.
+     */
+    public static final class Snapshot {
+
+        /**
+         * Token counts by category.
+         */
+        private final Map<Object, Long> tokenCounts;
+
+        /**
+         * Visit counts by state.
+         */
+        private final Array<Long> stateVisits;
+
+        /**
+         * Inputs read.
+         */
+        private final long inputs;
+
+        /**
+         * Skip tokens.
+         */
+        private final long skips;
+
+        /**
+         * Unlexable lexemes.
+         */
+        private final long errors;
+
+        /**
+         * Successful tokens which required backtracking.
+         */
+        private final long backtracks;
+
+        /**
+         * Total number of inputs backtracked over.
+         */
+        private final long backtrackDistance;
+
+        /**
+         * Largest single backtrack.
+         */
+        private final long maxBacktrackDistance;
+
+        /**
+         * Pre error hits.
+         */
+        private final long preErrorHits;
+
+        /**
+         * Constructor.
+         *
+         * @param tc Token counts.
+         * @param sv State visit counts.
+         * @param i Inputs.
+         * @param s Skip tokens.
+         * @param e Errors.
+         * @param b Backtracks.
+         * @param bd Backtrack distance.
+         * @param mbd Max backtrack distance.
+         * @param peh Pre error hits.
+         */
+        private Snapshot(Map<Object, Long> tc, Array<Long> sv, long i, long s, long e, long b, long bd, long mbd,
+                         long peh) {
+            tokenCounts = tc;
+            stateVisits = sv;
+            inputs = i;
+            skips = s;
+            errors = e;
+            backtracks = b;
+            backtrackDistance = bd;
+            maxBacktrackDistance = mbd;
+            preErrorHits = peh;
+        }
+
+        /**
+         * Get the number of successful tokens in each category.
+         *
+         * @return A <b>Map</b> from category to count.
+         */
+        public Map<Object, Long> getTokenCounts() {
+            return tokenCounts;
+        }
+
+        /**
+         * Get the number of successful tokens in some category.
+         *
+         * @param category The category.
+         * @return The count.
+         */
+        public long getTokenCount(Object category) {
+            return tokenCounts.get(category).getOrElse(0L);
+        }
+
+        /**
+         * Get the total number of successful tokens.
+         *
+         * @return The count.
+         */
+        public long getTotalTokens() {
+            return tokenCounts.values().sum().longValue();
+        }
+
+        /**
+         * Get the number of visits to each state, indexed by state.
+         *
+         * @return The visit counts.
+         */
+        public Array<Long> getStateVisits() {
+            return stateVisits;
+        }
+
+        /**
+         * Get the number of inputs read. Inputs read again after backtracking are counted again.
+         *
+         * @return The count.
+         */
+        public long getInputs() {
+            return inputs;
+        }
+
+        /**
+         * Get the number of skip tokens consumed.
+         *
+         * @return The count.
+         */
+        public long getSkips() {
+            return skips;
+        }
+
+        /**
+         * Get the number of unlexable lexemes.
+         *
+         * @return The count.
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Get the number of successful tokens which required backtracking.
+         *
+         * @return The count.
+         */
+        public long getBacktracks() {
+            return backtracks;
+        }
+
+        /**
+         * Get the total number of inputs backtracked over.
+         *
+         * @return The distance.
+         */
+        public long getBacktrackDistance() {
+            return backtrackDistance;
+        }
+
+        /**
+         * Get the largest number of inputs backtracked over for a single token.
+         *
+         * @return The distance.
+         */
+        public long getMaxBacktrackDistance() {
+            return maxBacktrackDistance;
+        }
+
+        /**
+         * Get the number of times a linear lexer stopped early on a known pre error.
+         *
+         * @return The count.
+         */
+        public long getPreErrorHits() {
+            return preErrorHits;
+        }
+
+        @Override
+        public String toString() {
+            return "Tokens: " + tokenCounts + ", Inputs: " + inputs + ", Skips: " + skips + ", Errors: " + errors +
+                    ", Backtracks: " + backtracks + " (Total " + backtrackDistance +
+                    ", Max " + maxBacktrackDistance + "), Pre Error Hits: " + preErrorHits;
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.github.chathamabate.peru.lexer;
 
 import io.vavr.Function1;
+import io.vavr.Tuple;
 import io.vavr.Tuple2;
+import io.vavr.Tuple3;
 import io.vavr.collection.Seq;
+import io.vavr.collection.Set;
 import io.vavr.collection.Stream;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
 import io.vavr.control.Try;
 import com.github.chathamabate.peru.fa.DFAutomaton;
 import com.github.chathamabate.peru.misc.Builder;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This Lexer will read in some sequence of inputs and build a token.
@@ -28,6 +36,16 @@ import java.util.Objects;
  * <br>
  * A context can be anything and hold anything. A useful context may hold the current
  * line number of how many tokens have been lexed so far.
+ * <br>
+ * Since all lexing state lives in the context, a lexer may be shared between threads as long as its
+ * automaton's functions, its hooks and its {@link LexerMetrics} are thread safe. The lexers provided
+ * by this library all are. For lexing many character sources at once, see
+ * {@link com.github.chathamabate.peru.lexer.charlexer.CompiledCharLexer}.
+ * <br>
+ * Accepting states whose output is {@link #skip()} accept <i>skip tokens</i> (for example whitespace and
+ * comments). Skip tokens are consumed without building their data, and are never placed in the
+ * <b>Stream</b>s built by a lexer. {@link #buildUnchecked(Seq, Object)} passes over them to the next token,
+ * while {@link #buildOrSkipUnchecked(Seq, Object)} gives them separately.
  *
  * @param <I> Input Type.
  * @param <L> Lexeme Type.
@@ -36,6 +54,42 @@ import java.util.Objects;
  */
 public abstract class DLexer<I, L, D, C> implements Builder<I, C, Tuple2<L, Try<D>>> {
 
+    /**
+     * The output marking skip states.
+     */
+    private static final Function1<Object, Object> SKIP = c -> {
+        throw new IllegalStateException("Skip tokens have no data.");
+    };
+
+    /**
+     * The error held by every skip marker token.
+     */
+    private static final Throwable SKIPPED = new IllegalStateException("Token was skipped.");
+
+    /**
+     * The class remembered for inputs the automaton cannot translate.
+     */
+    private static final Object UNKNOWN = new Object();
+
+    /**
+     * The maximum number of inputs whose classes are remembered by each lexer.
+     * (Enough for every <b>Character</b>)
+     */
+    private static final int MAX_KNOWN_INPUTS = 1 << 16;
+
+    /**
+     * Get the output which marks an accepting state as accepting skip tokens.
+     * This output is never applied.
+     *
+     * @param <C> The context type.
+     * @param <D> The data type.
+     * @return The skip output.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C, D> Function1<C, D> skip() {
+        return (Function1<C, D>) (Function1<?, ?>) SKIP;
+    }
+
     /**
      * The initial lexeme to start every token's lexeme.
      * (Usually just an empty string)
@@ -49,6 +103,34 @@ public abstract class DLexer<I, L, D, C> implements Builder<I, C, Tuple2<L, Try<
      */
     private final DFAutomaton<I, ?, Function1<C, D>> dfa;
 
+    /**
+     * The input classes which have a transition out of the start state.
+     * An input can only begin a token if its class is in this set.
+     */
+    private final Set<Object> startClasses;
+
+    /**
+     * The class of each input seen while recovering from errors, or {@link #UNKNOWN} if it has none.
+     * Each input is translated at most once, so translators which throw only throw once per input.
+     */
+    private final ConcurrentHashMap<I, Object> knownClasses;
+
+    /**
+     * The marker token given by {@link #lexOrSkip(Seq, Object)} when a skip token is lexed.
+     */
+    private final Tuple2<L, Try<D>> skipToken;
+
+    /**
+     * Whether each state can only lead to skip tokens. (All false when there are no skip states)
+     * Lexemes need not be built once one of these states is reached.
+     */
+    private final boolean[] skipOnly;
+
+    /**
+     * Whether or not the automaton has any skip states.
+     */
+    private final boolean hasSkipTokens;
+
     /**
      * DLexer Constructor. This requires an initial lexeme as well as a deterministic state
      * machine.
@@ -64,6 +146,78 @@ public abstract class DLexer<I, L, D, C> implements Builder<I, C, Tuple2<L, Try<
 
         initialLexeme = initLex;
         dfa = (DFAutomaton<I, ?, Function1<C, D>>) d;
+        startClasses = (Set<Object>) dfa.getTransitionTable().get(0).keySet();
+        knownClasses = new ConcurrentHashMap<>();
+        skipToken = Tuple.of(initLex, Try.failure(SKIPPED));
+
+        int states = dfa.getNumberOfStates();
+        skipOnly = new boolean[states];
+
+        boolean skips = false;
+        for (int s = 0; s < states && !skips; s++) {
+            skips = dfa.isAccepting(s) && dfa.getOutput(s) == SKIP;
+        }
+
+        hasSkipTokens = skips;
+
+        if (hasSkipTokens) {
+            // Find every state which can reach an accepting state which is not a skip state.
+            ArrayList<ArrayList<Integer>> predecessors = new ArrayList<>();
+            for (int s = 0; s < states; s++) {
+                predecessors.add(new ArrayList<>());
+            }
+
+            for (int s = 0; s < states; s++) {
+                for (Integer target : dfa.getTransitionTable().get(s).values()) {
+                    predecessors.get(target).add(s);
+                }
+            }
+
+            boolean[] reachesToken = new boolean[states];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+            for (int s = 0; s < states; s++) {
+                if (dfa.isAccepting(s) && dfa.getOutput(s) != SKIP) {
+                    reachesToken[s] = true;
+                    queue.add(s);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                for (int predecessor : predecessors.get(queue.poll())) {
+                    if (!reachesToken[predecessor]) {
+                        reachesToken[predecessor] = true;
+                        queue.add(predecessor);
+                    }
+                }
+            }
+
+            for (int s = 0; s < states; s++) {
+                skipOnly[s] = !reachesToken[s];
+            }
+        }
+    }
+
+    @Override
+    public Stream<Tuple2<L, Try<D>>> buildStream(Seq<? extends I> input, C context) {
+        Objects.requireNonNull(input);
+
+        Seq<I> rest = Seq.narrow(input);
+        C algoContext = context;
+
+        // Skip tokens are passed over here, rather than filtered out of the Stream.
+        while (!rest.isEmpty()) {
+            Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> output = lexOrSkip(rest, algoContext);
+
+            if (output._1 != skipToken) {
+                return Stream.cons(output._1, () -> buildStream(output._3, output._2));
+            }
+
+            rest = output._3;
+            algoContext = output._2;
+        }
+
+        return Stream.empty();
     }
 
     /**
@@ -94,6 +248,434 @@ public abstract class DLexer<I, L, D, C> implements Builder<I, C, Tuple2<L, Try<
                 .map(tuple -> tuple.map2(Try::get));
     }
 
+    /**
+     * Lex an entire input sequence, recovering from errors.
+     * <br>
+     * Rather than restarting after every unlexable lexeme, each run of inputs which cannot be lexed is
+     * coalesced into a single error token. After an error, the lexer skips ahead to the next input which
+     * could {@link #canStart(Object) start} a token and which a successful token can actually be lexed from.
+     * When an attempt to lex a token fails, the inputs it read are part of the error, up to the input it failed
+     * on, so each input is only read a bounded number of times.
+     * <br>
+     * Inputs the automaton cannot translate are treated as unlexable instead of thrown as errors.
+     * Each input is only translated once per lexer, and only one error is built per error token, so input full
+     * of garbage can be lexed cheaply.
+     *
+     * @param input The input sequence.
+     * @param context The initial context.
+     * @return The <b>Stream</b> of tokens lexed. No two error tokens will be adjacent.
+     */
+    public Stream<Tuple2<L, Try<D>>> buildRecoveringStream(Seq<? extends I> input, C context) {
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(context);
+
+        return recoveringStream(Seq.narrow(input), context);
+    }
+
+    /**
+     * Helper for {@link #buildRecoveringStream(Seq, Object)}.
+     *
+     * @param input The input sequence.
+     * @param context The context.
+     * @return The <b>Stream</b> of tokens lexed.
+     */
+    private Stream<Tuple2<L, Try<D>>> recoveringStream(Seq<I> input, C context) {
+        Seq<I> rest = input;
+        C algoContext = context;
+
+        // The number of inputs to add to the error before lexing is attempted again.
+        int skip = 1;
+
+        while (!rest.isEmpty()) {
+            if (!canStart(rest.head())) {
+                break;
+            }
+
+            Either<Integer, Tuple3<Tuple2<L, Try<D>>, C, Seq<I>>> result = buildIfSuccessful(rest, algoContext);
+
+            if (result.isLeft()) {
+                skip = Math.max(1, result.getLeft() - 1);
+                break;
+            }
+
+            Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> token = result.get();
+
+            if (token._1 != skipToken) {
+                return Stream.cons(token._1, () -> recoveringStream(token._3, token._2));
+            }
+
+            rest = token._3;
+            algoContext = token._2;
+        }
+
+        if (rest.isEmpty()) {
+            return Stream.empty();
+        }
+
+        // Skip inputs until a successful token can be lexed.
+        LexerMetrics<? super D> metrics = getMetrics();
+
+        L lexeme = getInitialLexeme();
+        C skipContext = algoContext;
+        Seq<I> tail = rest;
+
+        Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> next = null;
+
+        while (next == null) {
+            for (; skip > 0 && !tail.isEmpty(); skip--) {
+                I skipped = tail.head();
+                metrics.onInput();
+
+                skipContext = consumeInput(skipped, skipContext);
+                lexeme = combineInput(lexeme, skipped);
+                tail = tail.tail();
+            }
+
+            if (tail.isEmpty()) {
+                break;
+            }
+
+            skip = 1;
+
+            // Try lexing a token here, using the context the error would leave behind.
+            if (canStart(tail.head())) {
+                Either<Integer, Tuple3<Tuple2<L, Try<D>>, C, Seq<I>>> attempt =
+                        buildIfSuccessful(tail, onError(lexeme, skipContext));
+
+                if (attempt.isRight()) {
+                    next = attempt.get();
+                } else {
+                    // No token can start before the input the attempt failed on.
+                    skip = Math.max(1, attempt.getLeft() - 1);
+                }
+            }
+        }
+
+        metrics.onError();
+
+        Tuple2<L, Try<D>> error = Tuple.of(lexeme, Try.failure(makeError(lexeme, skipContext)));
+
+        if (next == null) {
+            return Stream.of(error);
+        }
+
+        Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> token = next;
+        return Stream.cons(error, () -> token._1 == skipToken
+                ? recoveringStream(token._3, token._2)
+                : Stream.cons(token._1, () -> recoveringStream(token._3, token._2)));
+    }
+
+    /**
+     * Attempt to lex a successful token from the start of an input sequence.
+     * Used by {@link #buildRecoveringStream(Seq, Object)}.
+     * <br>
+     * Skip tokens are given as the skip marker token (see {@link #lexOrSkip(Seq, Object)}).
+     * If no successful token can be lexed, the number of inputs read before giving up is returned instead,
+     * and no error should be built. Recovery resumes at the last of those inputs, rather than attempting to
+     * lex a token at every input in between.
+     * <br>
+     * By default, this calls {@link #lexOrSkip(Seq, Object)} and discards any failure, reporting one input
+     * read. Subclasses should override this function to avoid building errors which will be discarded.
+     *
+     * @param input The input sequence. (Non empty)
+     * @param context The context.
+     * @return The same as {@link #lexOrSkip(Seq, Object)} if a successful token was lexed, otherwise the
+     * number of inputs read.
+     */
+    protected Either<Integer, Tuple3<Tuple2<L, Try<D>>, C, Seq<I>>> buildIfSuccessful(Seq<? extends I> input,
+                                                                                       C context) {
+        Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> result = lexOrSkip(input, context);
+        return result._1._2.isSuccess() || result._1 == skipToken ? Either.right(result) : Either.left(1);
+    }
+
+    /**
+     * Get the {@link Scanner} used for tokens beginning with some input.
+     * By default, this returns null, so every token is lexed with the automaton.
+     * Override this function (for example in an anonymous subclass) to hand some tokens to hand written code.
+     *
+     * @param input The first input of the token.
+     * @return The scanner, or null if the token should be lexed with the automaton.
+     */
+    protected Scanner<I, C, D> scannerFor(I input) {
+        return null;
+    }
+
+    /**
+     * Attempt to lex a token from the start of an input sequence using a {@link Scanner}.
+     * The inputs of a scanned token are read in the same way the automaton would read them.
+     *
+     * @param input The input sequence.
+     * @param context The context.
+     * @return The same as {@link #lexOrSkip(Seq, Object)} if a token was scanned, otherwise null.
+     */
+    protected final Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> scan(Seq<? extends I> input, C context) {
+        if (input.isEmpty()) {
+            return null;
+        }
+
+        Scanner<I, C, D> scanner = scannerFor(input.head());
+
+        if (scanner == null) {
+            return null;
+        }
+
+        Option<Tuple2<Integer, Function1<? super C, ? extends D>>> match = scanner.scan(input);
+
+        if (match.isEmpty()) {
+            return null;
+        }
+
+        int length = match.get()._1;
+
+        if (length <= 0) {
+            throw new IllegalArgumentException("Scanned tokens must contain at least one input.");
+        }
+
+        LexerMetrics<? super D> metrics = getMetrics();
+        boolean skipped = match.get()._2 == SKIP;
+
+        C algoContext = context;
+        L lexeme = getInitialLexeme();
+        Seq<I> tail = Seq.narrow(input);
+
+        for (int i = 0; i < length; i++) {
+            if (tail.isEmpty()) {
+                throw new IllegalArgumentException("Scanned token is longer than the given input.");
+            }
+
+            I next = tail.head();
+            metrics.onInput();
+
+            algoContext = consumeInput(next, algoContext);
+            if (!skipped) {
+                lexeme = combineInput(lexeme, next);
+            }
+
+            tail = tail.tail();
+        }
+
+        if (skipped) {
+            metrics.onSkip();
+            return Tuple.of(skipToken, onSkipSuccess(onSkipToken(algoContext)), tail);
+        }
+
+        D data = match.get()._2.apply(algoContext);
+        algoContext = onToken(lexeme, data, algoContext);
+
+        data = classify(lexeme, data);
+        metrics.onToken(data);
+
+        return Tuple.of(Tuple.of(lexeme, Try.success(data)), onSuccess(lexeme, data, algoContext), tail);
+    }
+
+    /**
+     * Determine whether the lexer has cached a position and state of its automaton as one which never reaches
+     * an accepting state. A {@link ChunkedDLexer} stops reading a token wherever the lexer itself would stop.
+     * By default, nothing is cached, so this returns false.
+     *
+     * @param context The context the token is being lexed with.
+     * @param read The number of inputs of the token read so far.
+     * @param state The state of the automaton after reading them.
+     * @return Whether or not the position and state are cached as an error.
+     */
+    protected boolean isPreError(C context, int read, int state) {
+        return false;
+    }
+
+    /**
+     * Cache the states a {@link ChunkedDLexer} visited past the end of a token, after building the token from
+     * exactly its own inputs. The context should end up as if the token had been lexed from the full input.
+     * By default, nothing is cached, so the context is returned as is.
+     *
+     * @param context The context after the token.
+     * @param states The states visited past the token, one for each input read past it.
+     * @return The new context.
+     */
+    protected C withPreErrors(C context, Seq<Integer> states) {
+        return context;
+    }
+
+    /**
+     * Determine whether some input could begin a token.
+     * An input can begin a token if it has a {@link Scanner}, or if the automaton has a transition on it
+     * out of the start state.
+     *
+     * @param input The input.
+     * @return Whether or not the input could begin a token.
+     */
+    protected boolean canStart(I input) {
+        return scannerFor(input) != null || startClasses.contains(getKnownClass(input));
+    }
+
+    /**
+     * Get the class of some input in this lexer's automaton without throwing errors.
+     * Classes are remembered, so each input is only translated once.
+     *
+     * @param input The input.
+     * @return The class, or {@link #UNKNOWN} if the input cannot be translated or its class is not
+     * in the automaton's alphabet.
+     */
+    @SuppressWarnings("unchecked")
+    private Object getKnownClass(I input) {
+        Object inputClass = knownClasses.get(input);
+
+        if (inputClass != null) {
+            return inputClass;
+        }
+
+        try {
+            inputClass = dfa.getGetInputClassUnchecked().apply(input);
+        } catch (RuntimeException e) {
+            inputClass = null;
+        }
+
+        if (inputClass == null || !((Set<Object>) dfa.getInputAlphabet()).contains(inputClass)) {
+            inputClass = UNKNOWN;
+        }
+
+        if (knownClasses.size() < MAX_KNOWN_INPUTS) {
+            knownClasses.putIfAbsent(input, inputClass);
+        }
+
+        return inputClass;
+    }
+
+    /**
+     * Get the transition out of some state on some input without throwing errors.
+     * Inputs the automaton cannot translate have no transitions.
+     *
+     * @param state The state.
+     * @param input The input.
+     * @return The next state as an <b>Option</b>.
+     */
+    @SuppressWarnings("unchecked")
+    protected Option<Integer> getTransitionIfKnown(int state, I input) {
+        DFAutomaton<I, Object, Function1<C, D>> classDFA = (DFAutomaton<I, Object, Function1<C, D>>) dfa;
+        Object inputClass = getKnownClass(input);
+
+        return inputClass == UNKNOWN ? Option.none() : classDFA.getTransitionFromClassAsOption(state, inputClass);
+    }
+
+    /**
+     * Determine whether this lexer's automaton has any skip states.
+     *
+     * @return Whether or not this lexer can lex skip tokens.
+     */
+    public boolean hasSkipTokens() {
+        return hasSkipTokens;
+    }
+
+    /**
+     * Lex a single token, or a single skip token, from the start of some input sequence.
+     * <br>
+     * This is the single munch behind every other way of lexing. Skip tokens lex no lexeme or data, all skip
+     * tokens are given as the same marker token. (See {@link #isSkipToken(Tuple2)})
+     * By default, this calls {@link #buildUnchecked(Seq, Object)}, for lexers without skip tokens.
+     *
+     * @param input The input sequence. (Non empty)
+     * @param context The context.
+     * @return A <b>Tuple3</b> containing the token or skip marker, the new context, and the inputs not used.
+     */
+    protected Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> lexOrSkip(Seq<? extends I> input, C context) {
+        return buildUnchecked(input, context);
+    }
+
+    /**
+     * Lex a single token from the start of some input sequence, passing over any skip tokens before it.
+     * Lexers with skip tokens implement {@link #buildUnchecked(Seq, Object)} using this function.
+     *
+     * @param input The input sequence. (Non empty)
+     * @param context The context.
+     * @return A <b>Tuple3</b> containing the token, the new context, and the inputs not used.
+     * @throws IllegalArgumentException If only skip tokens are left in the input sequence.
+     */
+    protected final Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> buildSkipping(Seq<? extends I> input, C context) {
+        Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> result = lexOrSkip(input, context);
+
+        while (result._1 == skipToken) {
+            if (result._3.isEmpty()) {
+                throw new IllegalArgumentException("Cannot construct a token from only skip tokens.");
+            }
+
+            result = lexOrSkip(result._3, result._2);
+        }
+
+        return result;
+    }
+
+    /**
+     * Same as {@link #buildUnchecked(Seq, Object)} except skip tokens are given rather than passed over.
+     *
+     * @param input The input sequence. (Non empty)
+     * @param context The context.
+     * @return A <b>Tuple3</b> containing the token (<b>None</b> if a skip token was lexed), the new context,
+     * and the inputs not used.
+     */
+    public Tuple3<Option<Tuple2<L, Try<D>>>, C, Seq<I>> buildOrSkipUnchecked(Seq<? extends I> input, C context) {
+        Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> result = lexOrSkip(input, context);
+        return Tuple.of(result._1 == skipToken ? Option.none() : Option.some(result._1), result._2, result._3);
+    }
+
+    /**
+     * Determine whether a token given by {@link #lexOrSkip(Seq, Object)} is the skip marker.
+     *
+     * @param token The token.
+     * @return Whether or not the token is the skip marker.
+     */
+    protected final boolean isSkipToken(Tuple2<L, Try<D>> token) {
+        return token == skipToken;
+    }
+
+    /**
+     * Get the marker token returned when a skip token is lexed.
+     *
+     * @return The skip marker token.
+     */
+    protected final Tuple2<L, Try<D>> getSkipToken() {
+        return skipToken;
+    }
+
+    /**
+     * Determine whether a state accepts skip tokens.
+     *
+     * @param state The state.
+     * @return Whether or not the state is a skip state.
+     */
+    protected final boolean isSkipState(int state) {
+        return dfa.isAccepting(state) && dfa.getOutput(state) == SKIP;
+    }
+
+    /**
+     * Determine whether every token lexed after reaching a state will be a skip token (or an error).
+     * Once such a state is reached, lexemes need not be built.
+     *
+     * @param state The state.
+     * @return Whether or not the state only leads to skip tokens.
+     */
+    protected final boolean isSkipOnly(int state) {
+        return skipOnly[state];
+    }
+
+    /**
+     * Build the lexeme of the first inputs of some input sequence.
+     * Used to build the lexeme of an error after lexemes were not built in skip only states.
+     *
+     * @param input The input sequence.
+     * @param length The number of inputs in the lexeme.
+     * @return The lexeme.
+     */
+    protected final L buildLexeme(Seq<? extends I> input, int length) {
+        L lexeme = getInitialLexeme();
+        Seq<? extends I> tail = input;
+
+        for (int i = 0; i < length; i++) {
+            lexeme = combineInput(lexeme, tail.head());
+            tail = tail.tail();
+        }
+
+        return lexeme;
+    }
+
     /**
      * Get the initial lexeme.
      *
@@ -112,6 +694,33 @@ public abstract class DLexer<I, L, D, C> implements Builder<I, C, Tuple2<L, Try<
         return dfa;
     }
 
+    /**
+     * Get the metrics this lexer reports events to while lexing.
+     * By default, this returns the {@link LexerMetrics#noOp() no-op} metrics.
+     * Override this function (for example in an anonymous subclass) to observe the lexer.
+     *
+     * @return The metrics.
+     */
+    protected LexerMetrics<? super D> getMetrics() {
+        return LexerMetrics.noOp();
+    }
+
+    /**
+     * Reclassify the data of a successful token after maximal munch has decided its lexeme.
+     * This is called once per successful token, before {@link #onSuccess(Object, Object, Object)}.
+     * <br>
+     * This allows the automaton to recognize a general category of lexemes (for example identifiers),
+     * leaving finer categorization (for example keywords) to a table lookup.
+     * By default, the data is returned unchanged.
+     *
+     * @param lexeme The lexeme of the token.
+     * @param data The data of the token.
+     * @return The reclassified data.
+     */
+    protected D classify(L lexeme, D data) {
+        return data;
+    }
+
     /**
      * Create a new context given some input was read.
      *
@@ -121,6 +730,19 @@ public abstract class DLexer<I, L, D, C> implements Builder<I, C, Tuple2<L, Try<
      */
     protected abstract C readInput(I input, C context);
 
+    /**
+     * Create a new context given some input was consumed without the automaton.
+     * This happens when an input is skipped while recovering from an error, or read by a {@link Scanner}.
+     * By default, this is the same as {@link #readInput(Object, Object)}.
+     *
+     * @param input The consumed input.
+     * @param context The current context.
+     * @return The new context.
+     */
+    protected C consumeInput(I input, C context) {
+        return readInput(input, context);
+    }
+
     /**
      * Create a new lexeme from some initial lexeme and input.
      *
@@ -143,6 +765,30 @@ public abstract class DLexer<I, L, D, C> implements Builder<I, C, Tuple2<L, Try<
      */
     protected abstract C onToken(L lexeme, D data, C context);
 
+    /**
+     * This function is called when the lexer reaches a skip state while lexing.
+     * It is the skip token equivalent of {@link #onToken(Object, Object, Object)}.
+     * By default, the context is returned unchanged.
+     *
+     * @param context The current context.
+     * @return The new context.
+     */
+    protected C onSkipToken(C context) {
+        return context;
+    }
+
+    /**
+     * This function is called when a skip token has been lexed.
+     * It is the skip token equivalent of {@link #onSuccess(Object, Object, Object)}.
+     * By default, the context is returned unchanged.
+     *
+     * @param context The current context.
+     * @return The new context.
+     */
+    protected C onSkipSuccess(C context) {
+        return context;
+    }
+
     /**
      * When a given lexeme cannot be turned into a successful token, an error must be returned
      * in a <b>Try</b>. This function is used to build that error. After attempting to lex the lexeme and failing,
@@ -0,0 +1,86 @@
+package com.github.chathamabate.peru.lexer;
+
+/**
+ * <b>LexerMetrics</b> receive events from a {@link DLexer} as it lexes.
+ * <br>
+ * Every event has an empty default implementation. A lexer's metrics are given by
+ * {@link DLexer#getMetrics()}, which returns the {@link #noOp() no-op} metrics unless overridden.
+ * Since the no-op metrics are a single constant with empty methods, the calls made by a lexer
+ * are inlined away by the JIT when metrics are not in use.
+ * <br>
+ * Events are reported from inside the lexing loop, so implementations should be cheap and must be safe to
+ * call from any thread that uses the lexer.
+ * @see CountingLexerMetrics
+ *
+ * @param <D> The data type of the lexer.
+ */
+public interface LexerMetrics<D> {
+
+    /**
+     * The single no-op metrics instance.
+     * @see #noOp()
+     */
+    LexerMetrics<Object> NO_OP = new LexerMetrics<Object>() { };
+
+    /**
+     * Get metrics which ignore every event.
+     *
+     * @param <D> The data type of the lexer.
+     * @return The no-op metrics.
+     */
+    @SuppressWarnings("unchecked")
+    static <D> LexerMetrics<D> noOp() {
+        return (LexerMetrics<D>) NO_OP;
+    }
+
+    /**
+     * Called each time the lexer reads an input.
+     */
+    default void onInput() {
+    }
+
+    /**
+     * Called each time the lexer's automaton is in some state.
+     *
+     * @param state The state.
+     */
+    default void onStateVisit(int state) {
+    }
+
+    /**
+     * Called when the lexer produces a successful token.
+     *
+     * @param data The data of the token.
+     */
+    default void onToken(D data) {
+    }
+
+    /**
+     * Called when the lexer consumes a skip token.
+     */
+    default void onSkip() {
+    }
+
+    /**
+     * Called when the lexer produces a token for a lexeme which cannot be lexed.
+     */
+    default void onError() {
+    }
+
+    /**
+     * Called when maximal munch finishes a successful token.
+     * The distance is the number of inputs read past the end of the token, which must be read again
+     * as part of the next token.
+     *
+     * @param distance The number of inputs backtracked over. (Possibly 0)
+     */
+    default void onBacktrack(int distance) {
+    }
+
+    /**
+     * Called when a {@link LinearDLexer} stops reading early because it reached a position and state
+     * already known to result in error.
+     */
+    default void onPreErrorHit() {
+    }
+}
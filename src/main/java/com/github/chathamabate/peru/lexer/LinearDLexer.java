@@ -7,6 +7,7 @@ import io.vavr.Tuple3;
 import io.vavr.collection.HashMap;
 import io.vavr.collection.Map;
 import io.vavr.collection.Seq;
+import io.vavr.control.Either;
 import io.vavr.control.Option;
 import io.vavr.control.Try;
 import com.github.chathamabate.peru.fa.DFAutomaton;
@@ -63,6 +64,41 @@ public abstract class LinearDLexer<I, L, D, C extends LinearContext<C>>
 
     @Override
     public Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> buildUnchecked(Seq<? extends I> input, C context) {
+        return buildSkipping(input, context);
+    }
+
+    @Override
+    protected Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> lexOrSkip(Seq<? extends I> input, C context) {
+        return lex(input, context, null);
+    }
+
+    @Override
+    protected Either<Integer, Tuple3<Tuple2<L, Try<D>>, C, Seq<I>>> buildIfSuccessful(Seq<? extends I> input,
+                                                                                       C context) {
+        int[] read = new int[1];
+        Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> result = lex(input, context, read);
+
+        return result == null ? Either.left(read[0]) : Either.right(result);
+    }
+
+    /**
+     * Lex a single token.
+     *
+     * @param input The input sequence.
+     * @param context The context.
+     * @param recovering Null unless the lexer is recovering from an error. If not null, untranslatable inputs
+     *                   end the token instead of throwing an error, and null is returned instead of an
+     *                   unsuccessful token, with the number of inputs read stored in this array.
+     * @return The token, the new context, and the inputs not used.
+     */
+    private Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> lex(Seq<? extends I> input, C context, int[] recovering) {
+        Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> scanned = scan(input, context);
+
+        if (scanned != null) {
+            // Cached pre errors inside the scanned token can never be reached again.
+            return scanned.map2(c -> c.dropPreErrorsBefore(c.getAbsolutePosition()));
+        }
+
         // Rollback stack in form (position, state).
         // Starting at the given position, and state 0.
         Map<Integer, Integer> rollbackStack = HashMap.empty();
@@ -78,12 +114,28 @@ public abstract class LinearDLexer<I, L, D, C extends LinearContext<C>>
         int lastAbsolutePosition = algoContext.getAbsolutePosition();
 
         DFAutomaton<I, ?, Function1<C, D>> dfa = getDFA();
+        LexerMetrics<? super D> metrics = getMetrics();
+
+        // Number of inputs read, and whether the lexeme stopped being built in a skip only state.
+        int read = 0;
+        boolean dropped = false;
 
         // While not on an error state or pre error state and position, continue.
         int state;
         while (!stateOp.isEmpty() &&
                 !algoContext.isPreError(algoContext.getAbsolutePosition(), state = stateOp.get())) {
-            if (dfa.isAccepting(state)) {
+            metrics.onStateVisit(state);
+
+            if (isSkipState(state)) {
+                // Skip states are remembered without building data.
+                lastToken = getSkipToken();
+                lastTail = tail;
+                lastAbsolutePosition = algoContext.getAbsolutePosition();
+
+                algoContext = onSkipToken(algoContext);
+
+                rollbackStack = HashMap.empty();
+            } else if (dfa.isAccepting(state)) {
                 Function1<C, D> dataBuilder = dfa.getOutput(state);
                 D data = dataBuilder.apply(algoContext);
                 lastToken = Tuple.of(lexeme, Try.success(data));
@@ -102,16 +154,29 @@ public abstract class LinearDLexer<I, L, D, C extends LinearContext<C>>
             if (tail.isEmpty()) break;
 
             I symbol = tail.head();
+            metrics.onInput();
+            read++;
 
             // Increment absolute position.
             algoContext = algoContext.withAbsolutePosition(algoContext.getAbsolutePosition() + 1);
 
             algoContext = readInput(symbol, algoContext);
-            lexeme = combineInput(lexeme, symbol);
+
+            if (dropped || isSkipOnly(state)) {
+                dropped = true;
+            } else {
+                lexeme = combineInput(lexeme, symbol);
+            }
 
             tail = tail.tail();
 
-            stateOp = dfa.getTransitionAsOption(state, symbol);
+            stateOp = recovering != null ? getTransitionIfKnown(state, symbol) : dfa.getTransitionAsOption(state, symbol);
+        }
+
+        // Reading only ever stops on a live state if that state was a pre error.
+        // (Running out of input is checked after the pre error check)
+        if (!stateOp.isEmpty() && algoContext.isPreError(algoContext.getAbsolutePosition(), stateOp.get())) {
+            metrics.onPreErrorHit();
         }
 
         /*
@@ -120,6 +185,17 @@ public abstract class LinearDLexer<I, L, D, C extends LinearContext<C>>
          * data type as a failure.
          */
         if (lastToken == null) {
+            if (recovering != null) {
+                recovering[0] = read;
+                return null;
+            }
+
+            if (dropped) {
+                lexeme = buildLexeme(input, read);
+            }
+
+            metrics.onError();
+
             algoContext = algoContext.dropPreErrorsBefore(algoContext.getAbsolutePosition());
             Try<D> errorData = Try.failure(makeError(lexeme, algoContext));
 
@@ -127,11 +203,44 @@ public abstract class LinearDLexer<I, L, D, C extends LinearContext<C>>
             return Tuple.of(Tuple.of(lexeme, errorData), onError(lexeme, algoContext), tail);
         }
 
+        metrics.onBacktrack(algoContext.getAbsolutePosition() - lastAbsolutePosition);
+
         algoContext = algoContext.dropPreErrorsBefore(lastAbsolutePosition);
         algoContext = algoContext.withPreErrors(rollbackStack);
         algoContext = algoContext.withAbsolutePosition(lastAbsolutePosition);
 
+        if (lastToken == getSkipToken()) {
+            metrics.onSkip();
+            return Tuple.of(lastToken, onSkipSuccess(algoContext), lastTail);
+        }
+
+        D data = classify(lastToken._1, lastToken._2.get());
+        metrics.onToken(data);
+
         // Success.
-        return Tuple.of(lastToken, onSuccess(lastToken._1, lastToken._2.get(), algoContext), lastTail);
+        return Tuple.of(Tuple.of(lastToken._1, Try.success(data)),
+                onSuccess(lastToken._1, data, algoContext), lastTail);
+    }
+
+    @Override
+    protected boolean isPreError(C context, int read, int state) {
+        return context.isPreError(context.getAbsolutePosition() + read, state);
+    }
+
+    @Override
+    protected C withPreErrors(C context, Seq<Integer> states) {
+        int position = context.getAbsolutePosition();
+
+        // The same rollback stack lex builds while reading past the token.
+        Map<Integer, Integer> rollbackStack = HashMap.ofEntries(states.take(maxRollbackAmount)
+                .zipWithIndex((state, i) -> Tuple.of(position + i + 1, state)));
+
+        return context.withPreErrors(rollbackStack);
+    }
+
+    @Override
+    protected C consumeInput(I input, C context) {
+        // Inputs consumed without the automaton still advance the absolute position.
+        return readInput(input, context.withAbsolutePosition(context.getAbsolutePosition() + 1));
     }
 }
@@ -0,0 +1,56 @@
+package com.github.chathamabate.peru.lexer;
+
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.collection.Seq;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+
+/**
+ * A <b>Scanner</b> is a hand written alternative to a lexer's automaton for some kind of token.
+ * <br>
+ * Some tokens (for example quoted strings with escapes or long comments) are simpler and faster to
+ * recognize with a few lines of code than with an automaton. A {@link DLexer} can hand these tokens to a
+ * scanner by overriding {@link DLexer#scannerFor(Object)}, which picks a scanner using the first input of
+ * the token. Everything else is still lexed with the automaton.
+ * <br>
+ * A scanner only decides how many inputs its token spans and how to build its data.
+ * The lexer then reads these inputs, so lexemes and contexts are built exactly as if the automaton
+ * had read them.
+ * <br>
+ * A {@link ChunkedDLexer} may call a scanner on a prefix of its input, and waits for more input whenever the
+ * scanner finds no token, or a token reaching the end of the prefix. Scanners for long tokens should override
+ * {@link #resume(Seq, int)}, so inputs already examined are not examined again every time more input arrives.
+ *
+ * @param <I> The input type.
+ * @param <C> The context type.
+ * @param <D> The data type.
+ */
+@FunctionalInterface
+public interface Scanner<I, C, D> {
+
+    /**
+     * Scan a token from the start of some input sequence.
+     *
+     * @param input The input sequence. (Non empty, and beginning with the input this scanner was picked for)
+     * @return A <b>Tuple2</b> of the number of inputs in the token (at least one) and the function used to
+     * build the token's data from the lexer's context. <b>None</b> is returned if this scanner cannot scan a
+     * token here, in which case the lexer falls back to its automaton.
+     */
+    Option<Tuple2<Integer, Function1<? super C, ? extends D>>> scan(Seq<? extends I> input);
+
+    /**
+     * Scan a token from the start of some input sequence, carrying on from an earlier scan which found no
+     * token in a prefix of the sequence.
+     * By default, this starts over using {@link #scan(Seq)}, and reports no inputs as examined.
+     *
+     * @param input The input sequence. (Non empty, and beginning with the input this scanner was picked for)
+     * @param from The number of inputs reported as examined by the earlier scan. (0 if there was none)
+     * @return The same as {@link #scan(Seq)} as a right value if a token is scanned. Otherwise, a left value
+     * holding the number of inputs from the start of the sequence which never need to be examined again.
+     */
+    default Either<Integer, Tuple2<Integer, Function1<? super C, ? extends D>>> resume(Seq<? extends I> input,
+                                                                                      int from) {
+        return scan(input).toEither(0);
+    }
+}
@@ -5,6 +5,7 @@ import io.vavr.Tuple;
 import io.vavr.Tuple2;
 import io.vavr.Tuple3;
 import io.vavr.collection.Seq;
+import io.vavr.control.Either;
 import io.vavr.control.Option;
 import io.vavr.control.Try;
 import com.github.chathamabate.peru.fa.DFAutomaton;
@@ -34,6 +35,40 @@ public abstract class SimpleDLexer<I, L, D, C> extends DLexer<I, L, D, C> {
 
     @Override
     public Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> buildUnchecked(Seq<? extends I> input, C context) {
+        return buildSkipping(input, context);
+    }
+
+    @Override
+    protected Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> lexOrSkip(Seq<? extends I> input, C context) {
+        return lex(input, context, null);
+    }
+
+    @Override
+    protected Either<Integer, Tuple3<Tuple2<L, Try<D>>, C, Seq<I>>> buildIfSuccessful(Seq<? extends I> input,
+                                                                                       C context) {
+        int[] read = new int[1];
+        Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> result = lex(input, context, read);
+
+        return result == null ? Either.left(read[0]) : Either.right(result);
+    }
+
+    /**
+     * Lex a single token.
+     *
+     * @param input The input sequence.
+     * @param context The context.
+     * @param recovering Null unless the lexer is recovering from an error. If not null, untranslatable inputs
+     *                   end the token instead of throwing an error, and null is returned instead of an
+     *                   unsuccessful token, with the number of inputs read stored in this array.
+     * @return The token, the new context, and the inputs not used.
+     */
+    private Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> lex(Seq<? extends I> input, C context, int[] recovering) {
+        Tuple3<Tuple2<L, Try<D>>, C, Seq<I>> scanned = scan(input, context);
+
+        if (scanned != null) {
+            return scanned;
+        }
+
         C algoContext = context;
         Seq<I> tail = Seq.narrow(input);
 
@@ -45,18 +80,34 @@ public abstract class SimpleDLexer<I, L, D, C> extends DLexer<I, L, D, C> {
         Seq<I> lastTail = null;
 
         DFAutomaton<I, ?, Function1<C, D>> dfa = getDFA();
+        LexerMetrics<? super D> metrics = getMetrics();
+
+        // Number of inputs read since the last accepting state.
+        int sinceAccept = 0;
+
+        // Number of inputs read, and whether the lexeme stopped being built in a skip only state.
+        int read = 0;
+        boolean dropped = false;
 
         while(!stateOp.isEmpty()) {
             int state = stateOp.get();
+            metrics.onStateVisit(state);
 
-            // If we are on an accepting state.
-            if (dfa.isAccepting(state)) {
+            // Skip states are remembered without building data.
+            if (isSkipState(state)) {
+                lastToken = getSkipToken();
+                lastTail = tail;
+                sinceAccept = 0;
+
+                algoContext = onSkipToken(algoContext);
+            } else if (dfa.isAccepting(state)) { // If we are on an accepting state.
                 Function1<C, D> dataBuilder = dfa.getOutput(state);
                 // Build data for token.
                 D data = dataBuilder.apply(algoContext);
 
                 lastToken = Tuple.of(lexeme,Try.success(data));
                 lastTail = tail;    // Save tail position.
+                sinceAccept = 0;
 
                 // Signal Context.
                 algoContext = onToken(lexeme, data, algoContext);
@@ -69,21 +120,50 @@ public abstract class SimpleDLexer<I, L, D, C> extends DLexer<I, L, D, C> {
 
             I next = tail.head();
 
+            metrics.onInput();
+            sinceAccept++;
+            read++;
+
             algoContext = readInput(next, algoContext);
-            lexeme = combineInput(lexeme, next);
+
+            if (dropped || isSkipOnly(state)) {
+                dropped = true;
+            } else {
+                lexeme = combineInput(lexeme, next);
+            }
 
             tail = tail.tail(); // Advance through input.
 
             // Calc next State.
-            stateOp = dfa.getTransitionAsOption(state, next);
+            stateOp = recovering != null ? getTransitionIfKnown(state, next) : dfa.getTransitionAsOption(state, next);
         }
 
         if (lastToken == null) {
+            if (recovering != null) {
+                recovering[0] = read;
+                return null;
+            }
+
+            if (dropped) {
+                lexeme = buildLexeme(input, read);
+            }
+
+            metrics.onError();
             Try<D> errorData = Try.failure(makeError(lexeme, algoContext));
             return Tuple.of(Tuple.of(lexeme, errorData), onError(lexeme, algoContext), tail);
         }
 
-        algoContext = onSuccess(lastToken._1, lastToken._2.get(), algoContext);
-        return Tuple.of(lastToken, algoContext, lastTail);
+        metrics.onBacktrack(sinceAccept);
+
+        if (lastToken == getSkipToken()) {
+            metrics.onSkip();
+            return Tuple.of(lastToken, onSkipSuccess(algoContext), lastTail);
+        }
+
+        D data = classify(lastToken._1, lastToken._2.get());
+        metrics.onToken(data);
+
+        algoContext = onSuccess(lastToken._1, data, algoContext);
+        return Tuple.of(Tuple.of(lastToken._1, Try.success(data)), algoContext, lastTail);
     }
 }
@@ -0,0 +1,149 @@
+package com.github.chathamabate.peru.lexer.bytelexer;
+
+import com.github.chathamabate.peru.fa.ByteDFAutomaton;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.misc.GrowableIntArray;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A <b>ByteLexer</b> lexes UTF-8 encoded bytes directly, without decoding them into characters.
+ * <br>
+ * The lexer runs a {@link ByteDFAutomaton} over a <b>ByteBuffer</b> using maximal munch, the same as a
+ * {@link com.github.chathamabate.peru.lexer.SimpleDLexer}. Each accepting state's output is the token type of
+ * the lexeme ending there. Tokens are written to a {@link ByteTokenTape} as byte offsets, character positions are
+ * computed later only when asked for.
+ * <br>
+ * When no token can be lexed, the bytes read are grouped into an error token. Error tokens always end on a
+ * character boundary.
+ * <br>
+ * A <b>ByteLexer</b> is immutable and may be shared between threads.
+ *
+ * @param <T> The token type <b>Enum</b>.
+ */
+public final class ByteLexer<T extends Enum<T>> {
+
+    /**
+     * The token type <b>Enum</b> class.
+     */
+    private final Class<T> tokenClass;
+
+    /**
+     * The automaton's transition table.
+     */
+    private final int[] transitions;
+
+    /**
+     * The token type ordinal of each state. (-1 for non accepting states)
+     */
+    private final int[] acceptTypes;
+
+    /**
+     * Constructor.
+     *
+     * @param tc The token type <b>Enum</b> class.
+     * @param dfa The byte automaton, whose outputs are token types.
+     */
+    public ByteLexer(Class<T> tc, ByteDFAutomaton<? extends T> dfa) {
+        Objects.requireNonNull(tc);
+        Objects.requireNonNull(dfa);
+
+        tokenClass = tc;
+        transitions = dfa.getTransitionTable();
+        acceptTypes = new int[dfa.getNumberOfStates()];
+
+        for (int s = 0; s < acceptTypes.length; s++) {
+            acceptTypes[s] = dfa.isAccepting(s) ? dfa.getOutput(s).ordinal() : -1;
+        }
+    }
+
+    /**
+     * Constructor compiling a character automaton.
+     *
+     * @param tc The token type <b>Enum</b> class.
+     * @param dfa The character automaton, whose outputs are token types.
+     */
+    public ByteLexer(Class<T> tc, DFAutomaton<Character, ?, ? extends T> dfa) {
+        this(tc, ByteDFAutomaton.compile(dfa));
+    }
+
+    /**
+     * Lex all bytes of an array.
+     *
+     * @param source The UTF-8 bytes.
+     * @return The lexed tokens.
+     */
+    public ByteTokenTape<T> lex(byte[] source) {
+        Objects.requireNonNull(source);
+        return lex(ByteBuffer.wrap(source));
+    }
+
+    /**
+     * Lex the remaining bytes of a buffer. (The bytes between its position and limit)
+     * The buffer's position is not changed. Offsets of the tokens lexed are relative to the buffer's position.
+     * The buffer's contents must not be changed while the tape is in use.
+     *
+     * @param source The UTF-8 bytes.
+     * @return The lexed tokens.
+     */
+    public ByteTokenTape<T> lex(ByteBuffer source) {
+        Objects.requireNonNull(source);
+
+        ByteBuffer buffer = source.slice();
+        int length = buffer.limit();
+
+        int expected = length / 4 + 1;
+        GrowableIntArray types = new GrowableIntArray(expected);
+        GrowableIntArray starts = new GrowableIntArray(expected);
+        GrowableIntArray ends = new GrowableIntArray(expected);
+
+        int start = 0;
+
+        while (start < length) {
+            int state = 0;
+            int position = start;
+
+            int lastEnd = -1;
+            int lastType = -1;
+
+            while (true) {
+                if (acceptTypes[state] != -1) {
+                    lastEnd = position;
+                    lastType = acceptTypes[state];
+                }
+
+                if (position == length) {
+                    break;
+                }
+
+                state = transitions[(state << 8) | (buffer.get(position++) & 0xFF)];
+
+                if (state == ByteDFAutomaton.DEAD) {
+                    break;
+                }
+            }
+
+            if (lastEnd > start) {
+                types.add(lastType);
+                starts.add(start);
+                ends.add(lastEnd);
+
+                start = lastEnd;
+            } else {
+                // Extend the error to the end of the character it stopped in.
+                while (position < length && (buffer.get(position) & 0xC0) == 0x80) {
+                    position++;
+                }
+
+                types.add(ByteTokenTape.ERROR_TYPE);
+                starts.add(start);
+                ends.add(position);
+
+                start = position;
+            }
+        }
+
+        return new ByteTokenTape<>(tokenClass, buffer, types.toArray(), starts.toArray(), ends.toArray());
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.chathamabate.peru.lexer.bytelexer;
+
+import com.github.chathamabate.peru.misc.GrowableIntArray;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A <b>ByteLineIndex</b> holds the byte offset at which each line of some UTF-8 source starts.
+ * <br>
+ * Lines are found by scanning for <b>'\n'</b> bytes, which never appear inside a multi byte UTF-8 sequence.
+ * Line positions are given in characters (UTF-16 code units), the same as the character lexers.
+ * A line position is computed by decoding only the part of its line before it.
+ * @see com.github.chathamabate.peru.charpos.LineIndex
+ */
+public final class ByteLineIndex {
+
+    /**
+     * Build the line index of a UTF-8 source.
+     *
+     * @param source The source. Offsets are relative to index 0 of this buffer.
+     * @return The <b>ByteLineIndex</b>.
+     */
+    public static ByteLineIndex of(ByteBuffer source) {
+        Objects.requireNonNull(source);
+
+        GrowableIntArray lineStarts = new GrowableIntArray();
+        lineStarts.add(0);
+
+        int length = source.limit();
+        for (int i = 0; i < length; i++) {
+            if (source.get(i) == '\n') {
+                lineStarts.add(i + 1);
+            }
+        }
+
+        return new ByteLineIndex(source, lineStarts.toArray());
+    }
+
+    /**
+     * The source.
+     */
+    private final ByteBuffer source;
+
+    /**
+     * The starting byte offset of each line. (Ascending)
+     */
+    private final int[] lineStarts;
+
+    /**
+     * Constructor. (No checks)
+     *
+     * @param src The source.
+     * @param ls The line starts.
+     */
+    private ByteLineIndex(ByteBuffer src, int[] ls) {
+        source = src;
+        lineStarts = ls;
+    }
+
+    /**
+     * Get the number of lines.
+     *
+     * @return The number of lines.
+     */
+    public int getLineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * Get the line number of some byte offset.
+     *
+     * @param offset The byte offset.
+     * @return The line number.
+     */
+    public int getLine(int offset) {
+        if (offset < 0 || offset > source.limit()) {
+            throw new IndexOutOfBoundsException("Bad offset given " + offset + ".");
+        }
+
+        int index = Arrays.binarySearch(lineStarts, offset);
+
+        // When not found, binarySearch gives -(insertion point) - 1.
+        return index < 0 ? -index - 2 : index;
+    }
+
+    /**
+     * Get the position of some byte offset within its line, in characters.
+     *
+     * @param offset The byte offset.
+     * @return The line position.
+     */
+    public int getLinePosition(int offset) {
+        int position = 0;
+
+        for (int i = lineStarts[getLine(offset)]; i < offset; i++) {
+            int b = source.get(i) & 0xFF;
+
+            if ((b & 0xC0) != 0x80) {
+                // Lead bytes of 4 byte sequences begin surrogate pairs, which are 2 characters.
+                position += b >= 0xF0 ? 2 : 1;
+            }
+        }
+
+        return position;
+    }
+}
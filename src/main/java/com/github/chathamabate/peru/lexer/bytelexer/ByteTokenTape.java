@@ -0,0 +1,249 @@
+package com.github.chathamabate.peru.lexer.bytelexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.misc.LineException;
+import io.vavr.Lazy;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.Stream;
+import io.vavr.control.Try;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A <b>ByteTokenTape</b> is a compact, immutable, random access sequence of tokens lexed from UTF-8 bytes.
+ * <br>
+ * Tokens are stored as byte offsets into the source. Lexemes are only decoded when asked for, and
+ * lines and line positions are only computed when asked for, using a {@link ByteLineIndex} which is built
+ * the first time it is needed.
+ * @see com.github.chathamabate.peru.lexer.charlexer.TokenTape
+ *
+ * @param <T> The token type <b>Enum</b>.
+ */
+public final class ByteTokenTape<T extends Enum<T>> {
+
+    /**
+     * The type ordinal stored for byte sequences which could not be lexed.
+     */
+    public static final int ERROR_TYPE = -1;
+
+    /**
+     * The constants of the token type <b>Enum</b> indexed by ordinal.
+     */
+    private final T[] tokenTypes;
+
+    /**
+     * The source.
+     */
+    private final ByteBuffer source;
+
+    /**
+     * Token type ordinals.
+     */
+    private final int[] types;
+
+    /**
+     * Start byte offsets. (Inclusive)
+     */
+    private final int[] starts;
+
+    /**
+     * End byte offsets. (Exclusive)
+     */
+    private final int[] ends;
+
+    /**
+     * The line index of the source, built on first use.
+     */
+    private final Lazy<ByteLineIndex> lineIndex;
+
+    /**
+     * Constructor. (No checks)
+     *
+     * @param tc The token type <b>Enum</b> class.
+     * @param src The source.
+     * @param ty The token type ordinals.
+     * @param s The start offsets.
+     * @param e The end offsets.
+     */
+    ByteTokenTape(Class<T> tc, ByteBuffer src, int[] ty, int[] s, int[] e) {
+        tokenTypes = tc.getEnumConstants();
+        source = src;
+        types = ty;
+        starts = s;
+        ends = e;
+        lineIndex = Lazy.of(() -> ByteLineIndex.of(src));
+    }
+
+    /**
+     * Get the number of tokens on this tape.
+     *
+     * @return The number of tokens.
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * Get the source this tape's tokens were lexed from.
+     *
+     * @return A read only view of the source.
+     */
+    public ByteBuffer getSource() {
+        return source.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the line index of this tape's source.
+     *
+     * @return The line index.
+     */
+    public ByteLineIndex getLineIndex() {
+        return lineIndex.get();
+    }
+
+    /**
+     * Throw an error if the given index is not the index of a token on this tape.
+     *
+     * @param index The index.
+     */
+    private void validateIndex(int index) {
+        if (index < 0 || index >= types.length) {
+            throw new IndexOutOfBoundsException("Bad token index given " + index + ".");
+        }
+    }
+
+    /**
+     * Determine whether the token at a given index is an unlexable byte sequence.
+     *
+     * @param index The token index.
+     * @return Whether or not the token is an error.
+     */
+    public boolean isError(int index) {
+        validateIndex(index);
+        return types[index] == ERROR_TYPE;
+    }
+
+    /**
+     * Get the type of the token at a given index.
+     * An error is thrown if the token is an error.
+     *
+     * @param index The token index.
+     * @return The token type.
+     */
+    public T getTokenType(int index) {
+        if (isError(index)) {
+            throw new IllegalArgumentException("Token " + index + " is an error.");
+        }
+
+        return tokenTypes[types[index]];
+    }
+
+    /**
+     * Get the start byte offset of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The start offset. (Inclusive)
+     */
+    public int getStart(int index) {
+        validateIndex(index);
+        return starts[index];
+    }
+
+    /**
+     * Get the end byte offset of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The end offset. (Exclusive)
+     */
+    public int getEnd(int index) {
+        validateIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Get the line number of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The line number.
+     */
+    public int getLine(int index) {
+        validateIndex(index);
+        return lineIndex.get().getLine(starts[index]);
+    }
+
+    /**
+     * Get the line position, in characters, of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The line position.
+     */
+    public int getLinePosition(int index) {
+        validateIndex(index);
+        return lineIndex.get().getLinePosition(starts[index]);
+    }
+
+    /**
+     * Decode the lexeme of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The lexeme.
+     */
+    public String getLexeme(int index) {
+        validateIndex(index);
+
+        ByteBuffer slice = source.duplicate();
+        slice.position(starts[index]);
+        slice.limit(ends[index]);
+
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    /**
+     * Build the data of the token at a given index.
+     * An error is thrown if the token is an error.
+     *
+     * @param index The token index.
+     * @return The token's data.
+     */
+    public EnumCharPos<T> getData(int index) {
+        T type = getTokenType(index);
+        return EnumCharPos.charPosEnum(getLine(index), getLinePosition(index), type);
+    }
+
+    /**
+     * Build the full token at a given index in the same form produced by a character lexer.
+     *
+     * @param index The token index.
+     * @return The token as a <b>Tuple2</b> of its lexeme and <b>Try</b> of its data.
+     */
+    public Tuple2<String, Try<EnumCharPos<T>>> getToken(int index) {
+        return isError(index)
+                ? Tuple.of(getLexeme(index), Try.failure(LineException.lineEx(getLine(index), getLinePosition(index),
+                        "Lexeme cannot be lexed.")))
+                : Tuple.of(getLexeme(index), Try.success(getData(index)));
+    }
+
+    /**
+     * Adapt this tape into a <b>Stream</b> of tokens which can be given to a parser.
+     * This tape is assumed to have no errors. If an error is reached while traversing the <b>Stream</b>,
+     * it will be thrown.
+     *
+     * @return The lazily built <b>Stream</b> of tokens.
+     */
+    public Stream<Tuple2<String, EnumCharPos<T>>> toSuccessfulTokenStream() {
+        return Stream.range(0, types.length).map(i -> Tuple.of(getLexeme(i), getData(i)));
+    }
+
+    /**
+     * Same as {@link #toSuccessfulTokenStream()} except all errors are skipped.
+     *
+     * @return The lazily built <b>Stream</b> of tokens.
+     */
+    public Stream<Tuple2<String, EnumCharPos<T>>> toOnlySuccessfulTokenStream() {
+        return Stream.range(0, types.length)
+                .filter(i -> types[i] != ERROR_TYPE)
+                .map(i -> Tuple.of(getLexeme(i), getData(i)));
+    }
+}
@@ -17,6 +17,21 @@ public class CharLinearContext extends CharSimpleContext implements LinearContex
     public static final CharLinearContext INIT_LINEAR_CONTEXT =
             new CharLinearContext(HashMap.empty(), 0, PositionData.INIT_POSITION, PositionData.INIT_POSITION);
 
+    /**
+     * Create an initial linear context for a lexer which begins lexing part way through a source.
+     * The error cache of the context will be empty.
+     *
+     * @param absPosition The absolute position lexing begins at.
+     * @param line The line number.
+     * @param linePosition The line position.
+     * @return The new context.
+     */
+    public static CharLinearContext at(int absPosition, int line, int linePosition) {
+        return new CharLinearContext(HashMap.empty(), absPosition,
+                new PositionData(line, line, line),
+                new PositionData(linePosition, linePosition, linePosition));
+    }
+
     /**
      * The absolute position of this context's lexer.
      * @see LinearContext#getAbsolutePosition()
@@ -6,6 +6,8 @@ import com.github.chathamabate.peru.fa.DFAutomaton;
 import com.github.chathamabate.peru.lexer.LinearDLexer;
 import com.github.chathamabate.peru.misc.LineException;
 
+import java.util.Objects;
+
 /**
  * Lexer for lexing characters into categorized strings. This lexer uses the optimised algorithm from
  * {@link LinearDLexer}.
@@ -15,6 +17,11 @@ import com.github.chathamabate.peru.misc.LineException;
 public class CharLinearDLexer<T extends Enum<T>>
         extends LinearDLexer<Character, String, EnumCharPos<T>, CharLinearContext> {
 
+    /**
+     * The table used to reclassify identifier tokens as keywords.
+     */
+    private final KeywordTable<T> keywords;
+
     /**
      * Build a linear character lexer with a max rollback amount.
      *
@@ -24,6 +31,7 @@ public class CharLinearDLexer<T extends Enum<T>>
     protected CharLinearDLexer(int mra, DFAutomaton<? super Character, ?,
             ? extends Function1<? super CharLinearContext, ? extends EnumCharPos<T>>> d) {
         super(mra, "", d);
+        keywords = KeywordTable.empty();
     }
 
     /**
@@ -34,6 +42,41 @@ public class CharLinearDLexer<T extends Enum<T>>
     protected CharLinearDLexer(DFAutomaton<? super Character, ?,
             ? extends Function1<? super CharLinearContext, ? extends EnumCharPos<T>>> d) {
         super("", d);
+        keywords = KeywordTable.empty();
+    }
+
+    /**
+     * Build a linear character lexer with a max rollback amount and a keyword table.
+     *
+     * @param mra The max rollback amount.
+     * @param k The keyword table used to reclassify identifier tokens.
+     * @param d The automaton of the lexer.
+     */
+    protected CharLinearDLexer(int mra, KeywordTable<T> k, DFAutomaton<? super Character, ?,
+            ? extends Function1<? super CharLinearContext, ? extends EnumCharPos<T>>> d) {
+        super(mra, "", d);
+
+        Objects.requireNonNull(k);
+        keywords = k;
+    }
+
+    /**
+     * Build a linear character lexer with the preset max rollback amount and a keyword table.
+     *
+     * @param k The keyword table used to reclassify identifier tokens.
+     * @param d The automaton of the lexer.
+     */
+    protected CharLinearDLexer(KeywordTable<T> k, DFAutomaton<? super Character, ?,
+            ? extends Function1<? super CharLinearContext, ? extends EnumCharPos<T>>> d) {
+        super("", d);
+
+        Objects.requireNonNull(k);
+        keywords = k;
+    }
+
+    @Override
+    protected EnumCharPos<T> classify(String lexeme, EnumCharPos<T> data) {
+        return keywords.classify(lexeme, data);
     }
 
     @Override
@@ -75,4 +118,16 @@ public class CharLinearDLexer<T extends Enum<T>>
         return context.map(l -> l.withStarting(l.getEnding()).withCurrent(l.getEnding()),
                 lp -> lp.withStarting(lp.getEnding()).withCurrent(lp.getEnding()));
     }
+
+    @Override
+    protected CharLinearContext onSkipToken(CharLinearContext context) {
+        return context.map(l -> l.withEnding(l.getCurrent()), lp -> lp.withEnding(lp.getCurrent()));
+    }
+
+    @Override
+    protected CharLinearContext onSkipSuccess(CharLinearContext context) {
+        // Skipped tokens restart the context just like successful tokens.
+        return context.map(l -> l.withStarting(l.getEnding()).withCurrent(l.getEnding()),
+                lp -> lp.withStarting(lp.getEnding()).withCurrent(lp.getEnding()));
+    }
 }
@@ -0,0 +1,120 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.CharPos;
+import com.github.chathamabate.peru.charpos.LineIndex;
+
+import java.util.Objects;
+
+/**
+ * The context of a {@link CharOffsetDLexer}.
+ * <br>
+ * Unlike a {@link CharSimpleContext}, this context only tracks absolute offsets into the source.
+ * The line and line position of the context are computed on demand from a {@link LineIndex} of the source.
+ */
+public class CharOffsetContext implements CharPos {
+
+    /**
+     * Create a context for lexing a source from some offset.
+     *
+     * @param index The line index of the source.
+     * @param offset The offset lexing begins at.
+     * @return The new context.
+     */
+    public static CharOffsetContext at(LineIndex index, int offset) {
+        Objects.requireNonNull(index);
+        return new CharOffsetContext(index, offset, offset, offset);
+    }
+
+    /**
+     * The line index of the source being lexed.
+     */
+    private final LineIndex lineIndex;
+
+    /**
+     * The offset the current lexeme starts at.
+     */
+    private final int starting;
+
+    /**
+     * The offset directly after the last token found.
+     */
+    private final int ending;
+
+    /**
+     * The offset directly after the last input read.
+     */
+    private final int current;
+
+    /**
+     * Constructor.
+     *
+     * @param li The line index.
+     * @param s The starting offset.
+     * @param e The ending offset.
+     * @param c The current offset.
+     */
+    public CharOffsetContext(LineIndex li, int s, int e, int c) {
+        lineIndex = li;
+        starting = s;
+        ending = e;
+        current = c;
+    }
+
+    /**
+     * Get the line index of the source being lexed.
+     *
+     * @return The line index.
+     */
+    public LineIndex getLineIndex() {
+        return lineIndex;
+    }
+
+    /**
+     * Get the starting offset.
+     *
+     * @return The starting offset.
+     */
+    public int getStarting() {
+        return starting;
+    }
+
+    /**
+     * Get the ending offset.
+     *
+     * @return The ending offset.
+     */
+    public int getEnding() {
+        return ending;
+    }
+
+    /**
+     * Get the current offset.
+     *
+     * @return The current offset.
+     */
+    public int getCurrent() {
+        return current;
+    }
+
+    /**
+     * Set the offsets of this context.
+     *
+     * @param s The new starting offset.
+     * @param e The new ending offset.
+     * @param c The new current offset.
+     * @return The new context.
+     */
+    public CharOffsetContext withOffsets(int s, int e, int c) {
+        return new CharOffsetContext(lineIndex, s, e, c);
+    }
+
+    @Override
+    public int getLine() {
+        return lineIndex.getLine(starting);
+    }
+
+    @Override
+    public int getLinePosition() {
+        return lineIndex.getLinePosition(starting);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.lexer.SimpleDLexer;
+import com.github.chathamabate.peru.misc.LineException;
+import io.vavr.Function1;
+
+import java.util.Objects;
+
+/**
+ * A simple character lexer which only tracks absolute offsets while lexing.
+ * <br>
+ * Unlike {@link CharSimpleDLexer}, reading a character never checks for new lines.
+ * Line and line position are computed from the context's {@link com.github.chathamabate.peru.charpos.LineIndex}
+ * only when token data or an error is built.
+ *
+ * @param <T> The category type.
+ */
+public class CharOffsetDLexer<T extends Enum<T>> extends
+        SimpleDLexer<Character, String, EnumCharPos<T>, CharOffsetContext> {
+
+    /**
+     * The table used to reclassify identifier tokens as keywords.
+     */
+    private final KeywordTable<T> keywords;
+
+    /**
+     * Constructor.
+     *
+     * @param d The lexer's deterministic finite automaton.
+     */
+    public CharOffsetDLexer(DFAutomaton<? super Character, ?,
+            ? extends Function1<? super CharOffsetContext, ? extends EnumCharPos<T>>> d) {
+        super("", d);
+        keywords = KeywordTable.empty();
+    }
+
+    /**
+     * Constructor with a keyword table.
+     *
+     * @param k The keyword table used to reclassify identifier tokens.
+     * @param d The lexer's deterministic finite automaton.
+     */
+    public CharOffsetDLexer(KeywordTable<T> k, DFAutomaton<? super Character, ?,
+            ? extends Function1<? super CharOffsetContext, ? extends EnumCharPos<T>>> d) {
+        super("", d);
+
+        Objects.requireNonNull(k);
+        keywords = k;
+    }
+
+    @Override
+    protected EnumCharPos<T> classify(String lexeme, EnumCharPos<T> data) {
+        return keywords.classify(lexeme, data);
+    }
+
+    @Override
+    protected CharOffsetContext readInput(Character input, CharOffsetContext context) {
+        return context.withOffsets(context.getStarting(), context.getEnding(), context.getCurrent() + 1);
+    }
+
+    @Override
+    protected String combineInput(String lexeme, Character input) {
+        return lexeme + input;
+    }
+
+    @Override
+    protected CharOffsetContext onToken(String lexeme, EnumCharPos<T> data, CharOffsetContext context) {
+        return context.withOffsets(context.getStarting(), context.getCurrent(), context.getCurrent());
+    }
+
+    @Override
+    protected LineException makeError(String lexeme, CharOffsetContext context) {
+        return LineException.lineEx(context, "Lexeme cannot be lexed.");
+    }
+
+    @Override
+    protected CharOffsetContext onError(String lexeme, CharOffsetContext context) {
+        return context.withOffsets(context.getCurrent(), context.getCurrent(), context.getCurrent());
+    }
+
+    @Override
+    protected CharOffsetContext onSuccess(String lexeme, EnumCharPos<T> data, CharOffsetContext context) {
+        // Restart the context directly after the successful token.
+        return context.withOffsets(context.getEnding(), context.getEnding(), context.getEnding());
+    }
+
+    @Override
+    protected CharOffsetContext onSkipToken(CharOffsetContext context) {
+        return context.withOffsets(context.getStarting(), context.getCurrent(), context.getCurrent());
+    }
+
+    @Override
+    protected CharOffsetContext onSkipSuccess(CharOffsetContext context) {
+        // Skipped tokens restart the context just like successful tokens.
+        return context.withOffsets(context.getEnding(), context.getEnding(), context.getEnding());
+    }
+}
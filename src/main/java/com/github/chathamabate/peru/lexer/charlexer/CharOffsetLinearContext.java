@@ -0,0 +1,97 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.LineIndex;
+import com.github.chathamabate.peru.lexer.LinearContext;
+import io.vavr.Tuple;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.Map;
+import io.vavr.collection.Set;
+
+import java.util.Objects;
+
+/**
+ * The context used by a {@link CharOffsetLinearDLexer}.
+ * <br>
+ * The absolute position of this context is its current offset. Since the linear lexer advances the absolute
+ * position itself, reading an input requires no further work.
+ */
+public class CharOffsetLinearContext extends CharOffsetContext implements LinearContext<CharOffsetLinearContext> {
+
+    /**
+     * Create a context for lexing a source from some offset.
+     * The error cache of the context will be empty.
+     *
+     * @param index The line index of the source.
+     * @param offset The offset lexing begins at.
+     * @return The new context.
+     */
+    public static CharOffsetLinearContext at(LineIndex index, int offset) {
+        Objects.requireNonNull(index);
+        return new CharOffsetLinearContext(HashMap.empty(), index, offset, offset, offset);
+    }
+
+    /**
+     * This map holds all previously seen error states of the lexer after this context's absolute position.
+     * @see CharLinearContext
+     */
+    private final Map<Integer, Set<Integer>> failMap;
+
+    /**
+     * Construct a new offset linear context.
+     *
+     * @param fm The error cache.
+     * @param li The line index.
+     * @param s The starting offset.
+     * @param e The ending offset.
+     * @param c The current offset. (And absolute position)
+     */
+    public CharOffsetLinearContext(Map<Integer, ? extends Set<? extends Integer>> fm,
+                                   LineIndex li, int s, int e, int c) {
+        super(li, s, e, c);
+
+        failMap = fm.map((p, st) -> Tuple.of(p, Set.narrow(st)));
+    }
+
+    @Override
+    public CharOffsetLinearContext withOffsets(int s, int e, int c) {
+        return new CharOffsetLinearContext(failMap, getLineIndex(), s, e, c);
+    }
+
+    @Override
+    public int getAbsolutePosition() {
+        return getCurrent();
+    }
+
+    @Override
+    public CharOffsetLinearContext withAbsolutePosition(int absPosition) {
+        return withOffsets(getStarting(), getEnding(), absPosition);
+    }
+
+    @Override
+    public CharOffsetLinearContext dropPreErrorsBefore(int absPosition) {
+        Map<Integer, Set<Integer>> cleanMap = failMap;
+
+        for (Integer key: failMap.keySet()) {
+            if (key < absPosition) {
+                cleanMap = cleanMap.remove(key);
+            }
+        }
+
+        return new CharOffsetLinearContext(cleanMap, getLineIndex(), getStarting(), getEnding(), getCurrent());
+    }
+
+    @Override
+    public boolean isPreError(int absPosition, int state) {
+        return failMap.containsKey(absPosition) &&
+                failMap.get(absPosition).get().contains(state);
+    }
+
+    @Override
+    public CharOffsetLinearContext withPreErrors(Map<? extends Integer, ? extends Integer> preErrors) {
+        Map<Integer, Set<Integer>> preErrorSets = Map.<Integer, Integer>narrow(preErrors).mapValues(HashSet::of);
+        Map<Integer, Set<Integer>> newFailMap = failMap.merge(preErrorSets, Set::addAll);
+
+        return new CharOffsetLinearContext(newFailMap, getLineIndex(), getStarting(), getEnding(), getCurrent());
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.lexer.LinearDLexer;
+import com.github.chathamabate.peru.misc.LineException;
+import io.vavr.Function1;
+
+import java.util.Objects;
+
+/**
+ * A linear character lexer which only tracks absolute offsets while lexing.
+ * @see CharOffsetDLexer
+ * @see CharLinearDLexer
+ *
+ * @param <T> The <b>Enum</b> category type.
+ */
+public class CharOffsetLinearDLexer<T extends Enum<T>>
+        extends LinearDLexer<Character, String, EnumCharPos<T>, CharOffsetLinearContext> {
+
+    /**
+     * The table used to reclassify identifier tokens as keywords.
+     */
+    private final KeywordTable<T> keywords;
+
+    /**
+     * Build an offset linear character lexer with a max rollback amount.
+     *
+     * @param mra The max rollback amount.
+     * @param d The automaton of the lexer.
+     */
+    public CharOffsetLinearDLexer(int mra, DFAutomaton<? super Character, ?,
+            ? extends Function1<? super CharOffsetLinearContext, ? extends EnumCharPos<T>>> d) {
+        super(mra, "", d);
+        keywords = KeywordTable.empty();
+    }
+
+    /**
+     * Build an offset linear character lexer with the preset max rollback amount.
+     *
+     * @param d The automaton of the lexer.
+     */
+    public CharOffsetLinearDLexer(DFAutomaton<? super Character, ?,
+            ? extends Function1<? super CharOffsetLinearContext, ? extends EnumCharPos<T>>> d) {
+        super("", d);
+        keywords = KeywordTable.empty();
+    }
+
+    /**
+     * Build an offset linear character lexer with a max rollback amount and a keyword table.
+     *
+     * @param mra The max rollback amount.
+     * @param k The keyword table used to reclassify identifier tokens.
+     * @param d The automaton of the lexer.
+     */
+    public CharOffsetLinearDLexer(int mra, KeywordTable<T> k, DFAutomaton<? super Character, ?,
+            ? extends Function1<? super CharOffsetLinearContext, ? extends EnumCharPos<T>>> d) {
+        super(mra, "", d);
+
+        Objects.requireNonNull(k);
+        keywords = k;
+    }
+
+    /**
+     * Build an offset linear character lexer with the preset max rollback amount and a keyword table.
+     *
+     * @param k The keyword table used to reclassify identifier tokens.
+     * @param d The automaton of the lexer.
+     */
+    public CharOffsetLinearDLexer(KeywordTable<T> k, DFAutomaton<? super Character, ?,
+            ? extends Function1<? super CharOffsetLinearContext, ? extends EnumCharPos<T>>> d) {
+        super("", d);
+
+        Objects.requireNonNull(k);
+        keywords = k;
+    }
+
+    @Override
+    protected EnumCharPos<T> classify(String lexeme, EnumCharPos<T> data) {
+        return keywords.classify(lexeme, data);
+    }
+
+    @Override
+    protected CharOffsetLinearContext readInput(Character input, CharOffsetLinearContext context) {
+        // The current offset is the absolute position, which the linear lexer has already advanced.
+        return context;
+    }
+
+    @Override
+    protected String combineInput(String lexeme, Character input) {
+        return lexeme + input;
+    }
+
+    @Override
+    protected CharOffsetLinearContext onToken(String lexeme, EnumCharPos<T> data, CharOffsetLinearContext context) {
+        return context.withOffsets(context.getStarting(), context.getCurrent(), context.getCurrent());
+    }
+
+    @Override
+    protected Throwable makeError(String lexeme, CharOffsetLinearContext context) {
+        return LineException.lineEx(context, "Lexeme cannot be lexed." + lexeme);
+    }
+
+    @Override
+    protected CharOffsetLinearContext onError(String lexeme, CharOffsetLinearContext context) {
+        return context.withOffsets(context.getCurrent(), context.getCurrent(), context.getCurrent());
+    }
+
+    @Override
+    protected CharOffsetLinearContext onSuccess(String lexeme, EnumCharPos<T> data, CharOffsetLinearContext context) {
+        // The linear lexer has already moved the absolute position back to the ending offset.
+        return context.withOffsets(context.getEnding(), context.getEnding(), context.getEnding());
+    }
+
+    @Override
+    protected CharOffsetLinearContext onSkipToken(CharOffsetLinearContext context) {
+        return context.withOffsets(context.getStarting(), context.getCurrent(), context.getCurrent());
+    }
+
+    @Override
+    protected CharOffsetLinearContext onSkipSuccess(CharOffsetLinearContext context) {
+        // Skipped tokens restart the context just like successful tokens.
+        return context.withOffsets(context.getEnding(), context.getEnding(), context.getEnding());
+    }
+}
@@ -17,6 +17,21 @@ public class CharSimpleContext implements CharPos {
             PositionData.INIT_POSITION
     );
 
+    /**
+     * Create an initial simple context for a lexer which begins lexing at some line and line position.
+     * This is useful when lexing is resumed part way through a source.
+     *
+     * @param line The line number.
+     * @param linePosition The line position.
+     * @return The new context.
+     */
+    public static CharSimpleContext at(int line, int linePosition) {
+        return new CharSimpleContext(
+                new PositionData(line, line, line),
+                new PositionData(linePosition, linePosition, linePosition)
+        );
+    }
+
     /**
      * Data on the lexer's line number.
      */
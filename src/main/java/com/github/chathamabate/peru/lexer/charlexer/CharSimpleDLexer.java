@@ -6,6 +6,8 @@ import com.github.chathamabate.peru.fa.DFAutomaton;
 import com.github.chathamabate.peru.lexer.SimpleDLexer;
 import com.github.chathamabate.peru.misc.LineException;
 
+import java.util.Objects;
+
 /**
  * A lexer for lexing characters into strings using the simple lexing algorithm.
  * This lexer will categorize a successful lexeme with some <b>Enum</b>.
@@ -17,6 +19,11 @@ import com.github.chathamabate.peru.misc.LineException;
 public class CharSimpleDLexer<T extends Enum<T>> extends
         SimpleDLexer<Character, String, EnumCharPos<T>, CharSimpleContext> {
 
+    /**
+     * The table used to reclassify identifier tokens as keywords.
+     */
+    private final KeywordTable<T> keywords;
+
     /**
      * Constructor.
      *
@@ -25,6 +32,26 @@ public class CharSimpleDLexer<T extends Enum<T>> extends
     public CharSimpleDLexer(DFAutomaton<? super Character, ?,
                     ? extends Function1<? super CharSimpleContext, ? extends EnumCharPos<T>>> d) {
         super("", d);
+        keywords = KeywordTable.empty();
+    }
+
+    /**
+     * Constructor with a keyword table.
+     *
+     * @param k The keyword table used to reclassify identifier tokens.
+     * @param d The lexer's deterministic finite automaton.
+     */
+    public CharSimpleDLexer(KeywordTable<T> k, DFAutomaton<? super Character, ?,
+            ? extends Function1<? super CharSimpleContext, ? extends EnumCharPos<T>>> d) {
+        super("", d);
+
+        Objects.requireNonNull(k);
+        keywords = k;
+    }
+
+    @Override
+    protected EnumCharPos<T> classify(String lexeme, EnumCharPos<T> data) {
+        return keywords.classify(lexeme, data);
     }
 
     @Override
@@ -65,4 +92,16 @@ public class CharSimpleDLexer<T extends Enum<T>> extends
         return context.map(l -> l.withCurrent(l.getEnding()).withStarting(l.getEnding()),
                 lp -> lp.withCurrent(lp.getEnding()).withStarting(lp.getEnding()));
     }
+
+    @Override
+    protected CharSimpleContext onSkipToken(CharSimpleContext context) {
+        return context.map(l -> l.withEnding(l.getCurrent()), lp -> lp.withEnding(lp.getCurrent()));
+    }
+
+    @Override
+    protected CharSimpleContext onSkipSuccess(CharSimpleContext context) {
+        // Skipped tokens restart the context just like successful tokens.
+        return context.map(l -> l.withCurrent(l.getEnding()).withStarting(l.getEnding()),
+                lp -> lp.withCurrent(lp.getEnding()).withStarting(lp.getEnding()));
+    }
 }
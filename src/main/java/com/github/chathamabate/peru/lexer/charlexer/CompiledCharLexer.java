@@ -0,0 +1,346 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.lexer.DLexer;
+import io.vavr.Function1;
+import io.vavr.collection.Array;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Set;
+import io.vavr.concurrent.Future;
+import io.vavr.control.Option;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * A <b>CompiledCharLexer</b> is an immutable, thread safe lexer which lexes character sources directly
+ * into {@link TokenTape}s.
+ * <br>
+ * It is compiled from the same automaton as a {@link CharSimpleDLexer} and produces the same tokens.
+ * At compile time, the input class of every character is found and the automaton's transitions are flattened
+ * into a dense <b>int</b> table. So, lexing never touches vavr collections or builds intermediate contexts.
+ * <br>
+ * The token type of each accepting state is found once by applying its data builder to
+ * {@link CharSimpleContext#INIT_SIMPLE_CONTEXT}. So, data builders must always give the same token type
+ * regardless of the context, which is true of builders made with {@link EnumCharPos#enumBuilder(Enum)}.
+ * <br>
+ * Skip tokens (see {@link DLexer#skip()}) are left out of the tapes produced.
+ * <br>
+ * Unlike a <b>CharSimpleDLexer</b>, characters which the automaton cannot translate do not throw errors,
+ * they are lexed as part of an error token.
+ * <br>
+ * A single instance may be shared by any number of threads.
+ * Scratch buffers used while lexing are pooled rather than confined to threads, so instances
+ * work just as well when lexing from many short lived threads.
+ *
+ * @param <T> The token type <b>Enum</b>.
+ */
+public final class CompiledCharLexer<T extends Enum<T>> {
+
+    /**
+     * The transition given when a state has no transition for an input class.
+     */
+    private static final int DEAD = -1;
+
+    /**
+     * The token type given to states which accept skip tokens.
+     */
+    private static final int SKIP = -2;
+
+    /**
+     * The number of <b>char</b> values.
+     */
+    private static final int CHAR_COUNT = Character.MAX_VALUE + 1;
+
+    /**
+     * Compile a lexer.
+     *
+     * @param tc The token type <b>Enum</b> class.
+     * @param d The lexer's deterministic finite automaton.
+     * @param <T> The token type <b>Enum</b>.
+     * @return The compiled lexer.
+     */
+    public static <T extends Enum<T>> CompiledCharLexer<T> compile(Class<T> tc,
+            DFAutomaton<Character, ?, ? extends Function1<? super CharSimpleContext, ? extends EnumCharPos<T>>> d) {
+        return compile(tc, KeywordTable.empty(), d);
+    }
+
+    /**
+     * Compile a lexer with a keyword table.
+     *
+     * @param tc The token type <b>Enum</b> class.
+     * @param k The keyword table used to reclassify identifier tokens.
+     * @param d The lexer's deterministic finite automaton.
+     * @param <T> The token type <b>Enum</b>.
+     * @return The compiled lexer.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Enum<T>> CompiledCharLexer<T> compile(Class<T> tc, KeywordTable<T> k,
+            DFAutomaton<Character, ?, ? extends Function1<? super CharSimpleContext, ? extends EnumCharPos<T>>> d) {
+        Objects.requireNonNull(tc);
+        Objects.requireNonNull(k);
+        Objects.requireNonNull(d);
+
+        // Find the input class of every character.
+        Function1<Character, Object> getInputClass = (Function1<Character, Object>) d.getGetInputClassUnchecked();
+        Set<Object> alphabet = (Set<Object>) d.getInputAlphabet();
+
+        ArrayList<Object> classes = new ArrayList<>();
+        HashMap<Object, Integer> classIndices = new HashMap<>();
+        int[] charClasses = new int[CHAR_COUNT];
+
+        for (int c = 0; c < CHAR_COUNT; c++) {
+            Object inputClass;
+
+            try {
+                inputClass = getInputClass.apply((char) c);
+            } catch (RuntimeException e) {
+                inputClass = null;
+            }
+
+            if (inputClass == null || !alphabet.contains(inputClass)) {
+                charClasses[c] = DEAD;
+                continue;
+            }
+
+            Integer index = classIndices.get(inputClass);
+
+            if (index == null) {
+                index = classes.size();
+                classes.add(inputClass);
+                classIndices.put(inputClass, index);
+            }
+
+            charClasses[c] = index;
+        }
+
+        // Flatten the transition table.
+        int states = d.getNumberOfStates();
+        int width = classes.size();
+        int[] transitions = new int[states * width];
+        int[] acceptTypes = new int[states];
+
+        for (int s = 0; s < states; s++) {
+            Map<Object, Integer> row = (Map<Object, Integer>) d.getTransitionTable().get(s);
+
+            for (int i = 0; i < width; i++) {
+                Option<Integer> target = row.get(classes.get(i));
+                transitions[s * width + i] = target.isEmpty() ? DEAD : target.get();
+            }
+
+            if (!d.isAccepting(s)) {
+                acceptTypes[s] = DEAD;
+            } else if ((Object) d.getOutput(s) == DLexer.skip()) {
+                acceptTypes[s] = SKIP;
+            } else {
+                acceptTypes[s] = d.getOutput(s).apply(CharSimpleContext.INIT_SIMPLE_CONTEXT).getValue().ordinal();
+            }
+        }
+
+        return new CompiledCharLexer<>(tc, k, charClasses, width, transitions, acceptTypes);
+    }
+
+    /**
+     * The token type <b>Enum</b> class.
+     */
+    private final Class<T> tokenClass;
+
+    /**
+     * The table used to reclassify identifier tokens as keywords.
+     */
+    private final KeywordTable<T> keywords;
+
+    /**
+     * The ordinal of the identifier token type of the keyword table. (-1 for none)
+     */
+    private final int identifierOrdinal;
+
+    /**
+     * The input class index of every character. ({@link #DEAD} for untranslatable characters)
+     */
+    private final int[] charClasses;
+
+    /**
+     * The number of input classes.
+     */
+    private final int width;
+
+    /**
+     * Dense transition table. The transition from state <i>s</i> on input class <i>i</i> is at
+     * index <i>s * width + i</i>.
+     */
+    private final int[] transitions;
+
+    /**
+     * The token type ordinal of each state. ({@link #DEAD} for non accepting states, and {@link #SKIP}
+     * for skip states)
+     */
+    private final int[] acceptTypes;
+
+    /**
+     * Pool of idle scratch writers. Writers are taken while lexing and given back afterwards,
+     * so no writer is ever used by two threads at once.
+     */
+    private final ConcurrentLinkedQueue<TokenTapeWriter<T>> writers;
+
+    /**
+     * Constructor. (No checks)
+     *
+     * @param tc The token type <b>Enum</b> class.
+     * @param k The keyword table.
+     * @param cc The input class of every character.
+     * @param w The number of input classes.
+     * @param t The transition table.
+     * @param at The accepting token types.
+     */
+    private CompiledCharLexer(Class<T> tc, KeywordTable<T> k, int[] cc, int w, int[] t, int[] at) {
+        tokenClass = tc;
+        keywords = k;
+        identifierOrdinal = k.getIdentifier() == null ? DEAD : k.getIdentifier().ordinal();
+        charClasses = cc;
+        width = w;
+        transitions = t;
+        acceptTypes = at;
+        writers = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Get the token type <b>Enum</b> class of this lexer.
+     *
+     * @return The token type class.
+     */
+    public Class<T> getTokenClass() {
+        return tokenClass;
+    }
+
+    /**
+     * Lex an entire source.
+     *
+     * @param source The source.
+     * @return The <b>TokenTape</b> holding every token lexed from the source.
+     */
+    public TokenTape<T> lex(CharSequence source) {
+        Objects.requireNonNull(source);
+
+        TokenTapeWriter<T> writer = writers.poll();
+
+        if (writer == null) {
+            writer = new TokenTapeWriter<>(tokenClass, source);
+        } else {
+            writer.reset(source);
+        }
+
+        try {
+            lexInto(source, writer);
+            return writer.toTape();
+        } finally {
+            // Drop the source so pooled writers do not keep it alive.
+            writer.reset("");
+            writers.offer(writer);
+        }
+    }
+
+    /**
+     * Lex many sources concurrently.
+     * Each source is lexed by its own task on the given <b>Executor</b>.
+     *
+     * @param sources The sources.
+     * @param executor The <b>Executor</b> to lex on.
+     * @return A <b>Future</b> of the <b>TokenTape</b> of each source, in the order of the sources.
+     */
+    public Future<Seq<TokenTape<T>>> lexAll(Collection<? extends CharSequence> sources, Executor executor) {
+        Objects.requireNonNull(sources);
+        Objects.requireNonNull(executor);
+
+        Array<Future<TokenTape<T>>> tasks = Array.ofAll(sources)
+                .map(source -> Future.of(executor, () -> lex(source)));
+
+        return Future.sequence(executor, tasks);
+    }
+
+    /**
+     * Lex a source into a writer using maximal munch.
+     *
+     * @param source The source.
+     * @param writer The writer.
+     */
+    private void lexInto(CharSequence source, TokenTapeWriter<T> writer) {
+        int length = source.length();
+
+        int start = 0;
+        int line = 0;
+        int linePosition = 0;
+
+        while (start < length) {
+            int state = 0;
+            int position = start;
+            int currentLine = line;
+            int currentLinePosition = linePosition;
+
+            int lastEnd = -1;
+            int lastType = DEAD;
+            int lastLine = 0;
+            int lastLinePosition = 0;
+
+            while (true) {
+                if (acceptTypes[state] != DEAD) {
+                    lastEnd = position;
+                    lastType = acceptTypes[state];
+                    lastLine = currentLine;
+                    lastLinePosition = currentLinePosition;
+                }
+
+                if (position == length) {
+                    break;
+                }
+
+                char c = source.charAt(position++);
+
+                if (c == '\n') {
+                    currentLine++;
+                    currentLinePosition = 0;
+                } else {
+                    currentLinePosition++;
+                }
+
+                int inputClass = charClasses[c];
+                state = inputClass == DEAD ? DEAD : transitions[state * width + inputClass];
+
+                if (state == DEAD) {
+                    break;
+                }
+            }
+
+            if (lastEnd > start) {
+                if (lastType == identifierOrdinal) {
+                    T keyword = keywords.lookup(source, start, lastEnd);
+
+                    if (keyword != null) {
+                        lastType = keyword.ordinal();
+                    }
+                }
+
+                // Skip tokens are never written.
+                if (lastType != SKIP) {
+                    writer.writeOrdinal(lastType, start, lastEnd, line, linePosition);
+                }
+
+                start = lastEnd;
+                line = lastLine;
+                linePosition = lastLinePosition;
+            } else {
+                writer.writeError(start, position, line, linePosition);
+
+                start = position;
+                line = currentLine;
+                linePosition = currentLinePosition;
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.Array;
+import io.vavr.collection.List;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A <b>KeywordTable</b> reclassifies identifier lexemes into keyword token types after lexing.
+ * <br>
+ * Recognizing many keywords alongside an identifier pattern in a single automaton requires separate states
+ * for every keyword prefix. Instead, the automaton can recognize only identifiers, and a <b>KeywordTable</b>
+ * attached to the lexer can look up each identifier lexeme to see if it is actually a keyword.
+ * <br>
+ * Lookups use a minimal perfect hash built with the hash and displace method. Every keyword is assigned
+ * its own slot in a table exactly the size of the keyword set. A lookup hashes the lexeme twice and performs
+ * at most one <b>String</b> comparison.
+ *
+ * @param <T> The token type <b>Enum</b>.
+ */
+public final class KeywordTable<T extends Enum<T>> {
+
+    /**
+     * The largest displacement seed tried before giving up on a bucket.
+     */
+    private static final int MAX_SEED = 1 << 20;
+
+    /**
+     * A table which never reclassifies anything.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final KeywordTable EMPTY = new KeywordTable(null, new int[1], new String[0], List.empty());
+
+    /**
+     * Get a <b>KeywordTable</b> which never reclassifies anything.
+     *
+     * @param <T> The token type <b>Enum</b>.
+     * @return The empty table.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Enum<T>> KeywordTable<T> empty() {
+        return (KeywordTable<T>) EMPTY;
+    }
+
+    /**
+     * Build a <b>KeywordTable</b>.
+     *
+     * @param identifier The identifier token type keywords are reclassified from.
+     * @param keywords A map from each keyword to its token type.
+     * @param <T> The token type <b>Enum</b>.
+     * @return The new table.
+     */
+    public static <T extends Enum<T>> KeywordTable<T> keywordTable(T identifier,
+                                                                   Map<? extends String, ? extends T> keywords) {
+        Objects.requireNonNull(identifier);
+        Objects.requireNonNull(keywords);
+        keywords.forEach((k, v) -> {
+            Objects.requireNonNull(k);
+            Objects.requireNonNull(v);
+        });
+
+        int size = keywords.size();
+        if (size == 0) {
+            return new KeywordTable<>(identifier, new int[1], new String[0], List.empty());
+        }
+
+        // Group keywords into buckets by their first hash.
+        int bucketCount = Math.max(1, size / 2);
+
+        Array<List<Tuple2<String, T>>> grouping = Array.fill(bucketCount, List.empty());
+        for (Tuple2<? extends String, ? extends T> keyword : keywords) {
+            int bucket = index(hash(0, keyword._1), bucketCount);
+            grouping = grouping.update(bucket, grouping.get(bucket).prepend(Tuple.of(keyword._1, keyword._2)));
+        }
+
+        Array<List<Tuple2<String, T>>> buckets = grouping;
+
+        int[] seeds = new int[bucketCount];
+        String[] slots = new String[size];
+        Object[] types = new Object[size];
+
+        // Place the largest buckets first, while the table is emptiest.
+        Seq<Integer> order = Array.range(0, bucketCount).sortBy(b -> -buckets.get(b).size());
+
+        int freeSearch = 0;
+
+        for (int bucket : order) {
+            List<Tuple2<String, T>> members = buckets.get(bucket);
+
+            if (members.isEmpty()) {
+                continue;
+            }
+
+            if (members.size() == 1) {
+                // A single keyword can be placed directly in any free slot.
+                // The slot is encoded as a negative seed.
+                while (slots[freeSearch] != null) {
+                    freeSearch++;
+                }
+
+                slots[freeSearch] = members.head()._1;
+                types[freeSearch] = members.head()._2;
+                seeds[bucket] = -freeSearch - 1;
+
+                continue;
+            }
+
+            int seed = findSeed(members, slots);
+
+            for (Tuple2<String, T> member : members) {
+                int slot = index(hash(seed, member._1), size);
+                slots[slot] = member._1;
+                types[slot] = member._2;
+            }
+
+            seeds[bucket] = seed;
+        }
+
+        List<T> typeList = List.empty();
+        for (int i = size - 1; i >= 0; i--) {
+            @SuppressWarnings("unchecked")
+            T type = (T) types[i];
+            typeList = typeList.prepend(type);
+        }
+
+        return new KeywordTable<>(identifier, seeds, slots, typeList);
+    }
+
+    /**
+     * Find a displacement seed which places every keyword of a bucket into distinct free slots.
+     *
+     * @param members The keywords of the bucket.
+     * @param slots The slots of the table.
+     * @return The seed.
+     */
+    private static int findSeed(List<? extends Tuple2<String, ?>> members, String[] slots) {
+        boolean[] taken = new boolean[slots.length];
+
+        for (int seed = 1; seed < MAX_SEED; seed++) {
+            Arrays.fill(taken, false);
+            boolean fits = true;
+
+            for (Tuple2<String, ?> member : members) {
+                int slot = index(hash(seed, member._1), slots.length);
+
+                if (slots[slot] != null || taken[slot]) {
+                    fits = false;
+                    break;
+                }
+
+                taken[slot] = true;
+            }
+
+            if (fits) {
+                return seed;
+            }
+        }
+
+        throw new IllegalArgumentException("Could not build a perfect hash for the given keywords.");
+    }
+
+    /**
+     * Seeded FNV-1a hash of a sequence of characters.
+     *
+     * @param seed The seed.
+     * @param chars The characters.
+     * @return The hash.
+     */
+    private static int hash(int seed, CharSequence chars) {
+        return hash(seed, chars, 0, chars.length());
+    }
+
+    /**
+     * Seeded FNV-1a hash of a range of a sequence of characters.
+     *
+     * @param seed The seed.
+     * @param chars The characters.
+     * @param start The start of the range. (Inclusive)
+     * @param end The end of the range. (Exclusive)
+     * @return The hash.
+     */
+    private static int hash(int seed, CharSequence chars, int start, int end) {
+        int h = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+
+        for (int i = start; i < end; i++) {
+            h ^= chars.charAt(i);
+            h *= 0x01000193;
+        }
+
+        // Final avalanche so low bits depend on every character.
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+
+        return h;
+    }
+
+    /**
+     * Reduce a hash into the range [0, n).
+     *
+     * @param h The hash.
+     * @param n The range size.
+     * @return The index.
+     */
+    private static int index(int h, int n) {
+        return (h & 0x7FFFFFFF) % n;
+    }
+
+    /**
+     * The identifier token type. (Null for the empty table)
+     */
+    private final T identifier;
+
+    /**
+     * The displacement seed of each bucket.
+     * Negative seeds directly encode the slot of a single keyword bucket.
+     */
+    private final int[] seeds;
+
+    /**
+     * The keyword held in each slot.
+     */
+    private final String[] slots;
+
+    /**
+     * The token type of the keyword held in each slot.
+     */
+    private final Array<T> types;
+
+    /**
+     * Construct a <b>KeywordTable</b>. (No checks)
+     *
+     * @param id The identifier token type.
+     * @param s The bucket seeds.
+     * @param sl The slots.
+     * @param ty The slot token types.
+     */
+    private KeywordTable(T id, int[] s, String[] sl, Seq<T> ty) {
+        identifier = id;
+        seeds = s;
+        slots = sl;
+        types = Array.ofAll(ty);
+    }
+
+    /**
+     * Get the number of keywords in this table.
+     *
+     * @return The number of keywords.
+     */
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * Look up the token type of some lexeme.
+     *
+     * @param lexeme The lexeme.
+     * @return The keyword's token type, or null if the lexeme is not a keyword.
+     */
+    public T lookup(CharSequence lexeme) {
+        Objects.requireNonNull(lexeme);
+        return lookup(lexeme, 0, lexeme.length());
+    }
+
+    /**
+     * Look up the token type of a lexeme held in a range of some source.
+     * This avoids creating the lexeme when it is not needed.
+     *
+     * @param source The source.
+     * @param start The start of the lexeme. (Inclusive)
+     * @param end The end of the lexeme. (Exclusive)
+     * @return The keyword's token type, or null if the lexeme is not a keyword.
+     */
+    public T lookup(CharSequence source, int start, int end) {
+        Objects.requireNonNull(source);
+
+        if (start < 0 || end < start || end > source.length()) {
+            throw new IndexOutOfBoundsException("Bad lexeme range given [" + start + ", " + end + ").");
+        }
+
+        if (slots.length == 0) {
+            return null;
+        }
+
+        int seed = seeds[index(hash(0, source, start, end), seeds.length)];
+        int slot = seed < 0 ? -seed - 1 : index(hash(seed, source, start, end), slots.length);
+
+        String keyword = slots[slot];
+
+        if (keyword.length() != end - start) {
+            return null;
+        }
+
+        for (int i = 0; i < keyword.length(); i++) {
+            if (keyword.charAt(i) != source.charAt(start + i)) {
+                return null;
+            }
+        }
+
+        return types.get(slot);
+    }
+
+    /**
+     * Get the identifier token type of this table.
+     * Only tokens of this type are reclassified.
+     *
+     * @return The identifier token type, or null if this table is empty.
+     */
+    public T getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * Reclassify a token. If the token is an identifier whose lexeme is a keyword,
+     * the token's type becomes the keyword's type. Otherwise, the token is returned unchanged.
+     *
+     * @param lexeme The token's lexeme.
+     * @param data The token's data.
+     * @return The reclassified data.
+     */
+    public EnumCharPos<T> classify(CharSequence lexeme, EnumCharPos<T> data) {
+        if (data.getValue() != identifier) {
+            return data;
+        }
+
+        T keyword = lookup(lexeme);
+        return keyword == null ? data : data.withValue(keyword);
+    }
+}
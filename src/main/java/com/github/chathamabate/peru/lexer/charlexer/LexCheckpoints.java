@@ -0,0 +1,325 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.CharPos;
+import com.github.chathamabate.peru.lexer.DLexer;
+import com.github.chathamabate.peru.misc.GrowableIntArray;
+import com.github.chathamabate.peru.misc.MiscHelpers;
+import io.vavr.Function3;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.Tuple3;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Stream;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <b>LexCheckpoints</b> allow lexing of a large source to be resumed part way through,
+ * without relexing everything before.
+ * <br>
+ * Checkpoints are recorded by lexing a source once. One checkpoint is recorded for every interval of
+ * <i>N</i> characters. Each checkpoint holds an offset, the line and line position at that offset,
+ * and whether that offset is a token boundary.
+ * <br>
+ * For the interval starting at offset <i>kN</i>, the checkpoint is placed at the first token boundary within
+ * the interval. If a single token covers the whole interval, the checkpoint is placed at <i>kN</i> itself
+ * and is not a boundary. Lexing can only be resumed from boundary checkpoints.
+ * <br>
+ * Tokens never depend on what came before them, only the context does. So, given a context recreated from
+ * a checkpoint's line and line position, resuming at a boundary produces the same tokens a full lex would.
+ * <br>
+ * Skip tokens have boundaries like any other token, they are just never given when lexing is resumed.
+ */
+public final class LexCheckpoints {
+
+    /**
+     * Lex an entire source, recording a checkpoint for every interval of characters.
+     * The given context's line and line position must always be the position of the next token to be lexed.
+     * (This is true for all character lexer contexts)
+     *
+     * @param lexer The lexer.
+     * @param source The source.
+     * @param context The initial context.
+     * @param interval The number of characters between checkpoints.
+     * @param <C> The context type of the lexer.
+     * @return The recorded checkpoints.
+     */
+    public static <C extends CharPos> LexCheckpoints record(DLexer<Character, String, ?, C> lexer,
+                                                            CharSequence source, C context, int interval) {
+        Objects.requireNonNull(lexer);
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(context);
+
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive.");
+        }
+
+        int expected = source.length() / interval + 1;
+
+        GrowableIntArray offsets = new GrowableIntArray(expected);
+        GrowableIntArray lines = new GrowableIntArray(expected);
+        GrowableIntArray linePositions = new GrowableIntArray(expected);
+        GrowableIntArray boundaries = new GrowableIntArray(expected);
+
+        // Offset 0 is always a boundary.
+        offsets.add(0);
+        lines.add(context.getLine());
+        linePositions.add(context.getLinePosition());
+        boundaries.add(1);
+
+        Seq<Character> rest = MiscHelpers.characters(source);
+        C algoContext = context;
+
+        int offset = 0;
+        int nextMark = interval;
+
+        while (!rest.isEmpty()) {
+            Tuple3<? extends Option<? extends Tuple2<String, ?>>, C, Seq<Character>> result =
+                    lexer.buildOrSkipUnchecked(rest, algoContext);
+
+            // Skipped lexemes are never built, so their length is found from the inputs used.
+            int end = offset + (result._1.isEmpty()
+                    ? MiscHelpers.distance(rest, result._3)
+                    : result._1.get()._1.length());
+
+            while (nextMark <= end) {
+                if (end < nextMark + interval) {
+                    // The end of this token is the first boundary in the mark's interval.
+                    offsets.add(end);
+                    lines.add(result._2.getLine());
+                    linePositions.add(result._2.getLinePosition());
+                    boundaries.add(1);
+                } else {
+                    // This token covers the mark's entire interval.
+                    int line = algoContext.getLine();
+                    int linePosition = algoContext.getLinePosition();
+
+                    for (int i = 0; i < nextMark - offset; i++) {
+                        if (source.charAt(offset + i) == '\n') {
+                            line++;
+                            linePosition = 0;
+                        } else {
+                            linePosition++;
+                        }
+                    }
+
+                    offsets.add(nextMark);
+                    lines.add(line);
+                    linePositions.add(linePosition);
+                    boundaries.add(0);
+                }
+
+                nextMark += interval;
+            }
+
+            algoContext = result._2;
+            rest = result._3;
+            offset = end;
+        }
+
+        return new LexCheckpoints(source, interval, offsets.toArray(), lines.toArray(),
+                linePositions.toArray(), boundaries.toArray());
+    }
+
+    /**
+     * The source the checkpoints were recorded over.
+     */
+    private final CharSequence source;
+
+    /**
+     * The number of characters between checkpoints.
+     */
+    private final int interval;
+
+    /**
+     * Checkpoint offsets. (Ascending)
+     */
+    private final int[] offsets;
+
+    /**
+     * Line numbers.
+     */
+    private final int[] lines;
+
+    /**
+     * Line positions.
+     */
+    private final int[] linePositions;
+
+    /**
+     * Boundary flags. (1 for a token boundary, 0 otherwise)
+     */
+    private final int[] boundaries;
+
+    /**
+     * Construct <b>LexCheckpoints</b> directly from its columns. (No checks)
+     *
+     * @param src The source.
+     * @param i The interval.
+     * @param o The offsets.
+     * @param l The line numbers.
+     * @param lp The line positions.
+     * @param b The boundary flags.
+     */
+    private LexCheckpoints(CharSequence src, int i, int[] o, int[] l, int[] lp, int[] b) {
+        source = src;
+        interval = i;
+        offsets = o;
+        lines = l;
+        linePositions = lp;
+        boundaries = b;
+    }
+
+    /**
+     * Get the number of checkpoints.
+     *
+     * @return The number of checkpoints.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Get the source the checkpoints were recorded over.
+     *
+     * @return The source.
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
+    /**
+     * Get the number of characters between checkpoints.
+     *
+     * @return The interval.
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Throw an error if the given index is not the index of a checkpoint.
+     *
+     * @param index The index.
+     */
+    private void validateIndex(int index) {
+        if (index < 0 || index >= offsets.length) {
+            throw new IndexOutOfBoundsException("Bad checkpoint index given " + index + ".");
+        }
+    }
+
+    /**
+     * Get the offset of a checkpoint.
+     *
+     * @param index The checkpoint index.
+     * @return The offset.
+     */
+    public int getOffset(int index) {
+        validateIndex(index);
+        return offsets[index];
+    }
+
+    /**
+     * Get the line number at a checkpoint.
+     *
+     * @param index The checkpoint index.
+     * @return The line number.
+     */
+    public int getLine(int index) {
+        validateIndex(index);
+        return lines[index];
+    }
+
+    /**
+     * Get the line position at a checkpoint.
+     *
+     * @param index The checkpoint index.
+     * @return The line position.
+     */
+    public int getLinePosition(int index) {
+        validateIndex(index);
+        return linePositions[index];
+    }
+
+    /**
+     * Determine whether a checkpoint is at a token boundary.
+     *
+     * @param index The checkpoint index.
+     * @return Whether or not lexing can be resumed from the checkpoint.
+     */
+    public boolean isBoundary(int index) {
+        validateIndex(index);
+        return boundaries[index] == 1;
+    }
+
+    /**
+     * Find the boundary checkpoint nearest to, and not after, some offset.
+     *
+     * @param offset The offset.
+     * @return The index of the checkpoint.
+     */
+    public int nearestBoundary(int offset) {
+        if (offset < 0 || offset > source.length()) {
+            throw new IndexOutOfBoundsException("Bad offset given " + offset + ".");
+        }
+
+        int index = Arrays.binarySearch(offsets, offset);
+
+        // When not found, binarySearch gives -(insertion point) - 1.
+        if (index < 0) {
+            index = -index - 2;
+        }
+
+        // Checkpoint 0 is always a boundary, so this terminates.
+        while (boundaries[index] == 0) {
+            index--;
+        }
+
+        return index;
+    }
+
+    /**
+     * Resume lexing from the boundary checkpoint nearest to some offset.
+     * Tokens which end at or before the offset are skipped, so the first token given is
+     * the token containing the offset. (Or the first token after the offset, if it is within a skip token)
+     *
+     * @param lexer The lexer.
+     * @param offset The offset.
+     * @param contextAt A function which creates an initial context given an offset, line number
+     *                  and line position. (For example {@link CharLinearContext#at(int, int, int)})
+     * @param <D> The data type of the lexer.
+     * @param <C> The context type of the lexer.
+     * @return A <b>Tuple2</b> containing the offset of the first token given, and a lazy <b>Stream</b> of tokens.
+     */
+    public <D, C> Tuple2<Integer, Stream<Tuple2<String, Try<D>>>> lexFrom(
+            DLexer<Character, String, D, C> lexer, int offset,
+            Function3<? super Integer, ? super Integer, ? super Integer, ? extends C> contextAt) {
+        Objects.requireNonNull(lexer);
+        Objects.requireNonNull(contextAt);
+
+        int index = nearestBoundary(offset);
+        int start = offsets[index];
+
+        Seq<Character> rest = MiscHelpers.characters(source, start);
+        C context = contextAt.apply(start, lines[index], linePositions[index]);
+
+        while (!rest.isEmpty()) {
+            Tuple3<Option<Tuple2<String, Try<D>>>, C, Seq<Character>> result =
+                    lexer.buildOrSkipUnchecked(rest, context);
+
+            if (result._1.isDefined() && start + result._1.get()._1.length() > offset) {
+                Tuple2<String, Try<D>> token = result._1.get();
+                return Tuple.of(start, Stream.cons(token, () -> lexer.buildStream(result._3, result._2)));
+            }
+
+            start += result._1.isEmpty() ? MiscHelpers.distance(rest, result._3) : result._1.get()._1.length();
+            context = result._2;
+            rest = result._3;
+        }
+
+        return Tuple.of(start, Stream.empty());
+    }
+}
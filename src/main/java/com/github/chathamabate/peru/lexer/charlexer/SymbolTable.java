@@ -0,0 +1,440 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A <b>SymbolTable</b> interns lexemes, so that every occurrence of the same identifier shares one
+ * canonical <b>String</b>.
+ * <br>
+ * Lexemes are looked up directly from a range of their source, so no <b>String</b> is created unless the
+ * lexeme has never been seen before. Each distinct lexeme is also given an <b>int</b> symbol id, which can
+ * be used in place of the lexeme as a cheap map key.
+ * <br>
+ * Canonical strings are held for the lifetime of the table, so a symbol's id is stable, and every id
+ * given out always resolves to its symbol. A table is meant to be scoped to a single source or compilation.
+ * <br>
+ * The table is split into independently locked stripes, each an open addressing hash table.
+ * A single instance may be shared by any number of threads.
+ */
+public final class SymbolTable {
+
+    /**
+     * The number of stripes used by {@link #symbolTable()}.
+     */
+    private static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * The initial number of slots in each stripe. (Must be a power of two)
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Create a <b>SymbolTable</b> with the default number of stripes.
+     *
+     * @return The new table.
+     */
+    public static SymbolTable symbolTable() {
+        return symbolTable(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Create a <b>SymbolTable</b>.
+     *
+     * @param stripes The minimum number of independently locked stripes.
+     *                (Rounded up to a power of two)
+     * @return The new table.
+     */
+    public static SymbolTable symbolTable(int stripes) {
+        if (stripes <= 0 || stripes > (1 << 16)) {
+            throw new IllegalArgumentException("Bad number of stripes given " + stripes + ".");
+        }
+
+        int bits = 32 - Integer.numberOfLeadingZeros(stripes - 1);
+        return new SymbolTable(bits);
+    }
+
+    /**
+     * Hash a range of a sequence of characters. This matches <b>String.hashCode()</b>,
+     * so the cached hash of a <b>String</b> can be used when interning an entire <b>String</b>.
+     *
+     * @param chars The characters.
+     * @param start The start of the range. (Inclusive)
+     * @param end The end of the range. (Exclusive)
+     * @return The hash.
+     */
+    private static int hash(CharSequence chars, int start, int end) {
+        int h = 0;
+
+        for (int i = start; i < end; i++) {
+            h = 31 * h + chars.charAt(i);
+        }
+
+        return h;
+    }
+
+    /**
+     * Spread the bits of a hash, so both stripe and slot selection depend on every bit.
+     *
+     * @param h The hash.
+     * @return The spread hash.
+     */
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+
+        return h;
+    }
+
+    /**
+     * Determine whether a <b>String</b> equals a range of a sequence of characters.
+     *
+     * @param symbol The <b>String</b>.
+     * @param chars The characters.
+     * @param start The start of the range. (Inclusive)
+     * @param end The end of the range. (Exclusive)
+     * @return Whether or not they are equal.
+     */
+    private static boolean matches(String symbol, CharSequence chars, int start, int end) {
+        if (symbol.length() != end - start) {
+            return false;
+        }
+
+        for (int i = 0; i < symbol.length(); i++) {
+            if (symbol.charAt(i) != chars.charAt(start + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The number of bits of a spread hash (and symbol id) used to pick a stripe.
+     */
+    private final int stripeBits;
+
+    /**
+     * The stripes.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Construct a <b>SymbolTable</b>. (No checks)
+     *
+     * @param sb The number of stripe bits.
+     */
+    private SymbolTable(int sb) {
+        stripeBits = sb;
+        stripes = new Stripe[1 << sb];
+
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(i);
+        }
+    }
+
+    /**
+     * Throw an error if a range is not a range of some sequence of characters.
+     *
+     * @param chars The characters.
+     * @param start The start of the range. (Inclusive)
+     * @param end The end of the range. (Exclusive)
+     */
+    private static void validateRange(CharSequence chars, int start, int end) {
+        Objects.requireNonNull(chars);
+
+        if (start < 0 || end < start || end > chars.length()) {
+            throw new IndexOutOfBoundsException("Bad lexeme range given [" + start + ", " + end + ").");
+        }
+    }
+
+    /**
+     * Find (or create) the entry of a range of characters.
+     *
+     * @param h The hash of the range.
+     * @param chars The characters.
+     * @param start The start of the range. (Inclusive)
+     * @param end The end of the range. (Exclusive)
+     * @param str The range as a <b>String</b> if it is already known, otherwise null.
+     * @return The entry.
+     */
+    private Entry entry(int h, CharSequence chars, int start, int end, String str) {
+        int spread = spread(h);
+        return stripes[spread & (stripes.length - 1)].entry(spread >>> stripeBits, chars, start, end, str);
+    }
+
+    /**
+     * Intern a <b>String</b>.
+     *
+     * @param symbol The <b>String</b>.
+     * @return The canonical instance equal to the given <b>String</b>.
+     */
+    public String intern(String symbol) {
+        Objects.requireNonNull(symbol);
+        return entry(symbol.hashCode(), symbol, 0, symbol.length(), symbol).symbol;
+    }
+
+    /**
+     * Intern a range of some sequence of characters.
+     * A new <b>String</b> is only created if the range has not been interned before.
+     *
+     * @param chars The characters.
+     * @param start The start of the range. (Inclusive)
+     * @param end The end of the range. (Exclusive)
+     * @return The canonical <b>String</b> equal to the range.
+     */
+    public String intern(CharSequence chars, int start, int end) {
+        validateRange(chars, start, end);
+        return entry(hash(chars, start, end), chars, start, end, null).symbol;
+    }
+
+    /**
+     * Get the symbol id of a <b>String</b>, interning it if needed.
+     *
+     * @param symbol The <b>String</b>.
+     * @return The symbol id. (Non negative)
+     */
+    public int symbolId(String symbol) {
+        Objects.requireNonNull(symbol);
+        return entry(symbol.hashCode(), symbol, 0, symbol.length(), symbol).id;
+    }
+
+    /**
+     * Get the symbol id of a range of some sequence of characters, interning it if needed.
+     *
+     * @param chars The characters.
+     * @param start The start of the range. (Inclusive)
+     * @param end The end of the range. (Exclusive)
+     * @return The symbol id. (Non negative)
+     */
+    public int symbolId(CharSequence chars, int start, int end) {
+        validateRange(chars, start, end);
+        return entry(hash(chars, start, end), chars, start, end, null).id;
+    }
+
+    /**
+     * Get the canonical <b>String</b> of some symbol id.
+     *
+     * @param id The symbol id.
+     * @return The <b>String</b>, or null if the id was never given out.
+     */
+    public String getSymbol(int id) {
+        if (id < 0) {
+            return null;
+        }
+
+        return stripes[id & (stripes.length - 1)].getSymbol(id >>> stripeBits);
+    }
+
+    /**
+     * Get the number of symbols held by this table.
+     *
+     * @return The number of symbols.
+     */
+    public int size() {
+        int size = 0;
+
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * The result of a lookup, a canonical <b>String</b> paired with its id.
+     */
+    private static final class Entry {
+
+        /**
+         * The canonical <b>String</b>.
+         */
+        private final String symbol;
+
+        /**
+         * The symbol id.
+         */
+        private final int id;
+
+        /**
+         * Constructor.
+         *
+         * @param s The canonical <b>String</b>.
+         * @param i The symbol id.
+         */
+        private Entry(String s, int i) {
+            symbol = s;
+            id = i;
+        }
+    }
+
+    /**
+     * A canonical <b>String</b> held in a slot of a stripe.
+     */
+    private static final class Slot {
+
+        /**
+         * The canonical <b>String</b>.
+         */
+        private final String symbol;
+
+        /**
+         * The full hash of the <b>String</b>.
+         */
+        private final int hash;
+
+        /**
+         * The id of the <b>String</b> within its stripe.
+         */
+        private final int localId;
+
+        /**
+         * Constructor.
+         *
+         * @param s The <b>String</b>.
+         * @param h The hash.
+         * @param li The id within the stripe.
+         */
+        private Slot(String s, int h, int li) {
+            symbol = s;
+            hash = h;
+            localId = li;
+        }
+    }
+
+    /**
+     * A single independently locked open addressing table.
+     */
+    private final class Stripe {
+
+        /**
+         * The index of this stripe.
+         */
+        private final int index;
+
+        /**
+         * The slots, probed linearly.
+         */
+        private Slot[] slots;
+
+        /**
+         * The slot of each id given out by this stripe.
+         */
+        private Slot[] byId;
+
+        /**
+         * The number of occupied slots.
+         */
+        private int occupied;
+
+        /**
+         * The next id within this stripe.
+         */
+        private int nextId;
+
+        /**
+         * Constructor.
+         *
+         * @param i The index of the stripe.
+         */
+        private Stripe(int i) {
+            index = i;
+            slots = new Slot[INITIAL_CAPACITY];
+            byId = new Slot[INITIAL_CAPACITY];
+            occupied = 0;
+            nextId = 0;
+        }
+
+        /**
+         * Find (or create) the entry of a range of characters.
+         *
+         * @param h The hash of the range, with stripe bits removed.
+         * @param chars The characters.
+         * @param start The start of the range. (Inclusive)
+         * @param end The end of the range. (Exclusive)
+         * @param str The range as a <b>String</b> if it is already known, otherwise null.
+         * @return The entry.
+         */
+        private synchronized Entry entry(int h, CharSequence chars, int start, int end, String str) {
+            int mask = slots.length - 1;
+            int i = h & mask;
+
+            for (Slot slot = slots[i]; slot != null; slot = slots[i = (i + 1) & mask]) {
+                if (slot.hash == h && matches(slot.symbol, chars, start, end)) {
+                    return new Entry(slot.symbol, (slot.localId << stripeBits) | index);
+                }
+            }
+
+            if (nextId > (Integer.MAX_VALUE >>> stripeBits)) {
+                throw new IllegalStateException("No symbol ids are left.");
+            }
+
+            // Not found, insert into the empty slot reached.
+            String symbol = str == null ? chars.subSequence(start, end).toString() : str;
+            Slot slot = new Slot(symbol, h, nextId);
+
+            slots[i] = slot;
+            occupied++;
+
+            if (nextId == byId.length) {
+                byId = Arrays.copyOf(byId, byId.length * 2);
+            }
+
+            byId[nextId++] = slot;
+
+            // Keep the table at most half full.
+            if (occupied * 2 > slots.length) {
+                grow();
+            }
+
+            return new Entry(symbol, (slot.localId << stripeBits) | index);
+        }
+
+        /**
+         * Double the number of slots of this stripe.
+         */
+        private void grow() {
+            Slot[] old = slots;
+            slots = new Slot[old.length * 2];
+
+            int mask = slots.length - 1;
+
+            for (Slot slot : old) {
+                if (slot == null) {
+                    continue;
+                }
+
+                int i = slot.hash & mask;
+                while (slots[i] != null) {
+                    i = (i + 1) & mask;
+                }
+
+                slots[i] = slot;
+            }
+        }
+
+        /**
+         * Get the canonical <b>String</b> of some id within this stripe.
+         *
+         * @param localId The id within this stripe.
+         * @return The <b>String</b>, or null if there is none.
+         */
+        private synchronized String getSymbol(int localId) {
+            if (localId >= nextId) {
+                return null;
+            }
+
+            return byId[localId].symbol;
+        }
+
+        /**
+         * Get the number of symbols in this stripe.
+         *
+         * @return The number of symbols.
+         */
+        private synchronized int size() {
+            return occupied;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.CharPos;
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.lexer.DLexer;
+import com.github.chathamabate.peru.misc.LineException;
+import com.github.chathamabate.peru.misc.MiscHelpers;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.Tuple3;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Stream;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+import java.util.Objects;
+
+/**
+ * A <b>TokenTape</b> is a compact, immutable, random access sequence of tokens lexed from some source.
+ * <br>
+ * Rather than holding a <b>Tuple2</b> of a <b>String</b> lexeme and an {@link EnumCharPos} per token,
+ * a tape stores each field of every token in its own primitive array. A token's lexeme is
+ * only created when it is asked for, by slicing the tape's source.
+ * <br>
+ * For parsing, a tape can be adapted back into the token format expected by a
+ * {@link com.github.chathamabate.peru.parser.Parser} using {@link #toSuccessfulTokenStream()}.
+ * The tokens of this <b>Stream</b> are built lazily as the parser consumes them.
+ *
+ * @param <T> The token type <b>Enum</b>.
+ */
+public final class TokenTape<T extends Enum<T>> {
+
+    /**
+     * The type ordinal stored for lexemes which could not be lexed.
+     */
+    public static final int ERROR_TYPE = -1;
+
+    /**
+     * Lex an entire source into a <b>TokenTape</b> using some character lexer.
+     * Skip tokens are left off the tape, the offsets of the tokens after them are unaffected.
+     *
+     * @param lexer The lexer.
+     * @param tokenClass The token type <b>Enum</b> class.
+     * @param source The source to lex.
+     * @param context The initial context of the lexer.
+     * @param <T> The token type <b>Enum</b>.
+     * @param <C> The context type of the lexer.
+     * @return The <b>TokenTape</b> holding every token lexed from the source.
+     */
+    public static <T extends Enum<T>, C> TokenTape<T> lex(DLexer<Character, String, ? extends EnumCharPos<T>, C> lexer,
+                                                          Class<T> tokenClass, CharSequence source, C context) {
+        Objects.requireNonNull(lexer);
+        Objects.requireNonNull(context);
+
+        TokenTapeWriter<T> writer = new TokenTapeWriter<>(tokenClass, source);
+
+        Seq<Character> rest = MiscHelpers.characters(source);
+        C algoContext = context;
+        int offset = 0;
+
+        while (!rest.isEmpty()) {
+            Tuple3<? extends Option<? extends Tuple2<String, ? extends Try<? extends EnumCharPos<T>>>>, C,
+                    Seq<Character>> result = lexer.buildOrSkipUnchecked(rest, algoContext);
+
+            if (result._1.isEmpty()) {
+                // Skipped lexemes are never built, so their length is found from the inputs used.
+                offset += MiscHelpers.distance(rest, result._3);
+            } else {
+                Tuple2<String, ? extends Try<? extends EnumCharPos<T>>> token = result._1.get();
+                int end = offset + token._1.length();
+
+                if (token._2.isSuccess()) {
+                    EnumCharPos<T> data = token._2.get();
+                    writer.write(data.getValue(), offset, end, data.getLine(), data.getLinePosition());
+                } else if (token._2.getCause() instanceof CharPos) {
+                    CharPos errorPos = (CharPos) token._2.getCause();
+                    writer.writeError(offset, end, errorPos.getLine(), errorPos.getLinePosition());
+                } else {
+                    writer.writeError(offset, end, -1, -1);
+                }
+
+                offset = end;
+            }
+
+            algoContext = result._2;
+            rest = result._3;
+        }
+
+        return writer.toTape();
+    }
+
+    /**
+     * The constants of the token type <b>Enum</b> indexed by ordinal.
+     */
+    private final T[] tokenTypes;
+
+    /**
+     * The source the tokens of this tape were lexed from.
+     */
+    private final CharSequence source;
+
+    /**
+     * Token type ordinals.
+     */
+    private final int[] types;
+
+    /**
+     * Start offsets. (Inclusive)
+     */
+    private final int[] starts;
+
+    /**
+     * End offsets. (Exclusive)
+     */
+    private final int[] ends;
+
+    /**
+     * Line numbers.
+     */
+    private final int[] lines;
+
+    /**
+     * Line positions.
+     */
+    private final int[] linePositions;
+
+    /**
+     * Construct a <b>TokenTape</b> directly from its columns. (No checks)
+     *
+     * @param tc The token type <b>Enum</b> class.
+     * @param src The source.
+     * @param ty The token type ordinals.
+     * @param s The start offsets.
+     * @param e The end offsets.
+     * @param l The line numbers.
+     * @param lp The line positions.
+     */
+    TokenTape(Class<T> tc, CharSequence src, int[] ty, int[] s, int[] e, int[] l, int[] lp) {
+        tokenTypes = tc.getEnumConstants();
+        source = src;
+        types = ty;
+        starts = s;
+        ends = e;
+        lines = l;
+        linePositions = lp;
+    }
+
+    /**
+     * Get the number of tokens on this tape.
+     *
+     * @return The number of tokens.
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * Get the source this tape's tokens were lexed from.
+     *
+     * @return The source.
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
+    /**
+     * Throw an error if the given index is not the index of a token on this tape.
+     *
+     * @param index The index.
+     */
+    private void validateIndex(int index) {
+        if (index < 0 || index >= types.length) {
+            throw new IndexOutOfBoundsException("Bad token index given " + index + ".");
+        }
+    }
+
+    /**
+     * Determine whether the token at a given index is an unlexable lexeme.
+     *
+     * @param index The token index.
+     * @return Whether or not the token is an error.
+     */
+    public boolean isError(int index) {
+        validateIndex(index);
+        return types[index] == ERROR_TYPE;
+    }
+
+    /**
+     * Get the ordinal of the type of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The ordinal, or {@link #ERROR_TYPE} if the token is an error.
+     */
+    public int getTypeOrdinal(int index) {
+        validateIndex(index);
+        return types[index];
+    }
+
+    /**
+     * Get the type of the token at a given index.
+     * An error is thrown if the token is an unlexable lexeme.
+     *
+     * @param index The token index.
+     * @return The token type.
+     */
+    public T getTokenType(int index) {
+        if (isError(index)) {
+            throw new IllegalArgumentException("Token " + index + " is an error.");
+        }
+
+        return tokenTypes[types[index]];
+    }
+
+    /**
+     * Get the start offset of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The start offset. (Inclusive)
+     */
+    public int getStart(int index) {
+        validateIndex(index);
+        return starts[index];
+    }
+
+    /**
+     * Get the end offset of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The end offset. (Exclusive)
+     */
+    public int getEnd(int index) {
+        validateIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Get the line number of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The line number.
+     */
+    public int getLine(int index) {
+        validateIndex(index);
+        return lines[index];
+    }
+
+    /**
+     * Get the line position of the token at a given index.
+     *
+     * @param index The token index.
+     * @return The line position.
+     */
+    public int getLinePosition(int index) {
+        validateIndex(index);
+        return linePositions[index];
+    }
+
+    /**
+     * Slice the lexeme of the token at a given index out of the source.
+     * No copy of the source is made.
+     *
+     * @param index The token index.
+     * @return The lexeme as a <b>CharSequence</b>.
+     */
+    public CharSequence getLexemeSlice(int index) {
+        validateIndex(index);
+        return source.subSequence(starts[index], ends[index]);
+    }
+
+    /**
+     * Get the lexeme of the token at a given index as a <b>String</b>.
+     *
+     * @param index The token index.
+     * @return The lexeme.
+     */
+    public String getLexeme(int index) {
+        return getLexemeSlice(index).toString();
+    }
+
+    /**
+     * Get the canonical lexeme of the token at a given index from a {@link SymbolTable}.
+     * A new <b>String</b> is only created if the lexeme has not been interned before.
+     *
+     * @param index The token index.
+     * @param symbols The symbol table.
+     * @return The interned lexeme.
+     */
+    public String internLexeme(int index, SymbolTable symbols) {
+        Objects.requireNonNull(symbols);
+        validateIndex(index);
+
+        return symbols.intern(source, starts[index], ends[index]);
+    }
+
+    /**
+     * Get the symbol id of the lexeme of the token at a given index, interning it if needed.
+     *
+     * @param index The token index.
+     * @param symbols The symbol table.
+     * @return The symbol id.
+     */
+    public int getSymbolId(int index, SymbolTable symbols) {
+        Objects.requireNonNull(symbols);
+        validateIndex(index);
+
+        return symbols.symbolId(source, starts[index], ends[index]);
+    }
+
+    /**
+     * Get the symbol ids of the lexemes of every token on this tape whose type is one of some types.
+     * Only identifier like tokens are usually worth interning.
+     *
+     * @param symbols The symbol table.
+     * @param interned The token types to intern.
+     * @return The symbol id of each token, indexed by token index. (-1 for tokens not interned)
+     */
+    @SafeVarargs
+    public final int[] getSymbolIds(SymbolTable symbols, T... interned) {
+        Objects.requireNonNull(symbols);
+        Objects.requireNonNull(interned);
+
+        boolean[] internedOrdinals = new boolean[tokenTypes.length];
+        for (T type : interned) {
+            internedOrdinals[type.ordinal()] = true;
+        }
+
+        int[] ids = new int[types.length];
+
+        for (int i = 0; i < types.length; i++) {
+            ids[i] = types[i] != ERROR_TYPE && internedOrdinals[types[i]]
+                    ? symbols.symbolId(source, starts[i], ends[i])
+                    : -1;
+        }
+
+        return ids;
+    }
+
+    /**
+     * Build the data of the token at a given index.
+     * An error is thrown if the token is an unlexable lexeme.
+     *
+     * @param index The token index.
+     * @return The token's data.
+     */
+    public EnumCharPos<T> getData(int index) {
+        T type = getTokenType(index);
+        return EnumCharPos.charPosEnum(lines[index], linePositions[index], type);
+    }
+
+    /**
+     * Build the full token at a given index in the same form produced by a character lexer.
+     *
+     * @param index The token index.
+     * @return The token as a <b>Tuple2</b> of its lexeme and <b>Try</b> of its data.
+     */
+    public Tuple2<String, Try<EnumCharPos<T>>> getToken(int index) {
+        return isError(index)
+                ? Tuple.of(getLexeme(index), Try.failure(LineException.lineEx(lines[index], linePositions[index],
+                        "Lexeme cannot be lexed.")))
+                : Tuple.of(getLexeme(index), Try.success(getData(index)));
+    }
+
+    /**
+     * Adapt this tape into a <b>Stream</b> of tokens which can be given to a parser.
+     * This tape is assumed to have no errors. If an error is reached while traversing the <b>Stream</b>,
+     * it will be thrown.
+     * @see DLexer#buildSuccessfulTokenStream(io.vavr.collection.Seq, Object)
+     *
+     * @return The lazily built <b>Stream</b> of tokens.
+     */
+    public Stream<Tuple2<String, EnumCharPos<T>>> toSuccessfulTokenStream() {
+        return Stream.range(0, types.length).map(i -> Tuple.of(getLexeme(i), getData(i)));
+    }
+
+    /**
+     * Same as {@link #toSuccessfulTokenStream()} except all errors are skipped.
+     *
+     * @return The lazily built <b>Stream</b> of tokens.
+     */
+    public Stream<Tuple2<String, EnumCharPos<T>>> toOnlySuccessfulTokenStream() {
+        return Stream.range(0, types.length)
+                .filter(i -> types[i] != ERROR_TYPE)
+                .map(i -> Tuple.of(getLexeme(i), getData(i)));
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.misc.GrowableIntArray;
+
+import java.util.Objects;
+
+/**
+ * A mutable accumulator of tokens which is frozen into a {@link TokenTape}.
+ * <br>
+ * A writer may be {@link #reset(CharSequence) reset} and reused for many sources, which allows
+ * its underlying arrays to be recycled between lexes. Instances are not thread safe.
+ *
+ * @param <T> The token type <b>Enum</b>.
+ */
+public final class TokenTapeWriter<T extends Enum<T>> {
+
+    /**
+     * The token type <b>Enum</b> class.
+     */
+    private final Class<T> tokenClass;
+
+    /**
+     * The source the tokens being written were lexed from.
+     */
+    private CharSequence source;
+
+    /**
+     * Token type ordinals. (Or {@link TokenTape#ERROR_TYPE} for unlexable lexemes)
+     */
+    private final GrowableIntArray types;
+
+    /**
+     * Start offsets (inclusive) of each token in the source.
+     */
+    private final GrowableIntArray starts;
+
+    /**
+     * End offsets (exclusive) of each token in the source.
+     */
+    private final GrowableIntArray ends;
+
+    /**
+     * Line number of each token.
+     */
+    private final GrowableIntArray lines;
+
+    /**
+     * Line position of each token.
+     */
+    private final GrowableIntArray linePositions;
+
+    /**
+     * Create a writer for tokens lexed from a given source.
+     *
+     * @param tc The token type <b>Enum</b> class.
+     * @param src The source the tokens are lexed from.
+     */
+    public TokenTapeWriter(Class<T> tc, CharSequence src) {
+        Objects.requireNonNull(tc);
+        Objects.requireNonNull(src);
+
+        tokenClass = tc;
+        source = src;
+
+        types = new GrowableIntArray();
+        starts = new GrowableIntArray();
+        ends = new GrowableIntArray();
+        lines = new GrowableIntArray();
+        linePositions = new GrowableIntArray();
+    }
+
+    /**
+     * Clear all tokens written so far and begin writing tokens for a new source.
+     *
+     * @param src The new source.
+     */
+    public void reset(CharSequence src) {
+        Objects.requireNonNull(src);
+
+        source = src;
+
+        types.clear();
+        starts.clear();
+        ends.clear();
+        lines.clear();
+        linePositions.clear();
+    }
+
+    /**
+     * Get the number of tokens written.
+     *
+     * @return The number of tokens.
+     */
+    public int size() {
+        return types.size();
+    }
+
+    /**
+     * Get the source being written for.
+     *
+     * @return The source.
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
+    /**
+     * Write a successfully lexed token.
+     *
+     * @param type The token's type.
+     * @param start The token's start offset. (Inclusive)
+     * @param end The token's end offset. (Exclusive)
+     * @param line The token's line number.
+     * @param linePosition The token's line position.
+     */
+    public void write(T type, int start, int end, int line, int linePosition) {
+        Objects.requireNonNull(type);
+        writeOrdinal(type.ordinal(), start, end, line, linePosition);
+    }
+
+    /**
+     * Write an unlexable lexeme.
+     *
+     * @param start The lexeme's start offset. (Inclusive)
+     * @param end The lexeme's end offset. (Exclusive)
+     * @param line The lexeme's line number.
+     * @param linePosition The lexeme's line position.
+     */
+    public void writeError(int start, int end, int line, int linePosition) {
+        writeOrdinal(TokenTape.ERROR_TYPE, start, end, line, linePosition);
+    }
+
+    /**
+     * Write a token given its type as an ordinal. (No checks on the ordinal)
+     *
+     * @param ordinal The ordinal of the token type, or {@link TokenTape#ERROR_TYPE}.
+     * @param start The token's start offset.
+     * @param end The token's end offset.
+     * @param line The token's line number.
+     * @param linePosition The token's line position.
+     */
+    void writeOrdinal(int ordinal, int start, int end, int line, int linePosition) {
+        if (start < 0 || end < start || end > source.length()) {
+            throw new IndexOutOfBoundsException("Bad token span given [" + start + ", " + end + ").");
+        }
+
+        types.add(ordinal);
+        starts.add(start);
+        ends.add(end);
+        lines.add(line);
+        linePositions.add(linePosition);
+    }
+
+    /**
+     * Freeze the tokens written so far into a {@link TokenTape}.
+     * The writer may continue to be used afterwards, the tape will not be affected.
+     *
+     * @return The new <b>TokenTape</b>.
+     */
+    public TokenTape<T> toTape() {
+        return new TokenTape<>(tokenClass, source, types.toArray(), starts.toArray(), ends.toArray(),
+                lines.toArray(), linePositions.toArray());
+    }
+}
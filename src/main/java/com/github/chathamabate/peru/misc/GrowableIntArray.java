@@ -0,0 +1,159 @@
+package com.github.chathamabate.peru.misc;
+
+import java.util.Arrays;
+
+/**
+ * A <b>GrowableIntArray</b> is a mutable, resizable array of primitive <b>int</b>s.
+ * <br>
+ * Unlike the persistent collections used throughout the rest of this library, this class
+ * is meant for tight loops where boxing every <b>Integer</b> would dominate memory usage.
+ * Instances are not thread safe.
+ */
+public final class GrowableIntArray {
+
+    /**
+     * The capacity given to an array when no capacity is specified.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The underlying storage. Only the first <i>size</i> cells are meaningful.
+     */
+    private int[] elements;
+
+    /**
+     * The number of elements held in this array.
+     */
+    private int size;
+
+    /**
+     * Create an empty <b>GrowableIntArray</b> with the default capacity.
+     */
+    public GrowableIntArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty <b>GrowableIntArray</b> with a given initial capacity.
+     *
+     * @param capacity The initial capacity.
+     */
+    public GrowableIntArray(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+
+        elements = new int[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * Make sure this array can hold at least the given number of elements without resizing.
+     *
+     * @param capacity The required capacity.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            int newCapacity = Math.max(capacity, elements.length + (elements.length >> 1) + 1);
+            elements = Arrays.copyOf(elements, newCapacity);
+        }
+    }
+
+    /**
+     * Append an element onto the end of this array.
+     *
+     * @param value The element to append.
+     */
+    public void add(int value) {
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
+
+        elements[size++] = value;
+    }
+
+    /**
+     * Get the element at a given index.
+     *
+     * @param index The index.
+     * @return The element.
+     */
+    public int get(int index) {
+        validateIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * Overwrite the element at a given index.
+     *
+     * @param index The index.
+     * @param value The new element.
+     */
+    public void set(int index, int value) {
+        validateIndex(index);
+        elements[index] = value;
+    }
+
+    /**
+     * Remove and return the last element of this array.
+     *
+     * @return The removed element.
+     */
+    public int removeLast() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("Array is empty.");
+        }
+
+        return elements[--size];
+    }
+
+    /**
+     * Get the number of elements in this array.
+     *
+     * @return The size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determine whether this array holds no elements.
+     *
+     * @return Whether or not the array is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all elements from this array. The underlying storage is kept so it can be reused.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copy the elements of this array into a new, exactly sized <b>int[]</b>.
+     *
+     * @return The copied elements.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Throw an error if the given index is not in the range <i>[0, size)</i>.
+     *
+     * @param index The index.
+     */
+    private void validateIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Bad index given " + index + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
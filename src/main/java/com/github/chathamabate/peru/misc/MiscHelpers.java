@@ -74,6 +74,61 @@ public final class MiscHelpers {
         }
     }
 
+    /**
+     * Lazily view the characters of a <b>CharSequence</b> as a <b>Stream</b>.
+     * Characters are only read from the given sequence as the <b>Stream</b> is traversed.
+     *
+     * @param source The <b>CharSequence</b>.
+     * @return A <b>Stream</b> of the characters in the given sequence.
+     */
+    public static Stream<Character> characters(CharSequence source) {
+        Objects.requireNonNull(source);
+        return characters(source, 0);
+    }
+
+    /**
+     * Lazily view the characters of a <b>CharSequence</b> starting at some offset as a <b>Stream</b>.
+     *
+     * @param source The <b>CharSequence</b>.
+     * @param offset The index of the first character to view.
+     * @return A <b>Stream</b> of the characters in the given sequence after the given offset.
+     */
+    public static Stream<Character> characters(CharSequence source, int offset) {
+        Objects.requireNonNull(source);
+
+        if (offset < 0 || offset > source.length()) {
+            throw new IndexOutOfBoundsException("Bad offset given " + offset + ".");
+        }
+
+        return Stream.range(offset, source.length()).map(source::charAt);
+    }
+
+    /**
+     * Count the elements of a <b>Seq</b> which come before some suffix of it.
+     * <br>
+     * The suffix is found by walking tails until one is identical to the given suffix, so this is linear
+     * in the number of elements counted when the suffix is a tail of the <b>Seq</b> (as with the rest given
+     * by a {@link Builder}). Otherwise, the difference in lengths is used.
+     *
+     * @param seq The <b>Seq</b>.
+     * @param suffix The suffix of the <b>Seq</b>.
+     * @return The number of elements before the suffix.
+     */
+    public static int distance(Seq<?> seq, Seq<?> suffix) {
+        Objects.requireNonNull(seq);
+        Objects.requireNonNull(suffix);
+
+        Seq<?> rest = seq;
+        int count = 0;
+
+        while (rest != suffix && !rest.isEmpty()) {
+            rest = rest.tail();
+            count++;
+        }
+
+        return rest == suffix ? count : count - suffix.length();
+    }
+
     /**
      * Given a <b>Seq</b> of <b>Seq</b>s, throw an error if any null values are contained
      * within the <b>Seq</b>.
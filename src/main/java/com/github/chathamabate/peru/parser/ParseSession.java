@@ -0,0 +1,47 @@
+package com.github.chathamabate.peru.parser;
+
+import io.vavr.Tuple2;
+import io.vavr.control.Try;
+
+/**
+ * A single parse which is pushed tokens one at a time, rather than given them all up front.
+ * <br>
+ * A session holds its parse's state between calls, so tokens can be fed as soon as they are lexed, and the
+ * full sequence of tokens never needs to exist. A session is not thread safe, but it can be handed
+ * between threads, for example being fed by a consumer of a lexer's output queue.
+ * <br>
+ * Once a session has ended, or has thrown an error, it cannot be used again.
+ *
+ * @param <L> Lexeme type of tokens passed in.
+ * @param <D> Data type of tokens passed in.
+ * @param <R> What is parsed by the session.
+ */
+public interface ParseSession<L, D, R> {
+
+    /**
+     * Feed the next token of the input.
+     *
+     * @param token The token.
+     * @throws Throwable If the token cannot follow the tokens fed so far, or a result cannot be built.
+     * @throws IllegalStateException If the session has already ended or failed.
+     */
+    void feed(Tuple2<L, D> token) throws Throwable;
+
+    /**
+     * End the input.
+     *
+     * @return The result of the parse.
+     * @throws Throwable If the input cannot end after the tokens fed so far, or a result cannot be built.
+     * @throws IllegalStateException If the session has already ended or failed.
+     */
+    R end() throws Throwable;
+
+    /**
+     * Same as {@link ParseSession#end()} just wrapped in a <b>Try</b>.
+     *
+     * @return A <b>Try</b> which may contain the result of the parse.
+     */
+    default Try<R> tryEnd() {
+        return Try.of(this::end);
+    }
+}
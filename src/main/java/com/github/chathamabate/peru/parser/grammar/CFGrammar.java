@@ -3,6 +3,10 @@ package com.github.chathamabate.peru.parser.grammar;
 import io.vavr.collection.*;
 import io.vavr.control.Either;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -148,6 +152,101 @@ public class CFGrammar<NT extends Enum<NT>, T extends Enum<T>, P extends Product
         return productionMap;
     }
 
+    /**
+     * Get every <b>Production</b> of this grammar in a canonical order.
+     * <br>
+     * <b>Production</b>s are ordered by the ordinal of their source, then by their rules, compared symbol by
+     * symbol. (Non-terminals before terminals, then by ordinal, with shorter rules first)
+     * Unlike the iteration order of the production map, this order is the same in every run.
+     *
+     * @return The ordered <b>Production</b>s.
+     */
+    public Seq<P> getOrderedProductions() {
+        return productionMap.values().flatMap(ps -> ps).toVector().sorted(CFGrammar::compareProductions);
+    }
+
+    /**
+     * Compare two <b>Production</b>s in canonical order.
+     *
+     * @param p1 The first <b>Production</b>.
+     * @param p2 The second <b>Production</b>.
+     * @return The comparison.
+     */
+    private static <NT extends Enum<NT>, T extends Enum<T>> int compareProductions(Production<NT, T> p1,
+                                                                                 Production<NT, T> p2) {
+        int cmp = Integer.compare(p1.getSource().ordinal(), p2.getSource().ordinal());
+        Seq<Either<NT, T>> r1 = p1.getRule();
+        Seq<Either<NT, T>> r2 = p2.getRule();
+
+        for (int i = 0; cmp == 0 && i < Math.min(r1.length(), r2.length()); i++) {
+            Either<NT, T> s1 = r1.get(i);
+            Either<NT, T> s2 = r2.get(i);
+
+            cmp = Boolean.compare(s1.isRight(), s2.isRight());
+            if (cmp == 0) {
+                cmp = Integer.compare(s1.isLeft() ? s1.getLeft().ordinal() : s1.get().ordinal(),
+                        s2.isLeft() ? s2.getLeft().ordinal() : s2.get().ordinal());
+            }
+        }
+
+        return cmp != 0 ? cmp : Integer.compare(r1.length(), r2.length());
+    }
+
+    /**
+     * Compute a structural fingerprint of this grammar.
+     * <br>
+     * The fingerprint covers the non-terminal and terminal <b>Enum</b> types (their names and constants), the
+     * start symbol, and every <b>Production</b> in canonical order, including which are identities
+     * (see {@link SemanticProduction#isIdentity()}), as parse tables skip their reductions. It does not cover
+     * anything else, such as the results built by a {@link SemanticCFGrammar}.
+     * So, two structurally equal grammars have equal fingerprints in every run.
+     *
+     * @return The fingerprint, as a hex SHA-256 digest.
+     */
+    public String fingerprint() {
+        StringBuilder sb = new StringBuilder();
+
+        Class<NT> ntClass = startSymbol.getDeclaringClass();
+        sb.append(ntClass.getName()).append(Arrays.toString(ntClass.getEnumConstants())).append('\n');
+
+        // The terminal type can only be found through a terminal.
+        if (!terminalsUsed.isEmpty()) {
+            Class<T> tClass = terminalsUsed.head().getDeclaringClass();
+            sb.append(tClass.getName()).append(Arrays.toString(tClass.getEnumConstants()));
+        }
+
+        sb.append('\n').append(startSymbol.name()).append('\n');
+
+        for (P p: getOrderedProductions()) {
+            sb.append(p.getSource().name()).append(" ->");
+
+            for (Either<NT, T> sym: p.getRule()) {
+                sb.append(sym.isLeft() ? " " + sym.getLeft().name() : " '" + sym.get().name());
+            }
+
+            if (p instanceof SemanticProduction && ((SemanticProduction<?, ?, ?>) p).isIdentity()) {
+                sb.append(" =");
+            }
+
+            sb.append('\n');
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+
+            for (byte b: digest) {
+                hex.append(String.format("%02x", b));
+            }
+
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Add a new <b>Production</b> to this grammar's production map.
      * <br>
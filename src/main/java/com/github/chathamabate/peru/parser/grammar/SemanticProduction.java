@@ -40,6 +40,38 @@ public abstract class SemanticProduction<NT extends Enum<NT>, T extends Enum<T>,
         };
     }
 
+    /**
+     * Static helper for building a unit <b>SemanticProduction</b> whose result is just the result of
+     * its single symbol. (See {@link SemanticProduction#isIdentity()})
+     *
+     * @param s The start symbol of the production.
+     * @param r The rule of the production. (Must hold exactly one symbol)
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <R> The result type built by the production.
+     * @return The constructed <b>SemanticProduction</b>.
+     */
+    public static <NT extends Enum<NT>, T extends Enum<T>, R> SemanticProduction<NT, T, R>
+    identity(NT s, Seq<? extends Either<NT, T>> r) {
+        Objects.requireNonNull(r);
+
+        if (r.length() != 1) {
+            throw new IllegalArgumentException("An identity production must have exactly one symbol.");
+        }
+
+        return new SemanticProduction<NT, T, R>(s, r) {
+            @Override
+            protected R buildResultUnchecked(Seq<R> children) {
+                return children.get(0);
+            }
+
+            @Override
+            public boolean isIdentity() {
+                return true;
+            }
+        };
+    }
+
     /**
      * Construct a <b>SemanticProduction</b>.
      *
@@ -61,6 +93,20 @@ public abstract class SemanticProduction<NT extends Enum<NT>, T extends Enum<T>,
      */
     protected abstract R buildResultUnchecked(Seq<R> children) throws Throwable;
 
+    /**
+     * Declares whether this production is a unit production whose result is always the result
+     * of its single symbol, and which has no other effects.
+     * <br>
+     * Parsers are allowed to skip reductions by identity productions entirely, never calling
+     * {@link SemanticProduction#buildResultUnchecked(Seq)}. Productions whose rule does not hold exactly one
+     * symbol are never skipped.
+     *
+     * @return Whether or not this production is an identity. (False unless overridden)
+     */
+    public boolean isIdentity() {
+        return false;
+    }
+
     /**
      * Same as {@link SemanticProduction#buildResultUnchecked(Seq)} except checks
      * are preformed on the results passed into the production before any
@@ -84,6 +130,49 @@ public abstract class SemanticProduction<NT extends Enum<NT>, T extends Enum<T>,
         return buildResultUnchecked(childrenNarrow);
     }
 
+    /**
+     * The priority of this production when resolving an ambiguity, that is, when a generalized parser finds
+     * more than one way of deriving the same non-terminal from the same tokens.
+     * Only the alternatives whose top productions have the highest priority are kept.
+     *
+     * @return The priority. (0 unless overridden)
+     */
+    public int getPriority() {
+        return 0;
+    }
+
+    /**
+     * This function combines the results of two alternative derivations of the same non-terminal from the
+     * same tokens, whose top productions have equal priority. (See {@link SemanticProduction#getPriority()})
+     * It is called on the top production of the first alternative found.
+     * <br>
+     * By default, ambiguities are errors.
+     *
+     * @param result The result of the first alternative, or of the alternatives merged so far.
+     * @param other The result of another alternative.
+     * @return The merged result.
+     * @throws Throwable When the alternatives cannot be merged.
+     */
+    protected R mergeUnchecked(R result, R other) throws Throwable {
+        throw new IllegalArgumentException("Ambiguous derivation of " + getSource().name() + ".");
+    }
+
+    /**
+     * Same as {@link SemanticProduction#mergeUnchecked(Object, Object)} except the given results
+     * are checked first.
+     *
+     * @param result The result of the first alternative, or of the alternatives merged so far.
+     * @param other The result of another alternative.
+     * @return The merged result.
+     * @throws Throwable When the alternatives cannot be merged.
+     */
+    public R merge(R result, R other) throws Throwable {
+        Objects.requireNonNull(result);
+        Objects.requireNonNull(other);
+
+        return mergeUnchecked(result, other);
+    }
+
     /**
      * Same as {@link SemanticProduction#buildResult(Seq)} just wrapped in a <b>Try</b>.
      *
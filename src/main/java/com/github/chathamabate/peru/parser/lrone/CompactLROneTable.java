@@ -0,0 +1,840 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+import com.github.chathamabate.peru.parser.grammar.Production;
+import com.github.chathamabate.peru.parser.grammar.SemanticProduction;
+import io.vavr.Tuple2;
+import io.vavr.collection.Array;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Vector;
+import io.vavr.control.Either;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A frozen, primitive encoding of an {@link LROneTable}, made for parsing rather than construction.
+ * <br>
+ * Action table columns are indexed by terminal ordinal plus one (column 0 being eof), and goto table columns
+ * are indexed by non-terminal ordinal. So, every lookup is an array index, with no hashing or unboxing.
+ * <br>
+ * Each action is encoded as a single <b>int</b>.
+ * <ul>
+ *     <li>0 is an error.</li>
+ *     <li>A positive action is a shift to the state it equals.</li>
+ *     <li>A negative action (sign bit set) is a reduction by the production whose index is its complement.</li>
+ * </ul>
+ * Since most cells are errors, both tables are packed into comb vectors (row displacement with a check array,
+ * as in yacc's <i>yypact</i> and <i>yycheck</i>), so lookups stay constant time.
+ * <br>
+ * Every state with a reduction also has a default reduction, its most common one, which is given for every
+ * terminal the state has no other action on. So, an error in such a state is only found once the reductions
+ * leading to a state without a default are done. Default reductions never shift, so no erroneous token is ever
+ * consumed. Terminals and non-terminals not used by the grammar are treated like any other error entry.
+ * <br>
+ * A state whose default reduction is its only action is consistent, and can reduce without its lookahead
+ * (see {@link #consistentReduction(int)}). Transitions into consistent states which reduce by identity productions
+ * lead straight past them, so those reductions are never made.
+ *
+ * @param <NT> The non-terminal <b>Enum</b> type.
+ * @param <T> The terminal <b>Enum</b> type.
+ * @param <P> The <b>Production</b> type.
+ */
+public final class CompactLROneTable<NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> {
+
+    /**
+     * The most <b>int</b>s allocated for an array before any of them are read.
+     */
+    private static final int READ_CHUNK = 1 << 12;
+
+    /**
+     * Determine whether an action is an error.
+     *
+     * @param action The action.
+     * @return Whether or not the action is an error.
+     */
+    public static boolean isError(int action) {
+        return action == 0;
+    }
+
+    /**
+     * Determine whether an action is a shift.
+     *
+     * @param action The action.
+     * @return Whether or not the action is a shift.
+     */
+    public static boolean isShift(int action) {
+        return action > 0;
+    }
+
+    /**
+     * Determine whether an action is a reduction.
+     *
+     * @param action The action.
+     * @return Whether or not the action is a reduction.
+     */
+    public static boolean isReduce(int action) {
+        return action < 0;
+    }
+
+    /**
+     * Get the production index of a reduction.
+     *
+     * @param action The reduction.
+     * @return The index of the production to reduce by.
+     */
+    public static int reduction(int action) {
+        return ~action;
+    }
+
+    /**
+     * Tables packed by row displacement. Row <b>r</b> owns slot <b>base[r] + c</b> for each of its entries
+     * <b>c</b>, and owned slots are marked with <b>r</b> in the check array. No two rows own the same slot, so a
+     * lookup hits an entry exactly when the check matches.
+     */
+    private static final class Comb {
+
+        /**
+         * The displacement of each row.
+         */
+        private final int[] base;
+
+        /**
+         * The packed entries.
+         */
+        private final int[] table;
+
+        /**
+         * The owner of each packed entry. (-1 when unowned)
+         */
+        private final int[] check;
+
+        /**
+         * Constructor. (No checks)
+         *
+         * @param b The displacement of each row.
+         * @param t The packed entries.
+         * @param c The owner of each packed entry.
+         */
+        private Comb(int[] b, int[] t, int[] c) {
+            base = b;
+            table = t;
+            check = c;
+        }
+
+        /**
+         * Pack sparse rows, placing rows with more entries first, each at the first displacement that fits.
+         *
+         * @param columns The columns of each row's entries.
+         * @param values The values of each row's entries.
+         */
+        private Comb(int[][] columns, int[][] values) {
+            int rows = columns.length;
+            base = new int[rows];
+
+            Integer[] order = new Integer[rows];
+            for (int r = 0; r < rows; r++) {
+                order[r] = r;
+            }
+
+            Arrays.sort(order, (r1, r2) -> columns[r2].length - columns[r1].length);
+
+            int[] tempTable = new int[16];
+            int[] tempCheck = new int[16];
+            Arrays.fill(tempCheck, -1);
+
+            int used = 0;
+
+            for (int r: order) {
+                int[] cols = columns[r];
+
+                if (cols.length == 0) {
+                    continue;   // Every lookup of an empty row misses, wherever it is placed.
+                }
+
+                int d = -cols[0];
+                while (!fits(tempCheck, cols, d)) {
+                    d++;
+                }
+
+                int end = d + cols[cols.length - 1] + 1;
+                if (end > tempCheck.length) {
+                    int capacity = Math.max(end, tempCheck.length * 2);
+
+                    tempTable = Arrays.copyOf(tempTable, capacity);
+                    int oldLength = tempCheck.length;
+                    tempCheck = Arrays.copyOf(tempCheck, capacity);
+                    Arrays.fill(tempCheck, oldLength, capacity, -1);
+                }
+
+                for (int e = 0; e < cols.length; e++) {
+                    tempTable[d + cols[e]] = values[r][e];
+                    tempCheck[d + cols[e]] = r;
+                }
+
+                base[r] = d;
+                used = Math.max(used, end);
+            }
+
+            table = Arrays.copyOf(tempTable, used);
+            check = Arrays.copyOf(tempCheck, used);
+        }
+
+        /**
+         * Determine whether a row's entries fit at some displacement.
+         *
+         * @param check The check array so far.
+         * @param cols The columns of the row's entries. (Sorted)
+         * @param d The displacement.
+         * @return Whether or not every slot needed is unowned.
+         */
+        private static boolean fits(int[] check, int[] cols, int d) {
+            for (int col: cols) {
+                int i = d + col;
+
+                if (i < check.length && check[i] != -1) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Look up an entry.
+         *
+         * @param row The row.
+         * @param col The column.
+         * @param otherwise The value to give if the row has no entry in the column.
+         * @return The entry.
+         */
+        private int get(int row, int col, int otherwise) {
+            int i = base[row] + col;
+            return i >= 0 && i < check.length && check[i] == row ? table[i] : otherwise;
+        }
+
+        /**
+         * Write this comb.
+         *
+         * @param out The output.
+         * @throws IOException If writing fails.
+         */
+        private void write(DataOutput out) throws IOException {
+            writeInts(out, base);
+            writeInts(out, table);
+            writeInts(out, check);
+        }
+
+        /**
+         * Read a comb written by {@link #write(DataOutput)}.
+         *
+         * @param in The input.
+         * @param rows The number of rows expected.
+         * @return The comb.
+         * @throws IOException If reading fails, or the comb is malformed.
+         */
+        private static Comb read(DataInput in, int rows) throws IOException {
+            int[] base = readInts(in, rows);
+            int[] table = readInts(in, Integer.MAX_VALUE);
+            int[] check = readInts(in, table.length);
+
+            if (base.length != rows || table.length != check.length) {
+                throw new IOException("Malformed comb vector.");
+            }
+
+            for (int owner: check) {
+                if (owner < -1 || owner >= rows) {
+                    throw new IOException("Malformed comb vector.");
+                }
+            }
+
+            return new Comb(base, table, check);
+        }
+
+        /**
+         * Get the number of <b>int</b>s used.
+         *
+         * @return The size.
+         */
+        private int size() {
+            return base.length + table.length + check.length;
+        }
+    }
+
+    /**
+     * The number of states.
+     */
+    private final int states;
+
+    /**
+     * The action table, one row per state. (Default reductions are not held)
+     */
+    private final Comb actions;
+
+    /**
+     * The default reduction of each state, or 0 for none.
+     */
+    private final int[] defaults;
+
+    /**
+     * The reduction of each consistent state, or 0 for every other state.
+     */
+    private final int[] consistent;
+
+    /**
+     * The goto table, one row per state.
+     */
+    private final Comb gotos;
+
+    /**
+     * Every production the action table reduces by, in index order.
+     */
+    private final Array<P> productions;
+
+    /**
+     * The rule length of each production.
+     */
+    private final int[] ruleLengths;
+
+    /**
+     * Constructor. (No checks)
+     *
+     * @param st The number of states.
+     * @param a The action table.
+     * @param d The default reductions.
+     * @param g The goto table.
+     * @param ps The productions.
+     */
+    private CompactLROneTable(int st, Comb a, int[] d, Comb g, Array<P> ps) {
+        states = st;
+        actions = a;
+        defaults = d;
+        gotos = g;
+        productions = ps;
+        ruleLengths = ruleLengths(ps);
+        consistent = consistentReductions(a, d);
+    }
+
+    /**
+     * Encode the tables of an {@link LROneTable}.
+     *
+     * @param actionTable The action table.
+     * @param gotoTable The goto table.
+     * @param terminalMap The action table column of each terminal.
+     * @param nonTerminalMap The goto table column of each non-terminal.
+     */
+    CompactLROneTable(Array<Array<Either<Integer, P>>> actionTable, Array<Array<Integer>> gotoTable,
+                      Map<T, Integer> terminalMap, Map<NT, Integer> nonTerminalMap) {
+        states = actionTable.length();
+        defaults = new int[states];
+
+        Vector<P> tempProductions = Vector.empty();
+        Map<P, Integer> indices = HashMap.empty();
+
+        Array<Tuple2<T, Integer>> terminalColumns = Array.ofAll(terminalMap).sortBy(c -> c._1.ordinal());
+        Array<Tuple2<NT, Integer>> nonTerminalColumns = Array.ofAll(nonTerminalMap).sortBy(c -> c._1.ordinal());
+
+        // Columns in ordinal order, so each row's entries come out sorted.
+        // Column 0 is eof in both encodings, every other column is moved to its terminal's ordinal.
+        int[] cols = new int[terminalColumns.length() + 1];
+        for (int c = 0; c < terminalColumns.length(); c++) {
+            cols[c + 1] = terminalColumns.get(c)._1.ordinal() + 1;
+        }
+
+        int[] ntCols = new int[nonTerminalColumns.length()];
+        for (int c = 0; c < ntCols.length; c++) {
+            ntCols[c] = nonTerminalColumns.get(c)._1.ordinal();
+        }
+
+        int[][] dense = new int[states][];
+        int[][] ntDense = new int[states][];
+
+        for (int row = 0; row < states; row++) {
+            Array<Either<Integer, P>> actionRow = actionTable.get(row);
+
+            // Productions are indexed in the order they are first found.
+            for (Either<Integer, P> cell: actionRow) {
+                if (cell.isRight() && !indices.containsKey(cell.get())) {
+                    indices = indices.put(cell.get(), tempProductions.length());
+                    tempProductions = tempProductions.append(cell.get());
+                }
+            }
+
+            dense[row] = new int[cols.length];
+            dense[row][0] = encode(actionRow.get(0), indices);
+            for (int c = 0; c < terminalColumns.length(); c++) {
+                dense[row][c + 1] = encode(actionRow.get(terminalColumns.get(c)._2), indices);
+            }
+
+            defaults[row] = defaultReduction(dense[row]);
+
+            ntDense[row] = new int[ntCols.length];
+            for (int c = 0; c < ntCols.length; c++) {
+                ntDense[row][c] = gotoTable.get(row).get(nonTerminalColumns.get(c)._2);
+            }
+        }
+
+        productions = Array.ofAll(tempProductions);
+        ruleLengths = ruleLengths(productions);
+
+        bypassIdentities(dense, ntDense, ntCols);
+
+        int[][] actionColumns = new int[states][];
+        int[][] actionValues = new int[states][];
+        int[][] gotoColumns = new int[states][];
+        int[][] gotoValues = new int[states][];
+
+        for (int row = 0; row < states; row++) {
+            int[][] sparse = sparse(cols, dense[row], defaults[row]);
+            actionColumns[row] = sparse[0];
+            actionValues[row] = sparse[1];
+
+            sparse = sparse(ntCols, ntDense[row], 0);
+            gotoColumns[row] = sparse[0];
+            gotoValues[row] = sparse[1];
+        }
+
+        actions = new Comb(actionColumns, actionValues);
+        gotos = new Comb(gotoColumns, gotoValues);
+        consistent = consistentReductions(actions, defaults);
+    }
+
+    /**
+     * Route transitions around identity reductions. (See {@link SemanticProduction#isIdentity()})
+     * <br>
+     * A state is consistent when its default reduction is its only action. When such a state reduces by an
+     * identity production <b>A -> X</b>, every transition into it on <b>X</b> from some state <b>s</b> is
+     * immediately followed by popping it and moving to the goto of <b>s</b> on <b>A</b>, with the same result on
+     * the stack. So, the transition can lead straight to that goto instead, which also skips whole chains of
+     * unit productions. Errors are found just as before, since a consistent state never inspects its lookahead.
+     * <br>
+     * The start symbol is never on a rule's right hand side, so it has no gotos, and reductions to it
+     * (which may accept) are never skipped.
+     *
+     * @param dense The encoded action rows. (Updated in place)
+     * @param ntDense The goto rows. (Updated in place)
+     * @param ntCols The non-terminal ordinal of each goto row column.
+     */
+    private void bypassIdentities(int[][] dense, int[][] ntDense, int[] ntCols) {
+        // The goto row column of the non-terminal each state reduces to by identity, or -1.
+        int[] unit = new int[states];
+
+        for (int state = 0; state < states; state++) {
+            unit[state] = -1;
+
+            int def = defaults[state];
+            if (def == 0 || !isOnly(dense[state], def)) {
+                continue;
+            }
+
+            P production = productions.get(reduction(def));
+            if (production.getRule().length() != 1 || !(production instanceof SemanticProduction)
+                    || !((SemanticProduction<?, ?, ?>) production).isIdentity()) {
+                continue;
+            }
+
+            for (int c = 0; c < ntCols.length; c++) {
+                if (ntCols[c] == production.getSource().ordinal()) {
+                    unit[state] = c;
+                }
+            }
+        }
+
+        // Gotos first, until every chain is followed to its end.
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int[] row: ntDense) {
+                for (int c = 0; c < row.length; c++) {
+                    int bypass = row[c] == 0 || unit[row[c]] == -1 ? 0 : row[unit[row[c]]];
+
+                    if (bypass != 0 && bypass != row[c]) {
+                        row[c] = bypass;
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        for (int state = 0; state < states; state++) {
+            int[] row = dense[state];
+
+            for (int c = 0; c < row.length; c++) {
+                if (isShift(row[c]) && unit[row[c]] != -1 && ntDense[state][unit[row[c]]] != 0) {
+                    row[c] = ntDense[state][unit[row[c]]];
+                }
+            }
+        }
+    }
+
+    /**
+     * Determine whether every action of a row is an error or one given action.
+     *
+     * @param row The encoded row.
+     * @param action The action.
+     * @return Whether or not the row holds no other action.
+     */
+    private static boolean isOnly(int[] row, int action) {
+        for (int cell: row) {
+            if (cell != 0 && cell != action) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Find the reduction of each consistent state, a state whose default reduction is its only action.
+     *
+     * @param actions The action table.
+     * @param defaults The default reductions.
+     * @return The reduction of each consistent state, or 0 for every other state.
+     */
+    private static int[] consistentReductions(Comb actions, int[] defaults) {
+        int[] consistent = Arrays.copyOf(defaults, defaults.length);
+
+        // Rows with entries hold actions besides their defaults.
+        for (int owner: actions.check) {
+            if (owner != -1) {
+                consistent[owner] = 0;
+            }
+        }
+
+        return consistent;
+    }
+
+    /**
+     * Find the rule length of each production.
+     *
+     * @param productions The productions.
+     * @param <P> The <b>Production</b> type.
+     * @return The rule lengths.
+     */
+    private static <P extends Production<?, ?>> int[] ruleLengths(Array<P> productions) {
+        int[] lengths = new int[productions.length()];
+
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = productions.get(i).getRule().length();
+        }
+
+        return lengths;
+    }
+
+    /**
+     * Encode a single action table cell. (Its production must already have an index)
+     *
+     * @param cell The cell.
+     * @param indices The index of each production.
+     * @return The encoded action.
+     */
+    private static <P> int encode(Either<Integer, P> cell, Map<P, Integer> indices) {
+        return cell.isLeft() ? cell.getLeft() : ~indices.get(cell.get()).get();
+    }
+
+    /**
+     * Pick the default reduction of a row, the reduction filling the most cells.
+     *
+     * @param row The encoded row.
+     * @return The default reduction, or 0 if the row has no reductions.
+     */
+    private static int defaultReduction(int[] row) {
+        int best = 0;
+        int bestCount = 0;
+
+        for (int action: row) {
+            if (!isReduce(action) || action == best) {
+                continue;
+            }
+
+            int count = 0;
+            for (int other: row) {
+                if (other == action) {
+                    count++;
+                }
+            }
+
+            if (count > bestCount) {
+                best = action;
+                bestCount = count;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Drop the cells of a row which are errors or equal to the row's default.
+     *
+     * @param cols The column of each cell.
+     * @param row The cells.
+     * @param def The row's default.
+     * @return The columns and values of the cells kept.
+     */
+    private static int[][] sparse(int[] cols, int[] row, int def) {
+        int kept = 0;
+        for (int cell: row) {
+            if (cell != 0 && cell != def) {
+                kept++;
+            }
+        }
+
+        int[][] sparse = new int[2][kept];
+
+        int e = 0;
+        for (int c = 0; c < row.length; c++) {
+            if (row[c] != 0 && row[c] != def) {
+                sparse[0][e] = cols[c];
+                sparse[1][e] = row[c];
+                e++;
+            }
+        }
+
+        return sparse;
+    }
+
+    /**
+     * Write an array of <b>int</b>s, prefixed by its length.
+     *
+     * @param out The output.
+     * @param ints The array.
+     * @throws IOException If writing fails.
+     */
+    private static void writeInts(DataOutput out, int[] ints) throws IOException {
+        out.writeInt(ints.length);
+
+        for (int i: ints) {
+            out.writeInt(i);
+        }
+    }
+
+    /**
+     * Read an array of <b>int</b>s written by {@link #writeInts(DataOutput, int[])}.
+     * <br>
+     * The array only grows as <b>int</b>s are actually read, so a corrupt length fails with an
+     * <b>IOException</b> at the end of the input, rather than allocating an array that large up front.
+     *
+     * @param in The input.
+     * @param maxLength The largest length the array can have.
+     * @return The array.
+     * @throws IOException If reading fails, or the length is malformed.
+     */
+    private static int[] readInts(DataInput in, int maxLength) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0 || length > maxLength) {
+            throw new IOException("Malformed array length " + length + ".");
+        }
+
+        int[] ints = new int[Math.min(length, READ_CHUNK)];
+
+        for (int i = 0; i < length; i++) {
+            if (i == ints.length) {
+                ints = Arrays.copyOf(ints, (int) Math.min(length, 2L * ints.length));
+            }
+
+            ints[i] = in.readInt();
+        }
+
+        return ints;
+    }
+
+    /**
+     * Write this table in binary.
+     * <br>
+     * Productions are written as indices into a sequence of productions (usually
+     * {@link com.github.chathamabate.peru.parser.grammar.CFGrammar#getOrderedProductions()}),
+     * so the same sequence must be given when reading the table back.
+     *
+     * @param out The output.
+     * @param ordered The sequence of productions.
+     * @throws IOException If writing fails.
+     */
+    void write(DataOutput out, Seq<P> ordered) throws IOException {
+        out.writeInt(states);
+        writeInts(out, defaults);
+        actions.write(out);
+        gotos.write(out);
+
+        int[] indices = new int[productions.length()];
+
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = ordered.indexOf(productions.get(i));
+
+            if (indices[i] == -1) {
+                throw new IllegalArgumentException("Production " + productions.get(i) + " is not in the sequence.");
+            }
+        }
+
+        writeInts(out, indices);
+    }
+
+    /**
+     * Read a table written by {@link #write(DataOutput, Seq)}.
+     * <br>
+     * The table is checked to be well formed, so any actions and gotos read can be followed safely.
+     *
+     * @param in The input.
+     * @param ordered The sequence of productions the table was written with.
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The table.
+     * @throws IOException If reading fails, or the table is malformed.
+     */
+    static <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> CompactLROneTable<NT, T, P>
+    read(DataInput in, Seq<P> ordered) throws IOException {
+        int states = in.readInt();
+
+        if (states <= 0) {
+            throw new IOException("Malformed number of states " + states + ".");
+        }
+
+        int[] defaults = readInts(in, states);
+        Comb actions = Comb.read(in, states);
+        Comb gotos = Comb.read(in, states);
+        int[] indices = readInts(in, ordered.length());
+
+        if (defaults.length != states) {
+            throw new IOException("Malformed default reductions.");
+        }
+
+        Vector<P> productions = Vector.empty();
+
+        for (int index: indices) {
+            if (index < 0 || index >= ordered.length()) {
+                throw new IOException("Malformed production index " + index + ".");
+            }
+
+            productions = productions.append(ordered.get(index));
+        }
+
+        // Every action must be an error, a shift to a state, or a reduction by a production.
+        for (int[] encoded: new int[][] {defaults, actions.table}) {
+            for (int action: encoded) {
+                if (action >= states || (isReduce(action) && reduction(action) >= indices.length)) {
+                    throw new IOException("Malformed action " + action + ".");
+                }
+            }
+        }
+
+        for (int target: gotos.table) {
+            if (target < 0 || target >= states) {
+                throw new IOException("Malformed goto " + target + ".");
+            }
+        }
+
+        return new CompactLROneTable<>(states, actions, defaults, gotos, Array.ofAll(productions));
+    }
+
+    /**
+     * Throw an error if a state is not a state of this table.
+     *
+     * @param state The state.
+     */
+    private void validateState(int state) {
+        if (state < 0 || state >= states) {
+            throw new IndexOutOfBoundsException("Given state is not valid.");
+        }
+    }
+
+    /**
+     * Get the number of states in this table.
+     *
+     * @return The number of states.
+     */
+    public int getNumberOfStates() {
+        return states;
+    }
+
+    /**
+     * Get the action of some state on some terminal.
+     *
+     * @param state The state.
+     * @param terminal The terminal.
+     * @return The encoded action.
+     */
+    public int actionMove(int state, T terminal) {
+        validateState(state);
+
+        return actions.get(state, terminal.ordinal() + 1, defaults[state]);
+    }
+
+    /**
+     * Get the action of some state on eof.
+     *
+     * @param state The state.
+     * @return The encoded action.
+     */
+    public int actionMove(int state) {
+        validateState(state);
+        return actions.get(state, 0, defaults[state]);
+    }
+
+    /**
+     * Get the reduction of some state if it is consistent, that is, if it reduces without inspecting
+     * its lookahead.
+     *
+     * @param state The state.
+     * @return The encoded reduction, or 0 if the state is not consistent.
+     */
+    public int consistentReduction(int state) {
+        validateState(state);
+        return consistent[state];
+    }
+
+    /**
+     * Get the goto state of some state on some non-terminal.
+     *
+     * @param state The state.
+     * @param nonTerminal The non-terminal.
+     * @return The goto state, or 0 if there is none.
+     */
+    public int gotoShift(int state, NT nonTerminal) {
+        validateState(state);
+
+        return gotos.get(state, nonTerminal.ordinal(), 0);
+    }
+
+    /**
+     * Get the production with some index.
+     *
+     * @param index The index. (As given by {@link #reduction(int)})
+     * @return The production.
+     */
+    public P getProduction(int index) {
+        return productions.get(index);
+    }
+
+    /**
+     * Get the rule length of the production with some index.
+     *
+     * @param index The index. (As given by {@link #reduction(int)})
+     * @return The rule length.
+     */
+    public int getRuleLength(int index) {
+        return ruleLengths[index];
+    }
+
+    /**
+     * Get every production this table reduces by, in index order.
+     *
+     * @return The productions.
+     */
+    public Array<P> getProductions() {
+        return productions;
+    }
+
+    /**
+     * Get the number of <b>int</b>s this table's actions and gotos are held in.
+     *
+     * @return The size.
+     */
+    public int getPackedSize() {
+        return actions.size() + defaults.length + gotos.size();
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+import com.github.chathamabate.peru.parser.grammar.SemanticProduction;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.Array;
+import io.vavr.collection.Seq;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A node of a shared packed parse forest, as built by a {@link GLRParser}.
+ * <br>
+ * Each node stands for every derivation of one symbol from one range of tokens. A terminal node holds its
+ * token. A non-terminal node holds one alternative for each distinct way it was derived, a production along
+ * with the node of each symbol of its rule. Nodes are shared by every alternative which derives the same symbol
+ * from the same tokens, so a forest holding exponentially many parses is only polynomial in size.
+ * <br>
+ * Forests of cyclic grammars may contain cycles.
+ *
+ * @param <NT> The non-terminal <b>Enum</b> type.
+ * @param <T> The terminal <b>Enum</b> type.
+ * @param <L> The lexeme type.
+ * @param <D> The data type.
+ * @param <R> The result type.
+ */
+public final class ForestNode<NT extends Enum<NT>, T extends Enum<T>, L, D, R> {
+
+    /**
+     * An alternative derivation of a non-terminal node.
+     *
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <L> The lexeme type.
+     * @param <D> The data type.
+     * @param <R> The result type.
+     */
+    static final class Alternative<NT extends Enum<NT>, T extends Enum<T>, L, D, R> {
+        final SemanticProduction<NT, T, R> production;
+        final ForestNode<NT, T, L, D, R>[] children;
+
+        private Alternative(SemanticProduction<NT, T, R> p, ForestNode<NT, T, L, D, R>[] cs) {
+            production = p;
+            children = cs;
+        }
+    }
+
+    /**
+     * The symbol of this node.
+     */
+    private final Either<NT, T> symbol;
+
+    /**
+     * The index of the first token this node derives.
+     */
+    private final int start;
+
+    /**
+     * The index after the last token this node derives.
+     */
+    private final int end;
+
+    /**
+     * The token of this node, or null if it is a non-terminal node.
+     */
+    private final Tuple2<L, D> token;
+
+    /**
+     * The alternatives of this node, or null if it is a terminal node.
+     */
+    final ArrayList<Alternative<NT, T, L, D, R>> alternatives;
+
+    /**
+     * The result of this node if it was built while parsing, otherwise null.
+     */
+    final R value;
+
+    /**
+     * Create a terminal node.
+     *
+     * @param t The token's type.
+     * @param s The index of the token.
+     * @param tk The token.
+     */
+    ForestNode(T t, int s, Tuple2<L, D> tk) {
+        symbol = Either.right(t);
+        start = s;
+        end = s + 1;
+        token = tk;
+        alternatives = null;
+        value = null;
+    }
+
+    /**
+     * Create a non-terminal node with no alternatives.
+     *
+     * @param nt The non-terminal.
+     * @param s The index of the first token.
+     * @param e The index after the last token.
+     */
+    ForestNode(NT nt, int s, int e) {
+        symbol = Either.left(nt);
+        start = s;
+        end = e;
+        token = null;
+        alternatives = new ArrayList<>(1);
+        value = null;
+    }
+
+    /**
+     * Create a node whose result was already built while parsing. It has neither a token nor alternatives.
+     * (Such nodes only stand in for parts of a stack kept outside the forest, and are never given out)
+     *
+     * @param sym The symbol.
+     * @param s The index of the first token.
+     * @param e The index after the last token.
+     * @param v The result.
+     */
+    ForestNode(Either<NT, T> sym, int s, int e, R v) {
+        symbol = sym;
+        start = s;
+        end = e;
+        token = null;
+        alternatives = null;
+        value = v;
+    }
+
+    /**
+     * Add an alternative to this node, unless it is already held.
+     *
+     * @param production The production.
+     * @param children The node of each symbol of the production's rule.
+     */
+    void addAlternative(SemanticProduction<NT, T, R> production, ForestNode<NT, T, L, D, R>[] children) {
+        for (Alternative<NT, T, L, D, R> alternative: alternatives) {
+            if (alternative.production == production && Arrays.equals(alternative.children, children)) {
+                return;
+            }
+        }
+
+        alternatives.add(new Alternative<>(production, children));
+    }
+
+    /**
+     * Get the symbol of this node.
+     *
+     * @return The symbol.
+     */
+    public Either<NT, T> getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Get the index of the first token this node derives.
+     *
+     * @return The index.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Get the index after the last token this node derives.
+     *
+     * @return The index.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Get the token of this node.
+     *
+     * @return The token, or none if this node is a non-terminal node.
+     */
+    public Option<Tuple2<L, D>> getToken() {
+        return Option.of(token);
+    }
+
+    /**
+     * Get the alternative derivations of this node.
+     *
+     * @return Each alternative's production and the node of each symbol of its rule.
+     * (Empty if this node is a terminal node)
+     */
+    public Seq<Tuple2<SemanticProduction<NT, T, R>, Seq<ForestNode<NT, T, L, D, R>>>> getAlternatives() {
+        return alternatives == null
+                ? Array.empty()
+                : Array.ofAll(alternatives).map(a -> Tuple.of(a.production, Array.of(a.children)));
+    }
+
+    /**
+     * Determine whether this node has more than one derivation.
+     * (Nodes below it may be ambiguous either way)
+     *
+     * @return Whether or not this node has more than one alternative.
+     */
+    public boolean isAmbiguous() {
+        return alternatives != null && alternatives.size() > 1;
+    }
+
+    @Override
+    public String toString() {
+        return (symbol.isLeft() ? symbol.getLeft().name() : symbol.get().name()) + "[" + start + ", " + end + ")";
+    }
+}
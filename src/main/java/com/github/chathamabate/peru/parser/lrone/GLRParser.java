@@ -0,0 +1,824 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+import com.github.chathamabate.peru.parser.Parser;
+import com.github.chathamabate.peru.parser.Tokenized;
+import com.github.chathamabate.peru.parser.grammar.SemanticCFGrammar;
+import com.github.chathamabate.peru.parser.grammar.SemanticProduction;
+import io.vavr.Function0;
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.collection.Array;
+import io.vavr.collection.Seq;
+import io.vavr.control.Either;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Generalized LR Parser Class.
+ * <br>
+ * A GLR parser runs on a {@link GLRTable}, so grammars need not be LR(1). Where the table has a conflict, every
+ * action is taken, and the parse stacks form a graph-structured stack. Stacks in the same state after the same
+ * tokens are merged into one node, so the number of stack nodes per token is bounded by the number of states.
+ * Reductions are done as in Tomita's algorithm, with Nozohoor-Farshi's correction for empty rules, building a
+ * shared packed parse forest (see {@link ForestNode}).
+ * <br>
+ * When parsing straight to a result, deterministic parts of the input never touch the graph-structured stack.
+ * While there is a single stack, and no conflict is met on the next lookahead, the stack is kept in arrays and
+ * results are built as rules are reduced, just as in an {@link LROneParser}. Only tokens which meet a conflict
+ * are parsed on stack nodes, and once the stacks are a single chain again, the forest above the arrays is
+ * evaluated back onto them.
+ * <br>
+ * Results are built from a forest once it is complete. Each forest node is evaluated once, and
+ * shared by every alternative above it. Ambiguities are resolved by the hooks of the alternatives' top
+ * productions. (See {@link SemanticProduction#getPriority()} and
+ * {@link SemanticProduction#merge(Object, Object)})
+ *
+ * @param <NT> Non Terminal enum type.
+ * @param <T> Terminal Enum Type.
+ * @param <L> Lexeme Type.
+ * @param <D> Data Type.
+ * @param <R> Result type produced by this parser.
+ */
+public abstract class GLRParser<NT extends Enum<NT>, T extends Enum<T>, L, D extends Tokenized<T>, R>
+        implements Parser<T, L, D, R> {
+
+    public static <NT extends Enum<NT>, T extends Enum<T>, L, D extends Tokenized<T>, R>
+    GLRParser<NT, T, L, D, R> glrParser(
+            SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar,
+            Function1<? super Tuple2<L, D>, ? extends Throwable> onMidError,
+            Function0<? extends Throwable> onEofError
+    ) {
+        return glrParser(grammar, TableConstruction.LALR, onMidError, onEofError);
+    }
+
+    public static <NT extends Enum<NT>, T extends Enum<T>, L, D extends Tokenized<T>, R>
+    GLRParser<NT, T, L, D, R> glrParser(
+            SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar,
+            TableConstruction construction,
+            Function1<? super Tuple2<L, D>, ? extends Throwable> onMidError,
+            Function0<? extends Throwable> onEofError
+    ) {
+        return new GLRParser<NT, T, L, D, R>(grammar, construction) {
+            @Override
+            protected Throwable onError(Tuple2<L, D> lookAhead) {
+                return onMidError.apply(lookAhead);
+            }
+
+            @Override
+            protected Throwable onError() {
+                return onEofError.apply();
+            }
+        };
+    }
+
+    /**
+     * A node of the graph-structured stack.
+     */
+    private static final class StackNode {
+        private final int state;
+
+        // The number of tokens shifted before this node was pushed.
+        private final int level;
+
+        // Edges to the nodes below, labeled by the forest node of the symbol between.
+        private Edge edges;
+
+        // The index of this node in the array stack, or -1 if it was never part of it.
+        // Edges below a node of the array stack are only built when first needed.
+        private final int arrayIndex;
+
+        // Set once every action of this node on the current lookahead has been taken.
+        private boolean acted;
+
+        // Set once some path down from this node is known to reach a node with more than one edge.
+        private boolean branched;
+
+        private StackNode(int s, int l) {
+            this(s, l, -1);
+        }
+
+        private StackNode(int s, int l, int i) {
+            state = s;
+            level = l;
+            arrayIndex = i;
+        }
+
+        private boolean hasEdgeTo(StackNode below) {
+            for (Edge e = edges; e != null; e = e.next) {
+                if (e.below == below) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * An edge of the graph-structured stack.
+     */
+    private static final class Edge {
+        private final StackNode below;
+        private final ForestNode<?, ?, ?, ?, ?> label;
+        private final Edge next;
+
+        private Edge(StackNode b, ForestNode<?, ?, ?, ?, ?> l, Edge n) {
+            below = b;
+            label = l;
+            next = n;
+        }
+    }
+
+    /**
+     * A reduction waiting to be done, along one path of the graph-structured stack.
+     */
+    private static final class Reduction {
+        private final StackNode bottom;
+        private final int production;
+        private final ForestNode<?, ?, ?, ?, ?>[] children;
+
+        private Reduction(StackNode b, int p, ForestNode<?, ?, ?, ?, ?>[] cs) {
+            bottom = b;
+            production = p;
+            children = cs;
+        }
+    }
+
+    private final SemanticCFGrammar<NT, T, SemanticProduction<NT, T, R>, L, D, R> g;
+    private final GLRTable<NT, T, SemanticProduction<NT, T, R>> table;
+
+    protected GLRParser(SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar) {
+        this(grammar, TableConstruction.LALR);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected GLRParser(SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar,
+                        TableConstruction construction) {
+        Objects.requireNonNull(grammar);
+        Objects.requireNonNull(construction);
+
+        g = (SemanticCFGrammar<NT, T, SemanticProduction<NT, T, R>, L, D, R>) grammar;
+        table = new GLRTable<>(g, construction);
+    }
+
+    protected abstract Throwable onError(Tuple2<L, D> lookAhead);
+
+    protected abstract Throwable onError();
+
+    public GLRTable<NT, T, SemanticProduction<NT, T, R>> getTable() {
+        return table;
+    }
+
+    /**
+     * A single parse stack kept in arrays, as an {@link LROneParser} keeps it. When a conflict is met, nodes of
+     * the graph-structured stack are made from its entries, only as deep as reductions reach.
+     */
+    private final class ArrayStack {
+
+        // states[i] is the state reached after the symbol whose result is values[i]. (values[0] is unused)
+        private int[] states = new int[16];
+        private Object[] values = new Object[16];
+
+        // The symbol of each entry (its token if it is a terminal), and the number of tokens shifted before it.
+        private Object[] symbols = new Object[16];
+        private int[] levels = new int[16];
+
+        private int top = 0;
+
+        // The states pushed while checking a lookahead for conflicts.
+        private int[] pushed = new int[16];
+
+        private final LROneParser.Children<R> children = new LROneParser.Children<>();
+
+        private void push(int state, Object symbol, Object value, int level) {
+            if (++top == states.length) {
+                states = Arrays.copyOf(states, top * 2);
+                values = Arrays.copyOf(values, top * 2);
+                symbols = Arrays.copyOf(symbols, top * 2);
+                levels = Arrays.copyOf(levels, top * 2);
+            }
+
+            states[top] = state;
+            values[top] = value;
+            symbols[top] = symbol;
+            levels[top] = level;
+        }
+
+        // Determine whether every move on a lookahead, up to its shift, is free of conflicts. Only states are moved.
+        private boolean deterministic(int col, boolean eof) {
+            int depth = top;    // The entries of the arrays still on the stack.
+            int count = 0;      // The states pushed above them.
+
+            while (true) {
+                int state = count == 0 ? states[depth] : pushed[count - 1];
+
+                if (table.conflicts(state, col) != null) {
+                    return false;
+                }
+
+                int action = table.action(state, col);
+
+                if (!CompactLROneTable.isReduce(action)) {
+                    return true;    // A shift or an error.
+                }
+
+                int production = CompactLROneTable.reduction(action);
+                int length = table.getRuleLength(production);
+
+                if (length > count) {
+                    depth -= length - count;
+                    count = 0;
+                } else {
+                    count -= length;
+                }
+
+                int bottom = count == 0 ? states[depth] : pushed[count - 1];
+                NT source = table.getProduction(production).getSource();
+
+                if (eof && bottom == 0 && source.equals(g.getStartSymbol())) {
+                    return true;    // Accept.
+                }
+
+                int next = table.gotoShift(bottom, source);
+
+                if (next == 0) {
+                    return true;    // An error.
+                }
+
+                if (count == pushed.length) {
+                    pushed = Arrays.copyOf(pushed, count * 2);
+                }
+
+                pushed[count++] = next;
+            }
+        }
+
+        /**
+         * Make every move some lookahead allows, up to shifting it, or accepting if it is eof.
+         * (The moves must be free of conflicts)
+         *
+         * @param lookahead The lookahead, or null for eof.
+         * @param col The lookahead's column.
+         * @param level The number of tokens shifted so far.
+         * @return The result of the parse if it was accepted, otherwise null.
+         * @throws Throwable If the lookahead is an error, or a result cannot be built.
+         */
+        @SuppressWarnings("unchecked")
+        private R advance(Tuple2<L, D> lookahead, int col, int level) throws Throwable {
+            while (true) {
+                int action = table.action(states[top], col);
+
+                if (CompactLROneTable.isShift(action)) {
+                    // A shift can never occur with a lookahead of EOF.
+                    push(action, lookahead, g.buildTerminalResult(lookahead._1, lookahead._2), level + 1);
+                    return null;
+                }
+
+                if (CompactLROneTable.isError(action)) {
+                    throw lookahead == null ? onError() : onError(lookahead);
+                }
+
+                int index = CompactLROneTable.reduction(action);
+                SemanticProduction<NT, T, R> production = table.getProduction(index);
+                int length = table.getRuleLength(index);
+
+                top -= length;
+
+                R result;
+
+                if (length == 1 && production.isIdentity()) {
+                    result = (R) values[top + 1];
+                } else {
+                    children.slice(values, top + 1, length);
+                    result = production.buildResult(Array.ofAll(children));
+                }
+
+                Arrays.fill(values, top + 1, top + 1 + length, null);
+                Arrays.fill(symbols, top + 1, top + 1 + length, null);
+
+                NT source = production.getSource();
+
+                if (lookahead == null && states[top] == 0 && source.equals(g.getStartSymbol())) {
+                    return result;
+                }
+
+                int next = table.gotoShift(states[top], source);
+
+                if (next == 0) {
+                    throw lookahead == null ? onError() : onError(lookahead);
+                }
+
+                push(next, source, result, level);
+            }
+        }
+
+        // Build the edge below a node of the array stack, labeled by a forest node holding its result.
+        @SuppressWarnings("unchecked")
+        private void expand(StackNode node) {
+            int i = node.arrayIndex;
+            Object symbol = symbols[i];
+
+            Either<NT, T> label = symbol instanceof Tuple2
+                    ? Either.right(((Tuple2<L, D>) symbol)._2.getTokenType())
+                    : Either.left((NT) symbol);
+
+            node.edges = new Edge(new StackNode(states[i - 1], levels[i - 1], i - 1),
+                    new ForestNode<NT, T, L, D, R>(label, levels[i - 1], levels[i], (R) values[i]), null);
+        }
+
+        /**
+         * Move the stacks back into the arrays, if they are a single chain down to a node of the array stack.
+         * The forest nodes along the chain are complete, so they are evaluated onto the arrays.
+         *
+         * @param node The only stack top.
+         * @param arrayTop The top of the arrays when the stack nodes were first made.
+         * @return Whether or not the stacks were moved.
+         * @throws Throwable If a result cannot be built, or an ambiguity cannot be resolved.
+         */
+        @SuppressWarnings("unchecked")
+        private boolean collapse(StackNode node, int arrayTop) throws Throwable {
+            ArrayList<StackNode> chain = new ArrayList<>();
+
+            for (StackNode n = node; n.arrayIndex < 0; n = n.edges.below) {
+                if (n.branched || n.edges.next != null) {
+                    // Edges are only ever added to tops, so every node passed stays branched.
+                    for (StackNode c: chain) {
+                        c.branched = true;
+                    }
+
+                    n.branched = true;
+                    return false;
+                }
+
+                chain.add(n);
+            }
+
+            top = chain.isEmpty() ? node.arrayIndex : chain.get(chain.size() - 1).edges.below.arrayIndex;
+            Arrays.fill(values, top + 1, arrayTop + 1, null);
+            Arrays.fill(symbols, top + 1, arrayTop + 1, null);
+
+            Map<ForestNode<NT, T, L, D, R>, R> results = new IdentityHashMap<>();
+
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                StackNode n = chain.get(i);
+                ForestNode<NT, T, L, D, R> label = (ForestNode<NT, T, L, D, R>) n.edges.label;
+                Object symbol = label.getSymbol().isLeft() ? label.getSymbol().getLeft() : label.getToken().get();
+
+                push(n.state, symbol, evaluate(label, results), n.level);
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * The state of a parse while the stacks are moved over one lookahead.
+     */
+    private final class Level {
+
+        // The number of tokens shifted so far, and the lookahead. (null at eof)
+        private final int level;
+        private final Tuple2<L, D> lookahead;
+        private final int col;
+
+        // The stack tops of this level.
+        private final ArrayList<StackNode> tops = new ArrayList<>();
+        private final StackNode[] byState;
+
+        private final Deque<StackNode> toAct = new ArrayDeque<>();
+        private final Deque<Reduction> toReduce = new ArrayDeque<>();
+
+        // Forest nodes of non-terminals ending at this level, by start and non-terminal.
+        private final Map<Long, ForestNode<NT, T, L, D, R>> forest = new HashMap<>();
+
+        // Nodes which shift the lookahead, and the states they shift to.
+        private final ArrayList<StackNode> shiftFrom = new ArrayList<>();
+        private final ArrayList<Integer> shiftTo = new ArrayList<>();
+
+        private ForestNode<NT, T, L, D, R> accepted;
+
+        // The array stack below the stack nodes, if there is one.
+        private final ArrayStack arrays;
+
+        private Level(int l, Tuple2<L, D> la, StackNode[] bs, ArrayStack as) {
+            level = l;
+            lookahead = la;
+            col = GLRTable.column(la == null ? null : la._2.getTokenType());
+            byState = bs;
+            arrays = as;
+        }
+
+        private Edge edges(StackNode node) {
+            if (node.edges == null && node.arrayIndex > 0) {
+                arrays.expand(node);
+            }
+
+            return node.edges;
+        }
+
+        private void push(StackNode top) {
+            tops.add(top);
+            byState[top.state] = top;
+            toAct.add(top);
+        }
+
+        // Take every action of every stack top, including the tops reductions push.
+        private void run() {
+            while (!toAct.isEmpty() || !toReduce.isEmpty()) {
+                if (!toReduce.isEmpty()) {
+                    reduce(toReduce.poll());
+                } else {
+                    act(toAct.poll());
+                }
+            }
+
+            // Only the tops of the next level are kept.
+            for (StackNode top: tops) {
+                byState[top.state] = null;
+            }
+        }
+
+        private void act(StackNode v) {
+            int[] cell = table.conflicts(v.state, col);
+
+            if (cell == null) {
+                act(v, table.action(v.state, col), null);
+            } else {
+                for (int action: cell) {
+                    act(v, action, null);
+                }
+            }
+
+            v.acted = true;
+        }
+
+        // Take one action of a node, only along paths through the given edge, if there is one.
+        private void act(StackNode v, int action, Edge through) {
+            if (CompactLROneTable.isShift(action)) {
+                if (through == null) {
+                    shiftFrom.add(v);
+                    shiftTo.add(action);
+                }
+            } else if (CompactLROneTable.isReduce(action)) {
+                int production = CompactLROneTable.reduction(action);
+                int length = table.getRuleLength(production);
+
+                if (through == null || length > 0) {
+                    paths(v, production, new ForestNode<?, ?, ?, ?, ?>[length], length, through, through == null);
+                }
+            }
+        }
+
+        // Queue a reduction along every path of some length down from a node.
+        private void paths(StackNode node, int production, ForestNode<?, ?, ?, ?, ?>[] children, int remaining,
+                           Edge through, boolean passed) {
+            if (remaining == 0) {
+                if (passed) {
+                    toReduce.add(new Reduction(node, production, children.clone()));
+                }
+
+                return;
+            }
+
+            for (Edge e = edges(node); e != null; e = e.next) {
+                children[remaining - 1] = e.label;
+                paths(e.below, production, children, remaining - 1, through, passed || e == through);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void reduce(Reduction r) {
+            SemanticProduction<NT, T, R> production = table.getProduction(r.production);
+            NT source = production.getSource();
+            StackNode bottom = r.bottom;
+
+            ForestNode<NT, T, L, D, R> node = forest.computeIfAbsent(
+                    ((long) bottom.level << 32) | source.ordinal(),
+                    k -> new ForestNode<>(source, bottom.level, level));
+            node.addAlternative(production, (ForestNode<NT, T, L, D, R>[]) r.children);
+
+            // Check for acceptance.
+            if (source.equals(g.getStartSymbol()) && lookahead == null && bottom.state == 0) {
+                accepted = node;
+            }
+
+            int next = table.gotoShift(bottom.state, source);
+
+            if (next == 0) {
+                return;     // Only the start symbol has no goto.
+            }
+
+            StackNode top = byState[next];
+
+            if (top == null) {
+                top = new StackNode(next, level);
+                top.edges = new Edge(bottom, node, null);
+                push(top);
+            } else if (!top.hasEdgeTo(bottom)) {
+                // Every state is entered on one symbol, so an existing edge is labeled with the same forest node.
+                Edge edge = new Edge(bottom, node, top.edges);
+                top.edges = edge;
+
+                // Reductions of nodes already acted on may now go down the new edge.
+                for (StackNode v: tops) {
+                    if (v.acted) {
+                        int[] cell = table.conflicts(v.state, col);
+
+                        if (cell == null) {
+                            act(v, table.action(v.state, col), edge);
+                        } else {
+                            for (int action: cell) {
+                                act(v, action, edge);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // Shift the lookahead, giving the next level.
+        private Level shift(Tuple2<L, D> nextLookahead) {
+            ForestNode<NT, T, L, D, R> leaf = new ForestNode<>(lookahead._2.getTokenType(), level, lookahead);
+            Level next = new Level(level + 1, nextLookahead, byState, arrays);
+
+            for (int i = 0; i < shiftFrom.size(); i++) {
+                int state = shiftTo.get(i);
+                StackNode top = byState[state];
+
+                if (top == null) {
+                    top = new StackNode(state, next.level);
+                    next.push(top);
+                }
+
+                top.edges = new Edge(shiftFrom.get(i), leaf, top.edges);
+            }
+
+            return next;
+        }
+    }
+
+    /**
+     * Parse some tokens into a shared packed parse forest.
+     *
+     * @param tokens The tokens.
+     * @return The root of the forest.
+     * @throws Throwable If the tokens cannot be parsed.
+     */
+    public ForestNode<NT, T, L, D, R> parseForest(Seq<? extends Tuple2<L, D>> tokens) throws Throwable {
+        Objects.requireNonNull(tokens);
+
+        StackNode[] byState = new StackNode[table.getNumberOfStates()];
+        Iterator<? extends Tuple2<L, D>> tokensLeft = tokens.iterator();
+
+        Level current = new Level(0, tokensLeft.hasNext() ? Objects.requireNonNull(tokensLeft.next()) : null,
+                byState, null);
+        current.push(new StackNode(0, 0));
+
+        while (true) {
+            current.run();
+
+            Tuple2<L, D> lookahead = current.lookahead;
+
+            if (lookahead == null) {
+                if (current.accepted == null) {
+                    throw onError();
+                }
+
+                return current.accepted;
+            }
+
+            if (current.shiftFrom.isEmpty()) {
+                throw onError(lookahead);
+            }
+
+            current = current.shift(tokensLeft.hasNext() ? Objects.requireNonNull(tokensLeft.next()) : null);
+        }
+    }
+
+    /**
+     * A forest node being evaluated.
+     */
+    private final class Frame {
+        private final ForestNode<NT, T, L, D, R> node;
+
+        // The alternatives left, only those with the highest priority.
+        private final ArrayList<ForestNode.Alternative<NT, T, L, D, R>> alternatives = new ArrayList<>();
+        private int alternative = 0;
+        private int child = 0;
+        private Object[] values;
+
+        // The result so far, and the production merging into it.
+        private R result;
+        private SemanticProduction<NT, T, R> merger;
+
+        private Frame(ForestNode<NT, T, L, D, R> n) {
+            node = n;
+
+            int priority = Integer.MIN_VALUE;
+            for (ForestNode.Alternative<NT, T, L, D, R> a: n.alternatives) {
+                priority = Math.max(priority, a.production.getPriority());
+            }
+
+            for (ForestNode.Alternative<NT, T, L, D, R> a: n.alternatives) {
+                if (a.production.getPriority() == priority) {
+                    alternatives.add(a);
+                }
+            }
+
+            values = alternatives.isEmpty() ? null : new Object[alternatives.get(0).children.length];
+        }
+
+        private void nextAlternative() {
+            alternative++;
+            child = 0;
+            values = alternative < alternatives.size() ? new Object[alternatives.get(alternative).children.length]
+                    : null;
+        }
+    }
+
+    /**
+     * Build the result of a forest.
+     * <br>
+     * Alternatives which derive a node from itself are skipped, since they stand for infinitely many derivations.
+     * So are alternatives using a node all of whose alternatives were skipped.
+     *
+     * @param root The root of the forest.
+     * @return The result.
+     * @throws Throwable If a result cannot be built, an ambiguity cannot be resolved, or every derivation of the
+     * root is cyclic.
+     */
+    public R evaluate(ForestNode<NT, T, L, D, R> root) throws Throwable {
+        Objects.requireNonNull(root);
+        return evaluate(root, new IdentityHashMap<>());
+    }
+
+    // The result of a node without alternatives, built from its token unless it was built while parsing.
+    private R leafResult(ForestNode<NT, T, L, D, R> leaf) throws Throwable {
+        Tuple2<L, D> token = leaf.getToken().getOrNull();
+        return token == null ? leaf.value : g.buildTerminalResult(token._1, token._2);
+    }
+
+    /**
+     * Build the result of a forest, sharing results with other forests.
+     *
+     * @param root The root of the forest.
+     * @param results The results of the complete nodes evaluated so far. (Results of this forest are added)
+     * @return The result.
+     * @throws Throwable If a result cannot be built, an ambiguity cannot be resolved, or every derivation of the
+     * root is cyclic.
+     */
+    @SuppressWarnings("unchecked")
+    private R evaluate(ForestNode<NT, T, L, D, R> root, Map<ForestNode<NT, T, L, D, R>, R> results)
+            throws Throwable {
+        if (root.alternatives == null) {
+            return leafResult(root);
+        }
+
+        if (results.containsKey(root)) {
+            return results.get(root);
+        }
+
+        Set<ForestNode<NT, T, L, D, R>> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // Explicit stack, forests of long inputs are deep.
+        Deque<Frame> stack = new ArrayDeque<>();
+
+        stack.push(new Frame(root));
+        inProgress.add(root);
+
+        frames:
+        while (true) {
+            Frame frame = stack.peek();
+
+            while (frame.alternative < frame.alternatives.size()) {
+                ForestNode.Alternative<NT, T, L, D, R> alternative = frame.alternatives.get(frame.alternative);
+
+                if (frame.child < alternative.children.length) {
+                    ForestNode<NT, T, L, D, R> child = alternative.children[frame.child];
+
+                    if (child.alternatives == null) {
+                        if (!results.containsKey(child)) {
+                            results.put(child, leafResult(child));
+                        }
+                    } else if (inProgress.contains(child)) {
+                        frame.nextAlternative();    // A cycle.
+                        continue;
+                    } else if (!results.containsKey(child)) {
+                        stack.push(new Frame(child));
+                        inProgress.add(child);
+                        continue frames;
+                    }
+
+                    frame.values[frame.child++] = results.get(child);
+                    continue;
+                }
+
+                SemanticProduction<NT, T, R> production = alternative.production;
+                R result = frame.values.length == 1 && production.isIdentity()
+                        ? (R) frame.values[0]
+                        : production.buildResult((Seq<R>) (Seq<?>) Array.of(frame.values));
+
+                if (frame.merger == null) {
+                    frame.result = result;
+                    frame.merger = production;
+                } else {
+                    frame.result = frame.merger.merge(frame.result, result);
+                }
+
+                frame.nextAlternative();
+            }
+
+            stack.pop();
+            inProgress.remove(frame.node);
+
+            if (frame.merger == null) {
+                if (stack.isEmpty()) {
+                    throw new IllegalArgumentException("Every derivation of " + frame.node + " is cyclic.");
+                }
+
+                // The node has no result here, so the alternative using it is skipped. It is not remembered,
+                // since it may have a derivation when reached without the nodes now in progress.
+                stack.peek().nextAlternative();
+                continue;
+            }
+
+            results.put(frame.node, frame.result);
+
+            if (stack.isEmpty()) {
+                return frame.result;
+            }
+        }
+    }
+
+    @Override
+    public R parseUnchecked(Seq<Tuple2<L, D>> tokens) throws Throwable {
+        Objects.requireNonNull(tokens);
+
+        StackNode[] byState = new StackNode[table.getNumberOfStates()];
+        ArrayStack arrays = new ArrayStack();
+        Iterator<? extends Tuple2<L, D>> tokensLeft = tokens.iterator();
+
+        int level = 0;
+        Tuple2<L, D> lookahead = tokensLeft.hasNext() ? Objects.requireNonNull(tokensLeft.next()) : null;
+
+        // The level being parsed on stack nodes, and the top of the arrays below them, if there are any.
+        Level current = null;
+        int arrayTop = 0;
+
+        while (true) {
+            if (current == null) {
+                int col = GLRTable.column(lookahead == null ? null : lookahead._2.getTokenType());
+
+                if (arrays.deterministic(col, lookahead == null)) {
+                    R result = arrays.advance(lookahead, col, level);
+
+                    if (lookahead == null) {
+                        return result;
+                    }
+
+                    level++;
+                    lookahead = tokensLeft.hasNext() ? Objects.requireNonNull(tokensLeft.next()) : null;
+                    continue;
+                }
+
+                // A conflict, the whole level is parsed on stack nodes.
+                arrayTop = arrays.top;
+                current = new Level(level, lookahead, byState, arrays);
+                current.push(new StackNode(arrays.states[arrayTop], arrays.levels[arrayTop], arrayTop));
+            }
+
+            current.run();
+
+            if (lookahead == null) {
+                if (current.accepted == null) {
+                    throw onError();
+                }
+
+                return evaluate(current.accepted);
+            }
+
+            if (current.shiftFrom.isEmpty()) {
+                throw onError(lookahead);
+            }
+
+            current = current.shift(tokensLeft.hasNext() ? Objects.requireNonNull(tokensLeft.next()) : null);
+            level = current.level;
+            lookahead = current.lookahead;
+
+            if (current.tops.size() == 1 && arrays.collapse(current.tops.get(0), arrayTop)) {
+                byState[current.tops.get(0).state] = null;
+                current = null;
+            }
+        }
+    }
+}
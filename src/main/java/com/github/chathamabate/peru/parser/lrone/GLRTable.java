@@ -0,0 +1,267 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+import com.github.chathamabate.peru.parser.grammar.CFGrammar;
+import com.github.chathamabate.peru.parser.grammar.Production;
+import io.vavr.Tuple2;
+import io.vavr.collection.Array;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Vector;
+import io.vavr.control.Either;
+
+import java.util.Objects;
+
+/**
+ * A parse table for a {@link GLRParser}, which may have conflicts.
+ * <br>
+ * States are found just as for an {@link LROneTable}, but a cell with more than one action keeps every action
+ * rather than the grammar being rejected. Actions are encoded as in a {@link CompactLROneTable}, with action
+ * table columns indexed by terminal ordinal plus one (column 0 being eof), and goto table columns indexed by
+ * non-terminal ordinal. Tables are dense, and have no default reductions, so a stack only reduces on lookaheads
+ * it can shift after. (Stacks which cannot go on must die as soon as possible)
+ *
+ * @param <NT> The non-terminal <b>Enum</b> type.
+ * @param <T> The terminal <b>Enum</b> type.
+ * @param <P> The <b>Production</b> type.
+ */
+public final class GLRTable<NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> {
+
+    /**
+     * The first action of each cell.
+     */
+    private final int[][] actions;
+
+    /**
+     * Every action of each conflicted cell, by state then column. (Null for rows or cells without conflicts)
+     */
+    private final int[][][] conflicts;
+
+    /**
+     * The goto table.
+     */
+    private final int[][] gotos;
+
+    /**
+     * Every production the action table reduces by, in index order.
+     */
+    private final Array<P> productions;
+
+    /**
+     * The rule length of each production.
+     */
+    private final int[] ruleLengths;
+
+    /**
+     * The number of conflicted cells.
+     */
+    private final int conflictCount;
+
+    /**
+     * Build the table of a grammar.
+     *
+     * @param g The grammar.
+     * @param construction The construction of the table.
+     */
+    public GLRTable(CFGrammar<NT, T, P> g, TableConstruction construction) {
+        Objects.requireNonNull(g);
+        Objects.requireNonNull(construction);
+
+        LROneTable<NT, T, P> table = new LROneTable<>(g, construction, true);
+        Array<Array<Either<Integer, P>>> actionTable = table.getActionTable();
+
+        int states = actionTable.length();
+
+        actions = new int[states][];
+        conflicts = new int[states][][];
+        gotos = new int[states][];
+
+        Vector<P> tempProductions = Vector.empty();
+        Map<P, Integer> indices = HashMap.empty();
+        int count = 0;
+
+        int gotoColumns = g.getStartSymbol().getDeclaringClass().getEnumConstants().length;
+        int actionColumns = g.getTerminalsUsed().isEmpty()
+                ? 1
+                : g.getTerminalsUsed().head().getDeclaringClass().getEnumConstants().length + 1;
+
+        // The column of each dense action table column in this table.
+        int[] columns = new int[table.getTerminalMap().length() + 1];
+        for (Tuple2<T, Integer> column: table.getTerminalMap()) {
+            columns[column._2] = column._1.ordinal() + 1;
+        }
+
+        for (int state = 0; state < states; state++) {
+            Map<Integer, Seq<Either<Integer, P>>> conflictRow = table.getConflicts(state);
+
+            // Productions are indexed in the order they are first found.
+            for (Either<Integer, P> cell: actionTable.get(state).appendAll(conflictRow.values().flatMap(c -> c))) {
+                if (cell.isRight() && !indices.containsKey(cell.get())) {
+                    indices = indices.put(cell.get(), tempProductions.length());
+                    tempProductions = tempProductions.append(cell.get());
+                }
+            }
+
+            actions[state] = new int[actionColumns];
+            for (int col = 0; col < columns.length; col++) {
+                actions[state][columns[col]] = encode(actionTable.get(state).get(col), indices);
+            }
+
+            if (!conflictRow.isEmpty()) {
+                conflicts[state] = new int[actionColumns][];
+
+                for (Tuple2<Integer, Seq<Either<Integer, P>>> cell: conflictRow) {
+                    int col = columns[cell._1];
+                    Seq<Either<Integer, P>> cellActions = cell._2;
+
+                    conflicts[state][col] = new int[cellActions.length()];
+                    for (int a = 0; a < cellActions.length(); a++) {
+                        conflicts[state][col][a] = encode(cellActions.get(a), indices);
+                    }
+
+                    count++;
+                }
+            }
+
+            gotos[state] = new int[gotoColumns];
+
+            for (Tuple2<NT, Integer> column: table.getNonTerminalMap()) {
+                gotos[state][column._1.ordinal()] = table.getGotoTable().get(state).get(column._2);
+            }
+        }
+
+        productions = Array.ofAll(tempProductions);
+        ruleLengths = new int[productions.length()];
+
+        for (int i = 0; i < ruleLengths.length; i++) {
+            ruleLengths[i] = productions.get(i).getRule().length();
+        }
+
+        conflictCount = count;
+    }
+
+    /**
+     * Encode a single action table cell. (Its production must already have an index)
+     *
+     * @param cell The cell.
+     * @param indices The index of each production.
+     * @return The encoded action.
+     */
+    private static <P> int encode(Either<Integer, P> cell, Map<P, Integer> indices) {
+        return cell.isLeft() ? cell.getLeft() : ~indices.get(cell.get()).get();
+    }
+
+    /**
+     * Throw an error if a state is not a state of this table.
+     *
+     * @param state The state.
+     */
+    private void validateState(int state) {
+        if (state < 0 || state >= actions.length) {
+            throw new IndexOutOfBoundsException("Given state is not valid.");
+        }
+    }
+
+    /**
+     * Get the number of states in this table.
+     *
+     * @return The number of states.
+     */
+    public int getNumberOfStates() {
+        return actions.length;
+    }
+
+    /**
+     * Get the number of cells of this table with more than one action.
+     *
+     * @return The number of conflicts.
+     */
+    public int getConflictCount() {
+        return conflictCount;
+    }
+
+    /**
+     * Get every action of some state on some terminal.
+     *
+     * @param state The state.
+     * @param terminal The terminal, or null for eof.
+     * @return The encoded actions. (Empty on an error)
+     */
+    public Seq<Integer> actionMoves(int state, T terminal) {
+        validateState(state);
+
+        int col = column(terminal);
+        int[] cell = conflicts(state, col);
+
+        if (cell != null) {
+            return Array.ofAll(cell);
+        }
+
+        int action = action(state, col);
+        return action == 0 ? Array.empty() : Array.of(action);
+    }
+
+    /**
+     * Get the action table column of a terminal.
+     *
+     * @param terminal The terminal, or null for eof.
+     * @return The column.
+     */
+    static int column(Enum<?> terminal) {
+        return terminal == null ? 0 : terminal.ordinal() + 1;
+    }
+
+    /**
+     * Get the first action of a cell. (No checks)
+     *
+     * @param state The state.
+     * @param col The column.
+     * @return The encoded action.
+     */
+    int action(int state, int col) {
+        return col < actions[state].length ? actions[state][col] : 0;
+    }
+
+    /**
+     * Get every action of a conflicted cell. (No checks, the array must not be changed)
+     *
+     * @param state The state.
+     * @param col The column.
+     * @return The encoded actions, or null if the cell has no conflict.
+     */
+    int[] conflicts(int state, int col) {
+        return conflicts[state] == null || col >= conflicts[state].length ? null : conflicts[state][col];
+    }
+
+    /**
+     * Get the goto state of some state on some non-terminal.
+     *
+     * @param state The state.
+     * @param nonTerminal The non-terminal.
+     * @return The goto state, or 0 if there is none.
+     */
+    public int gotoShift(int state, NT nonTerminal) {
+        validateState(state);
+        return gotos[state][nonTerminal.ordinal()];
+    }
+
+    /**
+     * Get the production with some index.
+     *
+     * @param index The index. (As given by {@link CompactLROneTable#reduction(int)})
+     * @return The production.
+     */
+    public P getProduction(int index) {
+        return productions.get(index);
+    }
+
+    /**
+     * Get the rule length of the production with some index.
+     *
+     * @param index The index. (As given by {@link CompactLROneTable#reduction(int)})
+     * @return The rule length.
+     */
+    public int getRuleLength(int index) {
+        return ruleLengths[index];
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+import com.github.chathamabate.peru.parser.grammar.CFGrammar;
+import com.github.chathamabate.peru.parser.grammar.Production;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * A parse table embedded in generated source (see {@link ParserGenerator}).
+ * <br>
+ * The table is held as the binary encoding of a {@link CompactLROneTable}, in Base64, split into chunks
+ * small enough to be <b>String</b> constants. Productions are referred to by their index in the canonical order
+ * of their grammar (see {@link CFGrammar#getOrderedProductions()}), so the table is bound to the productions,
+ * and so the semantic actions, of whichever structurally equal grammar it is decoded with.
+ */
+public final class GeneratedTable {
+
+    /**
+     * Create a <b>GeneratedTable</b>.
+     *
+     * @param fingerprint The fingerprint of the grammar the table was generated from.
+     * @param construction The construction of the table.
+     * @param chunks The chunks of the encoded table.
+     * @return The <b>GeneratedTable</b>.
+     */
+    public static GeneratedTable of(String fingerprint, TableConstruction construction, String... chunks) {
+        Objects.requireNonNull(fingerprint);
+        Objects.requireNonNull(construction);
+        Objects.requireNonNull(chunks);
+
+        StringBuilder encoded = new StringBuilder();
+        for (String chunk: chunks) {
+            encoded.append(Objects.requireNonNull(chunk));
+        }
+
+        return new GeneratedTable(fingerprint, construction, encoded.toString());
+    }
+
+    /**
+     * The fingerprint of the grammar the table was generated from.
+     */
+    private final String fingerprint;
+
+    /**
+     * The construction of the table.
+     */
+    private final TableConstruction construction;
+
+    /**
+     * The encoded table.
+     */
+    private final String encoded;
+
+    /**
+     * Constructor.
+     *
+     * @param f The fingerprint.
+     * @param c The construction.
+     * @param e The encoded table.
+     */
+    private GeneratedTable(String f, TableConstruction c, String e) {
+        fingerprint = f;
+        construction = c;
+        encoded = e;
+    }
+
+    /**
+     * Get the fingerprint of the grammar the table was generated from.
+     *
+     * @return The fingerprint.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Get the construction of the table.
+     *
+     * @return The construction.
+     */
+    public TableConstruction getConstruction() {
+        return construction;
+    }
+
+    /**
+     * Get the encoded table.
+     *
+     * @return The encoded table, in Base64.
+     */
+    public String getEncoded() {
+        return encoded;
+    }
+
+    /**
+     * Decode this table for some grammar.
+     *
+     * @param g The grammar. (Must be structurally equal to the grammar the table was generated from)
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The table.
+     */
+    public <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> CompactLROneTable<NT, T, P>
+    decode(CFGrammar<NT, T, P> g) {
+        Objects.requireNonNull(g);
+
+        if (!g.fingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("Given grammar is not the grammar the table was generated from.");
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(encoded)))) {
+            return CompactLROneTable.read(in, g.getOrderedProductions());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Generated table is malformed.", e);
+        }
+    }
+}
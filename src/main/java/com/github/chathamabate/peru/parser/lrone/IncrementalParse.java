@@ -0,0 +1,493 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+import com.github.chathamabate.peru.parser.Tokenized;
+import com.github.chathamabate.peru.parser.grammar.SemanticProduction;
+import io.vavr.Tuple2;
+import io.vavr.collection.Array;
+import io.vavr.collection.Seq;
+import io.vavr.control.Try;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * A parse kept as a tree annotated with LR(1) states, so it can be redone after an edit, reusing every subtree
+ * the edit cannot change. (As in Wagner and Graham's incremental LR parsing)
+ * <br>
+ * Each node of the tree records the state it was pushed onto, the state it pushed, and how many tokens it spans.
+ * When reparsing, the tree is taken apart around the edited tokens into the largest unedited subtrees, which are
+ * fed to the parser along with the new tokens. A subtree is shifted whole when the parser is in the state it was
+ * pushed onto, and the token after it has the same type as before. LR(1) moves only depend on the top state and
+ * the next token, so parsing its tokens from that state would make exactly the moves that built it.
+ * Otherwise, the subtree is broken into its children.
+ * <br>
+ * Nodes do not record absolute positions, so unedited subtrees, and their results, are shared between parses.
+ * Semantic actions should be pure, and results should not hold token positions, which go stale after an edit
+ * before them.
+ * <br>
+ * Reparsing only visits the nodes on the paths from the edges of the edit to the root, and their children.
+ * Every node above an edited token is rebuilt, since its result may depend on that token. So, the work done
+ * grows with the depth of the tree at the edit, not just with the size of the edit. Self recursive lists make
+ * trees as deep as the lists are long, and an edit to a list element redoes every reduction of the list above
+ * it. (The elements after it are still reused, as is the whole list before it)
+ * <br>
+ * Edits are given in tokens. Incremental token streams (such as {@link
+ * com.github.chathamabate.peru.lexer.charlexer.LexCheckpoints#lexFrom}) give the tokens replacing an edited range.
+ *
+ * @param <NT> The non-terminal <b>Enum</b> type.
+ * @param <T> The terminal <b>Enum</b> type.
+ * @param <L> The lexeme type.
+ * @param <D> The data type.
+ * @param <R> The result type.
+ */
+public final class IncrementalParse<NT extends Enum<NT>, T extends Enum<T>, L, D extends Tokenized<T>, R> {
+
+    // TODO Keep self recursive lists balanced (as in Wagner's balanced sequences), so an edit to a list element
+    //  only rebuilds logarithmically many list nodes. Results of list nodes fold over every element before them,
+    //  so this needs productions to give an associative way of combining list results.
+
+    /**
+     * A node of a parse tree.
+     * <br>
+     * Tokens fed to a reparse, but not yet shifted, are held as nodes with no states.
+     *
+     * @param <L> The lexeme type.
+     * @param <D> The data type.
+     */
+    private static final class Node<L, D> {
+
+        /**
+         * The state this node was pushed onto, or -1 if it has not been shifted.
+         */
+        private final int leftState;
+
+        /**
+         * The state this node pushed.
+         */
+        private final int state;
+
+        /**
+         * The number of tokens this node spans.
+         */
+        private final int tokens;
+
+        /**
+         * The first token this node spans, or null if it spans none.
+         */
+        private final Tuple2<L, D> first;
+
+        /**
+         * The result of this node.
+         */
+        private final Object result;
+
+        /**
+         * The children of this node, or null if this node is a token.
+         */
+        private final Node<L, D>[] children;
+
+        /**
+         * Constructor.
+         *
+         * @param ls The state pushed onto.
+         * @param s The state pushed.
+         * @param ts The number of tokens spanned.
+         * @param f The first token.
+         * @param r The result.
+         * @param cs The children.
+         */
+        private Node(int ls, int s, int ts, Tuple2<L, D> f, Object r, Node<L, D>[] cs) {
+            leftState = ls;
+            state = s;
+            tokens = ts;
+            first = f;
+            result = r;
+            children = cs;
+        }
+    }
+
+    /**
+     * A node waiting to be fed to a parse.
+     *
+     * @param <L> The lexeme type.
+     * @param <D> The data type.
+     */
+    private static final class Piece<L, D> {
+
+        /**
+         * The node.
+         */
+        private final Node<L, D> node;
+
+        /**
+         * Whether or not the token after the node has the same type as it did when the node was built.
+         */
+        private final boolean followValid;
+
+        /**
+         * Constructor.
+         *
+         * @param n The node.
+         * @param fv Whether or not the node's follow is valid.
+         */
+        private Piece(Node<L, D> n, boolean fv) {
+            node = n;
+            followValid = fv;
+        }
+    }
+
+    /**
+     * Parse some tokens from scratch.
+     *
+     * @param parser The parser.
+     * @param tokens The tokens.
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <L> The lexeme type.
+     * @param <D> The data type.
+     * @param <R> The result type.
+     * @return The parse.
+     * @throws Throwable If the tokens cannot be parsed.
+     */
+    static <NT extends Enum<NT>, T extends Enum<T>, L, D extends Tokenized<T>, R> IncrementalParse<NT, T, L, D, R>
+    parse(LROneParser<NT, T, L, D, R> parser, Seq<? extends Tuple2<L, D>> tokens) throws Throwable {
+        Deque<Piece<L, D>> input = new ArrayDeque<>();
+
+        for (Tuple2<L, D> token: tokens) {
+            input.addLast(unshifted(token));
+        }
+
+        return run(parser, input);
+    }
+
+    /**
+     * Create a piece for a token which has not been shifted.
+     *
+     * @param token The token.
+     * @param <L> The lexeme type.
+     * @param <D> The data type.
+     * @return The piece.
+     */
+    private static <L, D> Piece<L, D> unshifted(Tuple2<L, D> token) {
+        Objects.requireNonNull(token);
+        return new Piece<>(new Node<>(-1, -1, 1, token, null, null), false);
+    }
+
+    /**
+     * The parser which built this parse.
+     */
+    private final LROneParser<NT, T, L, D, R> parser;
+
+    /**
+     * The root of the tree.
+     */
+    private final Node<L, D> root;
+
+    /**
+     * The number of nodes built by this parse, rather than reused.
+     */
+    private final int nodesBuilt;
+
+    /**
+     * Constructor.
+     *
+     * @param p The parser.
+     * @param rt The root.
+     * @param nb The number of nodes built.
+     */
+    private IncrementalParse(LROneParser<NT, T, L, D, R> p, Node<L, D> rt, int nb) {
+        parser = p;
+        root = rt;
+        nodesBuilt = nb;
+    }
+
+    /**
+     * Get the result of this parse.
+     *
+     * @return The result.
+     */
+    @SuppressWarnings("unchecked")
+    public R getResult() {
+        return (R) root.result;
+    }
+
+    /**
+     * Get the number of tokens parsed.
+     *
+     * @return The number of tokens.
+     */
+    public int getNumberOfTokens() {
+        return root.tokens;
+    }
+
+    /**
+     * Get the number of tree nodes this parse built, rather than reused from the parse it was edited from.
+     *
+     * @return The number of nodes built.
+     */
+    public int getNodesBuilt() {
+        return nodesBuilt;
+    }
+
+    /**
+     * Reparse after replacing a range of tokens.
+     * <br>
+     * This parse is unchanged, and can still be edited, whether or not the reparse succeeds.
+     *
+     * @param from The index of the first token replaced.
+     * @param to The index after the last token replaced. (Equal to <b>from</b> for an insertion)
+     * @param replacement The tokens replacing the range.
+     * @return The new parse.
+     * @throws Throwable If the edited tokens cannot be parsed.
+     */
+    public IncrementalParse<NT, T, L, D, R> edit(int from, int to, Seq<? extends Tuple2<L, D>> replacement)
+            throws Throwable {
+        Objects.requireNonNull(replacement);
+
+        if (from < 0 || from > to || to > root.tokens) {
+            throw new IndexOutOfBoundsException("Bad edit range [" + from + ", " + to + ").");
+        }
+
+        // Subtrees ending right before the edit are only valid if the token after them keeps its type.
+        T oldFollow = from == root.tokens ? null : tokenAt(from)._2.getTokenType();
+        T newFollow = !replacement.isEmpty()
+                ? replacement.head()._2.getTokenType()
+                : to == root.tokens ? null : tokenAt(to)._2.getTokenType();
+
+        Deque<Piece<L, D>> input = new ArrayDeque<>();
+
+        collect(root, 0, from, oldFollow == newFollow, input);
+
+        for (Tuple2<L, D> token: replacement) {
+            input.addLast(unshifted(token));
+        }
+
+        collect(root, to, root.tokens, true, input);
+
+        return run(parser, input);
+    }
+
+    /**
+     * Same as {@link IncrementalParse#edit(int, int, Seq)} just wrapped in a <b>Try</b>.
+     *
+     * @param from The index of the first token replaced.
+     * @param to The index after the last token replaced.
+     * @param replacement The tokens replacing the range.
+     * @return A <b>Try</b> which may contain the new parse.
+     */
+    public Try<IncrementalParse<NT, T, L, D, R>> tryEdit(int from, int to, Seq<? extends Tuple2<L, D>> replacement) {
+        return Try.of(() -> edit(from, to, replacement));
+    }
+
+    /**
+     * Find the token at some index.
+     *
+     * @param index The index.
+     * @return The token.
+     */
+    private Tuple2<L, D> tokenAt(int index) {
+        Node<L, D> node = root;
+        int start = 0;
+
+        while (node.children != null) {
+            for (Node<L, D> child: node.children) {
+                if (index < start + child.tokens) {
+                    node = child;
+                    break;
+                }
+
+                start += child.tokens;
+            }
+        }
+
+        return node.first;
+    }
+
+    /**
+     * Add the largest subtrees of the root which lie within a range of tokens to some input, in order.
+     * (The root itself is never added, so it is always taken apart)
+     * <br>
+     * Nodes partly within the range are taken apart using an explicit stack, since trees of long left recursive
+     * lists are as deep as the lists are long.
+     *
+     * @param root The root.
+     * @param lo The index of the range's first token.
+     * @param hi The index after the range's last token.
+     * @param followValid Whether or not subtrees ending at the end of the range are still followed
+     *                    by the same type of token.
+     * @param input The input.
+     */
+    private static <L, D> void collect(Node<L, D> root, int lo, int hi, boolean followValid,
+                                       Deque<Piece<L, D>> input) {
+        // Nodes being taken apart, along with the index of their next child, and the index of its first token.
+        Deque<Node<L, D>> nodes = new ArrayDeque<>();
+        Deque<int[]> positions = new ArrayDeque<>();
+
+        nodes.push(root);
+        positions.push(new int[] {0, 0});
+
+        while (!nodes.isEmpty()) {
+            Node<L, D> node = nodes.peek();
+            int[] position = positions.peek();
+
+            // Children after the range are never collected.
+            if (position[0] == node.children.length || position[1] >= hi) {
+                nodes.pop();
+                positions.pop();
+                continue;
+            }
+
+            Node<L, D> child = node.children[position[0]++];
+            int start = position[1];
+            int end = start + child.tokens;
+
+            position[1] = end;
+
+            if (child.tokens > 0 && lo < end) {
+                if (lo <= start && end <= hi) {
+                    input.addLast(new Piece<>(child, end < hi || followValid));
+                } else {
+                    nodes.push(child);
+                    positions.push(new int[] {0, start});
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse some input.
+     *
+     * @param parser The parser.
+     * @param input The nodes to parse, which is consumed.
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <L> The lexeme type.
+     * @param <D> The data type.
+     * @param <R> The result type.
+     * @return The parse.
+     * @throws Throwable If the input cannot be parsed.
+     */
+    private static <NT extends Enum<NT>, T extends Enum<T>, L, D extends Tokenized<T>, R>
+    IncrementalParse<NT, T, L, D, R> run(LROneParser<NT, T, L, D, R> parser, Deque<Piece<L, D>> input)
+            throws Throwable {
+        CompactLROneTable<NT, T, SemanticProduction<NT, T, R>> table = parser.getTable();
+        NT goal = parser.getGrammar().getStartSymbol();
+
+        // states[i] is the state pushed by nodes[i]. (nodes[0] is unused)
+        int[] states = new int[16];
+        @SuppressWarnings("unchecked")
+        Node<L, D>[] nodes = (Node<L, D>[]) new Node<?, ?>[16];
+        int top = 0;
+
+        int built = 0;
+
+        while (true) {
+            Piece<L, D> piece = input.peekFirst();     // null at eof.
+            int state = states[top];
+
+            Node<L, D> pushed;
+
+            if (piece != null && piece.followValid && piece.node.leftState == state) {
+                // Reuse the whole subtree.
+                pushed = input.removeFirst().node;
+            } else {
+                Tuple2<L, D> lookahead = piece == null ? null : piece.node.first;
+                int move = table.consistentReduction(state);
+
+                if (move == 0) {
+                    move = lookahead == null
+                            ? table.actionMove(state)
+                            : table.actionMove(state, lookahead._2.getTokenType());
+                }
+
+                if (CompactLROneTable.isError(move)) {
+                    throw lookahead == null ? parser.onError() : parser.onError(lookahead);
+                }
+
+                if (CompactLROneTable.isShift(move)) {
+                    Node<L, D> node = input.removeFirst().node;
+
+                    if (node.children != null) {
+                        // The lookahead shifts, but not as part of this subtree, so its children are fed instead.
+                        int last = node.children.length - 1;
+                        while (node.children[last].tokens == 0) {
+                            last--;
+                        }
+
+                        for (int c = last; c >= 0; c--) {
+                            if (node.children[c].tokens > 0) {
+                                input.addFirst(new Piece<>(node.children[c], c < last || piece.followValid));
+                            }
+                        }
+
+                        continue;
+                    }
+
+                    // Terminal results only depend on their tokens.
+                    Object result = node.leftState == -1
+                            ? parser.getGrammar().buildTerminalResult(node.first._1, node.first._2)
+                            : node.result;
+
+                    pushed = new Node<>(state, move, 1, node.first, result, null);
+                } else {
+                    // Reduction or Accept.
+                    int index = CompactLROneTable.reduction(move);
+                    SemanticProduction<NT, T, R> production = table.getProduction(index);
+                    int childrenSize = table.getRuleLength(index);
+
+                    top -= childrenSize;
+
+                    Node<L, D>[] children = Arrays.copyOfRange(nodes, top + 1, top + 1 + childrenSize);
+                    Arrays.fill(nodes, top + 1, top + 1 + childrenSize, null);
+
+                    int tokens = 0;
+                    Tuple2<L, D> first = null;
+                    Object[] results = new Object[childrenSize];
+
+                    for (int c = 0; c < childrenSize; c++) {
+                        tokens += children[c].tokens;
+                        first = first == null ? children[c].first : first;
+                        results[c] = children[c].result;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    Seq<R> childResults = (Seq<R>) (Seq<?>) Array.of(results);
+
+                    Object result = childrenSize == 1 && production.isIdentity()
+                            ? results[0]
+                            : production.buildResult(childResults);
+
+                    NT resultType = production.getSource();
+                    int leftState = states[top];
+
+                    // Check for acceptance state.
+                    if (resultType.equals(goal) && lookahead == null) {
+                        return new IncrementalParse<>(parser,
+                                new Node<>(leftState, -1, tokens, first, result, children), built + 1);
+                    }
+
+                    int next = table.gotoShift(leftState, resultType);
+
+                    if (next == 0) {
+                        throw lookahead == null ? parser.onError() : parser.onError(lookahead);
+                    }
+
+                    pushed = new Node<>(leftState, next, tokens, first, result, children);
+                }
+
+                built++;
+            }
+
+            // Push the node onto the stacks.
+            if (++top == states.length) {
+                states = Arrays.copyOf(states, top * 2);
+                nodes = Arrays.copyOf(nodes, top * 2);
+            }
+
+            states[top] = pushed.state;
+            nodes[top] = pushed;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+import com.github.chathamabate.peru.parser.grammar.CFGrammar;
+import com.github.chathamabate.peru.parser.grammar.Production;
+import io.vavr.Tuple2;
+import io.vavr.collection.*;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * The closure of a set of core items (LR(1) items without lookaheads), computed once so that the closures
+ * of all kernels sharing the core only need their lookaheads propagated.
+ * <br>
+ * Rather than holding one <b>LROneItem</b> per lookahead, lookaheads are held as a <b>BitSet</b> per core item.
+ * Bit 0 stands for eof, and every other bit stands for the terminal given that column by a column map.
+ * (This matches the columns of an {@link LROneTable}'s action table)
+ * <br>
+ * Each core item of the closure records which items it adds with cursor 0. Each such edge carries the
+ * lookaheads always given to the added item (the <b>FIRST</b> set of what follows the non-terminal), and
+ * whether the lookaheads of the adding item are passed on too (when what follows may derive to epsilon).
+ *
+ * @param <NT> The non-terminal <b>Enum</b> type.
+ * @param <T> The terminal <b>Enum</b> type.
+ * @param <P> The <b>Production</b> type.
+ */
+final class LROneClosure<NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> {
+
+    /**
+     * Compute the closure of a set of core items.
+     *
+     * @param g The grammar.
+     * @param firstSets The <b>FIRST</b> sets of the grammar.
+     * @param columns The column of every terminal. (Columns start at 1)
+     * @param cores The core items. (Items without lookaheads)
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The closure.
+     */
+    static <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> LROneClosure<NT, T, P>
+    of(CFGrammar<NT, T, P> g, FirstSets<NT, T> firstSets, Map<T, Integer> columns,
+       Set<LROneItem<NT, T, P>> cores) {
+        ArrayList<LROneItem<NT, T, P>> items = new ArrayList<>(cores.toJavaList());
+        Map<LROneItem<NT, T, P>, Integer> indices = HashMap.empty();
+
+        for (int i = 0; i < items.size(); i++) {
+            indices = indices.put(items.get(i), i);
+        }
+
+        ArrayList<int[]> targets = new ArrayList<>();
+        ArrayList<BitSet[]> spontaneous = new ArrayList<>();
+        ArrayList<boolean[]> propagates = new ArrayList<>();
+
+        // Items are added to the end of the list as they are found, so this visits every item once.
+        for (int i = 0; i < items.size(); i++) {
+            LROneItem<NT, T, P> item = items.get(i);
+            Seq<Either<NT, T>> rule = item.getProduction().getRule();
+            int cursor = item.getCursor();
+
+            if (cursor >= rule.length() || rule.get(cursor).isRight()) {
+                targets.add(new int[0]);
+                spontaneous.add(new BitSet[0]);
+                propagates.add(new boolean[0]);
+
+                continue;
+            }
+
+            // Generate ending of the rule.
+            Seq<Either<NT, T>> ruleEnding = cursor == rule.length() - 1
+                    ? List.empty()
+                    : rule.subSequence(cursor + 1);
+
+            Tuple2<Boolean, Set<T>> firstSetTuple = firstSets.getFirstSet(ruleEnding);
+
+            BitSet first = new BitSet();
+            for (T t: firstSetTuple._2) {
+                first.set(columns.get(t).get());
+            }
+
+            Set<P> productions = g.getProductions(rule.get(cursor).getLeft());
+
+            int[] itemTargets = new int[productions.length()];
+            BitSet[] itemSpontaneous = new BitSet[productions.length()];
+            boolean[] itemPropagates = new boolean[productions.length()];
+
+            int e = 0;
+            for (P production: productions) {
+                LROneItem<NT, T, P> added = new LROneItem<>(0, production);
+                Option<Integer> index = indices.get(added);
+
+                if (index.isEmpty()) {
+                    indices = indices.put(added, items.size());
+                    index = Option.some(items.size());
+                    items.add(added);
+                }
+
+                itemTargets[e] = index.get();
+                itemSpontaneous[e] = first;
+                itemPropagates[e] = firstSetTuple._1;
+                e++;
+            }
+
+            targets.add(itemTargets);
+            spontaneous.add(itemSpontaneous);
+            propagates.add(itemPropagates);
+        }
+
+        return new LROneClosure<>(Array.ofAll(items), indices,
+                targets.toArray(new int[0][]),
+                spontaneous.toArray(new BitSet[0][]),
+                propagates.toArray(new boolean[0][]));
+    }
+
+    /**
+     * Determine whether every bit of one <b>BitSet</b> is set in another.
+     *
+     * @param sub The possible subset.
+     * @param sup The possible superset.
+     * @return Whether or not <b>sub</b> is a subset of <b>sup</b>.
+     */
+    static boolean isSubset(BitSet sub, BitSet sup) {
+        BitSet extra = (BitSet) sub.clone();
+        extra.andNot(sup);
+
+        return extra.isEmpty();
+    }
+
+    /**
+     * Group a set of LR(1) items by core item, giving each core item its lookaheads as a <b>BitSet</b>.
+     *
+     * @param items The items.
+     * @param columns The column of every terminal. (Columns start at 1)
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The lookaheads of each core item.
+     */
+    static <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> Map<LROneItem<NT, T, P>, BitSet>
+    lookaheads(Set<LROneItem<NT, T, P>> items, Map<T, Integer> columns) {
+        return items.groupBy(LROneItem::withoutSuffix).mapValues(group -> {
+            BitSet bits = new BitSet();
+            group.forEach(item -> bits.set(item.hasSuffix() ? columns.get(item.getSuffix()).get() : 0));
+
+            return bits;
+        });
+    }
+
+    /**
+     * Expand the lookaheads of each core item back into one LR(1) item per lookahead.
+     *
+     * @param lookaheads The lookaheads of each core item.
+     * @param terminals The terminal of every column. (Column <b>i</b> is at index <b>i - 1</b>)
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The LR(1) items.
+     */
+    static <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> Set<LROneItem<NT, T, P>>
+    items(Map<LROneItem<NT, T, P>, BitSet> lookaheads, Seq<T> terminals) {
+        Set<LROneItem<NT, T, P>> items = HashSet.empty();
+
+        for (Tuple2<LROneItem<NT, T, P>, BitSet> entry: lookaheads) {
+            BitSet bits = entry._2;
+
+            for (int col = bits.nextSetBit(0); col >= 0; col = bits.nextSetBit(col + 1)) {
+                items = items.add(col == 0 ? entry._1 : entry._1.withSuffix(terminals.get(col - 1)));
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Every item of the closure. The given core items come first.
+     */
+    private final Array<LROneItem<NT, T, P>> items;
+
+    /**
+     * The index of every item of the closure.
+     */
+    private final Map<LROneItem<NT, T, P>, Integer> indices;
+
+    /**
+     * The indices of the items each item adds.
+     */
+    private final int[][] targets;
+
+    /**
+     * The lookaheads each item always gives to the items it adds.
+     */
+    private final BitSet[][] spontaneous;
+
+    /**
+     * Whether each item passes its own lookaheads to the items it adds.
+     */
+    private final boolean[][] propagates;
+
+    /**
+     * Constructor. (No checks)
+     *
+     * @param is The items.
+     * @param ind The indices of the items.
+     * @param t The edge targets.
+     * @param s The edge lookaheads.
+     * @param p The edge propagation flags.
+     */
+    private LROneClosure(Array<LROneItem<NT, T, P>> is, Map<LROneItem<NT, T, P>, Integer> ind,
+                         int[][] t, BitSet[][] s, boolean[][] p) {
+        items = is;
+        indices = ind;
+        targets = t;
+        spontaneous = s;
+        propagates = p;
+    }
+
+    /**
+     * Close a kernel whose core is the core this closure was computed from.
+     *
+     * @param kernel The lookaheads of each core item of the kernel.
+     * @return The lookaheads of each core item of the closed set.
+     */
+    Map<LROneItem<NT, T, P>, BitSet> close(Map<LROneItem<NT, T, P>, BitSet> kernel) {
+        Objects.requireNonNull(kernel);
+
+        BitSet[] lookaheads = new BitSet[items.length()];
+        for (int i = 0; i < lookaheads.length; i++) {
+            lookaheads[i] = new BitSet();
+        }
+
+        ArrayDeque<Integer> work = new ArrayDeque<>();
+        boolean[] queued = new boolean[items.length()];
+
+        for (Tuple2<LROneItem<NT, T, P>, BitSet> entry: kernel) {
+            int index = indices.get(entry._1).getOrElseThrow(() ->
+                    new IllegalArgumentException("Kernel does not have the core of this closure."));
+
+            lookaheads[index].or(entry._2);
+            work.add(index);
+            queued[index] = true;
+        }
+
+        while (!work.isEmpty()) {
+            int i = work.poll();
+            queued[i] = false;
+
+            for (int e = 0; e < targets[i].length; e++) {
+                int target = targets[i][e];
+
+                BitSet added = (BitSet) spontaneous[i][e].clone();
+                if (propagates[i][e]) {
+                    added.or(lookaheads[i]);
+                }
+
+                added.andNot(lookaheads[target]);
+
+                if (!added.isEmpty()) {
+                    lookaheads[target].or(added);
+
+                    if (!queued[target]) {
+                        work.add(target);
+                        queued[target] = true;
+                    }
+                }
+            }
+        }
+
+        Map<LROneItem<NT, T, P>, BitSet> closure = HashMap.empty();
+        for (int i = 0; i < lookaheads.length; i++) {
+            if (!lookaheads[i].isEmpty()) {
+                closure = closure.put(items.get(i), lookaheads[i]);
+            }
+        }
+
+        return closure;
+    }
+}
@@ -2,14 +2,15 @@ package com.github.chathamabate.peru.parser.lrone;
 
 import com.github.chathamabate.peru.parser.grammar.CFGrammar;
 import com.github.chathamabate.peru.parser.grammar.Production;
-import io.vavr.Tuple2;
-import io.vavr.collection.HashSet;
-import io.vavr.collection.List;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
 import io.vavr.collection.Seq;
 import io.vavr.collection.Set;
+import io.vavr.collection.Vector;
 import io.vavr.control.Either;
 import io.vavr.control.Option;
 
+import java.util.BitSet;
 import java.util.Objects;
 
 /**
@@ -34,54 +35,14 @@ public class LROneItem <NT extends Enum<NT>, T extends Enum<T>, P extends Produc
         Objects.requireNonNull(set0);
         set0.forEach(Objects::requireNonNull);
 
-        List<LROneItem<NT, T, P>> workStack = List.ofAll(set0);
-        Set<LROneItem<NT, T, P>> closure = HashSet.empty();
-
-        while (!workStack.isEmpty()) {
-            // Pop an item off the work stack.
-            LROneItem<NT, T, P> item = workStack.peek();
-            workStack = workStack.tail();
-
-            // Only process items yet to be processed.
-            if (!closure.contains(item)) {
-                closure = closure.add(item);    // Add item to closure.
-
-                Seq<Either<NT, T>> rule = item.getProduction().getRule();
-                int cursor = item.getCursor();
-
-                if (cursor < rule.length() && rule.get(cursor).isLeft()) {
-                    // Generate ending of the rule.
-                    Seq<Either<NT, T>> ruleEnding = cursor == rule.length() - 1
-                            ? List.empty()
-                            : rule.subSequence(cursor + 1);
-
-                    if (item.hasSuffix()) {
-                        ruleEnding = ruleEnding.append(item.getSuffixAsEither());
-                    }
-
-                    // Calculate endings first tuple.
-                    Tuple2<Boolean, Set<T>> firstSetTuple = firstSets.getFirstSet(ruleEnding);
-
-                    NT source = rule.get(cursor).getLeft();
-                    Set<P> productions = g.getProductions(source);
-
-                    for (T t: firstSetTuple._2) {
-                        for (P production: productions) {
-                            workStack = workStack.prepend(new LROneItem<>(0, production, t));
-                        }
-                    }
-
-                    // If the given rule may derive to completely empty.
-                    if (firstSetTuple._1) {
-                        for (P production: productions) {
-                            workStack = workStack.prepend(new LROneItem<>(0, production));
-                        }
-                    }
-                }
-            }
-        }
+        // Every terminal is given a column, as in an LROneTable, so lookaheads can be held as bits.
+        Seq<T> terminals = Vector.ofAll(g.getTerminalsUsed()
+                .addAll(set0.filter(LROneItem::hasSuffix).map(LROneItem::getSuffix)));
+        Map<T, Integer> columns = HashMap.ofEntries(terminals.zipWithIndex().map(t -> t.map2(i -> i + 1)));
 
-        return closure;
+        Map<LROneItem<NT, T, P>, BitSet> kernel = LROneClosure.lookaheads(set0, columns);
+
+        return LROneClosure.items(LROneClosure.of(g, firstSets, columns, kernel.keySet()).close(kernel), terminals);
     }
 
     /*
@@ -92,6 +53,9 @@ public class LROneItem <NT extends Enum<NT>, T extends Enum<T>, P extends Produc
     private final P production;
     private final Option<T> suffix;
 
+    // Items are immutable and hashed often while building tables, so the hash is computed once.
+    private final int hash;
+
     public LROneItem(int c, P p, T s) {
         this(c, p, Option.some(s));
     }
@@ -112,6 +76,7 @@ public class LROneItem <NT extends Enum<NT>, T extends Enum<T>, P extends Produc
         cursor = c;
         production = p;
         suffix = os;
+        hash = Objects.hash(cursor, production, suffix);
     }
 
     public int getCursor() {
@@ -208,12 +173,13 @@ public class LROneItem <NT extends Enum<NT>, T extends Enum<T>, P extends Produc
         if (o == null || getClass() != o.getClass()) return false;
         LROneItem<?, ?, ?> lrOneItem = (LROneItem<?, ?, ?>) o;
         return cursor == lrOneItem.cursor &&
+                hash == lrOneItem.hash &&
                 production.equals(lrOneItem.production) &&
                 suffix.equals(lrOneItem.suffix);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(cursor, production, suffix);
+        return hash;
     }
 }
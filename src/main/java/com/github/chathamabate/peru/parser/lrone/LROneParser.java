@@ -6,14 +6,16 @@ import io.vavr.Function0;
 import io.vavr.Function1;
 import io.vavr.Tuple2;
 import io.vavr.collection.Array;
-import io.vavr.collection.List;
 import io.vavr.collection.Seq;
-import io.vavr.control.Either;
 import io.vavr.control.Option;
 import com.github.chathamabate.peru.parser.Tokenized;
+import com.github.chathamabate.peru.parser.ParseSession;
 import com.github.chathamabate.peru.parser.Parser;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
  * LR(1) Parser Class.
@@ -33,7 +35,40 @@ public abstract class LROneParser<NT extends Enum<NT>, T extends Enum<T>, L, D e
             Function1<? super Tuple2<L, D>, ? extends Throwable> onMidError,
             Function0<? extends Throwable> onEofError
     ) {
-        return new LROneParser<NT, T, L, D, R>(grammar) {
+        return lrOneParser(grammar, TableConstruction.CANONICAL, onMidError, onEofError);
+    }
+
+    public static <NT extends Enum<NT>, T extends Enum<T>, L, D extends Tokenized<T>, R>
+    LROneParser<NT, T, L, D, R> lrOneParser(
+            SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar,
+            TableConstruction construction,
+            Function1<? super Tuple2<L, D>, ? extends Throwable> onMidError,
+            Function0<? extends Throwable> onEofError
+    ) {
+        return new LROneParser<NT, T, L, D, R>(grammar, construction, ParseTableCache.defaultCache()) {
+            @Override
+            protected Throwable onError(Tuple2<L, D> lookAhead) {
+                return onMidError.apply(lookAhead);
+            }
+
+            @Override
+            protected Throwable onError() {
+                return onEofError.apply();
+            }
+        };
+    }
+
+    public static <NT extends Enum<NT>, T extends Enum<T>, L, D extends Tokenized<T>, R>
+    LROneParser<NT, T, L, D, R> lrOneParser(
+            SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar,
+            TableConstruction construction,
+            ParseTableCache cache,
+            Function1<? super Tuple2<L, D>, ? extends Throwable> onMidError,
+            Function0<? extends Throwable> onEofError
+    ) {
+        Objects.requireNonNull(cache);
+
+        return new LROneParser<NT, T, L, D, R>(grammar, construction, Option.some(cache)) {
             @Override
             protected Throwable onError(Tuple2<L, D> lookAhead) {
                 return onMidError.apply(lookAhead);
@@ -47,91 +82,249 @@ public abstract class LROneParser<NT extends Enum<NT>, T extends Enum<T>, L, D e
     }
 
     private final SemanticCFGrammar<NT, T, SemanticProduction<NT, T, R>, L, D, R> g;
-    private final LROneTable<NT, T, SemanticProduction<NT, T, R>> table;
+    private final CompactLROneTable<NT, T, SemanticProduction<NT, T, R>> table;
 
-    @SuppressWarnings("unchecked")
     protected LROneParser(SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar) {
+        this(grammar, TableConstruction.CANONICAL);
+    }
+
+    protected LROneParser(SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar,
+                          TableConstruction construction) {
+        this(grammar, construction, ParseTableCache.defaultCache());
+    }
+
+    // Tables are loaded from the cache when it has them, otherwise they are built (and stored in the cache).
+    @SuppressWarnings("unchecked")
+    protected LROneParser(SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar,
+                          TableConstruction construction, Option<ParseTableCache> cache) {
         Objects.requireNonNull(grammar);
+        Objects.requireNonNull(construction);
+        Objects.requireNonNull(cache);
+
         g = (SemanticCFGrammar<NT, T, SemanticProduction<NT, T, R>, L, D, R>) grammar;
-        table = new LROneTable<>(g);    // Build LR(1) table.
+        table = cache.isEmpty()
+                ? new LROneTable<>(g, construction).compact()    // Build LR(1) table.
+                : cache.get().table(g, construction);
+    }
+
+    // Tables generated ahead of time (see ParserGenerator) are decoded rather than built.
+    @SuppressWarnings("unchecked")
+    protected LROneParser(SemanticCFGrammar<NT, T, ? extends SemanticProduction<NT, T, R>, L, D, R> grammar,
+                          GeneratedTable generated) {
+        Objects.requireNonNull(grammar);
+        Objects.requireNonNull(generated);
+
+        g = (SemanticCFGrammar<NT, T, SemanticProduction<NT, T, R>, L, D, R>) grammar;
+        table = generated.decode(g);
+    }
+
+    // Package access for incremental parses.
+    SemanticCFGrammar<NT, T, SemanticProduction<NT, T, R>, L, D, R> getGrammar() {
+        return g;
+    }
+
+    CompactLROneTable<NT, T, SemanticProduction<NT, T, R>> getTable() {
+        return table;
     }
 
     protected abstract Throwable onError(Tuple2<L, D> lookAhead);
 
     protected abstract Throwable onError();
 
-    @Override
-    public R parseUnchecked(Seq<Tuple2<L, D>> tokens) throws Throwable {
-        List<Integer> stateStack = List.of(0);
-        List<R> resultStack = List.empty();
-        NT goal = g.getStartSymbol();
-
-        Seq<Tuple2<L, D>> tokensLeft = tokens;
-
-        while (true) {
-            // We only use goto table when we reduce.
-            // otherwise we use action table to end the parse or to get the next
-
-            // Get current state.
-            int state = stateStack.peek();
-            Option<Tuple2<L, D>> lookaheadOpt = tokensLeft.headOption();
-            Either<Integer, SemanticProduction<NT, T, R>> move =
-                    lookaheadOpt.map(lkh -> table.actionMove(state, lkh._2.getTokenType()))
-                            .getOrElse(table.actionMove(state));
-
-            // Perform initial error check.
-            if (move.isLeft() && move.getLeft() == 0) {
-                throw lookaheadOpt.isEmpty() ? onError() : onError(lookaheadOpt.get());
+    /**
+     * A view of the children of a reduction, a slice of the value stack.
+     * One view is reused for every reduction of a parse. Each reduction's children are copied out of it
+     * exactly once, since semantic actions may hold on to their children.
+     * (Also used by the deterministic parts of a {@link GLRParser})
+     *
+     * @param <R> The result type.
+     */
+    static final class Children<R> extends AbstractList<R> implements RandomAccess {
+        private Object[] values;
+        private int from;
+        private int size;
+
+        void slice(Object[] vs, int f, int s) {
+            values = vs;
+            from = f;
+            size = s;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public R get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Bad child index " + index + ".");
             }
 
-            if (move.isRight()) {
+            return (R) values[from + index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOfRange(values, from, from + size);
+        }
+    }
+
+    /**
+     * A parse in progress, holding the LR(1) stacks between tokens.
+     */
+    private final class Session implements ParseSession<L, D, R> {
+
+        // states[i] is the state reached after the symbol whose result is values[i]. (values[0] is unused)
+        private int[] states = new int[16];
+        private Object[] values = new Object[16];
+        private int top = 0;
+
+        private final Children<R> children = new Children<>();
+
+        // Set once the session has accepted or failed.
+        private boolean closed = false;
+
+        @Override
+        public void feed(Tuple2<L, D> token) throws Throwable {
+            Objects.requireNonNull(token);
+            advance(token);
+        }
+
+        @Override
+        public R end() throws Throwable {
+            return advance(null);
+        }
+
+        /**
+         * Make every move some lookahead allows, up to shifting it, or accepting if it is eof.
+         *
+         * @param lookahead The lookahead, or null for eof.
+         * @return The result of the parse if it was accepted, otherwise null.
+         * @throws Throwable If the lookahead is an error, or a result cannot be built.
+         */
+        @SuppressWarnings("unchecked")
+        private R advance(Tuple2<L, D> lookahead) throws Throwable {
+            if (closed) {
+                throw new IllegalStateException("Parse session has already ended.");
+            }
+
+            // Until the lookahead is shifted, any error ends the session.
+            closed = true;
+
+            while (true) {
+                // We only use goto table when we reduce.
+                // otherwise we use action table to end the parse or to get the next
+
+                // Get current state.
+                // Consistent states reduce without looking at the lookahead at all.
+                int state = states[top];
+                int move = table.consistentReduction(state);
+
+                if (move == 0) {
+                    move = lookahead == null
+                            ? table.actionMove(state)
+                            : table.actionMove(state, lookahead._2.getTokenType());
+                }
+
+                // Perform initial error check.
+                if (CompactLROneTable.isError(move)) {
+                    throw lookahead == null ? onError() : onError(lookahead);
+                }
+
+                if (CompactLROneTable.isShift(move)) {
+                    // A shift can never occur with a lookahead of EOF.
+                    push(move, g.buildTerminalResult(lookahead._1, lookahead._2));
+                    closed = false;
+
+                    return null;
+                }
+
                 // Reduction or Accept.
-                SemanticProduction<NT, T, R> production = move.get();
-                int childrenSize = production.getRule().size();
+                int index = CompactLROneTable.reduction(move);
+                SemanticProduction<NT, T, R> production = table.getProduction(index);
+                int childrenSize = table.getRuleLength(index);
+
+                // Pop child results and old states.
+                top -= childrenSize;
 
-                Seq<R> childResults = List.empty();
+                R result;
 
-                for (int i = 0; i < childrenSize; i++) {
-                    childResults = childResults.prepend(resultStack.head());
-                    resultStack = resultStack.tail();   // Pop child results.
-                    stateStack = stateStack.tail();     // Pop old states.
+                if (childrenSize == 1 && production.isIdentity()) {
+                    // Identity reductions pass their child's result through untouched.
+                    result = (R) values[top + 1];
+                } else {
+                    children.slice(values, top + 1, childrenSize);
+                    result = production.buildResult(Array.ofAll(children));
                 }
 
-                R result = production.buildResult(Array.ofAll(childResults));
+                Arrays.fill(values, top + 1, top + 1 + childrenSize, null);
+
                 NT resultType = production.getSource();
 
                 // Check for acceptance state.
-                if (resultType.equals(goal) && lookaheadOpt.isEmpty()) {
+                if (resultType.equals(g.getStartSymbol()) && lookahead == null) {
                     return result;  // ACCEPT State!
                 }
 
-                resultStack = resultStack.prepend(result);  // Push result onto result stack.
-                int gotoState = table.gotoShift(stateStack.peek(), resultType);
+                int next = table.gotoShift(states[top], resultType);
 
-                if (gotoState == 0) {
-                    throw lookaheadOpt.isEmpty() ? onError() : onError(lookaheadOpt.get());
+                if (next == 0) {
+                    throw lookahead == null ? onError() : onError(lookahead);
                 }
 
-                // If not an error, simply push our new goto state onto the state stack.
-                stateStack = stateStack.prepend(gotoState);
-            } else {
-                int shift = move.getLeft();
+                push(next, result);
+            }
+        }
+
+        /**
+         * Push a state and its result onto the stacks.
+         *
+         * @param state The state.
+         * @param value The result.
+         */
+        private void push(int state, Object value) {
+            if (++top == states.length) {
+                states = Arrays.copyOf(states, top * 2);
+                values = Arrays.copyOf(values, top * 2);
+            }
 
-                // Since there was no error, we know this is a non-zero shift.
-                // this can never occur with a lookahead of EOF.
-                // There must be a lookahead here.
-                Tuple2<L, D> lookahead = lookaheadOpt.get();
+            states[top] = state;
+            values[top] = value;
+        }
+    }
 
-                // Performing the shift entails pushing lookahead result and current state
-                // onto the state and result stacks.
-                R terminalResult = g.buildTerminalResult(lookahead._1, lookahead._2);
+    /**
+     * Start a parse which is fed tokens one at a time.
+     *
+     * @return The new session.
+     */
+    public ParseSession<L, D, R> session() {
+        return new Session();
+    }
 
-                resultStack = resultStack.prepend(terminalResult);
-                stateStack = stateStack.prepend(shift);
+    /**
+     * Parse some tokens, keeping the parse tree so the parse can be redone incrementally after edits.
+     * (See {@link IncrementalParse})
+     *
+     * @param tokens The tokens.
+     * @return The parse.
+     * @throws Throwable If the tokens cannot be parsed.
+     */
+    public IncrementalParse<NT, T, L, D, R> parseIncremental(Seq<? extends Tuple2<L, D>> tokens) throws Throwable {
+        Objects.requireNonNull(tokens);
+        return IncrementalParse.parse(this, tokens);
+    }
 
-                // We must also move past the given token in the tokensLeft list.
-                tokensLeft = tokensLeft.tail();
-            }
+    @Override
+    public R parseUnchecked(Seq<Tuple2<L, D>> tokens) throws Throwable {
+        ParseSession<L, D, R> session = session();
+
+        for (Tuple2<L, D> token: tokens) {
+            session.feed(token);
         }
+
+        return session.end();
     }
 }
@@ -2,12 +2,17 @@ package com.github.chathamabate.peru.parser.lrone;
 
 import com.github.chathamabate.peru.parser.grammar.CFGrammar;
 import com.github.chathamabate.peru.parser.grammar.Production;
+import io.vavr.Lazy;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
 import io.vavr.collection.*;
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import com.github.chathamabate.peru.misc.MiscHelpers;
 
 import static io.vavr.control.Either.*;
 
+import java.util.BitSet;
 import java.util.Objects;
 
 /**
@@ -20,13 +25,27 @@ public class LROneTable<NT extends Enum<NT>, T extends Enum<T>, P extends Produc
     private final Array<Array<Integer>> gotoTable;
     private final Array<Array<Either<Integer, P>>> actionTable;
 
-    private final Array<Set<LROneItem<NT, T, P>>> cc;
+    private final Lazy<Array<Set<LROneItem<NT, T, P>>>> cc;
 
     private final Map<NT, Integer> nonTerminalMap;
     private final Map<T, Integer> terminalMap;
 
+    // Every action of each conflicted cell, by state then column. (Only kept for GLR tables)
+    private final Array<Map<Integer, Seq<Either<Integer, P>>>> conflictTable;
+
     public LROneTable(CFGrammar<NT, T, P> g) {
+        this(g, TableConstruction.CANONICAL);
+    }
+
+    public LROneTable(CFGrammar<NT, T, P> g, TableConstruction construction) {
+        this(g, construction, false);
+    }
+
+    // When conflicts are kept, each conflicted cell holds one of its actions, and every action is in the
+    // conflict table, rather than the grammar being rejected.
+    LROneTable(CFGrammar<NT, T, P> g, TableConstruction construction, boolean keepConflicts) {
         Objects.requireNonNull(g);  // The given grammar cannot be null.
+        Objects.requireNonNull(construction);
 
         // Store in grammar information in local fields.
         Set<T> terminals = g.getTerminalsUsed();
@@ -63,153 +82,457 @@ public class LROneTable<NT extends Enum<NT>, T extends Enum<T>, P extends Produc
         nonTerminalMap = nonTerminalMapTemp;
 
         // Now initial CC setup.
-        Set<LROneItem<NT, T, P>> cc0 = prodMap.get(goal).get().map(p -> new LROneItem<>(0, p));
-        cc0 = LROneItem.closureSet(g, firstSets, cc0);  // Perform closure.
+        Map<LROneItem<NT, T, P>, BitSet> kernel0 = HashMap.ofEntries(prodMap.get(goal).get()
+                .map(p -> Tuple.of(new LROneItem<>(0, p), eofLookahead())));
 
-        Vector<Set<LROneItem<NT, T, P>>> tempCC = Vector.of(cc0);
+        // First every state is found, along with its transitions.
+        StateCollector<NT, T, P> collector = new StateCollector<>(g, firstSets, terminalMap, construction, kernel0);
+        collector.collect();
 
-        // Finally initial Table set up.
+        // Finally Table set up.
         final Array<Either<Integer, P>> blankActionRow = Array.fill(terminals.length() + 1, left(0));
         final Array<Integer> blankGotoRow = Array.fill(nonTerminals.length() - 1, 0);
+        final Array<T> columnTerminals = Array.ofAll(terminals).sortBy(t -> terminalMap.get(t).get());
+
+        Vector<Array<Either<Integer, P>>> tempActionTable = Vector.empty();
+        Vector<Array<Integer>> tempGotoTable = Vector.empty();
+        Vector<Map<Integer, Seq<Either<Integer, P>>>> tempConflictTable = Vector.empty();
+
+        // Reduce/reduce conflicts found in merged states.
+        Seq<String> conflicts = Vector.empty();
 
-        // Temporary action and goto table.
-        Vector<Array<Either<Integer, P>>> tempActionTable = Vector.of(blankActionRow);
-        Vector<Array<Integer>> tempGotoTable = Vector.of(blankGotoRow);
+        for (int row = 0; row < collector.kernels.length(); row++) {
+            Array<Either<Integer, P>> actionRow = blankActionRow;
+            Array<Integer> gotoRow = blankGotoRow;
+            Map<Integer, Seq<Either<Integer, P>>> conflictRow = HashMap.empty();
 
-        // Now for work loop!
-        int row = 0;
-        while (row < tempCC.length()) {
-            Set<LROneItem<NT, T, P>> cci = tempCC.get(row);
+            for (Tuple2<LROneItem<NT, T, P>, BitSet> entry: collector.closure(row)) {
+                LROneItem<NT, T, P> lri = entry._1;
 
-            Map<NT, Set<LROneItem<NT, T, P>>> ntShifts = HashMap.empty();
-            Map<T, Set<LROneItem<NT, T, P>>> tShifts = HashMap.empty();
+                if (lri.getProduction().getRule().length() != lri.getCursor()) {
+                    continue;
+                }
 
-            for (LROneItem<NT, T, P> lri: cci) {
-                Seq<Either<NT, T>> rule = lri.getProduction().getRule();
-                int cursor = lri.getCursor();
+                // A -> B*, C Reduce Action[i, C] <- reduce A. (For every lookahead C)
+                BitSet lookaheads = entry._2;
+                for (int col = lookaheads.nextSetBit(0); col >= 0; col = lookaheads.nextSetBit(col + 1)) {
+                    Either<Integer, P> placeHolder = actionRow.get(col);
 
-                if (rule.length() == cursor) {
-                    // A -> B*, C Reduce Action[i, C] <- reduce A.
-                    final int col = lri.hasSuffix()
-                            ? terminalMap.get(lri.getSuffix()).get()
-                            : 0;
+                    if (keepConflicts && placeHolder.isRight()) {
+                        conflictRow = withConflict(conflictRow, col, placeHolder, right(lri.getProduction()));
+                        continue;
+                    }
 
-                    Either<Integer, P> placeHolder = tempActionTable.get(row).get(col);
+                    if (placeHolder.isRight() && construction != TableConstruction.CANONICAL) {
+                        conflicts = conflicts.append("state " + row + " on " + (col == 0
+                                ? "$" : columnTerminals.get(col - 1).name()) + " : " + placeHolder.get() + " / "
+                                + lri.getProduction());
+                        continue;
+                    }
 
                     if (placeHolder.isRight() || placeHolder.getLeft() != 0) {
                         throw new IllegalArgumentException("Given grammar not LR(1).");
                     }
 
                     // Otherwise update.
-                    tempActionTable = tempActionTable.update(row, r -> r.update(col, right(lri.getProduction())));
-                } else {
-                    Either<NT, T> nextSymEither = rule.get(cursor);
-
-                    if (nextSymEither.isLeft()) {
-                        // Non Terminal Shift.
-                        NT nt = nextSymEither.getLeft();
-                        ntShifts = ntShifts.containsKey(nt)
-                                ? ntShifts.put(nt, ntShifts.get(nt).get().add(lri.shiftCursor()))
-                                : ntShifts.put(nt, HashSet.of(lri.shiftCursor()));
-                    } else {
-                        // Terminal Shift.
-                        T t = nextSymEither.get();
-                        tShifts = tShifts.containsKey(t)
-                                ? tShifts.put(t, tShifts.get(t).get().add(lri.shiftCursor()))
-                                : tShifts.put(t, HashSet.of(lri.shiftCursor()));
-                    }
+                    actionRow = actionRow.update(col, right(lri.getProduction()));
                 }
             }
 
-            // Reductions are done, now for dealing with the shift moves.
-            ntShifts = ntShifts.mapValues(s -> LROneItem.closureSet(g, firstSets, s));
-            tShifts = tShifts.mapValues(s -> LROneItem.closureSet(g, firstSets, s));
+            // Terminal Shifts.
+            for (Tuple2<T, Integer> shift: collector.terminalShifts.get(row)) {
+                final int col = terminalMap.get(shift._1).get();
+
+                if (keepConflicts && actionRow.get(col).isRight()) {
+                    conflictRow = withConflict(conflictRow, col, actionRow.get(col), left(shift._2));
+                    continue;
+                }
+
+                if (actionRow.get(col).isRight()) {
+                    throw new IllegalArgumentException("Given Grammar is not LR(1).");
+                }
+
+                actionRow = actionRow.update(col, left(shift._2));
+            }
+
+            // Non Terminal Shifts.
+            for (Tuple2<NT, Integer> shift: collector.nonTerminalShifts.get(row)) {
+                gotoRow = gotoRow.update(nonTerminalMap.get(shift._1).get(), shift._2);
+            }
+
+            tempActionTable = tempActionTable.append(actionRow);
+            tempGotoTable = tempGotoTable.append(gotoRow);
+            tempConflictTable = tempConflictTable.append(conflictRow);
+        }
+
+        if (!conflicts.isEmpty()) {
+            // Merging can only introduce reduce/reduce conflicts into LR(1) grammars.
+            // If the grammar is not LR(1) to begin with, the canonical construction will say so.
+            new LROneTable<>(g, TableConstruction.CANONICAL);
+
+            throw new IllegalArgumentException("Given grammar is LR(1), but merging states introduced "
+                    + "reduce/reduce conflicts : " + conflicts.mkString("[", ", ", "]"));
+        }
+
+        gotoTable = Array.ofAll(tempGotoTable);
+        actionTable = Array.ofAll(tempActionTable);
+        conflictTable = Array.ofAll(tempConflictTable);
+
+        // Full item sets are only built if asked for. Only the kernels are kept for this, not the collector.
+        final Array<Map<LROneItem<NT, T, P>, BitSet>> kernels = Array.ofAll(collector.kernels);
+        final Map<T, Integer> columns = terminalMap;
+        cc = Lazy.of(() -> itemSets(g, firstSets, columns, kernels, columnTerminals));
+    }
+
+    // The full item set of every state, found by closing each kernel. (Closures are shared by equal cores)
+    private static <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>>
+    Array<Set<LROneItem<NT, T, P>>> itemSets(CFGrammar<NT, T, P> g, FirstSets<NT, T> firstSets,
+                                             Map<T, Integer> columns,
+                                             Array<Map<LROneItem<NT, T, P>, BitSet>> kernels,
+                                             Seq<T> columnTerminals) {
+        Map<Key<Set<LROneItem<NT, T, P>>>, LROneClosure<NT, T, P>> closures = HashMap.empty();
+        Vector<Set<LROneItem<NT, T, P>>> itemSets = Vector.empty();
+
+        for (Map<LROneItem<NT, T, P>, BitSet> kernel: kernels) {
+            Key<Set<LROneItem<NT, T, P>>> core = new Key<>(kernel.keySet());
+
+            Option<LROneClosure<NT, T, P>> memo = closures.get(core);
+            if (memo.isEmpty()) {
+                memo = Option.some(LROneClosure.of(g, firstSets, columns, kernel.keySet()));
+                closures = closures.put(core, memo.get());
+            }
+
+            itemSets = itemSets.append(LROneClosure.items(memo.get().close(kernel), columnTerminals));
+        }
+
+        return Array.ofAll(itemSets);
+    }
+
+    // Record another action of a cell, along with the action already in it.
+    private static <P> Map<Integer, Seq<Either<Integer, P>>> withConflict(
+            Map<Integer, Seq<Either<Integer, P>>> conflictRow, int col, Either<Integer, P> held,
+            Either<Integer, P> action) {
+        return conflictRow.put(col, conflictRow.get(col).getOrElse(() -> Vector.of(held)).append(action));
+    }
+
+    private static BitSet eofLookahead() {
+        BitSet bits = new BitSet();
+        bits.set(0);
+
+        return bits;
+    }
+
+    /**
+     * A key used when looking up states, either the kernel of a state (the items shifted into it, before closure),
+     * or the core of the kernel. The hash of the key is computed once.
+     *
+     * @param <K> The type of the key.
+     */
+    private static final class Key<K> {
+        private final K key;
+        private final int hash;
+
+        private Key(K k) {
+            key = k;
+            hash = k.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key<?> other = (Key<?>) o;
+            return hash == other.hash && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Finds every state of a table, along with each state's transitions.
+     * Depending on the construction, states are keyed by their kernel, or by the core of their kernel.
+     * When a kernel is merged into an existing state and adds new lookaheads, that state's transitions are
+     * found again so the new lookaheads reach its successors.
+     * <br>
+     * Only kernels are stored. Each kernel maps its core items to their lookaheads as a <b>BitSet</b> over the
+     * columns of the action table (bit 0 being eof). Closures are found from an {@link LROneClosure}, which is
+     * computed once per kernel core and shared by every state with that core.
+     * <br>
+     * With {@link TableConstruction#PAGER}, many states may share a core. A kernel is only merged into a state
+     * with the same core if the two are weakly compatible, otherwise the next state with the core is tried.
+     * Since transitions may change when they are found again, states which are no longer reachable are
+     * removed once every state is found.
+     *
+     * @param <NT> The non-terminal enum type.
+     * @param <T> The terminal enum type.
+     * @param <P> The production type.
+     */
+    private static final class StateCollector<NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> {
+        private final CFGrammar<NT, T, P> g;
+        private final FirstSets<NT, T> firstSets;
+        private final Map<T, Integer> columns;
+        private final TableConstruction construction;
+
+        private Vector<Map<LROneItem<NT, T, P>, BitSet>> kernels;
+        private Vector<Map<T, Integer>> terminalShifts;
+        private Vector<Map<NT, Integer>> nonTerminalShifts;
+
+        // Index of every state found by a shift.
+        // (Closures only ever add items with cursor 0, so equal states always have equal kernels)
+        private Map<Key<?>, Seq<Integer>> ccIndex;
+
+        // Closure of every kernel core seen so far.
+        private Map<Key<Set<LROneItem<NT, T, P>>>, LROneClosure<NT, T, P>> closures;
+
+        // States whose transitions must be found.
+        private Queue<Integer> work;
+        private Set<Integer> queued;
+
+        private StateCollector(CFGrammar<NT, T, P> grammar, FirstSets<NT, T> fs, Map<T, Integer> cols,
+                               TableConstruction c, Map<LROneItem<NT, T, P>, BitSet> kernel0) {
+            g = grammar;
+            firstSets = fs;
+            columns = cols;
+            construction = c;
+
+            kernels = Vector.empty();
+            terminalShifts = Vector.empty();
+            nonTerminalShifts = Vector.empty();
+            ccIndex = HashMap.empty();
+            closures = HashMap.empty();
+            work = Queue.empty();
+            queued = HashSet.empty();
+
+            // The initial state is never the target of a shift, so it is not indexed.
+            addState(kernel0);
+        }
+
+        private int addState(Map<LROneItem<NT, T, P>, BitSet> kernel) {
+            int state = kernels.length();
+
+            kernels = kernels.append(kernel);
+            terminalShifts = terminalShifts.append(HashMap.empty());
+            nonTerminalShifts = nonTerminalShifts.append(HashMap.empty());
+
+            enqueue(state);
+
+            return state;
+        }
+
+        private void enqueue(int state) {
+            if (!queued.contains(state)) {
+                work = work.append(state);
+                queued = queued.add(state);
+            }
+        }
+
+        // The closure of a state, as the lookaheads of each core item.
+        private Map<LROneItem<NT, T, P>, BitSet> closure(int state) {
+            Map<LROneItem<NT, T, P>, BitSet> kernel = kernels.get(state);
+            Key<Set<LROneItem<NT, T, P>>> core = new Key<>(kernel.keySet());
+
+            Option<LROneClosure<NT, T, P>> memo = closures.get(core);
+            if (memo.isEmpty()) {
+                memo = Option.some(LROneClosure.of(g, firstSets, columns, kernel.keySet()));
+                closures = closures.put(core, memo.get());
+            }
+
+            return memo.get().close(kernel);
+        }
+
+        private Key<?> keyOf(Map<LROneItem<NT, T, P>, BitSet> kernel) {
+            return construction == TableConstruction.CANONICAL
+                    ? new Key<>(kernel)
+                    : new Key<>(kernel.keySet());
+        }
+
+        /*
+         * Pager's weak compatibility test on two kernels with the same core.
+         * The kernels are compatible unless, for some pair of core items i and j, merging lets a lookahead
+         * of one kernel's item i meet a lookahead of the other kernel's item j, while neither kernel alone
+         * had any lookahead shared by items i and j. Merging compatible kernels never introduces conflicts.
+         */
+        private boolean weaklyCompatible(Map<LROneItem<NT, T, P>, BitSet> a, Map<LROneItem<NT, T, P>, BitSet> b) {
+            if (b.forAll(entry -> LROneClosure.isSubset(entry._2, a.get(entry._1).get()))) {
+                return true;
+            }
 
-            // Terminal Shifts first.
-            for (T tShift: tShifts.keySet()) {
-                Set<LROneItem<NT, T, P>> ccj = tShifts.get(tShift).get();
+            Array<LROneItem<NT, T, P>> cores = Array.ofAll(a.keySet());
 
-                final int ccSize = tempCC.length();
-                final int col = terminalMap.get(tShift).get();
-                int shiftState = 0;
+            for (int i = 0; i < cores.length(); i++) {
+                BitSet ai = a.get(cores.get(i)).get();
+                BitSet bi = b.get(cores.get(i)).get();
 
-                for (int st = 0; st < ccSize; st++) {
-                    if (tempCC.get(st).equals(ccj)) {
-                        shiftState = st;
-                        break;
+                for (int j = i + 1; j < cores.length(); j++) {
+                    BitSet aj = a.get(cores.get(j)).get();
+                    BitSet bj = b.get(cores.get(j)).get();
+
+                    boolean crossed = ai.intersects(bj) || bi.intersects(aj);
+
+                    if (crossed && !ai.intersects(aj) && !bi.intersects(bj)) {
+                        return false;
                     }
                 }
+            }
 
-                if (shiftState == 0) {
-                    // No equal state was found. Create a new state.
-                    shiftState = ccSize;
-                    tempCC = tempCC.append(ccj);
+            return true;
+        }
 
-                    tempActionTable = tempActionTable.append(blankActionRow);
-                    tempGotoTable = tempGotoTable.append(blankGotoRow);
-                }
+        // Find the state a shift with the given kernel leads to, creating or merging as needed.
+        private int target(Map<LROneItem<NT, T, P>, BitSet> kernel) {
+            Key<?> key = keyOf(kernel);
+            Seq<Integer> candidates = ccIndex.get(key).getOrElse(Vector.empty());
 
-                // Get the cell which will be overwritten.
-                Either<Integer, P> cell = tempActionTable.get(row).get(col);
+            Option<Integer> found = construction == TableConstruction.PAGER
+                    ? candidates.find(st -> weaklyCompatible(kernels.get(st), kernel))
+                    : candidates.headOption();
 
-                final int shiftStateFinal = shiftState;
+            if (found.isEmpty()) {
+                int state = addState(kernel);
+                ccIndex = ccIndex.put(key, candidates.append(state));
 
-                if (cell.isLeft() && cell.getLeft() == 0) {
-                    tempActionTable = tempActionTable.update(row, r -> r.update(col, left(shiftStateFinal)));
-                } else if (cell.isRight() || cell.getLeft() != shiftStateFinal) {
-                    throw new IllegalArgumentException("Given Grammar is not LR(1).");
+                return state;
+            }
+
+            int state = found.get();
+            Map<LROneItem<NT, T, P>, BitSet> merged = kernels.get(state);
+            boolean changed = false;
+
+            for (Tuple2<LROneItem<NT, T, P>, BitSet> entry: kernel) {
+                BitSet old = merged.get(entry._1).get();
+
+                if (!LROneClosure.isSubset(entry._2, old)) {
+                    // Lookaheads are never changed in place, they may be shared with other kernels.
+                    BitSet union = (BitSet) old.clone();
+                    union.or(entry._2);
+
+                    merged = merged.put(entry._1, union);
+                    changed = true;
                 }
             }
 
-            for (NT ntShift: ntShifts.keySet()) {
-                Set<LROneItem<NT, T, P>> ccj = ntShifts.get(ntShift).get();
+            if (changed) {
+                // New lookaheads were merged in, they must be passed on to successors.
+                kernels = kernels.update(state, merged);
+                enqueue(state);
+            }
 
-                final int ccSize = tempCC.length();
-                final int col = nonTerminalMap.get(ntShift).get();
-                int shiftState = 0;
+            return state;
+        }
 
-                for (int st = 0; st < ccSize; st++) {
-                    if (tempCC.get(st).equals(ccj)) {
-                        shiftState = st;
-                        break;
+        private void collect() {
+            while (!work.isEmpty()) {
+                int row = work.head();
+                work = work.tail();
+                queued = queued.remove(row);
+
+                Map<NT, Map<LROneItem<NT, T, P>, BitSet>> ntShifts = HashMap.empty();
+                Map<T, Map<LROneItem<NT, T, P>, BitSet>> tShifts = HashMap.empty();
+
+                for (Tuple2<LROneItem<NT, T, P>, BitSet> entry: closure(row)) {
+                    LROneItem<NT, T, P> lri = entry._1;
+                    Seq<Either<NT, T>> rule = lri.getProduction().getRule();
+                    int cursor = lri.getCursor();
+
+                    if (cursor < rule.length()) {
+                        Either<NT, T> nextSymEither = rule.get(cursor);
+
+                        if (nextSymEither.isLeft()) {
+                            // Non Terminal Shift.
+                            NT nt = nextSymEither.getLeft();
+                            ntShifts = ntShifts.put(nt, ntShifts.get(nt).getOrElse(HashMap.empty())
+                                    .put(lri.shiftCursor(), entry._2));
+                        } else {
+                            // Terminal Shift.
+                            T t = nextSymEither.get();
+                            tShifts = tShifts.put(t, tShifts.get(t).getOrElse(HashMap.empty())
+                                    .put(lri.shiftCursor(), entry._2));
+                        }
                     }
                 }
 
-                if (shiftState == 0) {
-                    shiftState = ccSize;
-                    tempCC = tempCC.append(ccj);
+                // Terminal Shifts first.
+                Map<T, Integer> tRow = HashMap.empty();
+                for (T tShift: tShifts.keySet()) {
+                    tRow = tRow.put(tShift, target(tShifts.get(tShift).get()));
+                }
 
-                    tempActionTable = tempActionTable.append(blankActionRow);
-                    tempGotoTable = tempGotoTable.append(blankGotoRow);
+                Map<NT, Integer> ntRow = HashMap.empty();
+                for (NT ntShift: ntShifts.keySet()) {
+                    ntRow = ntRow.put(ntShift, target(ntShifts.get(ntShift).get()));
                 }
 
-                final int shiftStateFinal = shiftState;
-                int cell = tempGotoTable.get(row).get(col);
+                terminalShifts = terminalShifts.update(row, tRow);
+                nonTerminalShifts = nonTerminalShifts.update(row, ntRow);
+            }
 
-                if (cell == 0) {
-                    tempGotoTable = tempGotoTable.update(row, r -> r.update(col, shiftStateFinal));
-                } else if (cell != shiftStateFinal) {
-                    throw new IllegalArgumentException("Given Grammar is not LR(1).");
+            removeUnreachable();
+        }
+
+        // Remove states no transition leads to anymore, keeping the order of the remaining states.
+        private void removeUnreachable() {
+            boolean[] reachable = new boolean[kernels.length()];
+            reachable[0] = true;
+
+            List<Integer> stack = List.of(0);
+            while (!stack.isEmpty()) {
+                int state = stack.head();
+                stack = stack.tail();
+
+                for (int next: terminalShifts.get(state).values().appendAll(nonTerminalShifts.get(state).values())) {
+                    if (!reachable[next]) {
+                        reachable[next] = true;
+                        stack = stack.prepend(next);
+                    }
                 }
             }
 
-            row++;
-        }
+            int[] renumbered = new int[reachable.length];
+            int count = 0;
 
-        gotoTable = Array.ofAll(tempGotoTable);
-        actionTable = Array.ofAll(tempActionTable);
-        cc = Array.ofAll(tempCC);
+            for (int state = 0; state < reachable.length; state++) {
+                renumbered[state] = reachable[state] ? count++ : -1;
+            }
+
+            if (count == reachable.length) {
+                return;
+            }
+
+            Seq<Integer> kept = Vector.range(0, reachable.length).filter(st -> reachable[st]);
+
+            kernels = kept.map(kernels::get).toVector();
+            terminalShifts = kept.map(st -> terminalShifts.get(st).mapValues(next -> renumbered[next])).toVector();
+            nonTerminalShifts = kept.map(st -> nonTerminalShifts.get(st).mapValues(next -> renumbered[next]))
+                    .toVector();
+        }
     }
 
     protected void validateState(int state) {
-        if (state < 0 || state >= cc.length()) {
+        if (state < 0 || state >= actionTable.length()) {
             throw new IndexOutOfBoundsException("Given state is not valid.");
         }
     }
 
 
+    // Every action of each conflicted cell of some state, by column.
+    Map<Integer, Seq<Either<Integer, P>>> getConflicts(int state) {
+        validateState(state);
+        return conflictTable.get(state);
+    }
+
+    Map<T, Integer> getTerminalMap() {
+        return terminalMap;
+    }
+
+    Map<NT, Integer> getNonTerminalMap() {
+        return nonTerminalMap;
+    }
+
     public Array<Set<LROneItem<NT, T, P>>> getCC() {
-        return cc;
+        return cc.get();
     }
 
     public Array<Array<Integer>> getGotoTable() {
@@ -225,6 +548,15 @@ public class LROneTable<NT extends Enum<NT>, T extends Enum<T>, P extends Produc
         return gotoTable.get(state).get(nonTerminalMap.get(nonTerminal).get());
     }
 
+    /**
+     * Freeze this table into a primitive encoding for parsing.
+     *
+     * @return The compact table.
+     */
+    public CompactLROneTable<NT, T, P> compact() {
+        return new CompactLROneTable<>(actionTable, gotoTable, terminalMap, nonTerminalMap);
+    }
+
     public Array<Array<Either<Integer, P>>> getActionTable() {
         return actionTable;
     }
@@ -244,7 +576,7 @@ public class LROneTable<NT extends Enum<NT>, T extends Enum<T>, P extends Produc
     }
 
     public String actionTableString() {
-        Seq<String> rowLabels = Array.range(0, cc.length()).map(i -> i + "");
+        Seq<String> rowLabels = Array.range(0, actionTable.length()).map(i -> i + "");
         Seq<String> colLabels = Array.range(0, terminalMap.keySet().length() + 1).map(i ->
                 i == 0
                         ? "$"
@@ -263,7 +595,7 @@ public class LROneTable<NT extends Enum<NT>, T extends Enum<T>, P extends Produc
     }
 
     public String gotoTableString() {
-        Seq<String> rowLabels = Array.range(0, cc.length()).map(i -> i + "");
+        Seq<String> rowLabels = Array.range(0, actionTable.length()).map(i -> i + "");
         Seq<String> colLabels = Array.range(0, nonTerminalMap.keySet().length()).map(i ->
                 nonTerminalMap.keySet().filter(nt -> nonTerminalMap.get(nt).get().equals(i)).head().name());
 
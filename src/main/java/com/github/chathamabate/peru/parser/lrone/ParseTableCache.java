@@ -0,0 +1,205 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+import com.github.chathamabate.peru.parser.grammar.CFGrammar;
+import com.github.chathamabate.peru.parser.grammar.Production;
+import io.vavr.collection.Seq;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+
+/**
+ * A directory of precomputed parse tables.
+ * <br>
+ * Each table is stored in its own file, named by the fingerprint of its grammar (see {@link CFGrammar#fingerprint()})
+ * and its {@link TableConstruction}. Productions are stored as indices into the grammar's canonical production
+ * order, so a table stored for one grammar can be loaded for any structurally equal grammar, including one
+ * whose productions build different results.
+ * <br>
+ * The cache is only an optimization. Tables which are missing, malformed, or stored for some other grammar are
+ * simply built again, and failing to store a table is not an error.
+ */
+public final class ParseTableCache {
+
+    /**
+     * The system property naming the directory of the default cache.
+     */
+    public static final String DIRECTORY_PROPERTY = "peru.tableCache";
+
+    /**
+     * The first <b>int</b> of every table file.
+     */
+    private static final int MAGIC = 0x50455255;    // "PERU"
+
+    /**
+     * The version of the table file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Create a cache backed by some directory. The directory is created when a table is first stored.
+     *
+     * @param directory The directory.
+     * @return The cache.
+     */
+    public static ParseTableCache at(Path directory) {
+        Objects.requireNonNull(directory);
+        return new ParseTableCache(directory);
+    }
+
+    /**
+     * Get the default cache, backed by the directory named by the {@link #DIRECTORY_PROPERTY} system property.
+     *
+     * @return The default cache, or none if the property is not set.
+     */
+    public static Option<ParseTableCache> defaultCache() {
+        return Option.of(System.getProperty(DIRECTORY_PROPERTY))
+                .filter(dir -> !dir.isEmpty())
+                .map(dir -> at(Paths.get(dir)));
+    }
+
+    /**
+     * The directory of this cache.
+     */
+    private final Path directory;
+
+    /**
+     * Constructor.
+     *
+     * @param dir The directory.
+     */
+    private ParseTableCache(Path dir) {
+        directory = dir;
+    }
+
+    /**
+     * Get the directory of this cache.
+     *
+     * @return The directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the file a table is stored in.
+     *
+     * @param g The grammar of the table.
+     * @param construction The construction of the table.
+     * @return The file.
+     */
+    public Path tablePath(CFGrammar<?, ?, ?> g, TableConstruction construction) {
+        return directory.resolve(g.fingerprint() + "-" + construction.name().toLowerCase() + ".lrt");
+    }
+
+    /**
+     * Load a stored table.
+     *
+     * @param g The grammar of the table.
+     * @param construction The construction of the table.
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The table, or a failure if it is missing or malformed.
+     */
+    public <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> Try<CompactLROneTable<NT, T, P>>
+    load(CFGrammar<NT, T, P> g, TableConstruction construction) {
+        Objects.requireNonNull(g);
+        Objects.requireNonNull(construction);
+
+        String fingerprint = g.fingerprint();
+        Path path = tablePath(g, construction);
+
+        return Try.withResources(() -> new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+                .of(in -> {
+                    // The header is checked, in case the file was written by another version or grammar.
+                    if (in.readInt() != MAGIC || in.readInt() != VERSION
+                            || !in.readUTF().equals(fingerprint) || !in.readUTF().equals(construction.name())) {
+                        throw new IOException("Table file " + path + " does not match its grammar.");
+                    }
+
+                    return CompactLROneTable.read(in, g.getOrderedProductions());
+                });
+    }
+
+    /**
+     * Store a table.
+     * <br>
+     * The table is first written to a temporary file, which is then moved into place, so concurrent loads
+     * never see a partially written table.
+     *
+     * @param g The grammar of the table.
+     * @param construction The construction of the table.
+     * @param table The table.
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The file written, or a failure if writing fails.
+     */
+    public <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> Try<Path>
+    store(CFGrammar<NT, T, P> g, TableConstruction construction, CompactLROneTable<NT, T, P> table) {
+        Objects.requireNonNull(g);
+        Objects.requireNonNull(construction);
+        Objects.requireNonNull(table);
+
+        Path path = tablePath(g, construction);
+        Seq<P> ordered = g.getOrderedProductions();
+
+        return Try.of(() -> {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "table", ".tmp");
+
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeUTF(g.fingerprint());
+                    out.writeUTF(construction.name());
+                    table.write(out, ordered);
+                }
+
+                try {
+                    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+
+            return path;
+        });
+    }
+
+    /**
+     * Get the table of a grammar, loading it if it is stored, otherwise building and storing it.
+     *
+     * @param g The grammar.
+     * @param construction The construction of the table.
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The table.
+     */
+    public <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> CompactLROneTable<NT, T, P>
+    table(CFGrammar<NT, T, P> g, TableConstruction construction) {
+        return load(g, construction).getOrElse(() -> {
+            // Building throws if the grammar is not LR(1), just as it would without a cache.
+            CompactLROneTable<NT, T, P> table = new LROneTable<>(g, construction).compact();
+            store(g, construction, table);
+
+            return table;
+        });
+    }
+}
@@ -0,0 +1,250 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+import com.github.chathamabate.peru.parser.grammar.CFGrammar;
+import com.github.chathamabate.peru.parser.grammar.Production;
+import io.vavr.control.Try;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Generates Java source for parsers whose tables are built ahead of time.
+ * <br>
+ * A generated parser extends {@link LROneParser}, so it implements the same
+ * {@link com.github.chathamabate.peru.parser.Parser} interface. Its table is embedded in its source as a
+ * {@link GeneratedTable}, and is decoded (not built) when the parser is constructed. Semantic actions are bound
+ * by production index from the grammar given to the parser's constructor, which must be structurally equal to
+ * the grammar the parser was generated from.
+ * <br>
+ * Grammars are found through definition classes, as a static field holding a {@link CFGrammar}, named
+ * <b>com.example.Grammars#EXPRESSIONS</b>. This is what the <b>peru-maven-plugin</b> module runs at build time,
+ * and it can also be run through {@link #main(String[])}.
+ */
+public final class ParserGenerator {
+
+    /**
+     * The maximum length of each <b>String</b> constant holding part of a table.
+     * (Constants are limited to 65535 bytes)
+     */
+    private static final int CHUNK_LENGTH = 60000;
+
+    /**
+     * The length of each line of a table chunk in generated source.
+     */
+    private static final int LINE_LENGTH = 100;
+
+    /**
+     * Static class.
+     */
+    private ParserGenerator() {
+    }
+
+    /**
+     * Build the table of a grammar, encoded for embedding in source.
+     *
+     * @param g The grammar.
+     * @param construction The construction of the table.
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The encoded table.
+     */
+    public static <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> GeneratedTable
+    generateTable(CFGrammar<NT, T, P> g, TableConstruction construction) {
+        Objects.requireNonNull(g);
+        Objects.requireNonNull(construction);
+
+        CompactLROneTable<NT, T, P> table = new LROneTable<>(g, construction).compact();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            table.write(out, g.getOrderedProductions());
+        } catch (IOException e) {
+            // Writing to memory does not fail.
+            throw new UncheckedIOException(e);
+        }
+
+        return GeneratedTable.of(g.fingerprint(), construction, Base64.getEncoder().encodeToString(bytes.toByteArray()));
+    }
+
+    /**
+     * Generate the source of a parser for a grammar.
+     *
+     * @param g The grammar.
+     * @param construction The construction of the table.
+     * @param qualifiedName The fully qualified name of the parser class to generate.
+     * @param source A description of where the grammar came from, placed in the class's documentation.
+     * @param <NT> The non-terminal <b>Enum</b> type.
+     * @param <T> The terminal <b>Enum</b> type.
+     * @param <P> The <b>Production</b> type.
+     * @return The source.
+     */
+    public static <NT extends Enum<NT>, T extends Enum<T>, P extends Production<NT, T>> String
+    generate(CFGrammar<NT, T, P> g, TableConstruction construction, String qualifiedName, String source) {
+        Objects.requireNonNull(qualifiedName);
+        Objects.requireNonNull(source);
+
+        if (g.getTerminalsUsed().isEmpty()) {
+            throw new IllegalArgumentException("Given grammar uses no terminals, so its terminal type is unknown.");
+        }
+
+        GeneratedTable table = generateTable(g, construction);
+
+        int dot = qualifiedName.lastIndexOf('.');
+        String packageName = dot == -1 ? "" : qualifiedName.substring(0, dot);
+        String className = qualifiedName.substring(dot + 1);
+
+        String nt = g.getStartSymbol().getDeclaringClass().getCanonicalName();
+        String t = g.getTerminalsUsed().head().getDeclaringClass().getCanonicalName();
+
+        StringBuilder sb = new StringBuilder();
+
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+
+        sb.append("import com.github.chathamabate.peru.parser.Tokenized;\n")
+                .append("import com.github.chathamabate.peru.parser.grammar.SemanticCFGrammar;\n")
+                .append("import com.github.chathamabate.peru.parser.grammar.SemanticProduction;\n")
+                .append("import com.github.chathamabate.peru.parser.lrone.GeneratedTable;\n")
+                .append("import com.github.chathamabate.peru.parser.lrone.LROneParser;\n")
+                .append("import com.github.chathamabate.peru.parser.lrone.TableConstruction;\n")
+                .append("import io.vavr.Function0;\n")
+                .append("import io.vavr.Function1;\n")
+                .append("import io.vavr.Tuple2;\n\n")
+                .append("/**\n")
+                .append(" * LR(1) parser generated from ").append(source).append(". Do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(className).append("<L, D extends Tokenized<").append(t)
+                .append(">, R>\n")
+                .append("        extends LROneParser<").append(nt).append(", ").append(t).append(", L, D, R> {\n\n")
+                .append("    public static final GeneratedTable TABLE = GeneratedTable.of(\n")
+                .append("            \"").append(table.getFingerprint()).append("\",\n")
+                .append("            TableConstruction.").append(construction.name());
+
+        String encoded = table.getEncoded();
+
+        for (int chunk = 0; chunk < encoded.length(); chunk += CHUNK_LENGTH) {
+            sb.append(",\n            ");
+
+            int end = Math.min(encoded.length(), chunk + CHUNK_LENGTH);
+            for (int line = chunk; line < end; line += LINE_LENGTH) {
+                sb.append(line == chunk ? "\"" : "\n                    + \"")
+                        .append(encoded, line, Math.min(end, line + LINE_LENGTH))
+                        .append('"');
+            }
+        }
+
+        sb.append(");\n\n")
+                .append("    private final Function1<? super Tuple2<L, D>, ? extends Throwable> onMidError;\n")
+                .append("    private final Function0<? extends Throwable> onEofError;\n\n")
+                .append("    public ").append(className).append("(\n")
+                .append("            SemanticCFGrammar<").append(nt).append(", ").append(t)
+                .append(", ? extends SemanticProduction<").append(nt).append(", ").append(t)
+                .append(", R>, L, D, R> grammar,\n")
+                .append("            Function1<? super Tuple2<L, D>, ? extends Throwable> onMidError,\n")
+                .append("            Function0<? extends Throwable> onEofError) {\n")
+                .append("        super(grammar, TABLE);\n")
+                .append("        this.onMidError = onMidError;\n")
+                .append("        this.onEofError = onEofError;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    protected Throwable onError(Tuple2<L, D> lookAhead) {\n")
+                .append("        return onMidError.apply(lookAhead);\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    protected Throwable onError() {\n")
+                .append("        return onEofError.apply();\n")
+                .append("    }\n")
+                .append("}\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Find a grammar held in a static field of a definition class.
+     *
+     * @param reference The field, named like <b>com.example.Grammars#EXPRESSIONS</b>.
+     * @param loader The class loader to load the definition class with.
+     * @return The grammar, or a failure if it cannot be found.
+     */
+    public static Try<CFGrammar<?, ?, ?>> findGrammar(String reference, ClassLoader loader) {
+        Objects.requireNonNull(reference);
+        Objects.requireNonNull(loader);
+
+        return Try.of(() -> {
+            int hash = reference.indexOf('#');
+
+            if (hash == -1) {
+                throw new IllegalArgumentException("Grammar reference " + reference + " has no field.");
+            }
+
+            Field field = Class.forName(reference.substring(0, hash), true, loader)
+                    .getDeclaredField(reference.substring(hash + 1));
+
+            if (!Modifier.isStatic(field.getModifiers()) || !CFGrammar.class.isAssignableFrom(field.getType())) {
+                throw new IllegalArgumentException("Grammar reference " + reference + " is not a static grammar.");
+            }
+
+            field.setAccessible(true);
+            return (CFGrammar<?, ?, ?>) Objects.requireNonNull(field.get(null));
+        });
+    }
+
+    /**
+     * Generate the source of a parser for a grammar held in a definition class, and write it under
+     * some source directory.
+     *
+     * @param reference The grammar, named like <b>com.example.Grammars#EXPRESSIONS</b>.
+     * @param construction The construction of the table.
+     * @param qualifiedName The fully qualified name of the parser class to generate.
+     * @param sourceDirectory The root source directory.
+     * @param loader The class loader to load the definition class with.
+     * @return The file written, or a failure.
+     */
+    public static Try<Path> generate(String reference, TableConstruction construction, String qualifiedName,
+                                     Path sourceDirectory, ClassLoader loader) {
+        Objects.requireNonNull(qualifiedName);
+        Objects.requireNonNull(sourceDirectory);
+
+        return findGrammar(reference, loader).mapTry(g -> {
+            String source = generate(g, construction, qualifiedName, reference.replace('#', '.'));
+            Path path = sourceDirectory.resolve(qualifiedName.replace('.', '/') + ".java");
+
+            Files.createDirectories(path.getParent());
+            Files.write(path, source.getBytes(StandardCharsets.UTF_8));
+
+            return path;
+        });
+    }
+
+    /**
+     * Generate a parser from the command line.
+     * <br>
+     * Arguments are the grammar reference, the construction, the qualified name of the parser class and the
+     * root source directory to write it under. For example,
+     * <b>com.example.Grammars#EXPRESSIONS LALR com.example.ExpressionParser target/generated-sources/peru</b>.
+     *
+     * @param args The arguments.
+     * @throws Throwable If generation fails.
+     */
+    public static void main(String[] args) throws Throwable {
+        if (args.length != 4) {
+            throw new IllegalArgumentException("Usage : <grammar reference> <construction> <parser class> "
+                    + "<source directory>");
+        }
+
+        generate(args[0], TableConstruction.valueOf(args[1]), args[2], Paths.get(args[3]),
+                Thread.currentThread().getContextClassLoader()).get();
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.chathamabate.peru.parser.lrone;
+
+/**
+ * The ways an {@link LROneTable} can be constructed.
+ */
+public enum TableConstruction {
+
+    /**
+     * Canonical LR(1) construction. Every distinct set of LR(1) items is its own state.
+     * Any LR(1) grammar is accepted, but tables can be very large.
+     */
+    CANONICAL,
+
+    /**
+     * LALR(1) construction. States whose items have identical cores (items ignoring their lookaheads)
+     * are merged. Tables are far smaller, but merging may introduce reduce/reduce conflicts
+     * into some LR(1) grammars.
+     */
+    LALR,
+
+    /**
+     * Pager's minimal LR(1) construction. States whose items have identical cores are only merged when
+     * they are weakly compatible, which guarantees merging never introduces conflicts.
+     * Any LR(1) grammar is accepted, and tables are usually close to the size of LALR(1) tables.
+     */
+    PAGER
+}
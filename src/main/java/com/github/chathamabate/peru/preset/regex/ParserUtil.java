@@ -75,9 +75,9 @@ public final class ParserUtil {
     ESCAPE_P15 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.ESCAPE, RuleUtil.ESCAPE_R15, c -> c.get(1)),
 
     // Literal Productions. (Returns Character)
-    LITERAL_P1 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.LITERAL, RuleUtil.LITERAL_R1, c -> c.get(0)),
-    LITERAL_P2 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.LITERAL, RuleUtil.LITERAL_R2, c -> c.get(0)),
-    LITERAL_P3 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.LITERAL, RuleUtil.LITERAL_R3, c -> c.get(0)),
+    LITERAL_P1 = SemanticProduction.identity(RuleUtil.RegexNonTerminal.LITERAL, RuleUtil.LITERAL_R1),
+    LITERAL_P2 = SemanticProduction.identity(RuleUtil.RegexNonTerminal.LITERAL, RuleUtil.LITERAL_R2),
+    LITERAL_P3 = SemanticProduction.identity(RuleUtil.RegexNonTerminal.LITERAL, RuleUtil.LITERAL_R3),
 
     // Class Preset Productions. (Returns Char Set)
     CLASS_PRESET_P1 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.CLASS_PRESET, RuleUtil.CLASS_PRESET_R1,
@@ -112,7 +112,7 @@ public final class ParserUtil {
     // Class Inner Productions. (Returns a Character Set)
     CLASS_INNER_P1 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.CLASS_INNER, RuleUtil.CLASS_INNER_R1,
             c -> RegexParse.ofCharacterSet(c.get(0).asCharacterSet().addAll(c.get(1).asCharacterSet()))),
-    CLASS_INNER_P2 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.CLASS_INNER, RuleUtil.CLASS_INNER_R2, c -> c.get(0)),
+    CLASS_INNER_P2 = SemanticProduction.identity(RuleUtil.RegexNonTerminal.CLASS_INNER, RuleUtil.CLASS_INNER_R2),
 
     // Class Productions. (Returns a Character Set)
     CLASS_P1 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.CLASS, RuleUtil.CLASS_R1, c -> c.get(1)),
@@ -181,14 +181,13 @@ public final class ParserUtil {
 
                 return productNFA;
             })),
-    QUANTIFIER_P7 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.QUANTIFIER, RuleUtil.QUANTIFIER_R7,
-            c -> c.get(0)),
+    QUANTIFIER_P7 = SemanticProduction.identity(RuleUtil.RegexNonTerminal.QUANTIFIER, RuleUtil.QUANTIFIER_R7),
 
     // Concat Productions. (Returns NFA)
     CONCAT_P1 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.CONCAT, RuleUtil.CONCAT_R1,
             c -> c.get(0).mapNFAutomaton(nfa -> nfa.combineWithEpsilonConnection(
                     nfa.getNumberOfStates() - 1, c.get(1).asNFAutomaton()))),
-    CONCAT_P2 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.CONCAT, RuleUtil.CONCAT_R2, c -> c.get(0)),
+    CONCAT_P2 = SemanticProduction.identity(RuleUtil.RegexNonTerminal.CONCAT, RuleUtil.CONCAT_R2),
 
     //  Expression Productions. (Returns NFA)
     EXPRESSION_P1 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.EXPRESSION, RuleUtil.EXPRESSION_R1,
@@ -207,10 +206,10 @@ public final class ParserUtil {
                                 fullNFA.getNumberOfStates() - 1
                         );
             })),
-    EXPRESSION_P2 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.EXPRESSION, RuleUtil.EXPRESSION_R2, c -> c.get(0)),
+    EXPRESSION_P2 = SemanticProduction.identity(RuleUtil.RegexNonTerminal.EXPRESSION, RuleUtil.EXPRESSION_R2),
 
     // Regex Goal Productions. (Returns NFA)
-    REGEX_GOAL_P1 = SemanticProduction.semanticProduction(RuleUtil.RegexNonTerminal.REGEX_GOAL, RuleUtil.REGEX_GOAL_R1, c -> c.get(0));
+    REGEX_GOAL_P1 = SemanticProduction.identity(RuleUtil.RegexNonTerminal.REGEX_GOAL, RuleUtil.REGEX_GOAL_R1);
 
     // Semantic Grammar
     static final SemanticCFGrammar<RuleUtil.RegexNonTerminal, LexerUtil.RegexTerminal,
@@ -1,5 +1,6 @@
 package com.github.chathamabate.peru.preset.regex;
 
+import com.github.chathamabate.peru.fa.ByteDFAutomaton;
 import com.github.chathamabate.peru.fa.DFAutomaton;
 import com.github.chathamabate.peru.fa.NFAutomaton;
 import com.github.chathamabate.peru.parser.Tokenized;
@@ -78,4 +79,16 @@ public final class PeruRegex {
     ) {
         return Try.of(() -> buildMultiResultDFA(patternSignals));
     }
+
+    public static <O> ByteDFAutomaton<O> buildMultiResultByteDFA(
+            Seq<? extends Tuple3<? extends String, ? extends Boolean, ? extends O>> patternSignals
+    ) throws Throwable {
+        return ByteDFAutomaton.compile(buildMultiResultDFA(patternSignals));
+    }
+
+    public static <O> Try<ByteDFAutomaton<O>> tryBuildMultiResultByteDFA(
+            Seq<? extends Tuple3<? extends String, ? extends Boolean, ? extends O>> patternSignals
+    ) {
+        return Try.of(() -> buildMultiResultByteDFA(patternSignals));
+    }
 }
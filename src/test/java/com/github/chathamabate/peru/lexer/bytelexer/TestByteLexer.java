@@ -0,0 +1,237 @@
+package com.github.chathamabate.peru.lexer.bytelexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.ByteDFAutomaton;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.lexer.charlexer.CharSimpleContext;
+import com.github.chathamabate.peru.lexer.charlexer.CharSimpleDLexer;
+import com.github.chathamabate.peru.misc.MiscHelpers;
+import com.github.chathamabate.peru.preset.regex.PeruRegex;
+import io.vavr.Function1;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.Array;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestByteLexer {
+
+    private enum CharType {
+        LETTER,
+        NUMBER,
+        SPACE,
+        HIGH,
+        LOW,
+        OTHER
+    }
+
+    private enum TokenType {
+        WORD,
+        INT,
+        WHITESPACE,
+        PAIRS,
+        SYMBOLS
+    }
+
+    private static final DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            DFA = new DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            (4, HashSet.of(CharType.LETTER, CharType.NUMBER, CharType.SPACE), (input) -> {
+        if ('0' <= input && input <= '9') {
+            return CharType.NUMBER;
+        }
+
+        if (Character.isLetter(input)) {
+            return CharType.LETTER;
+        }
+
+        if (Character.isWhitespace(input)) {
+            return CharType.SPACE;
+        }
+
+        throw new IllegalArgumentException("Bad character.");
+    })
+            .withSingleTransition(0, 1, CharType.LETTER)
+            .withSingleTransition(1, 1, CharType.LETTER)
+            .withSingleTransition(0, 2, CharType.NUMBER)
+            .withSingleTransition(2, 2, CharType.NUMBER)
+            .withSingleTransition(0, 3, CharType.SPACE)
+            .withSingleTransition(3, 3, CharType.SPACE)
+            .withAcceptingState(1, c -> EnumCharPos.charPosEnum(c, TokenType.WORD))
+            .withAcceptingState(2, c -> EnumCharPos.charPosEnum(c, TokenType.INT))
+            .withAcceptingState(3, c -> EnumCharPos.charPosEnum(c, TokenType.WHITESPACE));
+
+    private static final ByteDFAutomaton<TokenType> BYTE_DFA = ByteDFAutomaton.compile(DFA)
+            .mapOutputs(f -> f.apply(CharSimpleContext.INIT_SIMPLE_CONTEXT).getValue());
+
+    private static final ByteLexer<TokenType> LEXER = new ByteLexer<>(TokenType.class, BYTE_DFA);
+
+    private static final String INPUT = "héllo 12 мир\n日本語 3x";
+
+    // Surrogate pairs are only accepted whole, any other character is a symbol.
+    private static final DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            SUPPLEMENTARY_DFA = new DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            (7, HashSet.of(CharType.values()), (input) -> {
+        if (Character.isHighSurrogate(input)) {
+            return CharType.HIGH;
+        }
+
+        if (Character.isLowSurrogate(input)) {
+            return CharType.LOW;
+        }
+
+        if (Character.isLetter(input)) {
+            return CharType.LETTER;
+        }
+
+        return Character.isWhitespace(input) ? CharType.SPACE : CharType.OTHER;
+    })
+            .withSingleTransition(0, 1, CharType.LETTER)
+            .withSingleTransition(1, 1, CharType.LETTER)
+            .withSingleTransition(0, 3, CharType.SPACE)
+            .withSingleTransition(3, 3, CharType.SPACE)
+            .withSingleTransition(0, 4, CharType.OTHER)
+            .withSingleTransition(4, 4, CharType.OTHER)
+            .withSingleTransition(0, 5, CharType.HIGH)
+            .withSingleTransition(5, 6, CharType.LOW)
+            .withSingleTransition(6, 5, CharType.HIGH)
+            .withAcceptingState(1, c -> EnumCharPos.charPosEnum(c, TokenType.WORD))
+            .withAcceptingState(3, c -> EnumCharPos.charPosEnum(c, TokenType.WHITESPACE))
+            .withAcceptingState(4, c -> EnumCharPos.charPosEnum(c, TokenType.SYMBOLS))
+            .withAcceptingState(6, c -> EnumCharPos.charPosEnum(c, TokenType.PAIRS));
+
+    @Test
+    void testCompile() {
+        assertEquals(DFA.getNumberOfStates(), BYTE_DFA.getNumberOfCharStates());
+        assertTrue(BYTE_DFA.getNumberOfStates() > BYTE_DFA.getNumberOfCharStates());
+
+        // Overlong encodings and surrogates have no transitions.
+        assertEquals(ByteDFAutomaton.DEAD, BYTE_DFA.getTransition(0, (byte) 0xC0));
+        int e0 = BYTE_DFA.getTransition(0, (byte) 0xE0);
+        assertEquals(ByteDFAutomaton.DEAD, BYTE_DFA.getTransition(e0, (byte) 0x80));
+        int ed = BYTE_DFA.getTransition(0, (byte) 0xED);
+        assertEquals(ByteDFAutomaton.DEAD, BYTE_DFA.getTransition(ed, (byte) 0xA0));
+    }
+
+    @Test
+    void testMatchesCharLexer() {
+        CharSimpleDLexer<TokenType> charLexer = new CharSimpleDLexer<>(DFA);
+
+        List<Tuple2<String, EnumCharPos<TokenType>>> expected = charLexer
+                .buildSuccessfulTokenStream(MiscHelpers.characters(INPUT), CharSimpleContext.INIT_SIMPLE_CONTEXT)
+                .toList();
+
+        ByteTokenTape<TokenType> tape = LEXER.lex(INPUT.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(expected.size(), tape.size());
+        assertEquals(expected, tape.toSuccessfulTokenStream().toList());
+    }
+
+    @Test
+    void testSupplementaryCharacters() {
+        ByteDFAutomaton<TokenType> byteDFA = ByteDFAutomaton.compile(SUPPLEMENTARY_DFA)
+                .mapOutputs(f -> f.apply(CharSimpleContext.INIT_SIMPLE_CONTEXT).getValue());
+
+        // Overlong encodings and code points past U+10FFFF have no transitions.
+        int f0 = byteDFA.getTransition(0, (byte) 0xF0);
+        assertEquals(ByteDFAutomaton.DEAD, byteDFA.getTransition(f0, (byte) 0x8F));
+        assertNotEquals(ByteDFAutomaton.DEAD, byteDFA.getTransition(f0, (byte) 0x90));
+        int f4 = byteDFA.getTransition(0, (byte) 0xF4);
+        assertNotEquals(ByteDFAutomaton.DEAD, byteDFA.getTransition(f4, (byte) 0x8F));
+        assertEquals(ByteDFAutomaton.DEAD, byteDFA.getTransition(f4, (byte) 0x90));
+        assertEquals(ByteDFAutomaton.DEAD, byteDFA.getTransition(0, (byte) 0xF5));
+
+        String input = "a😀🎉 b!?\uD835\uDD18x 12\n𐍈\uDBFF\uDFFF\u00e9 \uD800\uDC00\t";
+
+        List<Tuple2<String, EnumCharPos<TokenType>>> expected = new CharSimpleDLexer<>(SUPPLEMENTARY_DFA)
+                .buildSuccessfulTokenStream(MiscHelpers.characters(input), CharSimpleContext.INIT_SIMPLE_CONTEXT)
+                .toList();
+
+        ByteTokenTape<TokenType> tape = new ByteLexer<>(TokenType.class, byteDFA)
+                .lex(input.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(expected, tape.toSuccessfulTokenStream().toList());
+        assertEquals(TokenType.PAIRS, tape.getTokenType(1));
+        assertEquals("😀🎉", tape.getLexeme(1));
+        assertEquals(8, tape.getEnd(1) - tape.getStart(1));
+    }
+
+    @Test
+    void testByteOffsets() {
+        ByteTokenTape<TokenType> tape = LEXER.lex(INPUT.getBytes(StandardCharsets.UTF_8));
+
+        // "héllo" is 6 bytes, "мир" is 6 bytes, "日本語" is 9 bytes.
+        assertEquals(0, tape.getStart(0));
+        assertEquals(6, tape.getEnd(0));
+        assertEquals(10, tape.getStart(4));
+        assertEquals(16, tape.getEnd(4));
+        assertEquals("мир", tape.getLexeme(4));
+
+        assertEquals(TokenType.WORD, tape.getTokenType(6));
+        assertEquals(17, tape.getStart(6));
+        assertEquals(26, tape.getEnd(6));
+        assertEquals(1, tape.getLine(6));
+        assertEquals(0, tape.getLinePosition(6));
+        assertEquals(4, tape.getLinePosition(8));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> tape.getStart(tape.size()));
+    }
+
+    @Test
+    void testErrors() {
+        // The emoji's surrogates and '!' have no input class.
+        byte[] source = "ab😀c!1".getBytes(StandardCharsets.UTF_8);
+        ByteTokenTape<TokenType> tape = LEXER.lex(source);
+
+        assertEquals(5, tape.size());
+        assertTrue(tape.isError(1));
+        assertEquals(2, tape.getStart(1));
+        assertEquals(6, tape.getEnd(1));
+        assertEquals("😀", tape.getLexeme(1));
+        assertTrue(tape.getToken(1)._2.isFailure());
+        // The emoji is a surrogate pair, so it is 2 characters wide.
+        assertEquals(4, tape.getLinePosition(2));
+        assertTrue(tape.isError(3));
+
+        assertEquals(List.of("ab", "c", "1"), tape.toOnlySuccessfulTokenStream().map(Tuple2::_1).toList());
+
+        // A lone continuation byte.
+        ByteTokenTape<TokenType> bad = LEXER.lex(new byte[] {'a', (byte) 0x80, 'b'});
+        assertEquals(3, bad.size());
+        assertTrue(bad.isError(1));
+    }
+
+    @Test
+    void testBufferRegion() {
+        ByteBuffer buffer = ByteBuffer.wrap("xx 12 é".getBytes(StandardCharsets.UTF_8));
+        buffer.position(3);
+
+        ByteTokenTape<TokenType> tape = LEXER.lex(buffer);
+
+        assertEquals(3, buffer.position());
+        assertEquals(List.of("12", " ", "é"), tape.toSuccessfulTokenStream().map(Tuple2::_1).toList());
+        assertEquals(3, tape.getStart(2));
+        assertEquals(3, tape.getLinePosition(2));
+    }
+
+    @Test
+    void testPeruRegex() {
+        ByteDFAutomaton<TokenType> dfa = PeruRegex.tryBuildMultiResultByteDFA(Array.of(
+                Tuple.of("[a-z]+", false, TokenType.WORD),
+                Tuple.of("\\d+", false, TokenType.INT),
+                Tuple.of("\\s+", false, TokenType.WHITESPACE)
+        )).get();
+
+        ByteTokenTape<TokenType> tape = new ByteLexer<>(TokenType.class, dfa)
+                .lex("abc 42\nz".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(List.of(TokenType.WORD, TokenType.WHITESPACE, TokenType.INT, TokenType.WHITESPACE, TokenType.WORD),
+                tape.toSuccessfulTokenStream().map(t -> t._2.getValue()).toList());
+        assertEquals(1, tape.getLine(4));
+    }
+}
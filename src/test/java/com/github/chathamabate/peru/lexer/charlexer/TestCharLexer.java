@@ -2,7 +2,10 @@ package com.github.chathamabate.peru.lexer.charlexer;
 
 import com.github.chathamabate.peru.charpos.EnumCharPos;
 import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.lexer.CountingLexerMetrics;
 import com.github.chathamabate.peru.lexer.DLexer;
+import com.github.chathamabate.peru.lexer.LexerMetrics;
+import com.github.chathamabate.peru.misc.LineException;
 import com.github.chathamabate.peru.misc.MiscHelpers;
 import io.vavr.Function1;
 import io.vavr.Tuple;
@@ -12,6 +15,8 @@ import io.vavr.control.Try;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TestCharLexer {
@@ -248,4 +253,137 @@ public class TestCharLexer {
         assertEquals(EXPECTED_LEXEMES, simpleLexemes);
         assertEquals(EXPECTED_LEXEMES, linearLexemes);
     }
+
+    // '%', ' ' and '!' cannot be translated by the language 2 automaton.
+    private static final Seq<Character> GARBAGE_INPUT = List.ofAll("ab%%b c!abc?a\nab".toCharArray());
+
+    private static final Seq<Tuple2<String, Boolean>> EXPECTED_RECOVERY = List.of(
+            Tuple.of("ab", true),
+            Tuple.of("%%b c!", false),
+            Tuple.of("abc", true),
+            Tuple.of("?a\n", false),
+            Tuple.of("ab", true)
+    );
+
+    private static <C> void expectRecovery(DLexer<Character, String, EnumCharPos<TokenType2>, C> lexer, C context) {
+        assertEquals(EXPECTED_LEXEMES, lexer.buildRecoveringStream(ERROR_INPUT, context).map(Tuple2::_1));
+
+        Seq<Tuple2<String, Try<EnumCharPos<TokenType2>>>> tokens =
+                lexer.buildRecoveringStream(GARBAGE_INPUT, context).toList();
+
+        assertEquals(EXPECTED_RECOVERY, tokens.map(t -> Tuple.of(t._1, t._2.isSuccess())));
+
+        LineException error = (LineException) tokens.get(3)._2.getCause();
+        assertEquals(0, error.getLine());
+        assertEquals(11, error.getLinePosition());
+
+        assertEquals(EnumCharPos.charPosEnum(1, 0, TokenType2.SHORT), tokens.get(4)._2.get());
+    }
+
+    @Test
+    void testLanguage2RecoveringStream() {
+        expectRecovery(LEXER_SIMPLE2, CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        expectRecovery(LEXER_LINEAR2, CharLinearContext.INIT_LINEAR_CONTEXT);
+
+        // Without recovery, untranslatable characters are thrown.
+        assertThrows(RuntimeException.class, () ->
+                LEXER_SIMPLE2.buildStream(GARBAGE_INPUT, CharSimpleContext.INIT_SIMPLE_CONTEXT).toList());
+    }
+
+    @Test
+    void testRecoveryCost() {
+        AtomicInteger translations = new AtomicInteger();
+
+        // Tokens are x+y, every other character cannot be translated.
+        DFAutomaton<Character, CharType2, Function1<CharSimpleContext, EnumCharPos<TokenType2>>> dfa =
+                new DFAutomaton<Character, CharType2, Function1<CharSimpleContext, EnumCharPos<TokenType2>>>(
+                        3, HashSet.of(CharType2.values()), input -> {
+                    translations.incrementAndGet();
+                    return HashMap.of('x', CharType2.A, 'y', CharType2.B).get(input).get();
+                })
+                        .withSingleTransition(0, 1, CharType2.A)
+                        .withSingleTransition(1, 1, CharType2.A)
+                        .withSingleTransition(1, 2, CharType2.B)
+                        .withAcceptingState(2, c -> EnumCharPos.charPosEnum(c, TokenType2.LONG));
+
+        CountingLexerMetrics<EnumCharPos<TokenType2>> metrics =
+                new CountingLexerMetrics<>(dfa.getNumberOfStates(), EnumCharPos::getValue);
+
+        CharSimpleDLexer<TokenType2> lexer = new CharSimpleDLexer<TokenType2>(dfa) {
+            @Override
+            protected LexerMetrics<? super EnumCharPos<TokenType2>> getMetrics() {
+                return metrics;
+            }
+        };
+
+        // Every x in the garbage starts a token which is never finished.
+        StringBuilder garbage = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            garbage.append('x');
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            garbage.append('%');
+        }
+
+        Seq<Character> input = List.ofAll(("xy" + garbage + "xxy").toCharArray());
+        Seq<Tuple2<String, Boolean>> tokens = lexer.buildRecoveringStream(input, CharSimpleContext.INIT_SIMPLE_CONTEXT)
+                .map(t -> Tuple.of(t._1, t._2.isSuccess())).toList();
+
+        assertEquals(List.of(Tuple.of("xy", true), Tuple.of(garbage.toString(), false), Tuple.of("xxy", true)),
+                tokens);
+
+        // Each input is read a bounded number of times, and translated once.
+        assertTrue(metrics.snapshot().getInputs() < 3 * input.length());
+        assertEquals(3, translations.get());
+    }
+
+    @Test
+    void testLanguage2Metrics() {
+        CountingLexerMetrics<EnumCharPos<TokenType2>> simpleMetrics =
+                new CountingLexerMetrics<>(DFA_SIMPLE2.getNumberOfStates(), EnumCharPos::getValue);
+        CountingLexerMetrics<EnumCharPos<TokenType2>> linearMetrics =
+                new CountingLexerMetrics<>(DFA_SIMPLE2.getNumberOfStates(), EnumCharPos::getValue);
+
+        CharSimpleDLexer<TokenType2> simpleLexer = new CharSimpleDLexer<TokenType2>(DFA_SIMPLE2) {
+            @Override
+            protected LexerMetrics<? super EnumCharPos<TokenType2>> getMetrics() {
+                return simpleMetrics;
+            }
+        };
+
+        CharLinearDLexer<TokenType2> linearLexer = new CharLinearDLexer<TokenType2>(DFA_SIMPLE2) {
+            @Override
+            protected LexerMetrics<? super EnumCharPos<TokenType2>> getMetrics() {
+                return linearMetrics;
+            }
+        };
+
+        simpleLexer.buildStream(INPUT2, CharSimpleContext.INIT_SIMPLE_CONTEXT).toList();
+        linearLexer.buildStream(INPUT2, CharLinearContext.INIT_LINEAR_CONTEXT).toList();
+
+        CountingLexerMetrics.Snapshot simple = simpleMetrics.snapshot();
+        CountingLexerMetrics.Snapshot linear = linearMetrics.snapshot();
+
+        assertEquals(1, simple.getTokenCount(TokenType2.LONG));
+        assertEquals(4, simple.getTokenCount(TokenType2.SHORT));
+        assertEquals(5, simple.getStateVisits().get(0).longValue());
+        assertEquals(0, simple.getErrors());
+        assertEquals(26, simple.getInputs());
+        assertEquals(4, simple.getBacktracks());
+        assertEquals(13, simple.getBacktrackDistance());
+        assertEquals(6, simple.getMaxBacktrackDistance());
+        assertEquals(0, simple.getPreErrorHits());
+
+        // The linear lexer stops early on the pre errors found by the second token.
+        assertEquals(5, linear.getTotalTokens());
+        assertEquals(22, linear.getInputs());
+        assertEquals(2, linear.getPreErrorHits());
+        assertEquals(9, linear.getBacktrackDistance());
+        assertEquals(6, linear.getMaxBacktrackDistance());
+
+        simpleMetrics.reset();
+        assertEquals(0, simpleMetrics.snapshot().getInputs());
+        assertEquals(0, simpleMetrics.snapshot().getTotalTokens());
+    }
 }
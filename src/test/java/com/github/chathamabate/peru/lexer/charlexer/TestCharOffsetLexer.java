@@ -0,0 +1,98 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.CharPos;
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.charpos.LineIndex;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.misc.LineException;
+import com.github.chathamabate.peru.misc.MiscHelpers;
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCharOffsetLexer {
+
+    private enum CharType {
+        SPACE,
+        NUMBER,
+        OTHER
+    }
+
+    private enum TokenType {
+        WHITESPACE,
+        INT
+    }
+
+    private static final DFAutomaton<Character, CharType, Function1<CharPos, EnumCharPos<TokenType>>>
+            DFA = new DFAutomaton<Character, CharType, Function1<CharPos, EnumCharPos<TokenType>>>
+            (3, HashSet.of(CharType.values()), (input) -> {
+        if ('0' <= input && input <= '9') {
+            return CharType.NUMBER;
+        }
+
+        return Character.isWhitespace(input) ? CharType.SPACE : CharType.OTHER;
+    })
+            .withSingleTransition(0, 1, CharType.SPACE)
+            .withSingleTransition(1, 1, CharType.SPACE)
+            .withSingleTransition(0, 2, CharType.NUMBER)
+            .withSingleTransition(2, 2, CharType.NUMBER)
+            .withAcceptingState(1, EnumCharPos.enumBuilder(TokenType.WHITESPACE))
+            .withAcceptingState(2, EnumCharPos.enumBuilder(TokenType.INT));
+
+    private static final String INPUT = "12 x\n\n 345  \n6 y7\n8\n";
+
+    @Test
+    void testLineIndex() {
+        LineIndex index = LineIndex.of(INPUT);
+
+        assertEquals(6, index.getLineCount());
+        assertEquals(0, index.getLine(0));
+        assertEquals(0, index.getLine(4));
+        assertEquals(1, index.getLine(5));
+        assertEquals(2, index.getLine(6));
+        assertEquals(2, index.getLinePosition(8));
+        assertEquals(5, index.getLine(INPUT.length()));
+        assertEquals(0, index.getLinePosition(INPUT.length()));
+
+        // Scanning any other CharSequence gives the same index.
+        LineIndex builderIndex = LineIndex.of(new StringBuilder(INPUT));
+        for (int i = 0; i <= INPUT.length(); i++) {
+            assertEquals(index.getCharPos(i), builderIndex.getCharPos(i));
+        }
+
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getLine(INPUT.length() + 1));
+    }
+
+    @Test
+    void testMatchesCharLexers() {
+        Seq<Character> input = MiscHelpers.characters(INPUT);
+        LineIndex index = LineIndex.of(INPUT);
+
+        List<String> expected = describe(new CharSimpleDLexer<>(DFA)
+                .buildStream(input, CharSimpleContext.INIT_SIMPLE_CONTEXT).toList());
+
+        assertEquals(expected, describe(new CharLinearDLexer<>(DFA)
+                .buildStream(input, CharLinearContext.INIT_LINEAR_CONTEXT).toList()));
+        assertEquals(expected, describe(new CharOffsetDLexer<>(DFA)
+                .buildStream(input, CharOffsetContext.at(index, 0)).toList()));
+        assertEquals(expected, describe(new CharOffsetLinearDLexer<>(DFA)
+                .buildStream(input, CharOffsetLinearContext.at(index, 0)).toList()));
+    }
+
+    private static List<String> describe(List<? extends Tuple2<String, ? extends Try<EnumCharPos<TokenType>>>> tokens) {
+        return tokens.map(t -> {
+            if (t._2.isSuccess()) {
+                return t._1 + t._2.get();
+            }
+
+            LineException ex = (LineException) t._2.getCause();
+            return t._1 + "![" + ex.getLine() + " : " + ex.getLinePosition() + "]";
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.lexer.ChunkedDLexer;
+import com.github.chathamabate.peru.lexer.DLexer;
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.collection.*;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestChunkedLexer {
+
+    private enum CharType {
+        A,
+        B,
+        C
+    }
+
+    private enum TokenType {
+        LONG,
+        SHORT
+    }
+
+    private static final Map<Character, CharType> CHAR_MAP = HashMap.of(
+            'a', CharType.A,
+            'b', CharType.B,
+            'c', CharType.C
+    );
+
+    // Same language as language 2 in TestCharLexer, which requires rollback.
+    private static DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>> dfa(
+            Function1<Character, CharType> translate) {
+        return new DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+                (6, HashSet.of(CharType.values()), translate)
+                .withSingleTransition(0, 1, CharType.A)
+                .withSingleTransition(1, 2, CharType.B)
+                .withSingleTransition(2, 3, CharType.A)
+                .withSingleTransition(3, 4, CharType.B)
+                .withSingleTransition(4, 5, CharType.C)
+                .withSingleTransition(2, 5, CharType.C)
+                .withSingleTransition(4, 3, CharType.A)
+                .withAcceptingState(2, c -> EnumCharPos.charPosEnum(c, TokenType.SHORT))
+                .withAcceptingState(5, c -> EnumCharPos.charPosEnum(c, TokenType.LONG));
+    }
+
+    private static final DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            DFA = dfa(input -> CHAR_MAP.get(input).get());
+
+    private static final CharSimpleDLexer<TokenType> SIMPLE_LEXER = new CharSimpleDLexer<>(DFA);
+    private static final CharLinearDLexer<TokenType> LINEAR_LEXER = new CharLinearDLexer<>(DFA);
+
+    private static final Seq<String> INPUTS = List.of(
+            "ababcabababab",
+            "acabcacababc",
+            "abababababababababc",
+            "ab"
+    );
+
+    private static <C> Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>> lexInChunks(
+            DLexer<Character, String, EnumCharPos<TokenType>, C> lexer, C context, String input, int chunkSize) {
+        ChunkedDLexer<Character, String, EnumCharPos<TokenType>, C> chunked = new ChunkedDLexer<>(lexer, context);
+        Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>> tokens = List.empty();
+
+        for (int i = 0; i < input.length(); i += chunkSize) {
+            String chunk = input.substring(i, Math.min(input.length(), i + chunkSize));
+            Tuple2<Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>>,
+                    ChunkedDLexer<Character, String, EnumCharPos<TokenType>, C>> result =
+                    chunked.feed(List.ofAll(chunk.toCharArray()));
+
+            tokens = tokens.appendAll(result._1);
+            chunked = result._2;
+        }
+
+        return tokens.appendAll(chunked.end());
+    }
+
+    private static Seq<String> describe(Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>> tokens) {
+        return tokens.map(t -> t._1 + (t._2.isSuccess() ? t._2.get().toString() : "!"));
+    }
+
+    @Test
+    void testChunkedMatchesWhole() {
+        for (String input : INPUTS) {
+            Seq<Character> chars = List.ofAll(input.toCharArray());
+
+            Seq<String> simpleExpected = describe(
+                    SIMPLE_LEXER.buildStream(chars, CharSimpleContext.INIT_SIMPLE_CONTEXT).toList());
+            Seq<String> linearExpected = describe(
+                    LINEAR_LEXER.buildStream(chars, CharLinearContext.INIT_LINEAR_CONTEXT).toList());
+
+            for (int chunkSize = 1; chunkSize <= input.length(); chunkSize++) {
+                assertEquals(simpleExpected, describe(lexInChunks(SIMPLE_LEXER,
+                        CharSimpleContext.INIT_SIMPLE_CONTEXT, input, chunkSize)));
+                assertEquals(linearExpected, describe(lexInChunks(LINEAR_LEXER,
+                        CharLinearContext.INIT_LINEAR_CONTEXT, input, chunkSize)));
+            }
+        }
+    }
+
+    @Test
+    void testEarlyEmission() {
+        ChunkedDLexer<Character, String, EnumCharPos<TokenType>, CharSimpleContext> chunked =
+                new ChunkedDLexer<>(SIMPLE_LEXER, CharSimpleContext.INIT_SIMPLE_CONTEXT);
+
+        // "abab" could still become "ababc", so nothing is decided yet.
+        Tuple2<Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>>,
+                ChunkedDLexer<Character, String, EnumCharPos<TokenType>, CharSimpleContext>> first =
+                chunked.feed(List.ofAll("abab".toCharArray()));
+
+        assertTrue(first._1.isEmpty());
+        assertEquals(4, first._2.getPending().length());
+
+        // A "b" rules out any longer token, and cannot start a token itself, so everything is decided.
+        Tuple2<Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>>,
+                ChunkedDLexer<Character, String, EnumCharPos<TokenType>, CharSimpleContext>> second =
+                first._2.feed(List.of('b'));
+
+        assertEquals(List.of("ab", "ab", "b"), second._1.map(Tuple2::_1));
+        assertTrue(second._1.last()._2.isFailure());
+        assertTrue(second._2.end().isEmpty());
+    }
+
+    @Test
+    void testChunkedReadsLikeWhole() {
+        // Every "ab" is a token, but is only decided by the "b" at the very end.
+        // Both lexers must remember where reading past a token failed, or lexing becomes quadratic.
+        String input = List.fill(1000, "ab").mkString() + "b";
+        Seq<Character> chars = List.ofAll(input.toCharArray());
+
+        int[] reads = new int[1];
+        CharLinearDLexer<TokenType> lexer = new CharLinearDLexer<>(dfa(c -> {
+            reads[0]++;
+            return CHAR_MAP.get(c).get();
+        }));
+
+        Seq<String> expected = describe(lexer.buildStream(chars, CharLinearContext.INIT_LINEAR_CONTEXT).toList());
+        int wholeReads = reads[0];
+
+        reads[0] = 0;
+        assertEquals(expected, describe(lexInChunks(lexer, CharLinearContext.INIT_LINEAR_CONTEXT, input, 7)));
+
+        // Past the reads of the whole lexer, each input is only read again while building its token.
+        assertTrue(reads[0] <= wholeReads + input.length());
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.misc.MiscHelpers;
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCompiledCharLexer {
+
+    private enum CharType {
+        LETTER,
+        NUMBER,
+        SPACE
+    }
+
+    private enum TokenType {
+        ID,
+        IF,
+        INT,
+        WHITESPACE
+    }
+
+    private static final DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            DFA = new DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            (4, HashSet.of(CharType.values()), (input) -> {
+        if ('0' <= input && input <= '9') {
+            return CharType.NUMBER;
+        }
+
+        if ('a' <= input && input <= 'z') {
+            return CharType.LETTER;
+        }
+
+        return Character.isWhitespace(input) ? CharType.SPACE : null;
+    })
+            .withSingleTransition(0, 1, CharType.LETTER)
+            .withSingleTransition(1, 1, CharType.LETTER)
+            .withSingleTransition(0, 2, CharType.NUMBER)
+            .withSingleTransition(2, 2, CharType.NUMBER)
+            .withSingleTransition(0, 3, CharType.SPACE)
+            .withSingleTransition(3, 3, CharType.SPACE)
+            .withAcceptingState(1, c -> EnumCharPos.charPosEnum(c, TokenType.ID))
+            .withAcceptingState(2, c -> EnumCharPos.charPosEnum(c, TokenType.INT))
+            .withAcceptingState(3, c -> EnumCharPos.charPosEnum(c, TokenType.WHITESPACE));
+
+    private static final KeywordTable<TokenType> KEYWORDS =
+            KeywordTable.keywordTable(TokenType.ID, HashMap.of("if", TokenType.IF));
+
+    private static final CompiledCharLexer<TokenType> LEXER =
+            CompiledCharLexer.compile(TokenType.class, KEYWORDS, DFA);
+
+    private static final String INPUT = "if x1 12\n  iff 3\n\nif";
+
+    @Test
+    void testMatchesCharLexer() {
+        CharSimpleDLexer<TokenType> charLexer = new CharSimpleDLexer<>(KEYWORDS, DFA);
+
+        Seq<Tuple2<String, EnumCharPos<TokenType>>> expected = charLexer
+                .buildSuccessfulTokenStream(MiscHelpers.characters(INPUT), CharSimpleContext.INIT_SIMPLE_CONTEXT)
+                .toList();
+
+        TokenTape<TokenType> tape = LEXER.lex(INPUT);
+
+        assertEquals(expected, tape.toSuccessfulTokenStream().toList());
+        assertEquals(TokenType.IF, tape.getTokenType(0));
+        assertEquals(TokenType.ID, tape.getTokenType(7));
+    }
+
+    @Test
+    void testErrors() {
+        TokenTape<TokenType> tape = LEXER.lex("ab ?12\n?");
+
+        assertEquals(6, tape.size());
+        assertTrue(tape.isError(2));
+        assertEquals("?", tape.getLexeme(2));
+        assertEquals(0, tape.getLine(2));
+        assertEquals(3, tape.getLinePosition(2));
+        assertTrue(tape.isError(5));
+        assertEquals(1, tape.getLine(5));
+        assertEquals(0, tape.getLinePosition(5));
+
+        assertEquals(List.of("ab", " ", "12", "\n"),
+                tape.toOnlySuccessfulTokenStream().map(Tuple2::_1).toList());
+    }
+
+    @Test
+    void testLexAll() {
+        ArrayList<String> sources = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sources.add("if " + i + "\nx" + "      ".substring(i % 7) + "iff");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Seq<TokenTape<TokenType>> tapes = LEXER.lexAll(sources, executor).get();
+
+            assertEquals(sources.size(), tapes.size());
+
+            for (int i = 0; i < sources.size(); i++) {
+                assertEquals(sources.get(i), tapes.get(i).getSource());
+                assertEquals(LEXER.lex(sources.get(i)).toSuccessfulTokenStream().toList(),
+                        tapes.get(i).toSuccessfulTokenStream().toList());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
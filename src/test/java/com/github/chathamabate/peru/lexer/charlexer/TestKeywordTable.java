@@ -0,0 +1,102 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.misc.MiscHelpers;
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestKeywordTable {
+
+    private enum CharType {
+        SPACE,
+        LETTER,
+        OTHER
+    }
+
+    private enum TokenType {
+        WHITESPACE,
+        ID,
+        IF,
+        WHILE,
+        KEYWORD
+    }
+
+    private static final List<String> JAVA_KEYWORDS = List.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+            "volatile"
+    );
+
+    private static final Map<String, TokenType> KEYWORDS = HashMap.ofEntries(
+            JAVA_KEYWORDS.map(k -> new Tuple2<>(k, TokenType.KEYWORD))
+    ).put("if", TokenType.IF).put("while", TokenType.WHILE);
+
+    private static final KeywordTable<TokenType> TABLE = KeywordTable.keywordTable(TokenType.ID, KEYWORDS);
+
+    private static final DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            DFA = new DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            (3, HashSet.of(CharType.values()), (input) -> {
+        if ('a' <= input && input <= 'z') {
+            return CharType.LETTER;
+        }
+
+        return Character.isWhitespace(input) ? CharType.SPACE : CharType.OTHER;
+    })
+            .withSingleTransition(0, 1, CharType.SPACE)
+            .withSingleTransition(1, 1, CharType.SPACE)
+            .withSingleTransition(0, 2, CharType.LETTER)
+            .withSingleTransition(2, 2, CharType.LETTER)
+            .withAcceptingState(1, c -> EnumCharPos.charPosEnum(c, TokenType.WHITESPACE))
+            .withAcceptingState(2, c -> EnumCharPos.charPosEnum(c, TokenType.ID));
+
+    @Test
+    void testLookup() {
+        assertEquals(KEYWORDS.size(), TABLE.size());
+
+        KEYWORDS.forEach((k, t) -> assertEquals(t, TABLE.lookup(k)));
+        KEYWORDS.forEach((k, t) -> assertEquals(t, TABLE.lookup(new StringBuilder(k))));
+
+        for (String nonKeyword : List.of("", "i", "iff", "whilst", "Class", "x", "abstracts", "goto_")) {
+            assertNull(TABLE.lookup(nonKeyword));
+        }
+
+        assertNull(KeywordTable.<TokenType>empty().lookup("if"));
+        assertNull(KeywordTable.keywordTable(TokenType.ID, HashMap.<String, TokenType>empty()).lookup("if"));
+    }
+
+    @Test
+    void testLexerReclassification() {
+        CharSimpleDLexer<TokenType> simple = new CharSimpleDLexer<>(TABLE, DFA);
+        CharLinearDLexer<TokenType> linear = new CharLinearDLexer<>(TABLE, DFA);
+
+        String input = "if x while iffy\nclass";
+
+        List<Tuple2<String, EnumCharPos<TokenType>>> expected = List.of(
+                new Tuple2<>("if", EnumCharPos.charPosEnum(0, 0, TokenType.IF)),
+                new Tuple2<>(" ", EnumCharPos.charPosEnum(0, 2, TokenType.WHITESPACE)),
+                new Tuple2<>("x", EnumCharPos.charPosEnum(0, 3, TokenType.ID)),
+                new Tuple2<>(" ", EnumCharPos.charPosEnum(0, 4, TokenType.WHITESPACE)),
+                new Tuple2<>("while", EnumCharPos.charPosEnum(0, 5, TokenType.WHILE)),
+                new Tuple2<>(" ", EnumCharPos.charPosEnum(0, 10, TokenType.WHITESPACE)),
+                new Tuple2<>("iffy", EnumCharPos.charPosEnum(0, 11, TokenType.ID)),
+                new Tuple2<>("\n", EnumCharPos.charPosEnum(0, 15, TokenType.WHITESPACE)),
+                new Tuple2<>("class", EnumCharPos.charPosEnum(1, 0, TokenType.KEYWORD))
+        );
+
+        assertEquals(expected, simple.buildSuccessfulTokenStream(MiscHelpers.characters(input),
+                CharSimpleContext.INIT_SIMPLE_CONTEXT).toList());
+        assertEquals(expected, linear.buildSuccessfulTokenStream(MiscHelpers.characters(input),
+                CharLinearContext.INIT_LINEAR_CONTEXT).toList());
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.misc.MiscHelpers;
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLexCheckpoints {
+
+    private enum CharType {
+        SPACE,
+        NUMBER,
+        OTHER
+    }
+
+    private enum TokenType {
+        WHITESPACE,
+        INT
+    }
+
+    private static final DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            DFA = new DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            (3, HashSet.of(CharType.values()), (input) -> {
+        if ('0' <= input && input <= '9') {
+            return CharType.NUMBER;
+        }
+
+        return Character.isWhitespace(input) ? CharType.SPACE : CharType.OTHER;
+    })
+            .withSingleTransition(0, 1, CharType.SPACE)
+            .withSingleTransition(1, 1, CharType.SPACE)
+            .withSingleTransition(0, 2, CharType.NUMBER)
+            .withSingleTransition(2, 2, CharType.NUMBER)
+            .withAcceptingState(1, c -> EnumCharPos.charPosEnum(c, TokenType.WHITESPACE))
+            .withAcceptingState(2, c -> EnumCharPos.charPosEnum(c, TokenType.INT));
+
+    private static final CharSimpleDLexer<TokenType> SIMPLE_LEXER = new CharSimpleDLexer<>(DFA);
+    private static final CharLinearDLexer<TokenType> LINEAR_LEXER = new CharLinearDLexer<>(DFA);
+
+    // The long number covers more than one interval.
+    private static final String INPUT = "1 22\n333 x 4\n\n55555555555555 6 77\n 8";
+
+    private static final int INTERVAL = 4;
+
+    @Test
+    void testRecord() {
+        LexCheckpoints checkpoints = LexCheckpoints.record(SIMPLE_LEXER, INPUT,
+                CharSimpleContext.INIT_SIMPLE_CONTEXT, INTERVAL);
+
+        assertEquals(INPUT.length() / INTERVAL + 1, checkpoints.size());
+
+        // "22" ends at 4, the first boundary in [4, 8).
+        assertEquals(4, checkpoints.getOffset(1));
+        assertTrue(checkpoints.isBoundary(1));
+        assertEquals(0, checkpoints.getLine(1));
+        assertEquals(4, checkpoints.getLinePosition(1));
+
+        // Offset 20 is within the long number, which starts at 14.
+        assertEquals(20, checkpoints.getOffset(5));
+        assertFalse(checkpoints.isBoundary(5));
+        assertEquals(3, checkpoints.getLine(5));
+        assertEquals(6, checkpoints.getLinePosition(5));
+
+        assertEquals(12, checkpoints.getOffset(checkpoints.nearestBoundary(21)));
+    }
+
+    @Test
+    void testLexFrom() {
+        LexCheckpoints checkpoints = LexCheckpoints.record(LINEAR_LEXER, INPUT,
+                CharLinearContext.INIT_LINEAR_CONTEXT, INTERVAL);
+
+        List<Tuple2<String, Try<EnumCharPos<TokenType>>>> full =
+                SIMPLE_LEXER.buildStream(MiscHelpers.characters(INPUT), CharSimpleContext.INIT_SIMPLE_CONTEXT)
+                        .toList();
+
+        for (int offset = 0; offset <= INPUT.length(); offset++) {
+            Tuple2<Integer, ? extends Iterable<Tuple2<String, Try<EnumCharPos<TokenType>>>>> simple =
+                    checkpoints.lexFrom(SIMPLE_LEXER, offset, (o, l, lp) -> CharSimpleContext.at(l, lp));
+            Tuple2<Integer, ? extends Iterable<Tuple2<String, Try<EnumCharPos<TokenType>>>>> linear =
+                    checkpoints.lexFrom(LINEAR_LEXER, offset, CharLinearContext::at);
+
+            // Find the expected suffix of the full lex.
+            List<Tuple2<String, Try<EnumCharPos<TokenType>>>> expected = full;
+            int start = 0;
+
+            while (!expected.isEmpty() && start + expected.head()._1.length() <= offset) {
+                start += expected.head()._1.length();
+                expected = expected.tail();
+            }
+
+            assertEquals(start, (int) simple._1);
+            assertEquals(start, (int) linear._1);
+
+            assertEquals(describe(expected), describe(List.ofAll(simple._2)));
+            assertEquals(describe(expected), describe(List.ofAll(linear._2)));
+        }
+    }
+
+    private static List<String> describe(List<Tuple2<String, Try<EnumCharPos<TokenType>>>> tokens) {
+        return tokens.map(t -> t._1 + (t._2.isSuccess() ? t._2.get().toString() : "!"));
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.lexer.ChunkedDLexer;
+import com.github.chathamabate.peru.lexer.DLexer;
+import com.github.chathamabate.peru.lexer.Scanner;
+import io.vavr.Function1;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestScanner {
+
+    private enum CharType {
+        SPACE,
+        NUMBER,
+        OTHER
+    }
+
+    private enum TokenType {
+        WHITESPACE,
+        INT,
+        STRING
+    }
+
+    private static final DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            DFA = new DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            (3, HashSet.of(CharType.values()), (input) -> {
+        if ('0' <= input && input <= '9') {
+            return CharType.NUMBER;
+        }
+
+        return Character.isWhitespace(input) ? CharType.SPACE : CharType.OTHER;
+    })
+            .withSingleTransition(0, 1, CharType.SPACE)
+            .withSingleTransition(1, 1, CharType.SPACE)
+            .withSingleTransition(0, 2, CharType.NUMBER)
+            .withSingleTransition(2, 2, CharType.NUMBER)
+            .withAcceptingState(1, c -> EnumCharPos.charPosEnum(c, TokenType.WHITESPACE))
+            .withAcceptingState(2, c -> EnumCharPos.charPosEnum(c, TokenType.INT));
+
+    // Scans double quoted strings with backslash escapes. Strings may span lines.
+    // Every input examined is counted in examined.
+    private static <C extends CharSimpleContext> Scanner<Character, C, EnumCharPos<TokenType>> stringScanner(
+            int[] examined) {
+        return new Scanner<Character, C, EnumCharPos<TokenType>>() {
+            @Override
+            public Option<Tuple2<Integer, Function1<? super C, ? extends EnumCharPos<TokenType>>>> scan(
+                    Seq<? extends Character> input) {
+                return resume(input, 0).toOption();
+            }
+
+            @Override
+            public Either<Integer, Tuple2<Integer, Function1<? super C, ? extends EnumCharPos<TokenType>>>> resume(
+                    Seq<? extends Character> input, int from) {
+                int length = Math.max(1, from);
+                boolean escaped = false;
+
+                for (Character c : input.drop(length)) {
+                    examined[0]++;
+                    length++;
+
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        Function1<C, EnumCharPos<TokenType>> data = ctx -> EnumCharPos.charPosEnum(ctx, TokenType.STRING);
+                        return Either.right(Tuple.of(length, data));
+                    }
+                }
+
+                // Unterminated. A trailing backslash must be examined again along with the input it escapes.
+                return Either.left(escaped ? length - 1 : length);
+            }
+        };
+    }
+
+    private static <C extends CharSimpleContext> Scanner<Character, C, EnumCharPos<TokenType>> stringScanner() {
+        return stringScanner(new int[1]);
+    }
+
+    private static final CharSimpleDLexer<TokenType> SIMPLE_LEXER = new CharSimpleDLexer<TokenType>(DFA) {
+        @Override
+        protected Scanner<Character, CharSimpleContext, EnumCharPos<TokenType>> scannerFor(Character input) {
+            return input == '"' ? stringScanner() : null;
+        }
+    };
+
+    private static final CharLinearDLexer<TokenType> LINEAR_LEXER = new CharLinearDLexer<TokenType>(DFA) {
+        @Override
+        protected Scanner<Character, CharLinearContext, EnumCharPos<TokenType>> scannerFor(Character input) {
+            return input == '"' ? stringScanner() : null;
+        }
+    };
+
+    private static final Seq<Character> INPUT = List.ofAll("12 \"a\\\"b\n c\"34 \"\"\n\"x".toCharArray());
+
+    private static final Seq<Tuple2<String, Boolean>> EXPECTED = List.of(
+            Tuple.of("12", true),
+            Tuple.of(" ", true),
+            Tuple.of("\"a\\\"b\n c\"", true),
+            Tuple.of("34", true),
+            Tuple.of(" ", true),
+            Tuple.of("\"\"", true),
+            Tuple.of("\n", true),
+            Tuple.of("\"", false),
+            Tuple.of("x", false)
+    );
+
+    private static <C> void expectScanned(DLexer<Character, String, EnumCharPos<TokenType>, C> lexer, C context) {
+        Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>> tokens = lexer.buildStream(INPUT, context).toList();
+
+        assertEquals(EXPECTED, tokens.map(t -> Tuple.of(t._1, t._2.isSuccess())));
+
+        assertEquals(EnumCharPos.charPosEnum(0, 3, TokenType.STRING), tokens.get(2)._2.get());
+
+        // Positions after a multi line scanned token are still tracked.
+        assertEquals(EnumCharPos.charPosEnum(1, 3, TokenType.INT), tokens.get(3)._2.get());
+        assertEquals(EnumCharPos.charPosEnum(1, 6, TokenType.STRING), tokens.get(5)._2.get());
+    }
+
+    @Test
+    void testScannedTokens() {
+        expectScanned(SIMPLE_LEXER, CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        expectScanned(LINEAR_LEXER, CharLinearContext.INIT_LINEAR_CONTEXT);
+    }
+
+    private static <C> void expectChunked(DLexer<Character, String, EnumCharPos<TokenType>, C> lexer, C context) {
+        Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>> expected = lexer.buildStream(INPUT, context).toList();
+
+        for (int chunkSize = 1; chunkSize <= INPUT.length(); chunkSize++) {
+            ChunkedDLexer<Character, String, EnumCharPos<TokenType>, C> chunked = new ChunkedDLexer<>(lexer, context);
+            Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>> tokens = List.empty();
+
+            for (Seq<Character> chunk : INPUT.grouped(chunkSize)) {
+                Tuple2<Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>>,
+                        ChunkedDLexer<Character, String, EnumCharPos<TokenType>, C>> result = chunked.feed(chunk);
+
+                tokens = tokens.appendAll(result._1);
+                chunked = result._2;
+            }
+
+            tokens = tokens.appendAll(chunked.end());
+
+            assertEquals(expected.map(t -> Tuple.of(t._1, t._2.toOption())),
+                    tokens.map(t -> Tuple.of(t._1, t._2.toOption())));
+        }
+    }
+
+    @Test
+    void testChunkedScannedTokens() {
+        // Quotes have no transition in the automaton, strings are only decided by the scanner.
+        expectChunked(SIMPLE_LEXER, CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        expectChunked(LINEAR_LEXER, CharLinearContext.INIT_LINEAR_CONTEXT);
+    }
+
+    @Test
+    void testResumedScan() {
+        int[] examined = new int[1];
+        CharSimpleDLexer<TokenType> lexer = new CharSimpleDLexer<TokenType>(DFA) {
+            @Override
+            protected Scanner<Character, CharSimpleContext, EnumCharPos<TokenType>> scannerFor(Character input) {
+                return input == '"' ? stringScanner(examined) : null;
+            }
+        };
+
+        // A long string with escapes, fed one input at a time.
+        String string = "\"" + List.fill(200, "a\\\"").mkString() + "\"";
+        Seq<Character> input = List.ofAll((string + "12").toCharArray());
+
+        ChunkedDLexer<Character, String, EnumCharPos<TokenType>, CharSimpleContext> chunked =
+                new ChunkedDLexer<>(lexer, CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>> tokens = List.empty();
+
+        for (Character c : input) {
+            Tuple2<Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>>,
+                    ChunkedDLexer<Character, String, EnumCharPos<TokenType>, CharSimpleContext>> result =
+                    chunked.feed(List.of(c));
+
+            tokens = tokens.appendAll(result._1);
+            chunked = result._2;
+        }
+
+        tokens = tokens.appendAll(chunked.end());
+
+        assertEquals(List.of(string, "12"), tokens.map(Tuple2::_1));
+
+        // Each input of the string is examined about twice, once while fed and once while building the token.
+        assertTrue(examined[0] <= 3 * string.length());
+    }
+}
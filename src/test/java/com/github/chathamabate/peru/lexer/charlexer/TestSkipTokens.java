@@ -0,0 +1,286 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.CharPos;
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.charpos.LineIndex;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.lexer.ChunkedDLexer;
+import com.github.chathamabate.peru.lexer.CountingLexerMetrics;
+import com.github.chathamabate.peru.lexer.DLexer;
+import com.github.chathamabate.peru.lexer.LexerMetrics;
+import com.github.chathamabate.peru.misc.LineException;
+import com.github.chathamabate.peru.misc.MiscHelpers;
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.Tuple3;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Stream;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSkipTokens {
+
+    private enum CharType {
+        SPACE,
+        DIGIT,
+        LETTER,
+        SLASH,
+        STAR
+    }
+
+    private enum TokenType {
+        WHITESPACE,
+        COMMENT,
+        INT,
+        WORD
+    }
+
+    private static final Map<Character, CharType> SYMBOLS = HashMap.of(
+            ' ', CharType.SPACE,
+            '\n', CharType.SPACE,
+            '/', CharType.SLASH,
+            '*', CharType.STAR
+    );
+
+    private static CharType classify(Character c) {
+        if ('0' <= c && c <= '9') {
+            return CharType.DIGIT;
+        }
+
+        if ('a' <= c && c <= 'z') {
+            return CharType.LETTER;
+        }
+
+        // Throws for untranslatable characters.
+        return SYMBOLS.get(c).get();
+    }
+
+    // Whitespace, block comments, integers and words.
+    private static DFAutomaton<Character, CharType, Function1<CharPos, EnumCharPos<TokenType>>> dfa(
+            Function1<CharPos, EnumCharPos<TokenType>> whitespace, Function1<CharPos, EnumCharPos<TokenType>> comment) {
+        return new DFAutomaton<Character, CharType, Function1<CharPos, EnumCharPos<TokenType>>>
+                (8, HashSet.of(CharType.values()), TestSkipTokens::classify)
+                .withSingleTransition(0, 1, CharType.SPACE)
+                .withSingleTransition(1, 1, CharType.SPACE)
+                .withSingleTransition(0, 2, CharType.DIGIT)
+                .withSingleTransition(2, 2, CharType.DIGIT)
+                .withSingleTransition(0, 3, CharType.LETTER)
+                .withSingleTransition(3, 3, CharType.LETTER)
+                .withSingleTransition(3, 3, CharType.DIGIT)
+                .withSingleTransition(0, 4, CharType.SLASH)
+                .withSingleTransition(4, 5, CharType.STAR)
+                .withSingleTransition(5, 5, CharType.SPACE)
+                .withSingleTransition(5, 5, CharType.DIGIT)
+                .withSingleTransition(5, 5, CharType.LETTER)
+                .withSingleTransition(5, 5, CharType.SLASH)
+                .withSingleTransition(5, 6, CharType.STAR)
+                .withSingleTransition(6, 6, CharType.STAR)
+                .withSingleTransition(6, 5, CharType.SPACE)
+                .withSingleTransition(6, 5, CharType.DIGIT)
+                .withSingleTransition(6, 5, CharType.LETTER)
+                .withSingleTransition(6, 7, CharType.SLASH)
+                .withAcceptingState(1, whitespace)
+                .withAcceptingState(2, EnumCharPos.enumBuilder(TokenType.INT))
+                .withAcceptingState(3, EnumCharPos.enumBuilder(TokenType.WORD))
+                .withAcceptingState(7, comment);
+    }
+
+    private static final DFAutomaton<Character, CharType, Function1<CharPos, EnumCharPos<TokenType>>>
+            DFA = dfa(EnumCharPos.enumBuilder(TokenType.WHITESPACE), EnumCharPos.enumBuilder(TokenType.COMMENT));
+
+    // The skip builder throws if ever applied, so these lexers also check that skip data is never built.
+    private static final DFAutomaton<Character, CharType, Function1<CharPos, EnumCharPos<TokenType>>>
+            SKIP_DFA = dfa(DLexer.skip(), DLexer.skip());
+
+    private static final String INPUT = "ab 12\n/* c * d **/ cd34/**/\nef  /* x";
+
+    private static final Seq<String> INPUTS = List.of(
+            INPUT,
+            "  a  ",
+            "/**/1/* \n */",
+            "12 /",
+            ""
+    );
+
+    private static Seq<String> describe(Seq<? extends Tuple2<String, ? extends Try<EnumCharPos<TokenType>>>> tokens) {
+        return tokens.map(t -> {
+            if (t._2.isSuccess()) {
+                return t._1 + t._2.get();
+            }
+
+            LineException ex = (LineException) t._2.getCause();
+            return t._1 + "![" + ex.getLine() + " : " + ex.getLinePosition() + "]";
+        });
+    }
+
+    // Lexes with the non skipping automaton, then removes whitespace and comments.
+    private static <C> Seq<String> expected(DLexer<Character, String, EnumCharPos<TokenType>, C> lexer,
+                                            String input, C context) {
+        return describe(lexer.buildStream(MiscHelpers.characters(input), context)
+                .filter(t -> t._2.isFailure() || t._2.get().getValue().ordinal() > TokenType.COMMENT.ordinal())
+                .toList());
+    }
+
+    private static <C> Seq<String> skipped(DLexer<Character, String, EnumCharPos<TokenType>, C> lexer,
+                                           String input, C context) {
+        return describe(lexer.buildStream(MiscHelpers.characters(input), context).toList());
+    }
+
+    @Test
+    void testSkippedTokens() {
+        for (String input : INPUTS) {
+            LineIndex index = LineIndex.of(input);
+
+            assertEquals(expected(new CharSimpleDLexer<>(DFA), input, CharSimpleContext.INIT_SIMPLE_CONTEXT),
+                    skipped(new CharSimpleDLexer<>(SKIP_DFA), input, CharSimpleContext.INIT_SIMPLE_CONTEXT));
+            assertEquals(expected(new CharLinearDLexer<>(DFA), input, CharLinearContext.INIT_LINEAR_CONTEXT),
+                    skipped(new CharLinearDLexer<>(SKIP_DFA), input, CharLinearContext.INIT_LINEAR_CONTEXT));
+            assertEquals(expected(new CharOffsetDLexer<>(DFA), input, CharOffsetContext.at(index, 0)),
+                    skipped(new CharOffsetDLexer<>(SKIP_DFA), input, CharOffsetContext.at(index, 0)));
+            assertEquals(expected(new CharOffsetLinearDLexer<>(DFA), input, CharOffsetLinearContext.at(index, 0)),
+                    skipped(new CharOffsetLinearDLexer<>(SKIP_DFA), input, CharOffsetLinearContext.at(index, 0)));
+        }
+
+        // The unterminated comment is still given as an error with its full lexeme.
+        Seq<String> tokens = skipped(new CharSimpleDLexer<>(SKIP_DFA), INPUT, CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        assertEquals(List.of("ab", "12", "cd34", "ef", "/* x!"), tokens.map(t -> t.substring(0, t.indexOf('['))));
+        assertEquals("/* x![2 : 4]", tokens.last());
+
+        // Single builds pass over skip tokens, and only give real tokens.
+        CharSimpleDLexer<TokenType> lexer = new CharSimpleDLexer<>(SKIP_DFA);
+        Tuple3<Tuple2<String, Try<EnumCharPos<TokenType>>>, CharSimpleContext, Seq<Character>> result =
+                lexer.build(MiscHelpers.characters("/**/ a "), CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        assertEquals("a", result._1._1);
+        assertEquals(List.of(' '), result._3.toList());
+        assertTrue(lexer.buildOrSkipUnchecked(MiscHelpers.characters(" a"),
+                CharSimpleContext.INIT_SIMPLE_CONTEXT)._1.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> lexer.build(MiscHelpers.characters(" /**/ "),
+                CharSimpleContext.INIT_SIMPLE_CONTEXT));
+    }
+
+    @Test
+    void testSkipMetrics() {
+        CountingLexerMetrics<EnumCharPos<TokenType>> metrics =
+                new CountingLexerMetrics<>(SKIP_DFA.getNumberOfStates(), EnumCharPos::getValue);
+
+        CharSimpleDLexer<TokenType> lexer = new CharSimpleDLexer<TokenType>(SKIP_DFA) {
+            @Override
+            protected LexerMetrics<? super EnumCharPos<TokenType>> getMetrics() {
+                return metrics;
+            }
+        };
+
+        assertTrue(lexer.hasSkipTokens());
+        assertFalse(new CharSimpleDLexer<>(DFA).hasSkipTokens());
+
+        lexer.buildStream(MiscHelpers.characters(INPUT), CharSimpleContext.INIT_SIMPLE_CONTEXT).toList();
+
+        CountingLexerMetrics.Snapshot snapshot = metrics.snapshot();
+
+        // " ", "\n", "/* c * d **/", " ", "/**/\n" is split into a comment and a newline, then "  ".
+        assertEquals(7, snapshot.getSkips());
+        assertEquals(4, snapshot.getTotalTokens());
+        assertEquals(1, snapshot.getErrors());
+    }
+
+    @Test
+    void testRecoveringWithSkips() {
+        Seq<Character> input = MiscHelpers.characters("ab %% 12 %/**/cd");
+
+        Seq<String> expected = describe(new CharSimpleDLexer<>(DFA)
+                .buildRecoveringStream(input, CharSimpleContext.INIT_SIMPLE_CONTEXT)
+                .filter(t -> t._2.isFailure() || t._2.get().getValue().ordinal() > TokenType.COMMENT.ordinal())
+                .toList());
+
+        assertEquals(expected, describe(new CharSimpleDLexer<>(SKIP_DFA)
+                .buildRecoveringStream(input, CharSimpleContext.INIT_SIMPLE_CONTEXT).toList()));
+        assertEquals(List.of("ab", "%%!", "12", "%!", "cd"), expected.map(t -> t.substring(0, t.indexOf('['))));
+    }
+
+    @Test
+    void testChunkedWithSkips() {
+        CharLinearDLexer<TokenType> lexer = new CharLinearDLexer<>(SKIP_DFA);
+        Seq<String> whole = skipped(lexer, INPUT, CharLinearContext.INIT_LINEAR_CONTEXT);
+
+        for (int chunkSize = 1; chunkSize <= INPUT.length(); chunkSize++) {
+            ChunkedDLexer<Character, String, EnumCharPos<TokenType>, CharLinearContext> chunked =
+                    new ChunkedDLexer<>(lexer, CharLinearContext.INIT_LINEAR_CONTEXT);
+            Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>> tokens = List.empty();
+
+            for (int i = 0; i < INPUT.length(); i += chunkSize) {
+                Tuple2<Seq<Tuple2<String, Try<EnumCharPos<TokenType>>>>,
+                        ChunkedDLexer<Character, String, EnumCharPos<TokenType>, CharLinearContext>> result =
+                        chunked.feed(MiscHelpers.characters(INPUT.substring(i, Math.min(INPUT.length(), i + chunkSize))));
+
+                tokens = tokens.appendAll(result._1);
+                chunked = result._2;
+            }
+
+            assertEquals(whole, describe(tokens.appendAll(chunked.end())));
+        }
+    }
+
+    private static Seq<String> describe(TokenTape<TokenType> tape) {
+        Seq<String> tokens = List.empty();
+        for (int i = 0; i < tape.size(); i++) {
+            tokens = tokens.append(tape.getLexeme(i) + tape.getStart(i) + ":" + tape.getLine(i));
+        }
+
+        return tokens;
+    }
+
+    @Test
+    void testTapesWithSkips() {
+        TokenTape<TokenType> full = TokenTape.lex(new CharSimpleDLexer<>(DFA), TokenType.class,
+                INPUT, CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        TokenTape<TokenType> compiled = CompiledCharLexer.compile(TokenType.class, SKIP_DFA).lex(INPUT);
+
+        // The compiled lexer leaves skip tokens off the tape.
+        Seq<String> expected = List.empty();
+        for (int i = 0; i < full.size(); i++) {
+            if (full.isError(i) || full.getTokenType(i).ordinal() > TokenType.COMMENT.ordinal()) {
+                expected = expected.append(full.getLexeme(i) + full.getStart(i) + ":" + full.getLine(i));
+            }
+        }
+
+        assertEquals(expected, describe(compiled));
+
+        // Tapes of lexers with skip tokens leave them off, but keep the offsets of the tokens after them.
+        TokenTape<TokenType> tape = TokenTape.lex(new CharSimpleDLexer<>(SKIP_DFA), TokenType.class,
+                INPUT, CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        assertEquals(expected, describe(tape));
+
+        // Resuming from checkpoints at every offset gives the same tokens as a full lex from there on.
+        CharLinearDLexer<TokenType> lexer = new CharLinearDLexer<>(SKIP_DFA);
+        Seq<String> whole = skipped(lexer, INPUT, CharLinearContext.INIT_LINEAR_CONTEXT);
+
+        for (int interval = 1; interval <= 8; interval++) {
+            LexCheckpoints checkpoints =
+                    LexCheckpoints.record(lexer, INPUT, CharLinearContext.INIT_LINEAR_CONTEXT, interval);
+
+            for (int offset = 0; offset <= INPUT.length(); offset++) {
+                Tuple2<Integer, Stream<Tuple2<String, Try<EnumCharPos<TokenType>>>>> resumed =
+                        checkpoints.lexFrom(lexer, offset, CharLinearContext::at);
+                Seq<String> tokens = describe(resumed._2.toList());
+
+                // The first token given is the first token ending after the offset.
+                int first = 0;
+                while (first < tape.size() && tape.getEnd(first) <= offset) {
+                    first++;
+                }
+
+                assertEquals(whole.drop(first), tokens);
+
+                if (!tokens.isEmpty()) {
+                    assertEquals(tape.getStart(first), (int) resumed._1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.CharPos;
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import io.vavr.Function1;
+import io.vavr.collection.HashSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSymbolTable {
+
+    private enum CharType {
+        SPACE,
+        LETTER
+    }
+
+    private enum TokenType {
+        WHITESPACE,
+        WORD
+    }
+
+    private static final DFAutomaton<Character, CharType, Function1<CharPos, EnumCharPos<TokenType>>>
+            DFA = new DFAutomaton<Character, CharType, Function1<CharPos, EnumCharPos<TokenType>>>
+            (3, HashSet.of(CharType.values()), (input) -> input == ' ' ? CharType.SPACE : CharType.LETTER)
+            .withSingleTransition(0, 1, CharType.SPACE)
+            .withSingleTransition(1, 1, CharType.SPACE)
+            .withSingleTransition(0, 2, CharType.LETTER)
+            .withSingleTransition(2, 2, CharType.LETTER)
+            .withAcceptingState(1, EnumCharPos.enumBuilder(TokenType.WHITESPACE))
+            .withAcceptingState(2, EnumCharPos.enumBuilder(TokenType.WORD));
+
+    @Test
+    void testIntern() {
+        SymbolTable symbols = SymbolTable.symbolTable();
+        String source = "foo bar foo baz bar";
+
+        String foo = symbols.intern(source, 0, 3);
+        assertEquals("foo", foo);
+        assertSame(foo, symbols.intern(source, 8, 11));
+        assertSame(foo, symbols.intern(new String("foo")));
+        assertSame(foo, symbols.intern(new StringBuilder("xfoo"), 1, 4));
+
+        assertEquals(symbols.symbolId(source, 4, 7), symbols.symbolId(source, 16, 19));
+        assertNotEquals(symbols.symbolId("foo"), symbols.symbolId("bar"));
+        assertSame(foo, symbols.getSymbol(symbols.symbolId("foo")));
+
+        // Empty ranges are symbols too.
+        assertEquals("", symbols.intern(source, 3, 3));
+
+        assertEquals(3, symbols.size());
+        assertNull(symbols.getSymbol(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> symbols.intern(source, 5, 30));
+        assertThrows(IllegalArgumentException.class, () -> SymbolTable.symbolTable(0));
+    }
+
+    @Test
+    void testGrowth() {
+        SymbolTable symbols = SymbolTable.symbolTable(2);
+        int[] ids = new int[5000];
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = symbols.symbolId("s" + i);
+        }
+
+        // Only ids are kept here, the table alone holds the symbols.
+        System.gc();
+
+        // Interning again after many resizes (and a collection) finds the same ids.
+        assertEquals(ids.length, symbols.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], symbols.symbolId("s" + i));
+            assertEquals("s" + i, symbols.getSymbol(ids[i]));
+        }
+    }
+
+    @Test
+    void testConcurrentIntern() throws Exception {
+        SymbolTable symbols = SymbolTable.symbolTable(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<String[]>> results = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    String[] interned = new String[1000];
+
+                    for (int i = 0; i < interned.length; i++) {
+                        String symbol = "sym" + (i % 250);
+                        interned[i] = symbols.intern(new StringBuilder(symbol), 0, symbol.length());
+                    }
+
+                    return interned;
+                }));
+            }
+
+            String[] first = results.get(0).get();
+
+            // Every thread gets the same canonical instances.
+            for (Future<String[]> result : results) {
+                String[] interned = result.get();
+
+                for (int i = 0; i < interned.length; i++) {
+                    assertSame(first[i], interned[i]);
+                }
+            }
+
+            assertEquals(250, symbols.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testTapeInterning() {
+        String source = "ab cd ab  cd ef ab";
+        TokenTape<TokenType> tape = TokenTape.lex(new CharSimpleDLexer<>(DFA), TokenType.class,
+                source, CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        SymbolTable symbols = SymbolTable.symbolTable();
+
+        assertSame(tape.internLexeme(0, symbols), tape.internLexeme(4, symbols));
+        assertEquals("cd", tape.internLexeme(2, symbols));
+
+        int[] ids = tape.getSymbolIds(symbols, TokenType.WORD);
+
+        assertEquals(tape.size(), ids.length);
+        assertEquals(-1, ids[1]);
+        assertEquals(ids[0], ids[10]);
+        assertEquals(ids[2], ids[6]);
+        assertEquals(tape.getSymbolId(8, symbols), ids[8]);
+        assertEquals("ef", symbols.getSymbol(ids[8]));
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.chathamabate.peru.lexer.charlexer;
+
+import com.github.chathamabate.peru.charpos.EnumCharPos;
+import com.github.chathamabate.peru.fa.DFAutomaton;
+import com.github.chathamabate.peru.misc.MiscHelpers;
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTokenTape {
+
+    private enum CharType {
+        SPACE,
+        NUMBER,
+        OTHER
+    }
+
+    private enum TokenType {
+        WHITESPACE,
+        INT
+    }
+
+    private static final DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            DFA = new DFAutomaton<Character, CharType, Function1<CharSimpleContext, EnumCharPos<TokenType>>>
+            (3, HashSet.of(CharType.values()), (input) -> {
+        if ('0' <= input && input <= '9') {
+            return CharType.NUMBER;
+        }
+
+        return Character.isWhitespace(input) ? CharType.SPACE : CharType.OTHER;
+    })
+            .withSingleTransition(0, 1, CharType.SPACE)
+            .withSingleTransition(1, 1, CharType.SPACE)
+            .withSingleTransition(0, 2, CharType.NUMBER)
+            .withSingleTransition(2, 2, CharType.NUMBER)
+            .withAcceptingState(1, c -> EnumCharPos.charPosEnum(c, TokenType.WHITESPACE))
+            .withAcceptingState(2, c -> EnumCharPos.charPosEnum(c, TokenType.INT));
+
+    private static final CharSimpleDLexer<TokenType> LEXER = new CharSimpleDLexer<>(DFA);
+
+    private static final String INPUT = "12 345\n 6";
+
+    @Test
+    void testTapeMatchesLexer() {
+        TokenTape<TokenType> tape = TokenTape.lex(LEXER, TokenType.class, INPUT,
+                CharSimpleContext.INIT_SIMPLE_CONTEXT);
+
+        Seq<Tuple2<String, EnumCharPos<TokenType>>> expected =
+                LEXER.buildSuccessfulTokenStream(MiscHelpers.characters(INPUT), CharSimpleContext.INIT_SIMPLE_CONTEXT);
+
+        assertEquals(5, tape.size());
+        assertEquals(expected.toList(), tape.toSuccessfulTokenStream().toList());
+    }
+
+    @Test
+    void testRandomAccess() {
+        TokenTape<TokenType> tape = TokenTape.lex(LEXER, TokenType.class, INPUT,
+                CharSimpleContext.INIT_SIMPLE_CONTEXT);
+
+        assertEquals(TokenType.INT, tape.getTokenType(2));
+        assertEquals(3, tape.getStart(2));
+        assertEquals(6, tape.getEnd(2));
+        assertEquals("345", tape.getLexeme(2));
+        assertEquals("\n ", tape.getLexeme(3));
+        assertEquals(1, tape.getLine(4));
+        assertEquals(1, tape.getLinePosition(4));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> tape.getStart(5));
+    }
+
+    @Test
+    void testErrors() {
+        TokenTape<TokenType> tape = TokenTape.lex(LEXER, TokenType.class, "1a 2",
+                CharSimpleContext.INIT_SIMPLE_CONTEXT);
+
+        assertEquals(4, tape.size());
+        assertTrue(tape.isError(1));
+        assertEquals(TokenTape.ERROR_TYPE, tape.getTypeOrdinal(1));
+        assertTrue(tape.getToken(1)._2.isFailure());
+        assertThrows(IllegalArgumentException.class, () -> tape.getTokenType(1));
+
+        assertEquals(List.of("1", " ", "2"),
+                tape.toOnlySuccessfulTokenStream().map(Tuple2::_1).toList());
+    }
+}
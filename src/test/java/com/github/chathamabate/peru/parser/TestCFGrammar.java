@@ -94,6 +94,37 @@ public class TestCFGrammar {
         assertEquals(HashSet.of(T.E), g.getTerminalsUsed());
     }
 
+    @Test
+    void testFingerprints() {
+        CFGrammar<NT, T, Production<NT, T>> g = new CFGrammar<>(NT.A, List.of(
+                new Production<>(NT.A, List.of(left(NT.B), right(T.E))),
+                new Production<>(NT.B, List.of(right(T.F))),
+                new Production<>(NT.B, List.empty())
+        ));
+
+        CFGrammar<NT, T, Production<NT, T>> reordered = new CFGrammar<>(NT.A, List.of(
+                new Production<>(NT.B, List.empty()),
+                new Production<>(NT.B, List.of(right(T.F))),
+                new Production<>(NT.A, List.of(left(NT.B), right(T.E)))
+        ));
+
+        // Structurally equal grammars share a fingerprint and production order.
+        assertEquals(g.fingerprint(), reordered.fingerprint());
+        assertEquals(g.getOrderedProductions(), reordered.getOrderedProductions());
+        assertEquals(List.of(
+                new Production<>(NT.A, List.of(left(NT.B), right(T.E))),
+                new Production<>(NT.B, List.empty()),
+                new Production<>(NT.B, List.of(right(T.F)))
+        ), g.getOrderedProductions());
+
+        assertNotEquals(g.fingerprint(), g.withProduction(new Production<>(NT.B, List.of(right(T.G)))).fingerprint());
+        assertNotEquals(g.fingerprint(), new CFGrammar<>(NT.B, List.of(
+                new Production<>(NT.A, List.of(left(NT.B), right(T.E))),
+                new Production<>(NT.B, List.of(right(T.F))),
+                new Production<>(NT.B, List.empty())
+        )).fingerprint());
+    }
+
     /*
      * Firsts Sets Tests.
      */
@@ -0,0 +1,371 @@
+package com.github.chathamabate.peru.parser;
+
+import com.github.chathamabate.peru.parser.grammar.SemanticCFGrammar;
+import com.github.chathamabate.peru.parser.grammar.SemanticProduction;
+import com.github.chathamabate.peru.parser.lrone.ForestNode;
+import com.github.chathamabate.peru.parser.lrone.GLRParser;
+import com.github.chathamabate.peru.parser.lrone.LROneParser;
+import com.github.chathamabate.peru.parser.lrone.TableConstruction;
+import io.vavr.CheckedFunction2;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Vector;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGLRParser {
+
+    enum NT {
+        GOAL,
+        EXPR,
+        VALUE
+    }
+
+    enum T {
+        NUMBER,
+        PLUS,
+        TIMES,
+        LEFT_P,
+        RIGHT_P
+    }
+
+    private static final class Token implements Tokenized<T> {
+        private final T type;
+
+        private Token(T t) {
+            type = t;
+        }
+
+        @Override
+        public T getTokenType() {
+            return type;
+        }
+    }
+
+    private static final HashMap<T, CheckedFunction2<String, Token, Long>> TERMINALS =
+            HashMap.<T, CheckedFunction2<String, Token, Long>>of(
+                    T.NUMBER, (l, d) -> Long.parseLong(l),
+                    T.PLUS, (l, d) -> 0L,
+                    T.TIMES, (l, d) -> 0L,
+                    T.LEFT_P, (l, d) -> 0L,
+                    T.RIGHT_P, (l, d) -> 0L
+            );
+
+    private static SemanticProduction<NT, T, Long> binary(T operator, int priority, boolean associative) {
+        return new SemanticProduction<NT, T, Long>(NT.EXPR,
+                List.of(left(NT.EXPR), right(operator), left(NT.EXPR))) {
+            @Override
+            protected Long buildResultUnchecked(Seq<Long> children) {
+                return operator == T.PLUS
+                        ? children.get(0) + children.get(2)
+                        : children.get(0) * children.get(2);
+            }
+
+            @Override
+            public int getPriority() {
+                return priority;
+            }
+
+            @Override
+            protected Long mergeUnchecked(Long result, Long other) throws Throwable {
+                // Either grouping of an associative operator gives the same result.
+                return associative ? result : super.mergeUnchecked(result, other);
+            }
+        };
+    }
+
+    // GOAL -> EXPR, EXPR -> EXPR + EXPR | EXPR * EXPR | NUMBER
+    // Sums are kept over products at the top, so products bind tighter. Only sums may be grouped either way.
+    private static final SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Long>, String, Token, Long> AMBIGUOUS_G =
+            new SemanticCFGrammar<>(NT.GOAL, TERMINALS, List.of(
+                    SemanticProduction.<NT, T, Long>identity(NT.GOAL, List.of(left(NT.EXPR))),
+                    binary(T.PLUS, 1, true),
+                    binary(T.TIMES, 0, false),
+                    SemanticProduction.<NT, T, Long>identity(NT.EXPR, List.of(right(T.NUMBER)))
+            ));
+
+    // GOAL -> EXPR, EXPR -> EXPR + EXPR | NUMBER, counting the parses of each expression.
+    private static final SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Long>, String, Token, Long> COUNTING_G =
+            new SemanticCFGrammar<>(NT.GOAL, TERMINALS, List.of(
+                    SemanticProduction.<NT, T, Long>identity(NT.GOAL, List.of(left(NT.EXPR))),
+                    new SemanticProduction<NT, T, Long>(NT.EXPR,
+                            List.of(left(NT.EXPR), right(T.PLUS), left(NT.EXPR))) {
+                        @Override
+                        protected Long buildResultUnchecked(Seq<Long> children) {
+                            return children.get(0) * children.get(2);
+                        }
+
+                        @Override
+                        protected Long mergeUnchecked(Long result, Long other) {
+                            return result + other;
+                        }
+                    },
+                    SemanticProduction.<NT, T, Long>semanticProduction(NT.EXPR,
+                            List.of(right(T.NUMBER)), c -> 1L)
+            ));
+
+    // GOAL -> EXPR, EXPR -> EXPR + VALUE | VALUE, VALUE -> NUMBER | ( EXPR )
+    private static final SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Long>, String, Token, Long> LR_ONE_G =
+            new SemanticCFGrammar<>(NT.GOAL, TERMINALS, List.of(
+                    SemanticProduction.<NT, T, Long>identity(NT.GOAL, List.of(left(NT.EXPR))),
+                    SemanticProduction.<NT, T, Long>semanticProduction(NT.EXPR,
+                            List.of(left(NT.EXPR), right(T.PLUS), left(NT.VALUE)), c -> c.get(0) + c.get(2)),
+                    SemanticProduction.<NT, T, Long>identity(NT.EXPR, List.of(left(NT.VALUE))),
+                    SemanticProduction.<NT, T, Long>identity(NT.VALUE, List.of(right(T.NUMBER))),
+                    SemanticProduction.<NT, T, Long>semanticProduction(NT.VALUE,
+                            List.of(right(T.LEFT_P), left(NT.EXPR), right(T.RIGHT_P)), c -> c.get(1))
+            ));
+
+    // GOAL -> EXPR, EXPR -> EXPR + VALUE | VALUE, VALUE -> VALUE * VALUE | NUMBER | ( EXPR )
+    // Only products are ambiguous, and either grouping gives the same result.
+    private static final SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Long>, String, Token, Long> MIXED_G =
+            new SemanticCFGrammar<>(NT.GOAL, TERMINALS, List.of(
+                    SemanticProduction.<NT, T, Long>identity(NT.GOAL, List.of(left(NT.EXPR))),
+                    SemanticProduction.<NT, T, Long>semanticProduction(NT.EXPR,
+                            List.of(left(NT.EXPR), right(T.PLUS), left(NT.VALUE)), c -> c.get(0) + c.get(2)),
+                    SemanticProduction.<NT, T, Long>identity(NT.EXPR, List.of(left(NT.VALUE))),
+                    new SemanticProduction<NT, T, Long>(NT.VALUE,
+                            List.of(left(NT.VALUE), right(T.TIMES), left(NT.VALUE))) {
+                        @Override
+                        protected Long buildResultUnchecked(Seq<Long> children) {
+                            return children.get(0) * children.get(2);
+                        }
+
+                        @Override
+                        protected Long mergeUnchecked(Long result, Long other) {
+                            return result;
+                        }
+                    },
+                    SemanticProduction.<NT, T, Long>identity(NT.VALUE, List.of(right(T.NUMBER))),
+                    SemanticProduction.<NT, T, Long>semanticProduction(NT.VALUE,
+                            List.of(right(T.LEFT_P), left(NT.EXPR), right(T.RIGHT_P)), c -> c.get(1))
+            ));
+
+    private static Vector<Tuple2<String, Token>> tokens(String input) {
+        return Vector.ofAll(input.toCharArray()).map(c -> {
+            switch (c) {
+                case '+':
+                    return Tuple.of("+", new Token(T.PLUS));
+                case '*':
+                    return Tuple.of("*", new Token(T.TIMES));
+                case '(':
+                    return Tuple.of("(", new Token(T.LEFT_P));
+                case ')':
+                    return Tuple.of(")", new Token(T.RIGHT_P));
+                default:
+                    return Tuple.of(c + "", new Token(T.NUMBER));
+            }
+        });
+    }
+
+    @Test
+    void testAmbiguityHooks() throws Throwable {
+        GLRParser<NT, T, String, Token, Long> parser =
+                GLRParser.glrParser(AMBIGUOUS_G, lookAhead -> new Exception(), Exception::new);
+
+        assertTrue(parser.getTable().getConflictCount() > 0);
+
+        assertEquals(Long.valueOf(7), parser.parse(tokens("1+2*3")));
+        assertEquals(Long.valueOf(5), parser.parse(tokens("1*2+3")));
+        assertEquals(Long.valueOf(17), parser.parse(tokens("1+2+3*4+2")));
+        assertEquals(Long.valueOf(4), parser.parse(tokens("4")));
+
+        ForestNode<NT, T, String, Token, Long> root = parser.parseForest(tokens("1+2+3"));
+        assertFalse(root.isAmbiguous());
+
+        // The sum is grouped either way, but is one shared node.
+        ForestNode<NT, T, String, Token, Long> sum = root.getAlternatives().head()._2.head();
+        assertTrue(sum.isAmbiguous());
+        assertEquals(2, sum.getAlternatives().length());
+        assertEquals(0, sum.getStart());
+        assertEquals(5, sum.getEnd());
+
+        // Products are never merged.
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(tokens("1*2*3")));
+
+        // Syntax errors.
+        assertTrue(parser.tryParse(tokens("1+")).isFailure());
+        assertTrue(parser.tryParse(tokens("1++2")).isFailure());
+        assertTrue(parser.tryParse(tokens("")).isFailure());
+    }
+
+    @Test
+    void testSharedForest() throws Throwable {
+        GLRParser<NT, T, String, Token, Long> parser = GLRParser.glrParser(COUNTING_G, TableConstruction.CANONICAL,
+                lookAhead -> new Exception(), Exception::new);
+
+        // The parses of a sum of n numbers are counted by the Catalan numbers.
+        assertEquals(Long.valueOf(1), parser.parse(tokens("1")));
+        assertEquals(Long.valueOf(2), parser.parse(tokens("1+1+1")));
+        assertEquals(Long.valueOf(14), parser.parse(tokens("1+1+1+1+1")));
+
+        // Exponentially many parses are shared, rather than each being found.
+        StringBuilder sb = new StringBuilder("1");
+        for (int i = 1; i < 30; i++) {
+            sb.append("+1");
+        }
+
+        assertEquals(Long.valueOf(1002242216651368L), parser.parse(tokens(sb.toString())));
+    }
+
+    @Test
+    void testDeterministicGrammar() throws Throwable {
+        GLRParser<NT, T, String, Token, Long> glrParser =
+                GLRParser.glrParser(LR_ONE_G, lookAhead -> new Exception(), Exception::new);
+        LROneParser<NT, T, String, Token, Long> lrOneParser =
+                LROneParser.lrOneParser(LR_ONE_G, lookAhead -> new Exception(), Exception::new);
+
+        assertEquals(0, glrParser.getTable().getConflictCount());
+
+        for (String input: List.of("1", "(1+2)+3+(4+(5+6))", "((((9))))", "1+", "(1+2", ")", "1(2)")) {
+            assertEquals(lrOneParser.tryParse(tokens(input)).toOption(),
+                    glrParser.tryParse(tokens(input)).toOption());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("(1+(2+3))+");
+        }
+
+        assertEquals(Long.valueOf(12004), glrParser.parse(tokens(sb.append("4").toString())));
+    }
+
+    @Test
+    void testMixedInput() throws Throwable {
+        GLRParser<NT, T, String, Token, Long> parser =
+                GLRParser.glrParser(MIXED_G, lookAhead -> new Exception(), Exception::new);
+
+        assertTrue(parser.getTable().getConflictCount() > 0);
+        assertEquals(Long.valueOf(243), parser.parse(tokens("1+2*3*4+(5*6*7)+8")));
+
+        // Parsing straight to a result agrees with evaluating the whole forest.
+        for (String input: List.of("1", "2*3*4", "(2*(3+1)*2)*2+1", "1+(2*3)*(4+5*6)", "1*", "(1*2", "1**2", "*")) {
+            assertEquals(Try.of(() -> parser.evaluate(parser.parseForest(tokens(input)))).toOption(),
+                    parser.tryParse(tokens(input)).toOption());
+        }
+
+        // Long deterministic stretches between conflicts, and a long conflicted stretch.
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("(1*2*3)+1+");
+        }
+
+        for (int i = 0; i < 50; i++) {
+            sb.append("1*");
+        }
+
+        assertEquals(Long.valueOf(14001), parser.parse(tokens(sb.append("1").toString())));
+    }
+
+    @Test
+    void testHiddenLeftRecursion() throws Throwable {
+        // GOAL -> EXPR, EXPR -> VALUE EXPR + | NUMBER, VALUE -> (empty), counting the pluses.
+        SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Long>, String, Token, Long> hidden =
+                new SemanticCFGrammar<>(NT.GOAL, TERMINALS, List.of(
+                        SemanticProduction.<NT, T, Long>identity(NT.GOAL, List.of(left(NT.EXPR))),
+                        SemanticProduction.<NT, T, Long>semanticProduction(NT.EXPR,
+                                List.of(left(NT.VALUE), left(NT.EXPR), right(T.PLUS)), c -> c.get(1) + 1),
+                        SemanticProduction.<NT, T, Long>identity(NT.EXPR, List.of(right(T.NUMBER))),
+                        SemanticProduction.<NT, T, Long>semanticProduction(NT.VALUE, List.empty(), c -> 0L)
+                ));
+
+        GLRParser<NT, T, String, Token, Long> parser =
+                GLRParser.glrParser(hidden, lookAhead -> new Exception(), Exception::new);
+
+        assertEquals(Long.valueOf(5), parser.parse(tokens("5")));
+        assertEquals(Long.valueOf(8), parser.parse(tokens("5+++")));
+        assertTrue(parser.tryParse(tokens("+")).isFailure());
+        assertTrue(parser.tryParse(tokens("5+5")).isFailure());
+
+        // Every empty VALUE before the number is one shared node.
+        ForestNode<NT, T, String, Token, Long> outer =
+                parser.parseForest(tokens("5++")).getAlternatives().head()._2.head();
+        ForestNode<NT, T, String, Token, Long> inner = outer.getAlternatives().head()._2.get(1);
+
+        assertFalse(outer.isAmbiguous());
+        assertEquals(0, inner.getStart());
+        assertEquals(2, inner.getEnd());
+        assertSame(outer.getAlternatives().head()._2.head(), inner.getAlternatives().head()._2.head());
+        assertEquals(0, inner.getAlternatives().head()._2.head().getEnd());
+    }
+
+    @Test
+    void testEmptyAmbiguity() throws Throwable {
+        // GOAL -> EXPR, EXPR -> NUMBER VALUE VALUE, VALUE -> (empty) | +
+        // Either VALUE may derive a single plus, each parse is told apart by its result, and both are merged.
+        SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Long>, String, Token, Long> empty =
+                new SemanticCFGrammar<>(NT.GOAL, TERMINALS, List.of(
+                        SemanticProduction.<NT, T, Long>identity(NT.GOAL, List.of(left(NT.EXPR))),
+                        new SemanticProduction<NT, T, Long>(NT.EXPR,
+                                List.of(right(T.NUMBER), left(NT.VALUE), left(NT.VALUE))) {
+                            @Override
+                            protected Long buildResultUnchecked(Seq<Long> children) {
+                                return children.get(1) * 2 + children.get(2);
+                            }
+
+                            @Override
+                            protected Long mergeUnchecked(Long result, Long other) {
+                                return result + other;
+                            }
+                        },
+                        SemanticProduction.<NT, T, Long>semanticProduction(NT.VALUE, List.empty(), c -> 0L),
+                        SemanticProduction.<NT, T, Long>semanticProduction(NT.VALUE,
+                                List.of(right(T.PLUS)), c -> 1L)
+                ));
+
+        GLRParser<NT, T, String, Token, Long> parser =
+                GLRParser.glrParser(empty, lookAhead -> new Exception(), Exception::new);
+
+        assertEquals(Long.valueOf(0), parser.parse(tokens("1")));
+        assertEquals(Long.valueOf(3), parser.parse(tokens("1+")));
+        assertEquals(Long.valueOf(3), parser.parse(tokens("1++")));
+        assertTrue(parser.tryParse(tokens("1+++")).isFailure());
+
+        ForestNode<NT, T, String, Token, Long> expr =
+                parser.parseForest(tokens("1+")).getAlternatives().head()._2.head();
+        assertTrue(expr.isAmbiguous());
+        assertEquals(2, expr.getAlternatives().length());
+
+        // The VALUE of the plus is one shared node, first in one alternative and second in the other.
+        Seq<ForestNode<NT, T, String, Token, Long>> first = expr.getAlternatives().get(0)._2;
+        Seq<ForestNode<NT, T, String, Token, Long>> second = expr.getAlternatives().get(1)._2;
+
+        if (first.get(1).getEnd() == 1) {
+            Seq<ForestNode<NT, T, String, Token, Long>> temp = first;
+            first = second;
+            second = temp;
+        }
+
+        assertSame(first.get(1), second.get(2));
+        assertEquals(2, first.get(2).getStart());
+        assertEquals(1, second.get(1).getEnd());
+    }
+
+    @Test
+    void testCyclicGrammar() throws Throwable {
+        // GOAL -> EXPR, EXPR -> VALUE | NUMBER, VALUE -> EXPR
+        SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Long>, String, Token, Long> cyclic =
+                new SemanticCFGrammar<>(NT.GOAL, TERMINALS, List.of(
+                        SemanticProduction.<NT, T, Long>identity(NT.GOAL, List.of(left(NT.EXPR))),
+                        SemanticProduction.<NT, T, Long>identity(NT.EXPR, List.of(left(NT.VALUE))),
+                        SemanticProduction.<NT, T, Long>identity(NT.EXPR, List.of(right(T.NUMBER))),
+                        SemanticProduction.<NT, T, Long>identity(NT.VALUE, List.of(left(NT.EXPR)))
+                ));
+
+        GLRParser<NT, T, String, Token, Long> parser =
+                GLRParser.glrParser(cyclic, lookAhead -> new Exception(), Exception::new);
+
+        // The only derivation of VALUE is through EXPR, so it is skipped wherever EXPR is being evaluated.
+        assertEquals(Long.valueOf(7), parser.parse(tokens("7")));
+
+        ForestNode<NT, T, String, Token, Long> expr = parser.parseForest(tokens("7")).getAlternatives().head()._2.head();
+        assertTrue(expr.isAmbiguous());
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.chathamabate.peru.parser;
+
+import com.github.chathamabate.peru.parser.grammar.SemanticCFGrammar;
+import com.github.chathamabate.peru.parser.grammar.SemanticProduction;
+import com.github.chathamabate.peru.parser.lrone.IncrementalParse;
+import com.github.chathamabate.peru.parser.lrone.LROneParser;
+import com.github.chathamabate.peru.parser.lrone.TableConstruction;
+import io.vavr.CheckedFunction2;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.List;
+import io.vavr.collection.Vector;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIncrementalParse {
+
+    enum NT {
+        GOAL,
+        SUM,
+        VALUE
+    }
+
+    enum T {
+        NUMBER,
+        PLUS,
+        LEFT_P,
+        RIGHT_P
+    }
+
+    private static final class Token implements Tokenized<T> {
+        private final T type;
+
+        private Token(T t) {
+            type = t;
+        }
+
+        @Override
+        public T getTokenType() {
+            return type;
+        }
+    }
+
+    // GOAL -> SUM, SUM -> SUM + VALUE | VALUE, VALUE -> NUMBER | ( SUM )
+    private static final SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Integer>, String, Token, Integer> G =
+            new SemanticCFGrammar<>(NT.GOAL, HashMap.<T, CheckedFunction2<String, Token, Integer>>of(
+                    T.NUMBER, (l, d) -> Integer.parseInt(l),
+                    T.PLUS, (l, d) -> 0,
+                    T.LEFT_P, (l, d) -> 0,
+                    T.RIGHT_P, (l, d) -> 0
+            ), List.of(
+                    SemanticProduction.<NT, T, Integer>identity(NT.GOAL, List.of(left(NT.SUM))),
+                    SemanticProduction.<NT, T, Integer>semanticProduction(NT.SUM,
+                            List.of(left(NT.SUM), right(T.PLUS), left(NT.VALUE)), c -> c.get(0) + c.get(2)),
+                    SemanticProduction.<NT, T, Integer>identity(NT.SUM, List.of(left(NT.VALUE))),
+                    SemanticProduction.<NT, T, Integer>identity(NT.VALUE, List.of(right(T.NUMBER))),
+                    SemanticProduction.<NT, T, Integer>semanticProduction(NT.VALUE,
+                            List.of(right(T.LEFT_P), left(NT.SUM), right(T.RIGHT_P)), c -> c.get(1))
+            ));
+
+    private static final LROneParser<NT, T, String, Token, Integer> PARSER =
+            LROneParser.lrOneParser(G, TableConstruction.LALR, lookAhead -> new Exception(), Exception::new);
+
+    private static Vector<Tuple2<String, Token>> tokens(String input) {
+        return Vector.ofAll(input.toCharArray()).map(c -> {
+            switch (c) {
+                case '+':
+                    return Tuple.of("+", new Token(T.PLUS));
+                case '(':
+                    return Tuple.of("(", new Token(T.LEFT_P));
+                case ')':
+                    return Tuple.of(")", new Token(T.RIGHT_P));
+                default:
+                    return Tuple.of(c + "", new Token(T.NUMBER));
+            }
+        });
+    }
+
+    @Test
+    void testEdits() throws Throwable {
+        Vector<Tuple2<String, Token>> tokens = tokens("(1+2)+3+(4+(5+6))");
+        IncrementalParse<NT, T, String, Token, Integer> parse = PARSER.parseIncremental(tokens);
+
+        assertEquals(Integer.valueOf(21), parse.getResult());
+        assertEquals(tokens.length(), parse.getNumberOfTokens());
+
+        // Replace 3 with (3+3), then delete (1+2)+.
+        IncrementalParse<NT, T, String, Token, Integer> edited = parse.edit(6, 7, tokens("(3+3)"));
+        assertEquals(Integer.valueOf(24), edited.getResult());
+        assertEquals(Integer.valueOf(21), edited.edit(0, 6, List.empty()).getResult());
+
+        // Failed edits leave the parse untouched.
+        assertTrue(parse.tryEdit(5, 6, tokens("(")).isFailure());
+        assertEquals(Integer.valueOf(21), parse.edit(17, 17, tokens("+0")).getResult());
+        assertThrows(IndexOutOfBoundsException.class, () -> parse.edit(3, 18, List.empty()));
+
+        // Random edits always agree with parsing from scratch.
+        IncrementalParse<NT, T, String, Token, Integer> current = parse;
+        Random random = new Random(42);
+        int successes = 0;
+        List<String> fragments = List.of("1", "2", "+", "(", ")", "1+2", "(1+2)", "+(2+1)");
+
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(tokens.length() + 1);
+            int to = from + random.nextInt(Math.min(2, tokens.length() - from) + 1);
+
+            StringBuilder sb = new StringBuilder();
+            for (int c = random.nextInt(3); c > 0; c--) {
+                sb.append(fragments.get(random.nextInt(fragments.length())));
+            }
+
+            Vector<Tuple2<String, Token>> replacement = tokens(sb.toString());
+            Vector<Tuple2<String, Token>> result = tokens.take(from).appendAll(replacement).appendAll(tokens.drop(to));
+
+            Try<Integer> expected = PARSER.tryParse(result);
+            Try<IncrementalParse<NT, T, String, Token, Integer>> actual = current.tryEdit(from, to, replacement);
+
+            assertEquals(expected.isSuccess(), actual.isSuccess());
+
+            if (actual.isSuccess()) {
+                assertEquals(expected.get(), actual.get().getResult());
+
+                current = actual.get();
+                tokens = result;
+                successes++;
+            }
+        }
+
+        // Enough of the edits are valid for the tree to grow and be reused.
+        assertTrue(successes > 50);
+    }
+
+    @Test
+    void testSubtreeReuse() throws Throwable {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append("(1+(2+3))+");
+        }
+
+        Vector<Tuple2<String, Token>> tokens = tokens(sb.append("4").toString());
+        IncrementalParse<NT, T, String, Token, Integer> parse = PARSER.parseIncremental(tokens);
+        assertEquals(Integer.valueOf(3004), parse.getResult());
+
+        // Only nodes near the edit are built again, the rest of the tree is shared.
+        IncrementalParse<NT, T, String, Token, Integer> edited = parse.edit(tokens.length() - 1, tokens.length(),
+                tokens("(5+5)"));
+        assertEquals(Integer.valueOf(3010), edited.getResult());
+        assertTrue(edited.getNodesBuilt() < 20);
+        assertTrue(parse.getNodesBuilt() > tokens.length());
+    }
+
+    @Test
+    void testLongLists() throws Throwable {
+        StringBuilder sb = new StringBuilder("1");
+        for (int i = 1; i < 10000; i++) {
+            sb.append("+1");
+        }
+
+        Vector<Tuple2<String, Token>> tokens = tokens(sb.toString());
+        IncrementalParse<NT, T, String, Token, Integer> parse = PARSER.parseIncremental(tokens);
+        assertEquals(Integer.valueOf(10000), parse.getResult());
+
+        // The tree is as deep as the list is long, and is taken apart without running out of stack.
+        IncrementalParse<NT, T, String, Token, Integer> first = parse.edit(0, 1, tokens("5"));
+        assertEquals(Integer.valueOf(10004), first.getResult());
+
+        IncrementalParse<NT, T, String, Token, Integer> middle = parse.edit(10000, 10001, tokens("3"));
+        assertEquals(Integer.valueOf(10002), middle.getResult());
+        assertEquals(Integer.valueOf(10006), middle.edit(0, 1, tokens("5")).getResult());
+
+        IncrementalParse<NT, T, String, Token, Integer> last = parse.edit(tokens.length() - 1, tokens.length(),
+                tokens("2"));
+        assertEquals(Integer.valueOf(10001), last.getResult());
+        assertTrue(last.getNodesBuilt() < 10);
+    }
+}
@@ -6,7 +6,11 @@ import com.github.chathamabate.peru.lexer.charlexer.CharSimpleDLexer;
 import com.github.chathamabate.peru.misc.LineException;
 import com.github.chathamabate.peru.parser.grammar.SemanticCFGrammar;
 import com.github.chathamabate.peru.parser.grammar.SemanticProduction;
+import com.github.chathamabate.peru.parser.lrone.CompactLROneTable;
 import com.github.chathamabate.peru.parser.lrone.LROneParser;
+import com.github.chathamabate.peru.parser.lrone.LROneTable;
+import com.github.chathamabate.peru.parser.lrone.ParseTableCache;
+import com.github.chathamabate.peru.parser.lrone.TableConstruction;
 import io.vavr.CheckedFunction2;
 import io.vavr.Function1;
 import io.vavr.Tuple2;
@@ -14,8 +18,14 @@ import io.vavr.collection.*;
 import io.vavr.control.Try;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import com.github.chathamabate.peru.fa.DFAutomaton;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static io.vavr.control.Either.*;
 
@@ -71,7 +81,8 @@ public class TestIntegerSemanticCFGrammar {
 
     enum NT {
         GOAL,
-        SUM
+        SUM,
+        VALUE
     }
 
     private static final SemanticProduction<NT, T, Integer>
@@ -115,6 +126,11 @@ public class TestIntegerSemanticCFGrammar {
         }
     };
 
+    private static final LROneParser<NT, T, String, EnumCharPos<T>, Integer>
+            LALR_PARSER = LROneParser.lrOneParser(G, TableConstruction.LALR,
+            lookAhead -> LineException.lineEx(lookAhead._2, "Unexpected Token : " + lookAhead._2.getTokenType().name()),
+            () -> new IllegalArgumentException("Unexpected EOF."));
+
     private static final Seq<String> INPUTS = List.of(
             "1+2",
             "1-2",
@@ -139,6 +155,7 @@ public class TestIntegerSemanticCFGrammar {
             Try<Integer> result = PARSER.tryParse(tokens);
             assertTrue(result.isSuccess());
             assertEquals(RESULTS.get(i), result.get());
+            assertEquals(RESULTS.get(i), LALR_PARSER.tryParse(tokens).get());
         }
     }
 
@@ -159,10 +176,137 @@ public class TestIntegerSemanticCFGrammar {
                     LEXER.buildSuccessfulTokenStream(errorInput, CharSimpleContext.INIT_SIMPLE_CONTEXT);
 
             Assertions.assertTrue(PARSER.tryParse(errorTokens).isFailure());
+            Assertions.assertTrue(LALR_PARSER.tryParse(errorTokens).isFailure());
         }
     }
-}
 
+    @Test
+    void testSessions() throws Throwable {
+        for (int i = 0; i < INPUTS.length(); i++) {
+            ParseSession<String, EnumCharPos<T>, Integer> session = PARSER.session();
 
+            for (Tuple2<String, EnumCharPos<T>> token: LEXER.buildSuccessfulTokenStream(
+                    List.ofAll(INPUTS.get(i).toCharArray()), CharSimpleContext.INIT_SIMPLE_CONTEXT)) {
+                session.feed(token);
+            }
 
+            assertEquals(RESULTS.get(i), session.end());
+
+            // Ended sessions cannot be reused.
+            assertThrows(IllegalStateException.class, session::end);
+        }
+
+        Seq<Tuple2<String, EnumCharPos<T>>> tokens = LEXER.buildSuccessfulTokenStream(
+                List.ofAll("2-1++4".toCharArray()), CharSimpleContext.INIT_SIMPLE_CONTEXT);
+        ParseSession<String, EnumCharPos<T>, Integer> session = LALR_PARSER.session();
+
+        // Errors are thrown by the first token which cannot follow the input so far.
+        for (int i = 0; i < 4; i++) {
+            session.feed(tokens.get(i));
+        }
 
+        assertThrows(LineException.class, () -> session.feed(tokens.get(4)));
+        assertThrows(IllegalStateException.class, () -> session.feed(tokens.get(5)));
+
+        // Sessions are independent of each other.
+        ParseSession<String, EnumCharPos<T>, Integer> first = PARSER.session();
+        ParseSession<String, EnumCharPos<T>, Integer> second = PARSER.session();
+
+        first.feed(tokens.get(0));
+        assertTrue(second.tryEnd().isFailure());
+        assertEquals(Integer.valueOf(2), first.end());
+    }
+
+    @Test
+    void testCachedTables(@TempDir Path dir) throws Throwable {
+        ParseTableCache cache = ParseTableCache.at(dir.resolve("tables"));
+        Path path = cache.tablePath(G, TableConstruction.LALR);
+
+        assertTrue(cache.load(G, TableConstruction.LALR).isFailure());
+
+        // The first parser builds and stores the table, the second loads it.
+        for (int i = 0; i < 2; i++) {
+            LROneParser<NT, T, String, EnumCharPos<T>, Integer> parser = LROneParser.lrOneParser(G,
+                    TableConstruction.LALR, cache, lookAhead -> new Exception(), Exception::new);
+
+            assertTrue(Files.exists(path));
+
+            for (int j = 0; j < INPUTS.length(); j++) {
+                assertEquals(RESULTS.get(j), parser.parse(
+                        LEXER.buildSuccessfulTokenStream(List.ofAll(INPUTS.get(j).toCharArray()),
+                                CharSimpleContext.INIT_SIMPLE_CONTEXT)));
+            }
+        }
+
+        assertTrue(cache.load(G, TableConstruction.LALR).isSuccess());
+        assertTrue(cache.load(G, TableConstruction.CANONICAL).isFailure());
+
+        // Damaged tables are rebuilt.
+        Files.write(path, new byte[] {1, 2, 3});
+        assertTrue(cache.load(G, TableConstruction.LALR).isFailure());
+        assertEquals(Integer.valueOf(3), LROneParser.lrOneParser(G, TableConstruction.LALR, cache,
+                lookAhead -> new Exception(), Exception::new).parse(LEXER.buildSuccessfulTokenStream(
+                        List.ofAll("1+2".toCharArray()), CharSimpleContext.INIT_SIMPLE_CONTEXT)));
+        assertTrue(cache.load(G, TableConstruction.LALR).isSuccess());
+
+        // Huge corrupt lengths fail to load, rather than being allocated.
+        byte[] table = Files.readAllBytes(path);
+        int header = 12 + G.fingerprint().getBytes(StandardCharsets.UTF_8).length
+                + TableConstruction.LALR.name().length();
+
+        ByteBuffer.wrap(table).putInt(header, Integer.MAX_VALUE).putInt(header + 4, Integer.MAX_VALUE - 8);
+        Files.write(path, table);
+        assertTrue(cache.load(G, TableConstruction.LALR).isFailure());
+    }
+
+    // Same language, with a unit production chain GOAL -> SUM -> VALUE -> NUMBER of identities.
+    private static final SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Integer>, String, EnumCharPos<T>, Integer>
+            IDENTITY_G = new SemanticCFGrammar<>(NT.GOAL, TERM_GENERATORS, List.of(
+                    SemanticProduction.<NT, T, Integer>identity(NT.GOAL, List.of(left(NT.SUM))),
+                    SemanticProduction.<NT, T, Integer>semanticProduction(NT.SUM, List.of(left(NT.SUM), right(T.ADDOP), left(NT.VALUE)),
+                            c -> c.get(0) + (c.get(1) * c.get(2))),
+                    SemanticProduction.<NT, T, Integer>identity(NT.SUM, List.of(left(NT.VALUE))),
+                    SemanticProduction.<NT, T, Integer>identity(NT.VALUE, List.of(right(T.NUMBER)))
+            ));
+
+    @Test
+    void testIdentityProductions() throws Throwable {
+        assertThrows(IllegalArgumentException.class, () -> SemanticProduction.<NT, T, Integer>identity(NT.SUM, List.empty()));
+
+        for (TableConstruction construction: TableConstruction.values()) {
+            LROneParser<NT, T, String, EnumCharPos<T>, Integer> parser = LROneParser.lrOneParser(IDENTITY_G,
+                    construction, lookAhead -> new Exception(), Exception::new);
+
+            for (int i = 0; i < INPUTS.length(); i++) {
+                assertEquals(RESULTS.get(i), parser.parse(LEXER.buildSuccessfulTokenStream(
+                        List.ofAll(INPUTS.get(i).toCharArray()), CharSimpleContext.INIT_SIMPLE_CONTEXT)));
+            }
+
+            for (String errorStr: ERRORS) {
+                assertTrue(parser.tryParse(LEXER.buildSuccessfulTokenStream(
+                        List.ofAll(errorStr.toCharArray()), CharSimpleContext.INIT_SIMPLE_CONTEXT)).isFailure());
+            }
+        }
+
+        // Both unit reductions of the first number are skipped, it is shifted straight to the goto on SUM.
+        CompactLROneTable<NT, T, SemanticProduction<NT, T, Integer>> table = new LROneTable<>(IDENTITY_G).compact();
+        int sum = table.gotoShift(0, NT.SUM);
+
+        assertEquals(sum, table.actionMove(0, T.NUMBER));
+        assertEquals(sum, table.gotoShift(0, NT.VALUE));
+
+        // Reductions to the start symbol may accept, so they are never skipped.
+        assertEquals(0, table.gotoShift(0, NT.GOAL));
+
+        // The states after an operator's operand hold only a reduction.
+        int addop = table.actionMove(sum, T.ADDOP);
+        assertTrue(CompactLROneTable.isShift(addop));
+        assertTrue(CompactLROneTable.isReduce(table.consistentReduction(table.actionMove(addop, T.NUMBER))));
+        assertEquals(0, table.consistentReduction(sum));
+
+        // Identities are part of a grammar's structure.
+        assertNotEquals(IDENTITY_G.fingerprint(), new SemanticCFGrammar<>(NT.GOAL, TERM_GENERATORS,
+                IDENTITY_G.getOrderedProductions().map(p -> SemanticProduction.<NT, T, Integer>semanticProduction(
+                        p.getSource(), p.getRule(), c -> c.get(0)))).fingerprint());
+    }
+}
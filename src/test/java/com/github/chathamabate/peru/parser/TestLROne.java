@@ -2,9 +2,16 @@ package com.github.chathamabate.peru.parser;
 
 import com.github.chathamabate.peru.parser.grammar.CFGrammar;
 import com.github.chathamabate.peru.parser.grammar.Production;
+import com.github.chathamabate.peru.parser.lrone.CompactLROneTable;
+import com.github.chathamabate.peru.parser.lrone.FirstSets;
 import com.github.chathamabate.peru.parser.lrone.LROneItem;
 import com.github.chathamabate.peru.parser.lrone.LROneTable;
+import com.github.chathamabate.peru.parser.lrone.TableConstruction;
+import io.vavr.collection.Array;
+import io.vavr.collection.HashSet;
 import io.vavr.collection.List;
+import io.vavr.collection.Set;
+import io.vavr.control.Either;
 import org.junit.jupiter.api.Test;
 
 import static io.vavr.control.Either.left;
@@ -18,7 +25,7 @@ public class TestLROne {
     }
 
     enum T {
-        E, F, G, H
+        E, F, G, H, I
     }
 
     /*
@@ -70,5 +77,179 @@ public class TestLROne {
         assertThrows(IllegalArgumentException.class, () -> {
             new LROneTable<>(A_G2);
         });
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            new LROneTable<>(A_G1, TableConstruction.LALR);
+        });
+    }
+
+    /*
+     * LALR(1) Tests.
+     */
+
+    // LR(1), but not LALR(1). The states reached after "E I" and "F I" have the same core.
+    private static final CFGrammar<NT, T, Production<NT, T>> NOT_LALR_G = new CFGrammar<>(NT.A, List.of(
+            new Production<NT, T>(NT.A, List.of(left(NT.B))),
+            new Production<NT, T>(NT.B, List.of(right(T.E), left(NT.C), right(T.G))),
+            new Production<NT, T>(NT.B, List.of(right(T.F), left(NT.D), right(T.G))),
+            new Production<NT, T>(NT.B, List.of(right(T.E), left(NT.D), right(T.H))),
+            new Production<NT, T>(NT.B, List.of(right(T.F), left(NT.C), right(T.H))),
+            new Production<NT, T>(NT.C, List.of(right(T.I))),
+            new Production<NT, T>(NT.D, List.of(right(T.I)))
+    ));
+
+    // A -> B, B -> E B F | G (Many LR(1) states share cores)
+    private static final CFGrammar<NT, T, Production<NT, T>> NESTED_G = new CFGrammar<>(NT.A, List.of(
+            new Production<NT, T>(NT.A, List.of(left(NT.B))),
+            new Production<NT, T>(NT.B, List.of(right(T.E), left(NT.B), right(T.F))),
+            new Production<NT, T>(NT.B, List.of(right(T.G)))
+    ));
+
+    @Test
+    void testClosures() {
+        FirstSets<NT, T> firstSets = new FirstSets<>(NESTED_G);
+        Production<NT, T> start = new Production<NT, T>(NT.A, List.of(left(NT.B)));
+        Production<NT, T> nested = new Production<NT, T>(NT.B, List.of(right(T.E), left(NT.B), right(T.F)));
+        Production<NT, T> leaf = new Production<NT, T>(NT.B, List.of(right(T.G)));
+
+        // Lookaheads of items added by the closure come from what follows B, or from the kernel item.
+        assertEquals(HashSet.of(
+                new LROneItem<>(1, nested, T.F),
+                new LROneItem<>(1, nested),
+                new LROneItem<>(0, nested, T.F),
+                new LROneItem<>(0, leaf, T.F)
+        ), LROneItem.closureSet(NESTED_G, firstSets, HashSet.of(
+                new LROneItem<>(1, nested, T.F),
+                new LROneItem<>(1, nested)
+        )));
+
+        for (TableConstruction construction : TableConstruction.values()) {
+            Array<Set<LROneItem<NT, T, Production<NT, T>>>> cc = new LROneTable<>(NESTED_G, construction).getCC();
+
+            assertEquals(HashSet.of(
+                    new LROneItem<>(0, start),
+                    new LROneItem<>(0, nested),
+                    new LROneItem<>(0, leaf)
+            ), cc.get(0));
+
+            // Every state is closed.
+            for (Set<LROneItem<NT, T, Production<NT, T>>> state : cc) {
+                assertEquals(state, LROneItem.closureSet(NESTED_G, firstSets, state));
+            }
+        }
+    }
+
+    @Test
+    void testLALRTables() {
+        LROneTable<NT, T, Production<NT, T>> canonical = new LROneTable<>(NESTED_G);
+        LROneTable<NT, T, Production<NT, T>> lalr = new LROneTable<>(NESTED_G, TableConstruction.LALR);
+
+        assertEquals(10, canonical.getCC().length());
+        assertEquals(6, lalr.getCC().length());
+
+        // Canonical tables are still built for grammars which are not LALR(1).
+        new LROneTable<>(NOT_LALR_G);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+            new LROneTable<>(NOT_LALR_G, TableConstruction.LALR);
+        });
+
+        assertTrue(e.getMessage().contains("reduce/reduce"));
+    }
+
+    // Run a table over a sequence of terminals, determining whether they are accepted.
+    private static boolean accepts(LROneTable<NT, T, Production<NT, T>> table, List<T> input) {
+        List<Integer> states = List.of(0);
+        List<T> left = input;
+
+        while (true) {
+            int state = states.head();
+            Either<Integer, Production<NT, T>> move = left.isEmpty()
+                    ? table.actionMove(state)
+                    : table.actionMove(state, left.head());
+
+            if (move.isLeft()) {
+                if (move.getLeft() == 0) {
+                    return false;
+                }
+
+                states = states.prepend(move.getLeft());
+                left = left.tail();
+            } else {
+                Production<NT, T> production = move.get();
+                states = states.drop(production.getRule().length());
+
+                if (production.getSource() == NT.A) {
+                    return left.isEmpty();
+                }
+
+                states = states.prepend(table.gotoShift(states.head(), production.getSource()));
+            }
+        }
+    }
+
+    @Test
+    void testPagerTables() {
+        // Pager merging is as compact as LALR(1) merging when LALR(1) merging is safe.
+        assertEquals(6, new LROneTable<>(NESTED_G, TableConstruction.PAGER).getCC().length());
+
+        LROneTable<NT, T, Production<NT, T>> canonical = new LROneTable<>(NOT_LALR_G);
+        LROneTable<NT, T, Production<NT, T>> pager = new LROneTable<>(NOT_LALR_G, TableConstruction.PAGER);
+
+        // The only states with equal cores are the two reached on I, which are not weakly compatible.
+        assertEquals(canonical.getCC().length(), pager.getCC().length());
+
+        for (LROneTable<NT, T, Production<NT, T>> table : List.of(canonical, pager)) {
+            assertTrue(accepts(table, List.of(T.E, T.I, T.G)));
+            assertTrue(accepts(table, List.of(T.F, T.I, T.G)));
+            assertTrue(accepts(table, List.of(T.E, T.I, T.H)));
+            assertTrue(accepts(table, List.of(T.F, T.I, T.H)));
+            assertFalse(accepts(table, List.of(T.E, T.I)));
+            assertFalse(accepts(table, List.of(T.I, T.G)));
+        }
+    }
+
+    @Test
+    void testCompactTables() {
+        for (TableConstruction construction : List.of(TableConstruction.CANONICAL, TableConstruction.PAGER)) {
+            LROneTable<NT, T, Production<NT, T>> table = new LROneTable<>(NOT_LALR_G, construction);
+            CompactLROneTable<NT, T, Production<NT, T>> compact = table.compact();
+
+            assertEquals(table.getActionTable().length(), compact.getNumberOfStates());
+
+            for (int state = 0; state < compact.getNumberOfStates(); state++) {
+                assertAction(table.actionMove(state), compact, compact.actionMove(state));
+
+                for (T t : T.values()) {
+                    assertAction(table.actionMove(state, t), compact, compact.actionMove(state, t));
+                }
+
+                for (NT nt : List.of(NT.B, NT.C, NT.D)) {
+                    assertEquals(table.gotoShift(state, nt).intValue(), compact.gotoShift(state, nt));
+                }
+
+                // The start symbol is never shifted on.
+                assertEquals(0, compact.gotoShift(state, NT.A));
+            }
+
+            // Dense, there are 5 terminal columns, eof, and 3 non-terminal columns per state.
+            assertTrue(compact.getPackedSize() < compact.getNumberOfStates() * 9);
+        }
+
+        // Terminals missing from the grammar are errors, rather than illegal arguments.
+        CompactLROneTable<NT, T, Production<NT, T>> nested = new LROneTable<>(NESTED_G).compact();
+        assertTrue(CompactLROneTable.isError(nested.actionMove(0, T.I)));
+        assertThrows(IndexOutOfBoundsException.class, () -> nested.actionMove(nested.getNumberOfStates()));
+    }
+
+    // Compact actions match dense ones, except errors may be replaced by default reductions.
+    private static void assertAction(Either<Integer, Production<NT, T>> expected,
+                                     CompactLROneTable<NT, T, Production<NT, T>> compact, int action) {
+        if (CompactLROneTable.isReduce(action)) {
+            Production<NT, T> production = compact.getProduction(CompactLROneTable.reduction(action));
+            assertTrue(expected.equals(right(production)) || expected.equals(left(0)));
+        } else {
+            assertEquals(expected, left(action));
+        }
     }
 }
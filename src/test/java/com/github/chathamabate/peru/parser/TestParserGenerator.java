@@ -0,0 +1,150 @@
+package com.github.chathamabate.peru.parser;
+
+import com.github.chathamabate.peru.parser.grammar.CFGrammar;
+import com.github.chathamabate.peru.parser.grammar.Production;
+import com.github.chathamabate.peru.parser.grammar.SemanticCFGrammar;
+import com.github.chathamabate.peru.parser.grammar.SemanticProduction;
+import com.github.chathamabate.peru.parser.lrone.GeneratedTable;
+import com.github.chathamabate.peru.parser.lrone.LROneParser;
+import com.github.chathamabate.peru.parser.lrone.ParserGenerator;
+import com.github.chathamabate.peru.parser.lrone.TableConstruction;
+import io.vavr.CheckedFunction2;
+import io.vavr.Function0;
+import io.vavr.Function1;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class TestParserGenerator {
+
+    // Generated parsers live in other class loaders, so the symbol types must be public.
+    public enum NT {
+        GOAL,
+        LIST
+    }
+
+    public enum T {
+        NUMBER,
+        COMMA
+    }
+
+    public static final class Token implements Tokenized<T> {
+        private final T type;
+
+        private Token(T t) {
+            type = t;
+        }
+
+        @Override
+        public T getTokenType() {
+            return type;
+        }
+    }
+
+    // GOAL -> LIST, LIST -> LIST , NUMBER | NUMBER (Sums a list of numbers)
+    public static final SemanticCFGrammar<NT, T, SemanticProduction<NT, T, Integer>, String, Token, Integer> G =
+            new SemanticCFGrammar<>(NT.GOAL, HashMap.<T, CheckedFunction2<String, Token, Integer>>of(
+                    T.NUMBER, (l, d) -> Integer.parseInt(l),
+                    T.COMMA, (l, d) -> 0
+            ), List.of(
+                    new SemanticProduction<NT, T, Integer>(NT.GOAL, List.of(left(NT.LIST))) {
+                        @Override
+                        protected Integer buildResultUnchecked(Seq<Integer> children) {
+                            return children.get(0);
+                        }
+                    },
+                    new SemanticProduction<NT, T, Integer>(NT.LIST,
+                            List.of(left(NT.LIST), right(T.COMMA), right(T.NUMBER))) {
+                        @Override
+                        protected Integer buildResultUnchecked(Seq<Integer> children) {
+                            return children.get(0) + children.get(2);
+                        }
+                    },
+                    new SemanticProduction<NT, T, Integer>(NT.LIST, List.of(right(T.NUMBER))) {
+                        @Override
+                        protected Integer buildResultUnchecked(Seq<Integer> children) {
+                            return children.get(0);
+                        }
+                    }
+            ));
+
+    private static Seq<Tuple2<String, Token>> tokens(String input) {
+        return List.ofAll(input.toCharArray()).map(c -> c == ','
+                ? Tuple.of(",", new Token(T.COMMA))
+                : Tuple.of(c + "", new Token(T.NUMBER)));
+    }
+
+    @Test
+    void testGeneratedTables() throws Throwable {
+        GeneratedTable table = ParserGenerator.generateTable(G, TableConstruction.LALR);
+
+        LROneParser<NT, T, String, Token, Integer> parser =
+                new LROneParser<NT, T, String, Token, Integer>(G, table) {
+            @Override
+            protected Throwable onError(Tuple2<String, Token> lookAhead) {
+                return new Exception();
+            }
+
+            @Override
+            protected Throwable onError() {
+                return new Exception();
+            }
+        };
+
+        assertEquals(Integer.valueOf(12), parser.parse(tokens("3,4,5")));
+        assertTrue(parser.tryParse(tokens("3,,5")).isFailure());
+
+        // Tables only decode for the grammar they were generated from.
+        CFGrammar<NT, T, Production<NT, T>> other = new CFGrammar<>(NT.GOAL, List.of(
+                new Production<>(NT.GOAL, List.of(right(T.NUMBER)))
+        ));
+        assertThrows(IllegalArgumentException.class, () -> table.decode(other));
+        assertThrows(IllegalStateException.class, () ->
+                GeneratedTable.of(table.getFingerprint(), TableConstruction.LALR, "AAAA").decode(G));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGeneratedSource(@TempDir Path dir) throws Throwable {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null);
+
+        Path source = ParserGenerator.generate(TestParserGenerator.class.getName() + "#G", TableConstruction.LALR,
+                "generated.SumParser", dir, getClass().getClassLoader()).get();
+
+        assertEquals(dir.resolve("generated/SumParser.java"), source);
+        assertEquals(0, compiler.run(null, null, null,
+                "-classpath", System.getProperty("java.class.path"), "-d", dir.toString(), source.toString()));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, getClass().getClassLoader())) {
+            Parser<T, String, Token, Integer> parser = (Parser<T, String, Token, Integer>) loader
+                    .loadClass("generated.SumParser")
+                    .getConstructor(SemanticCFGrammar.class, Function1.class, Function0.class)
+                    .newInstance(G, (Function1<Object, Throwable>) t -> new Exception(),
+                            (Function0<Throwable>) Exception::new);
+
+            assertEquals(Integer.valueOf(7), parser.parse(tokens("1,1,5")));
+            assertTrue(parser.tryParse(tokens("1,")).isFailure());
+        }
+
+        assertTrue(new String(Files.readAllBytes(source)).contains("extends LROneParser<"));
+        assertTrue(ParserGenerator.findGrammar(TestParserGenerator.class.getName() + "#MISSING",
+                getClass().getClassLoader()).isFailure());
+    }
+}